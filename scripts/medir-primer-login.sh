@@ -0,0 +1,75 @@
+#!/usr/bin/env bash
+#
+# Mide el tiempo desde el lanzamiento de la JVM hasta el primer inicio de sesión exitoso
+# y lo añade al historial de mediciones (CSV) para seguir su evolución en el tiempo.
+#
+# Requisitos: haber ejecutado "mvn -Pcds package", una base de datos accesible con el
+# esquema creado y un usuario existente con las credenciales indicadas.
+#
+# Uso:
+#   scripts/medir-primer-login.sh [--sin-cds] [correo] [clave]
+#
+# Variables de entorno opcionales:
+#   PUERTO     Puerto HTTP de la aplicación (por defecto 8080).
+#   HISTORIAL  Archivo CSV de resultados (por defecto mediciones/primer-login.csv).
+#   JAVA_OPTS  Opciones adicionales para la JVM.
+
+set -euo pipefail
+
+MODO="cds"
+if [[ "${1:-}" == "--sin-cds" ]]; then
+    MODO="sin-cds"
+    shift
+fi
+
+CORREO="${1:-medicion@miapp.com}"
+CLAVE="${2:-medicion1234}"
+PUERTO="${PUERTO:-8080}"
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+HISTORIAL="${HISTORIAL:-$RAIZ/mediciones/primer-login.csv}"
+DIR_CDS="$RAIZ/target/cds"
+JAR="$(ls "$DIR_CDS"/*.jar 2>/dev/null | head -n 1 || true)"
+
+if [[ -z "$JAR" ]]; then
+    echo "No se encontró el jar extraído en $DIR_CDS. Ejecute primero: mvn -Pcds package" >&2
+    exit 1
+fi
+
+OPCIONES_CDS=()
+if [[ "$MODO" == "cds" ]]; then
+    OPCIONES_CDS=("-XX:SharedArchiveFile=$DIR_CDS/app.jsa")
+fi
+
+inicio=$(date +%s%N)
+java ${JAVA_OPTS:-} "${OPCIONES_CDS[@]}" -jar "$JAR" \
+    --spring.profiles.active=prod --server.port="$PUERTO" > /dev/null 2>&1 &
+PID=$!
+trap 'kill "$PID" 2>/dev/null || true' EXIT
+
+# Se consulta el login cada 20 ms hasta obtener un 200 o agotar 120 segundos
+limite=$((inicio + 120000000000))
+until curl -sf -o /dev/null -X POST "http://localhost:$PUERTO/api/auth/login" \
+        -H "Content-Type: application/json" \
+        -d "{\"correo\":\"$CORREO\",\"clave\":\"$CLAVE\"}"; do
+    if ! kill -0 "$PID" 2>/dev/null; then
+        echo "La aplicación terminó antes de responder al login." >&2
+        exit 1
+    fi
+    if (( $(date +%s%N) > limite )); then
+        echo "Tiempo de espera agotado esperando el primer login exitoso." >&2
+        exit 1
+    fi
+    sleep 0.02
+done
+fin=$(date +%s%N)
+milisegundos=$(( (fin - inicio) / 1000000 ))
+
+mkdir -p "$(dirname "$HISTORIAL")"
+if [[ ! -f "$HISTORIAL" ]]; then
+    echo "fecha,commit,modo,java,milisegundos" > "$HISTORIAL"
+fi
+commit="$(git -C "$RAIZ" rev-parse --short HEAD 2>/dev/null || echo desconocido)"
+version_java="$(java -version 2>&1 | head -n 1 | awk -F '"' '{print $2}')"
+echo "$(date -u +%Y-%m-%dT%H:%M:%SZ),$commit,$MODO,$version_java,$milisegundos" >> "$HISTORIAL"
+
+echo "Primer login exitoso en $milisegundos ms ($MODO). Resultado añadido a $HISTORIAL"
@@ -0,0 +1,146 @@
+package com.dev.sistemaautenticacion.busqueda;
+
+import com.dev.sistemaautenticacion.dto.SugerenciaUsuario;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Búsqueda de usuarios para el autocompletado de la consola de administración.
+ * Mantiene un {@link IndiceAutocompletado} que se construye al arrancar leyendo la tabla
+ * "usuario" en modo streaming (sin cargarla entera en memoria) y que se actualiza desde
+ * las operaciones de escritura de la capa de servicios.
+ */
+@Component
+public class BusquedaUsuarios {
+
+    private static final Logger log = LoggerFactory.getLogger(BusquedaUsuarios.class);
+
+    private final IndiceAutocompletado indice = new IndiceAutocompletado();
+    private final JdbcTemplate jdbcTemplate;
+    private final int limiteMaximo;
+
+    private final Set<Integer> eliminadosDuranteCarga = ConcurrentHashMap.newKeySet();
+    private volatile boolean cargando = true;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate Plantilla JDBC para la carga inicial del índice.
+     * @param limiteMaximo Número máximo de sugerencias que puede solicitar un cliente.
+     */
+    @Autowired
+    public BusquedaUsuarios(JdbcTemplate jdbcTemplate,
+                            @Value("${usuarios.autocompletado.limite-maximo:50}") int limiteMaximo) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.limiteMaximo = limiteMaximo;
+    }
+
+    /**
+     * Construye el índice en segundo plano una vez que la aplicación está lista,
+     * para no retrasar el arranque ni la atención de los primeros inicios de sesión.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlArrancar() {
+        Thread hilo = new Thread(this::cargar, "carga-indice-autocompletado");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Recorre la tabla de usuarios en modo streaming y añade cada fila al índice.
+     * Las filas modificadas o eliminadas durante la carga conservan su versión más reciente.
+     */
+    void cargar() {
+        long inicio = System.nanoTime();
+        try {
+            jdbcTemplate.query(conexion -> {
+                PreparedStatement sentencia = conexion.prepareStatement("SELECT id, nombre, apellido, correo FROM usuario WHERE eliminado = 0",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                // Con MySQL Connector/J, Integer.MIN_VALUE activa la lectura fila a fila
+                sentencia.setFetchSize(Integer.MIN_VALUE);
+                return sentencia;
+            }, fila -> {
+                int id = fila.getInt(1);
+                if (!eliminadosDuranteCarga.contains(id)) {
+                    indice.agregarSiNoExiste(id, fila.getString(2), fila.getString(3), fila.getString(4));
+                }
+            });
+            indice.ajustarCapacidad();
+            long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+            int usuarios = indice.tamano();
+            long bytes = indice.bytesEstimados();
+            log.info("Índice de autocompletado cargado: {} usuarios, {} n-gramas, {} MB ({} MB por millón de usuarios) en {} ms",
+                    usuarios, indice.totalNGramas(), bytes / (1024 * 1024),
+                    usuarios == 0 ? 0 : bytes * 1_000_000 / usuarios / (1024 * 1024), milisegundos);
+        } catch (RuntimeException e) {
+            log.error("No se pudo cargar el índice de autocompletado", e);
+        } finally {
+            cargando = false;
+            eliminadosDuranteCarga.clear();
+        }
+    }
+
+    /**
+     * Busca sugerencias de usuarios para el texto indicado.
+     *
+     * @param consulta El texto escrito en la consola de administración.
+     * @param limite Número máximo de sugerencias (acotado por la configuración).
+     * @return Las sugerencias ordenadas por relevancia.
+     */
+    public List<SugerenciaUsuario> autocompletar(String consulta, int limite) {
+        return indice.buscar(consulta, Math.min(limite, limiteMaximo));
+    }
+
+    /**
+     * Añade o actualiza un usuario en el índice.
+     *
+     * @param id El ID del usuario.
+     * @param nombre El nombre del usuario.
+     * @param apellido El apellido del usuario.
+     * @param correo El correo del usuario.
+     */
+    public void indexar(Integer id, String nombre, String apellido, String correo) {
+        indice.agregar(id, nombre, apellido, correo);
+    }
+
+    /**
+     * Elimina un usuario del índice.
+     *
+     * @param id El ID del usuario.
+     */
+    public void eliminar(Integer id) {
+        if (cargando) {
+            eliminadosDuranteCarga.add(id);
+        }
+        indice.eliminar(id);
+    }
+
+    /**
+     * @return El estado del índice: si está cargando, usuarios indexados, n-gramas y memoria estimada.
+     */
+    public Map<String, Object> estadisticas() {
+        int usuarios = indice.tamano();
+        long bytes = indice.bytesEstimados();
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("cargando", cargando);
+        estadisticas.put("usuarios", usuarios);
+        estadisticas.put("nGramas", indice.totalNGramas());
+        estadisticas.put("bytesEstimados", bytes);
+        estadisticas.put("bytesPorMillonDeUsuarios", usuarios == 0 ? 0 : bytes * 1_000_000 / usuarios);
+        return estadisticas;
+    }
+}
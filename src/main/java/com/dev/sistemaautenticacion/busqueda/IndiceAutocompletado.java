@@ -0,0 +1,751 @@
+package com.dev.sistemaautenticacion.busqueda;
+
+import com.dev.sistemaautenticacion.dto.SugerenciaUsuario;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria de n-gramas para el autocompletado sobre nombre, apellido y correo.
+ * Cada usuario se guarda como un documento de posición fija: su ID en un arreglo de enteros y sus
+ * tres campos, separados por un carácter de control, en una única arena de bytes UTF-8, tanto en su
+ * forma original (la que se devuelve) como normalizada (sobre la que se puntúa sin crear cadenas).
+ * Cada n-grama apunta a una lista de posiciones almacenada en un arreglo de enteros primitivos, y
+ * tanto los n-gramas como los IDs se resuelven con tablas hash de claves primitivas.
+ * Además de los trigramas de cualquier posición se indexan los prefijos (de uno a tres caracteres)
+ * del inicio de cada campo y del inicio de cada una de las demás palabras, de modo que las búsquedas
+ * recorren primero los candidatos de la clase de coincidencia más relevante.
+ * Las actualizaciones marcan el documento anterior como eliminado y añaden uno nuevo;
+ * cuando los eliminados superan una cuarta parte del índice, este se compacta.
+ * Es seguro para uso concurrente: las búsquedas comparten un bloqueo de lectura.
+ */
+public class IndiceAutocompletado {
+
+    private static final Pattern SEPARADORES = Pattern.compile("[\\s.@_+\\-]+");
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final char SEPARADOR_CAMPOS = '\u0001';
+    private static final char[] NORMALIZACION_LATINA = tablaDeNormalizacion();
+
+    /**
+     * Número máximo de candidatos que se puntúan por consulta. Acota el tiempo de respuesta
+     * de los términos muy cortos, que pueden coincidir con gran parte del índice. Como los candidatos
+     * se recorren por clase de coincidencia, el límite solo descarta candidatos de una clase igual
+     * o inferior a la de los ya evaluados.
+     */
+    private static final int MAXIMO_CANDIDATOS_EVALUADOS = 1_000;
+
+    /**
+     * Número de términos de la consulta cuyas clases de coincidencia se combinan al ordenar los
+     * recorridos; los siguientes términos se filtran siempre con su lista más amplia.
+     */
+    private static final int MAXIMO_TERMINOS_POR_CLASE = 4;
+
+    private static final int CLASE_CAMPO = 3;
+    private static final int CLASE_PALABRA = 2;
+    private static final int CLASE_SUBCADENA = 1;
+    private static final long MARCA_INICIO_PALABRA = 1L << 50;
+    private static final long MARCA_INICIO_CAMPO = 2L << 50;
+
+    private final ReentrantReadWriteLock bloqueo = new ReentrantReadWriteLock();
+
+    private int[] ids = new int[1024];
+    private long[] textos = new long[1024];
+    private long[] normalizados = new long[1024];
+    private byte[] arena = new byte[64 * 1024];
+    private int arenaUsada;
+    private int totalDocumentos;
+    private final BitSet eliminados = new BitSet();
+    private int totalEliminados;
+
+    private final MapaPrimitivo documentoPorId = new MapaPrimitivo();
+    private final MapaPrimitivo listaPorNGrama = new MapaPrimitivo();
+    private ListaPosiciones[] listas = new ListaPosiciones[1024];
+    private int totalListas;
+
+    /**
+     * Añade o reemplaza un usuario en el índice.
+     *
+     * @param id El ID del usuario.
+     * @param nombre El nombre del usuario.
+     * @param apellido El apellido del usuario.
+     * @param correo El correo del usuario.
+     */
+    public void agregar(int id, String nombre, String apellido, String correo) {
+        bloqueo.writeLock().lock();
+        try {
+            marcarEliminado(id);
+            indexar(id, unir(nombre, apellido, correo));
+            if (totalEliminados > 1024 && totalEliminados * 4 > totalDocumentos) {
+                compactar();
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Añade un usuario solo si no está ya indexado.
+     * Se utiliza durante la carga inicial para no sobrescribir cambios más recientes.
+     *
+     * @param id El ID del usuario.
+     * @param nombre El nombre del usuario.
+     * @param apellido El apellido del usuario.
+     * @param correo El correo del usuario.
+     */
+    public void agregarSiNoExiste(int id, String nombre, String apellido, String correo) {
+        bloqueo.writeLock().lock();
+        try {
+            if (documentoPorId.obtener(id) < 0) {
+                indexar(id, unir(nombre, apellido, correo));
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina un usuario del índice.
+     *
+     * @param id El ID del usuario.
+     */
+    public void eliminar(int id) {
+        bloqueo.writeLock().lock();
+        try {
+            marcarEliminado(id);
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca los usuarios cuyo nombre, apellido o correo contienen todos los términos de la consulta.
+     * Los resultados se ordenan por relevancia: coincidencia al inicio del campo, al inicio
+     * de una palabra y, por último, en cualquier posición.
+     *
+     * @param consulta El texto escrito por el usuario.
+     * @param limite Número máximo de resultados.
+     * @return Las sugerencias ordenadas por relevancia.
+     */
+    public List<SugerenciaUsuario> buscar(String consulta, int limite) {
+        String[] terminos = SEPARADORES.split(normalizar(consulta).trim());
+        if (limite <= 0 || terminos.length == 0 || terminos[0].isEmpty()) {
+            return List.of();
+        }
+        bloqueo.readLock().lock();
+        try {
+            PriorityQueue<long[]> mejores = new PriorityQueue<>(limite + 1,
+                    Comparator.<long[]>comparingLong(r -> r[0]).thenComparingLong(r -> -r[1]));
+            byte[][] terminosUtf8 = new byte[terminos.length][];
+            for (int t = 0; t < terminos.length; t++) {
+                terminosUtf8[t] = terminos[t].getBytes(StandardCharsets.UTF_8);
+            }
+            BitSet evaluados = new BitSet();
+            int totalEvaluados = 0;
+            // Cada combinación fija la clase mínima de coincidencia de cada término; se recorren de mayor
+            // a menor relevancia posible y se termina cuando ninguna restante puede mejorar el resultado
+            for (int[] clases : combinacionesDeClases(terminos)) {
+                int relevanciaMaxima = Arrays.stream(clases).sum();
+                if (totalEvaluados >= MAXIMO_CANDIDATOS_EVALUADOS
+                        || (mejores.size() == limite && mejores.peek()[0] / 256 > relevanciaMaxima)) {
+                    break;
+                }
+                ListaPosiciones[] candidatas = listasDePosiciones(terminos, clases);
+                if (candidatas != null) {
+                    totalEvaluados = evaluar(candidatas, terminosUtf8, limite, mejores, evaluados, totalEvaluados);
+                }
+            }
+            List<SugerenciaUsuario> resultado = new ArrayList<>(mejores.size());
+            while (!mejores.isEmpty()) {
+                resultado.add(sugerencia((int) mejores.poll()[1]));
+            }
+            Collections.reverse(resultado);
+            return resultado;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reduce los arreglos del índice a su tamaño ocupado, liberando el margen de crecimiento que
+     * dejan las inserciones. Se invoca al terminar la carga inicial.
+     */
+    public void ajustarCapacidad() {
+        bloqueo.writeLock().lock();
+        try {
+            for (int i = 0; i < totalListas; i++) {
+                listas[i].ajustar();
+            }
+            arena = Arrays.copyOf(arena, arenaUsada);
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return El número de usuarios indexados (sin contar los eliminados).
+     */
+    public int tamano() {
+        bloqueo.readLock().lock();
+        try {
+            return totalDocumentos - totalEliminados;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estima la memoria ocupada por el índice en la pila de Java: los arreglos de documentos, la arena
+     * de textos, las tablas hash y las listas de posiciones, con los tamaños habituales de una JVM de
+     * 64 bits con referencias comprimidas.
+     *
+     * @return El número aproximado de bytes ocupados.
+     */
+    public long bytesEstimados() {
+        bloqueo.readLock().lock();
+        try {
+            long bytes = 16L + ids.length * 4L + 2 * (16L + textos.length * 8L) + 16L + arena.length
+                    + documentoPorId.bytesEstimados() + listaPorNGrama.bytesEstimados() + 16L + listas.length * 4L;
+            for (int i = 0; i < totalListas; i++) {
+                // Objeto lista (24) + arreglo de posiciones
+                bytes += 24L + 16L + listas[i].posiciones.length * 4L;
+            }
+            return bytes;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return El número de n-gramas distintos indexados.
+     */
+    public int totalNGramas() {
+        bloqueo.readLock().lock();
+        try {
+            return totalListas;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recorre la intersección de las listas y puntúa los documentos aún no evaluados.
+     * Intersección perezosa: se recorre la lista más corta y se avanzan cursores en las demás,
+     * de modo que el coste depende de los candidatos evaluados y no del tamaño de las listas.
+     *
+     * @return El número total de documentos evaluados en la consulta.
+     */
+    private int evaluar(ListaPosiciones[] candidatas, byte[][] terminos, int limite, PriorityQueue<long[]> mejores,
+                        BitSet evaluados, int totalEvaluados) {
+        int[] cursores = new int[candidatas.length];
+        ListaPosiciones base = candidatas[0];
+        recorrido:
+        for (int i = 0; i < base.tamano && totalEvaluados < MAXIMO_CANDIDATOS_EVALUADOS; i++) {
+            int documento = base.posiciones[i];
+            for (int l = 1; l < candidatas.length; l++) {
+                cursores[l] = candidatas[l].avanzarHasta(cursores[l], documento);
+                if (cursores[l] == candidatas[l].tamano) {
+                    break recorrido;
+                }
+                if (candidatas[l].posiciones[cursores[l]] != documento) {
+                    continue recorrido;
+                }
+            }
+            if (eliminados.get(documento) || evaluados.get(documento)) {
+                continue;
+            }
+            evaluados.set(documento);
+            totalEvaluados++;
+            int puntuacion = puntuar(documento, terminos);
+            if (puntuacion > 0) {
+                mejores.add(new long[]{puntuacion, documento});
+                if (mejores.size() > limite) {
+                    mejores.poll();
+                }
+            }
+        }
+        return totalEvaluados;
+    }
+
+    private void indexar(int id, String texto) {
+        int documento = totalDocumentos++;
+        if (documento == ids.length) {
+            int capacidad = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacidad);
+            textos = Arrays.copyOf(textos, capacidad);
+            normalizados = Arrays.copyOf(normalizados, capacidad);
+        }
+        String normalizado = normalizar(texto);
+        ids[documento] = id;
+        textos[documento] = guardarTexto(texto);
+        normalizados[documento] = guardarTexto(normalizado);
+        documentoPorId.poner(id, documento);
+        for (String campo : normalizado.split(String.valueOf(SEPARADOR_CAMPOS), -1)) {
+            indexarCampo(documento, campo);
+        }
+    }
+
+    private void indexarCampo(int documento, String texto) {
+        if (texto.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            agregarPosicion(codificar(texto.charAt(i), texto.charAt(i + 1), texto.charAt(i + 2)), documento);
+        }
+        String[] palabras = SEPARADORES.split(texto);
+        for (int p = 0; p < palabras.length; p++) {
+            String palabra = palabras[p];
+            // La primera palabra empieza el campo (salvo que el campo empiece por un separador, en cuyo
+            // caso es una cadena vacía); las demás solo empiezan una palabra
+            long marca = p == 0 ? MARCA_INICIO_CAMPO : MARCA_INICIO_PALABRA;
+            for (int longitud = 1; longitud <= Math.min(3, palabra.length()); longitud++) {
+                agregarPosicion(codificarPrefijo(palabra, longitud, marca), documento);
+            }
+        }
+    }
+
+    private void agregarPosicion(long ngrama, int documento) {
+        int lista = listaPorNGrama.obtener(ngrama);
+        if (lista < 0) {
+            if (totalListas == listas.length) {
+                listas = Arrays.copyOf(listas, totalListas * 2);
+            }
+            lista = totalListas++;
+            listas[lista] = new ListaPosiciones();
+            listaPorNGrama.poner(ngrama, lista);
+        }
+        listas[lista].agregar(documento);
+    }
+
+    private void marcarEliminado(int id) {
+        int documento = documentoPorId.quitar(id);
+        if (documento >= 0) {
+            eliminados.set(documento);
+            totalEliminados++;
+        }
+    }
+
+    /**
+     * Reconstruye el índice descartando los documentos eliminados.
+     */
+    private void compactar() {
+        int[] idsAnteriores = ids;
+        long[] textosAnteriores = textos;
+        byte[] arenaAnterior = arena;
+        int totalAnterior = totalDocumentos;
+        BitSet eliminadosAnteriores = (BitSet) eliminados.clone();
+
+        int capacidad = Math.max(1024, Integer.highestOneBit(Math.max(1, totalAnterior - totalEliminados)) * 2);
+        ids = new int[capacidad];
+        textos = new long[capacidad];
+        normalizados = new long[capacidad];
+        arena = new byte[Math.max(64 * 1024, arenaUsada / 2)];
+        arenaUsada = 0;
+        totalDocumentos = 0;
+        eliminados.clear();
+        totalEliminados = 0;
+        documentoPorId.limpiar();
+        listaPorNGrama.limpiar();
+        listas = new ListaPosiciones[1024];
+        totalListas = 0;
+        for (int i = 0; i < totalAnterior; i++) {
+            if (!eliminadosAnteriores.get(i)) {
+                indexar(idsAnteriores[i], leerTexto(arenaAnterior, textosAnteriores[i]));
+            }
+        }
+    }
+
+    /**
+     * Enumera las combinaciones de clase mínima de coincidencia de cada término, ordenadas de mayor
+     * a menor suma. Los términos de uno o dos caracteres solo puntúan al inicio de un campo o palabra.
+     */
+    private static List<int[]> combinacionesDeClases(String[] terminos) {
+        List<int[]> combinaciones = new ArrayList<>();
+        combinaciones.add(new int[terminos.length]);
+        for (int t = 0; t < terminos.length; t++) {
+            int minima = terminos[t].length() < 3 ? CLASE_PALABRA : CLASE_SUBCADENA;
+            int maxima = t < MAXIMO_TERMINOS_POR_CLASE ? CLASE_CAMPO : minima;
+            List<int[]> ampliadas = new ArrayList<>();
+            for (int[] combinacion : combinaciones) {
+                for (int clase = maxima; clase >= minima; clase--) {
+                    int[] ampliada = combinacion.clone();
+                    ampliada[t] = clase;
+                    ampliadas.add(ampliada);
+                }
+            }
+            combinaciones = ampliadas;
+        }
+        combinaciones.sort(Comparator.comparingInt((int[] clases) -> Arrays.stream(clases).sum()).reversed());
+        return combinaciones;
+    }
+
+    /**
+     * Obtiene las listas de posiciones de los documentos cuyos términos coinciden con las clases indicadas,
+     * ordenadas de menor a mayor tamaño, o null si alguna no existe. Las listas de inicio de palabra no
+     * incluyen la primera palabra de cada campo: esos documentos aparecen en la combinación con inicio
+     * de campo, que tiene mayor relevancia y se recorre antes. Las listas de trigramas incluyen todas
+     * las clases, por lo que la puntuación verifica después la coincidencia real.
+     */
+    private ListaPosiciones[] listasDePosiciones(String[] terminos, int[] clases) {
+        List<ListaPosiciones> resultado = new ArrayList<>();
+        for (int t = 0; t < terminos.length; t++) {
+            String termino = terminos[t];
+            if (clases[t] > CLASE_SUBCADENA) {
+                long marca = clases[t] == CLASE_CAMPO ? MARCA_INICIO_CAMPO : MARCA_INICIO_PALABRA;
+                if (!agregarLista(resultado, codificarPrefijo(termino, Math.min(3, termino.length()), marca))) {
+                    return null;
+                }
+            }
+            // Basta con trigramas que cubran el término sin solaparse (más el último):
+            // la puntuación verifica después la subcadena completa
+            for (int i = 0; i + 3 <= termino.length(); i = Math.min(i + 3, Math.max(i + 1, termino.length() - 3))) {
+                if (!agregarLista(resultado, codificar(termino.charAt(i), termino.charAt(i + 1), termino.charAt(i + 2)))) {
+                    return null;
+                }
+            }
+        }
+        resultado.sort(Comparator.comparingInt(lista -> lista.tamano));
+        return resultado.toArray(new ListaPosiciones[0]);
+    }
+
+    private boolean agregarLista(List<ListaPosiciones> resultado, long ngrama) {
+        int lista = listaPorNGrama.obtener(ngrama);
+        if (lista < 0) {
+            return false;
+        }
+        resultado.add(listas[lista]);
+        return true;
+    }
+
+    /**
+     * Calcula la relevancia de un documento para los términos, o 0 si alguno no coincide.
+     * Compara los bytes UTF-8 del texto normalizado en la arena: al ser UTF-8 autosincronizable,
+     * una coincidencia de bytes siempre empieza y termina en un límite de carácter.
+     */
+    private int puntuar(int documento, byte[][] terminos) {
+        long referencia = normalizados[documento];
+        int inicio = (int) (referencia >>> 32);
+        int fin = inicio + (int) referencia;
+        int total = 0;
+        for (byte[] termino : terminos) {
+            int puntos = puntuarTermino(inicio, fin, termino);
+            if (puntos == 0) {
+                return 0;
+            }
+            total += puntos;
+        }
+        // A igual relevancia se prefieren los nombres completos más cortos (coincidencias más exactas)
+        int longitudNombreCompleto = 0;
+        for (int i = fin - 1; i >= inicio; i--) {
+            if (arena[i] == SEPARADOR_CAMPOS) {
+                longitudNombreCompleto = i - inicio;
+                break;
+            }
+        }
+        return total * 256 + Math.max(0, 255 - longitudNombreCompleto);
+    }
+
+    /**
+     * Puntúa un término: 3 si un campo empieza por él, 2 si una palabra empieza por él,
+     * 1 si aparece en cualquier posición (solo términos de tres o más caracteres) y 0 si no aparece.
+     */
+    private int puntuarTermino(int inicio, int fin, byte[] termino) {
+        int caracteres = 0;
+        for (byte octeto : termino) {
+            // Los bytes de continuación de UTF-8 tienen la forma 10xxxxxx
+            caracteres += (octeto & 0xC0) == 0x80 ? 0 : 1;
+        }
+        boolean admiteSubcadena = caracteres >= 3;
+        int mejor = 0;
+        int posicion = buscarEnArena(fin, termino, inicio);
+        while (posicion >= 0 && mejor < CLASE_CAMPO) {
+            byte anterior = posicion == inicio ? (byte) SEPARADOR_CAMPOS : arena[posicion - 1];
+            if (anterior == SEPARADOR_CAMPOS) {
+                mejor = CLASE_CAMPO;
+            } else if (anterior >= 0 && esSeparador((char) anterior)) {
+                mejor = Math.max(mejor, CLASE_PALABRA);
+            } else if (admiteSubcadena) {
+                mejor = Math.max(mejor, CLASE_SUBCADENA);
+            }
+            posicion = buscarEnArena(fin, termino, posicion + 1);
+        }
+        return mejor;
+    }
+
+    /**
+     * @return La primera posición de la arena, entre desde y fin, en la que aparece el término, o -1.
+     */
+    private int buscarEnArena(int fin, byte[] termino, int desde) {
+        byte primero = termino[0];
+        busqueda:
+        for (int i = desde; i + termino.length <= fin; i++) {
+            if (arena[i] != primero) {
+                continue;
+            }
+            for (int j = 1; j < termino.length; j++) {
+                if (arena[i + j] != termino[j]) {
+                    continue busqueda;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private SugerenciaUsuario sugerencia(int documento) {
+        String[] campos = leerTexto(arena, textos[documento]).split(String.valueOf(SEPARADOR_CAMPOS), -1);
+        return new SugerenciaUsuario(ids[documento], campos[0], campos[1], campos[2]);
+    }
+
+    /**
+     * Copia el texto en la arena y devuelve su referencia: posición (32 bits altos) y longitud en bytes.
+     */
+    private long guardarTexto(String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (arena.length - arenaUsada < bytes.length) {
+            arena = Arrays.copyOf(arena, Math.max(arenaUsada + bytes.length, arena.length * 2));
+        }
+        System.arraycopy(bytes, 0, arena, arenaUsada, bytes.length);
+        long referencia = ((long) arenaUsada << 32) | bytes.length;
+        arenaUsada += bytes.length;
+        return referencia;
+    }
+
+    private static String leerTexto(byte[] arena, long referencia) {
+        return new String(arena, (int) (referencia >>> 32), (int) referencia, StandardCharsets.UTF_8);
+    }
+
+    private static String unir(String nombre, String apellido, String correo) {
+        return nombre + SEPARADOR_CAMPOS + apellido + SEPARADOR_CAMPOS + correo;
+    }
+
+    private static boolean esSeparador(char caracter) {
+        return Character.isWhitespace(caracter) || caracter == '.' || caracter == '@'
+                || caracter == '_' || caracter == '+' || caracter == '-';
+    }
+
+    /**
+     * Pasa el texto a minúsculas sin diacríticos. Los caracteres latinos se traducen con una tabla
+     * precalculada, porque la puntuación normaliza el texto de cada candidato evaluado; el resto
+     * de textos pasan por la descomposición Unicode completa.
+     */
+    private static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        char[] normalizado = new char[texto.length()];
+        for (int i = 0; i < normalizado.length; i++) {
+            char caracter = texto.charAt(i);
+            char traducido = caracter < NORMALIZACION_LATINA.length ? NORMALIZACION_LATINA[caracter] : 0;
+            if (traducido == 0) {
+                return normalizarUnicode(texto);
+            }
+            normalizado[i] = traducido;
+        }
+        return new String(normalizado);
+    }
+
+    private static String normalizarUnicode(String texto) {
+        String sinDiacriticos = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return sinDiacriticos.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Calcula la traducción de cada carácter latino (hasta el bloque Latín extendido B) a un único
+     * carácter en minúscula y sin diacríticos, o 0 si no se reduce a un solo carácter.
+     */
+    private static char[] tablaDeNormalizacion() {
+        char[] tabla = new char[0x250];
+        for (char caracter = 1; caracter < tabla.length; caracter++) {
+            String normalizado = normalizarUnicode(String.valueOf(caracter));
+            tabla[caracter] = normalizado.length() == 1 ? normalizado.charAt(0) : 0;
+        }
+        return tabla;
+    }
+
+    private static long codificar(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    /**
+     * Codifica los primeros caracteres de un término con la marca de inicio de palabra o de campo.
+     * La longitud del prefijo forma parte de la clave para que "ab" y "abc" no coincidan.
+     */
+    private static long codificarPrefijo(String texto, int longitud, long marca) {
+        char a = longitud == 3 ? texto.charAt(0) : 0;
+        char b = longitud >= 2 ? texto.charAt(longitud - 2) : 0;
+        char c = texto.charAt(longitud - 1);
+        return marca | ((long) longitud << 48) | codificar(a, b, c);
+    }
+
+    /**
+     * Lista creciente de posiciones de documentos respaldada por un arreglo de enteros primitivos.
+     * Las posiciones se añaden en orden ascendente, lo que permite intersecarlas linealmente.
+     */
+    private static final class ListaPosiciones {
+
+        private int[] posiciones = new int[4];
+        private int tamano;
+
+        private void agregar(int documento) {
+            if (tamano > 0 && posiciones[tamano - 1] == documento) {
+                return;
+            }
+            if (tamano == posiciones.length) {
+                posiciones = Arrays.copyOf(posiciones, tamano + (tamano >> 1) + 1);
+            }
+            posiciones[tamano++] = documento;
+        }
+
+        private void ajustar() {
+            if (posiciones.length > tamano) {
+                posiciones = Arrays.copyOf(posiciones, tamano);
+            }
+        }
+
+        /**
+         * Busca, a partir de un cursor, la primera posición cuyo documento es mayor o igual
+         * que el indicado, con búsqueda exponencial seguida de búsqueda binaria.
+         *
+         * @return El índice encontrado o el tamaño de la lista si no existe.
+         */
+        private int avanzarHasta(int cursor, int documento) {
+            if (cursor >= tamano || posiciones[cursor] >= documento) {
+                return cursor;
+            }
+            int paso = 1;
+            int bajo = cursor;
+            int alto = cursor + paso;
+            while (alto < tamano && posiciones[alto] < documento) {
+                bajo = alto;
+                paso <<= 1;
+                alto = cursor + paso;
+            }
+            alto = Math.min(alto, tamano);
+            // Invariante: posiciones[bajo] < documento y (alto == tamano o posiciones[alto] >= documento)
+            while (bajo + 1 < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (posiciones[medio] < documento) {
+                    bajo = medio;
+                } else {
+                    alto = medio;
+                }
+            }
+            return alto;
+        }
+    }
+
+    /**
+     * Tabla hash de direccionamiento abierto con claves long y valores int no negativos, sin objetos
+     * por entrada. Resuelve las colisiones con sondeo lineal y, al quitar una clave, desplaza hacia
+     * atrás las entradas siguientes del mismo grupo en lugar de dejar marcas de borrado.
+     */
+    private static final class MapaPrimitivo {
+
+        private static final long VACIA = Long.MIN_VALUE;
+
+        private long[] claves = nuevasClaves(16);
+        private int[] valores = new int[16];
+        private int tamano;
+
+        /**
+         * @return El valor de la clave, o -1 si no existe.
+         */
+        private int obtener(long clave) {
+            int mascara = claves.length - 1;
+            for (int i = indice(clave, mascara); claves[i] != VACIA; i = (i + 1) & mascara) {
+                if (claves[i] == clave) {
+                    return valores[i];
+                }
+            }
+            return -1;
+        }
+
+        private void poner(long clave, int valor) {
+            if ((tamano + 1) * 4 > claves.length * 3) {
+                redimensionar(claves.length * 2);
+            }
+            int mascara = claves.length - 1;
+            int i = indice(clave, mascara);
+            while (claves[i] != VACIA && claves[i] != clave) {
+                i = (i + 1) & mascara;
+            }
+            if (claves[i] == VACIA) {
+                claves[i] = clave;
+                tamano++;
+            }
+            valores[i] = valor;
+        }
+
+        /**
+         * @return El valor que tenía la clave, o -1 si no existía.
+         */
+        private int quitar(long clave) {
+            int mascara = claves.length - 1;
+            int libre = indice(clave, mascara);
+            while (claves[libre] != clave) {
+                if (claves[libre] == VACIA) {
+                    return -1;
+                }
+                libre = (libre + 1) & mascara;
+            }
+            int valor = valores[libre];
+            for (int j = (libre + 1) & mascara; claves[j] != VACIA; j = (j + 1) & mascara) {
+                int ideal = indice(claves[j], mascara);
+                // La entrada j puede ocupar el hueco si su posición ideal no está entre el hueco y j
+                boolean entreHuecoYActual = libre <= j ? libre < ideal && ideal <= j : libre < ideal || ideal <= j;
+                if (!entreHuecoYActual) {
+                    claves[libre] = claves[j];
+                    valores[libre] = valores[j];
+                    libre = j;
+                }
+            }
+            claves[libre] = VACIA;
+            tamano--;
+            return valor;
+        }
+
+        private void limpiar() {
+            claves = nuevasClaves(16);
+            valores = new int[16];
+            tamano = 0;
+        }
+
+        private long bytesEstimados() {
+            return 32L + claves.length * 8L + valores.length * 4L;
+        }
+
+        private void redimensionar(int capacidad) {
+            long[] clavesAnteriores = claves;
+            int[] valoresAnteriores = valores;
+            claves = nuevasClaves(capacidad);
+            valores = new int[capacidad];
+            tamano = 0;
+            for (int i = 0; i < clavesAnteriores.length; i++) {
+                if (clavesAnteriores[i] != VACIA) {
+                    poner(clavesAnteriores[i], valoresAnteriores[i]);
+                }
+            }
+        }
+
+        private static int indice(long clave, int mascara) {
+            long mezcla = clave * 0x9E3779B97F4A7C15L;
+            return (int) (mezcla ^ (mezcla >>> 32)) & mascara;
+        }
+
+        private static long[] nuevasClaves(int capacidad) {
+            long[] claves = new long[capacidad];
+            Arrays.fill(claves, VACIA);
+            return claves;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.dev.sistemaautenticacion.cache;
+
+import com.dev.sistemaautenticacion.dto.UserResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Formato binario de la instantánea de las cachés de usuarios, leído y escrito mediante
+ * archivos proyectados en memoria.
+ * La cabecera contiene un número mágico, la versión del formato, el instante de la instantánea,
+ * el número de perfiles y credenciales, la longitud de los datos y su CRC32; cualquier
+ * discrepancia hace que la instantánea se descarte completa.
+ * El archivo se escribe en uno temporal que luego se renombra, de modo que un lector nunca
+ * encuentra una instantánea a medio escribir.
+ * De las credenciales solo se guardan los IDs de los usuarios, nunca la clave: al restaurar se
+ * vuelven a leer de la base de datos. Como los perfiles contienen datos personales, en sistemas
+ * POSIX el directorio y el archivo se crean con permisos exclusivos del propietario.
+ */
+public final class ArchivoInstantanea {
+
+    /**
+     * Versión del formato. Se incrementa con cada cambio incompatible en la codificación.
+     */
+    public static final int VERSION = 2;
+
+    private static final int MAGICO = 0x53414943;
+    private static final int TAMANO_CABECERA = 36;
+    private static final long NULO = Long.MIN_VALUE;
+
+    private ArchivoInstantanea() {
+    }
+
+    /**
+     * Escribe una instantánea.
+     *
+     * @param archivo El archivo de destino.
+     * @param instante El momento en que se tomó la instantánea.
+     * @param perfiles Los perfiles a guardar.
+     * @param credenciales Los IDs de los usuarios cuyas credenciales estaban cacheadas.
+     * @throws IOException Si no se puede escribir el archivo.
+     */
+    public static void escribir(Path archivo, Instant instante, List<UserResponse> perfiles,
+                                List<Integer> credenciales) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 * perfiles.size() + 4 * credenciales.size() + 16);
+        try (DataOutputStream datos = new DataOutputStream(bytes)) {
+            for (UserResponse perfil : perfiles) {
+                escribirPerfil(datos, perfil);
+            }
+            for (Integer id : credenciales) {
+                datos.writeInt(id);
+            }
+        }
+        byte[] contenido = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(contenido);
+
+        Path directorio = archivo.toAbsolutePath().getParent();
+        Files.createDirectories(directorio, soloPropietario(directorio, "rwx------"));
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        // Los permisos solo se aplican al crear el archivo: se descarta un temporal de una escritura interrumpida
+        Files.deleteIfExists(temporal);
+        try (FileChannel canal = FileChannel.open(temporal, Set.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE), soloPropietario(temporal, "rw-------"))) {
+            MappedByteBuffer destino = canal.map(FileChannel.MapMode.READ_WRITE, 0, TAMANO_CABECERA + contenido.length);
+            destino.putInt(MAGICO)
+                    .putInt(VERSION)
+                    .putLong(instante.toEpochMilli())
+                    .putInt(perfiles.size())
+                    .putInt(credenciales.size())
+                    .putInt(contenido.length)
+                    .putLong(crc.getValue())
+                    .put(contenido);
+            destino.force();
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lee una instantánea, validando su versión y su suma de comprobación.
+     *
+     * @param archivo El archivo de la instantánea.
+     * @return El contenido de la instantánea.
+     * @throws IOException Si el archivo no se puede leer o no es una instantánea válida.
+     */
+    public static Contenido leer(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano < TAMANO_CABECERA) {
+                throw new IOException("La instantánea está truncada.");
+            }
+            MappedByteBuffer origen = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+            if (origen.getInt() != MAGICO) {
+                throw new IOException("El archivo no es una instantánea de cachés.");
+            }
+            int version = origen.getInt();
+            if (version != VERSION) {
+                throw new IOException("Versión de instantánea no soportada: " + version);
+            }
+            Instant instante = Instant.ofEpochMilli(origen.getLong());
+            int totalPerfiles = origen.getInt();
+            int totalCredenciales = origen.getInt();
+            int longitud = origen.getInt();
+            long suma = origen.getLong();
+            if (longitud < 0 || TAMANO_CABECERA + (long) longitud != tamano) {
+                throw new IOException("La longitud de la instantánea no coincide con el archivo.");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(origen.slice(TAMANO_CABECERA, longitud));
+            if (crc.getValue() != suma) {
+                throw new IOException("La suma de comprobación de la instantánea no coincide.");
+            }
+            List<UserResponse> perfiles = new ArrayList<>(totalPerfiles);
+            for (int i = 0; i < totalPerfiles; i++) {
+                perfiles.add(leerPerfil(origen));
+            }
+            List<Integer> credenciales = new ArrayList<>(totalCredenciales);
+            for (int i = 0; i < totalCredenciales; i++) {
+                credenciales.add(origen.getInt());
+            }
+            return new Contenido(instante, perfiles, credenciales);
+        } catch (RuntimeException e) {
+            // BufferUnderflowException, IllegalArgumentException...: datos corruptos pese a la suma correcta
+            throw new IOException("La instantánea está dañada.", e);
+        }
+    }
+
+    private static FileAttribute<?>[] soloPropietario(Path ruta, String permisos) {
+        if (!ruta.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return new FileAttribute<?>[0];
+        }
+        return new FileAttribute<?>[]{PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(permisos))};
+    }
+
+    private static void escribirPerfil(DataOutputStream datos, UserResponse perfil) throws IOException {
+        datos.writeInt(perfil.getId());
+        escribirTexto(datos, perfil.getNombre());
+        escribirTexto(datos, perfil.getApellido());
+        escribirTexto(datos, perfil.getCorreo());
+        datos.writeLong(perfil.getFechaNacimiento() == null ? NULO : perfil.getFechaNacimiento().toEpochDay());
+        escribirTexto(datos, perfil.getTelefono());
+        escribirTexto(datos, perfil.getDireccion());
+        escribirTexto(datos, perfil.getCiudad());
+        escribirTexto(datos, perfil.getPais());
+        escribirTexto(datos, perfil.getRol());
+        escribirTexto(datos, perfil.getEstado());
+        escribirInstante(datos, perfil.getFechaCreacion());
+        escribirInstante(datos, perfil.getFechaModificacion());
+    }
+
+    private static UserResponse leerPerfil(ByteBuffer origen) {
+        UserResponse perfil = new UserResponse();
+        perfil.setId(origen.getInt());
+        perfil.setNombre(leerTexto(origen));
+        perfil.setApellido(leerTexto(origen));
+        perfil.setCorreo(leerTexto(origen));
+        long dia = origen.getLong();
+        perfil.setFechaNacimiento(dia == NULO ? null : LocalDate.ofEpochDay(dia));
+        perfil.setTelefono(leerTexto(origen));
+        perfil.setDireccion(leerTexto(origen));
+        perfil.setCiudad(leerTexto(origen));
+        perfil.setPais(leerTexto(origen));
+        perfil.setRol(leerTexto(origen));
+        perfil.setEstado(leerTexto(origen));
+        perfil.setFechaCreacion(leerInstante(origen));
+        perfil.setFechaModificacion(leerInstante(origen));
+        return perfil;
+    }
+
+    private static void escribirTexto(DataOutputStream datos, String texto) throws IOException {
+        if (texto == null) {
+            datos.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        datos.writeInt(bytes.length);
+        datos.write(bytes);
+    }
+
+    private static String leerTexto(ByteBuffer origen) {
+        int longitud = origen.getInt();
+        if (longitud < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[longitud];
+        origen.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void escribirInstante(DataOutputStream datos, Instant instante) throws IOException {
+        datos.writeLong(instante == null ? NULO : instante.getEpochSecond());
+        datos.writeInt(instante == null ? 0 : instante.getNano());
+    }
+
+    private static Instant leerInstante(ByteBuffer origen) {
+        long segundos = origen.getLong();
+        int nanos = origen.getInt();
+        return segundos == NULO ? null : Instant.ofEpochSecond(segundos, nanos);
+    }
+
+    /**
+     * Contenido de una instantánea leída.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Contenido {
+
+        /**
+         * Momento en que se tomó la instantánea.
+         */
+        private final Instant instante;
+
+        /**
+         * Perfiles guardados, del más reciente al menos reciente.
+         */
+        private final List<UserResponse> perfiles;
+
+        /**
+         * IDs de los usuarios cuyas credenciales estaban cacheadas, de la más reciente a la menos reciente.
+         */
+        private final List<Integer> credenciales;
+    }
+}
@@ -0,0 +1,113 @@
+package com.dev.sistemaautenticacion.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caché en memoria acotada con política de reemplazo LRU (menos usado recientemente).
+ * Cuando se alcanza la capacidad máxima, la entrada a la que no se ha accedido
+ * durante más tiempo se descarta automáticamente.
+ * Todas las operaciones están sincronizadas, por lo que puede compartirse entre hilos.
+ *
+ * @param <K> Tipo de la clave.
+ * @param <V> Tipo del valor almacenado.
+ */
+public class CacheLRU<K, V> {
+
+    private final int capacidad;
+    private final LinkedHashMap<K, V> entradas;
+
+    /**
+     * Crea una caché con la capacidad máxima indicada.
+     *
+     * @param capacidad Número máximo de entradas que se conservan.
+     */
+    public CacheLRU(int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad de la caché debe ser mayor que cero.");
+        }
+        this.capacidad = capacidad;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > CacheLRU.this.capacidad;
+            }
+        };
+    }
+
+    /**
+     * Obtiene el valor asociado a una clave.
+     *
+     * @param clave La clave a buscar.
+     * @return El valor almacenado o null si no existe.
+     */
+    public synchronized V obtener(K clave) {
+        return entradas.get(clave);
+    }
+
+    /**
+     * Indica si existe una entrada para la clave sin alterar el orden de acceso.
+     *
+     * @param clave La clave a buscar.
+     * @return true si la clave está almacenada.
+     */
+    public synchronized boolean contiene(K clave) {
+        return entradas.containsKey(clave);
+    }
+
+    /**
+     * Almacena un valor, descartando la entrada más antigua si se supera la capacidad.
+     *
+     * @param clave La clave.
+     * @param valor El valor a almacenar.
+     */
+    public synchronized void guardar(K clave, V valor) {
+        entradas.put(clave, valor);
+    }
+
+    /**
+     * Elimina la entrada asociada a una clave.
+     *
+     * @param clave La clave a invalidar.
+     * @return El valor eliminado o null si no existía.
+     */
+    public synchronized V invalidar(K clave) {
+        return entradas.remove(clave);
+    }
+
+    /**
+     * Elimina todas las entradas de la caché.
+     */
+    public synchronized void limpiar() {
+        entradas.clear();
+    }
+
+    /**
+     * Devuelve los valores usados más recientemente.
+     *
+     * @param maximo Número máximo de valores a devolver.
+     * @return Los valores, del más reciente al menos reciente.
+     */
+    public synchronized List<V> masRecientes(int maximo) {
+        List<V> valores = new ArrayList<>(entradas.values());
+        Collections.reverse(valores);
+        return valores.size() > maximo ? new ArrayList<>(valores.subList(0, maximo)) : valores;
+    }
+
+    /**
+     * @return El número de entradas almacenadas actualmente.
+     */
+    public synchronized int tamano() {
+        return entradas.size();
+    }
+
+    /**
+     * @return La capacidad máxima de la caché.
+     */
+    public int getCapacidad() {
+        return capacidad;
+    }
+}
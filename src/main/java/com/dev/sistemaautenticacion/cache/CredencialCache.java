@@ -0,0 +1,118 @@
+package com.dev.sistemaautenticacion.cache;
+
+import com.dev.sistemaautenticacion.dto.CredencialUsuario;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caché acotada de credenciales indexada por correo electrónico normalizado.
+ * Permite que la mayoría de los inicios de sesión se resuelvan sin consultar la base de datos.
+ * Mantiene además un índice secundario por ID para poder invalidar las entradas
+ * desde operaciones que solo conocen el identificador del usuario.
+ * Cada invalidación incrementa una generación: quien lee una credencial de la base de datos anota
+ * la generación antes de la consulta, y la credencial no se guarda si entretanto hubo una
+ * invalidación, porque podría ser anterior a la escritura que la invalidó.
+ * Las escrituras se sincronizan para que ambos índices cambien a la vez.
+ */
+@Component
+public class CredencialCache {
+
+    private final CacheLRU<String, CredencialUsuario> porCorreo;
+    private final Map<Integer, String> correoPorId = new HashMap<>();
+    private volatile long generacion;
+
+    /**
+     * Constructor con la capacidad configurable de la caché.
+     *
+     * @param capacidad Número máximo de credenciales almacenadas.
+     */
+    public CredencialCache(@Value("${usuarios.cache.credenciales.capacidad:10000}") int capacidad) {
+        this.porCorreo = new CacheLRU<>(capacidad);
+    }
+
+    /**
+     * Obtiene la credencial cacheada para un correo.
+     *
+     * @param correo El correo normalizado.
+     * @return La credencial o null si no está en caché.
+     */
+    public CredencialUsuario obtener(String correo) {
+        return porCorreo.obtener(correo);
+    }
+
+    /**
+     * @return La generación actual, que debe anotarse antes de leer una credencial para guardarla.
+     */
+    public long generacion() {
+        return generacion;
+    }
+
+    /**
+     * Almacena una credencial en la caché si no hubo invalidaciones desde que se leyó.
+     *
+     * @param credencial La credencial a almacenar.
+     * @param generacionLeida La generación anotada antes de leer la credencial.
+     * @return true si se guardó.
+     */
+    public synchronized boolean guardar(CredencialUsuario credencial, long generacionLeida) {
+        if (generacion != generacionLeida) {
+            return false;
+        }
+        porCorreo.guardar(credencial.getCorreo(), credencial);
+        correoPorId.put(credencial.getId(), credencial.getCorreo());
+        if (correoPorId.size() > porCorreo.getCapacidad() * 2) {
+            // Las entradas expulsadas por LRU dejan referencias huérfanas en el índice secundario
+            correoPorId.values().removeIf(correo -> !porCorreo.contiene(correo));
+        }
+        return true;
+    }
+
+    /**
+     * Invalida la credencial asociada a un correo.
+     *
+     * @param correo El correo normalizado.
+     */
+    public synchronized void invalidarPorCorreo(String correo) {
+        generacion++;
+        CredencialUsuario eliminada = porCorreo.invalidar(correo);
+        if (eliminada != null) {
+            correoPorId.remove(eliminada.getId());
+        }
+    }
+
+    /**
+     * Invalida la credencial asociada a un ID de usuario.
+     *
+     * @param id El ID del usuario.
+     */
+    public synchronized void invalidarPorId(Integer id) {
+        generacion++;
+        String correo = correoPorId.remove(id);
+        if (correo != null) {
+            porCorreo.invalidar(correo);
+        }
+    }
+
+    /**
+     * Devuelve las credenciales usadas más recientemente.
+     *
+     * @param maximo Número máximo de credenciales a devolver.
+     * @return Las credenciales, de la más reciente a la menos reciente.
+     */
+    public List<CredencialUsuario> masRecientes(int maximo) {
+        return porCorreo.masRecientes(maximo);
+    }
+
+    /**
+     * Elimina todas las credenciales cacheadas.
+     */
+    public synchronized void limpiar() {
+        generacion++;
+        porCorreo.limpiar();
+        correoPorId.clear();
+    }
+}
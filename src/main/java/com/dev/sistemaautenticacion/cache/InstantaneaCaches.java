@@ -0,0 +1,195 @@
+package com.dev.sistemaautenticacion.cache;
+
+import com.dev.sistemaautenticacion.dto.CredencialUsuario;
+import com.dev.sistemaautenticacion.dto.UserResponse;
+import com.dev.sistemaautenticacion.repository.UsuarioRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Instantáneas de las cachés de perfiles y credenciales para arrancar en caliente.
+ * Periódicamente (y al detener la aplicación) guarda en un archivo proyectado en memoria los
+ * perfiles y credenciales usados más recientemente; al arrancar los restaura antes de que el
+ * servidor acepte tráfico, de modo que un despliegue no tenga que reconstruir el conjunto caliente
+ * consultando MySQL usuario por usuario.
+ * Los perfiles restaurados se revalidan de forma diferida: la primera vez que se usa cada uno se
+ * comprueba con una consulta ligera que el usuario no ha cambiado desde la instantánea.
+ * De las credenciales la instantánea solo guarda los IDs, nunca la clave: al restaurar se vuelven
+ * a leer de la base de datos por bloques y, si no está disponible, se cargan en su primer uso.
+ */
+@Component
+public class InstantaneaCaches {
+
+    private static final Logger log = LoggerFactory.getLogger(InstantaneaCaches.class);
+
+    private static final int TAMANO_BLOQUE_CREDENCIALES = 500;
+
+    private final PerfilCache perfilCache;
+    private final CredencialCache credencialCache;
+    private final UsuarioRepository usuarioRepository;
+    private final boolean habilitada;
+    private final Path archivo;
+    private final int maximoEntradas;
+    private final Duration margen;
+
+    private final Map<Integer, Boolean> pendientesDeRevalidar = new ConcurrentHashMap<>();
+    private volatile Instant limiteDeVigencia;
+
+    /**
+     * Constructor con inyección de dependencias y parámetros configurables.
+     *
+     * @param perfilCache Caché de perfiles.
+     * @param credencialCache Caché de credenciales.
+     * @param usuarioRepository Repositorio usado para revalidar las entradas restauradas.
+     * @param habilitada Indica si se guardan y restauran instantáneas.
+     * @param archivo Ruta del archivo de la instantánea.
+     * @param maximoEntradas Número máximo de perfiles y de credenciales guardados.
+     * @param margenSegundos Margen que cubre el desfase entre el reloj del servicio y el de MySQL:
+     *                       los usuarios modificados en ese margen antes de la instantánea se recargan.
+     */
+    @Autowired
+    public InstantaneaCaches(PerfilCache perfilCache, CredencialCache credencialCache,
+                             UsuarioRepository usuarioRepository,
+                             @Value("${usuarios.instantanea.habilitada:true}") boolean habilitada,
+                             @Value("${usuarios.instantanea.archivo:${user.home}/.sistemaautenticacion/instantanea-caches.bin}") Path archivo,
+                             @Value("${usuarios.instantanea.maximo-entradas:5000}") int maximoEntradas,
+                             @Value("${usuarios.instantanea.margen-revalidacion-segundos:300}") long margenSegundos) {
+        this.perfilCache = perfilCache;
+        this.credencialCache = credencialCache;
+        this.usuarioRepository = usuarioRepository;
+        this.habilitada = habilitada;
+        this.archivo = archivo;
+        this.maximoEntradas = maximoEntradas;
+        this.margen = Duration.ofSeconds(margenSegundos);
+    }
+
+    /**
+     * Restaura la última instantánea durante la inicialización del contexto, antes de que
+     * el servidor web empiece a aceptar solicitudes. Una instantánea ausente, de otra versión
+     * o dañada se ignora y el servicio arranca con las cachés vacías.
+     */
+    @PostConstruct
+    public void restaurar() {
+        if (!habilitada) {
+            return;
+        }
+        ArchivoInstantanea.Contenido contenido;
+        try {
+            contenido = ArchivoInstantanea.leer(archivo);
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            log.warn("Se ignora la instantánea de cachés {}: {}", archivo, e.getMessage());
+            return;
+        }
+        limiteDeVigencia = contenido.getInstante().minus(margen);
+        // Se insertan de la menos a la más reciente para conservar el orden LRU
+        List<UserResponse> perfiles = contenido.getPerfiles();
+        for (int i = perfiles.size() - 1; i >= 0; i--) {
+            pendientesDeRevalidar.put(perfiles.get(i).getId(), Boolean.TRUE);
+            perfilCache.guardar(perfiles.get(i), perfilCache.generacion());
+        }
+        int credenciales = recargarCredenciales(contenido.getCredenciales());
+        log.info("Instantánea de cachés restaurada: {} perfiles y {} credenciales del {}",
+                perfiles.size(), credenciales, contenido.getInstante());
+    }
+
+    /**
+     * Vuelve a leer de la base de datos las credenciales de los usuarios de la instantánea.
+     * Son datos actuales, de modo que no necesitan revalidarse.
+     *
+     * @return El número de credenciales cargadas en la caché.
+     */
+    private int recargarCredenciales(List<Integer> ids) {
+        Map<Integer, CredencialUsuario> leidas = new HashMap<>();
+        long generacion = credencialCache.generacion();
+        try {
+            for (int inicio = 0; inicio < ids.size(); inicio += TAMANO_BLOQUE_CREDENCIALES) {
+                List<Integer> bloque = ids.subList(inicio, Math.min(inicio + TAMANO_BLOQUE_CREDENCIALES, ids.size()));
+                usuarioRepository.buscarCredencialesPorIds(bloque).forEach(credencial -> leidas.put(credencial.getId(), credencial));
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron recargar las credenciales de la instantánea; se cargarán en su primer uso", e);
+            return 0;
+        }
+        int cargadas = 0;
+        for (int i = ids.size() - 1; i >= 0; i--) {
+            CredencialUsuario credencial = leidas.get(ids.get(i));
+            if (credencial != null && credencialCache.guardar(credencial, generacion)) {
+                cargadas++;
+            }
+        }
+        return cargadas;
+    }
+
+    /**
+     * Guarda periódicamente una instantánea de las entradas más usadas.
+     */
+    @Scheduled(fixedDelayString = "${usuarios.instantanea.intervalo-ms:60000}",
+            initialDelayString = "${usuarios.instantanea.intervalo-ms:60000}")
+    public void guardar() {
+        if (!habilitada) {
+            return;
+        }
+        List<UserResponse> perfiles = perfilCache.masRecientes(maximoEntradas);
+        List<Integer> credenciales = credencialCache.masRecientes(maximoEntradas).stream()
+                .map(CredencialUsuario::getId)
+                .toList();
+        if (perfiles.isEmpty() && credenciales.isEmpty()) {
+            // Una instancia sin tráfico (o recién arrancada) no sustituye una instantánea útil
+            return;
+        }
+        try {
+            ArchivoInstantanea.escribir(archivo, Instant.now(), perfiles, credenciales);
+        } catch (IOException e) {
+            log.warn("No se pudo guardar la instantánea de cachés en {}", archivo, e);
+        }
+    }
+
+    /**
+     * Guarda una última instantánea al detener la aplicación.
+     */
+    @PreDestroy
+    public void guardarAlDetener() {
+        guardar();
+    }
+
+    /**
+     * Comprueba si una entrada cacheada de un usuario sigue vigente.
+     * Solo las entradas restauradas de una instantánea y aún no revalidadas requieren una consulta;
+     * si el usuario cambió después de la instantánea (o ya no existe), se invalidan su perfil y su
+     * credencial para que se vuelvan a cargar.
+     *
+     * @param id El ID del usuario.
+     * @return true si la entrada cacheada puede usarse.
+     */
+    public boolean vigente(Integer id) {
+        if (pendientesDeRevalidar.isEmpty() || !pendientesDeRevalidar.containsKey(id)) {
+            return true;
+        }
+        Instant ultimoCambio = usuarioRepository.obtenerUltimoCambio(id);
+        boolean vigente = ultimoCambio != null && ultimoCambio.isBefore(limiteDeVigencia);
+        if (!vigente) {
+            perfilCache.invalidar(id);
+            credencialCache.invalidarPorId(id);
+        }
+        pendientesDeRevalidar.remove(id);
+        return vigente;
+    }
+}
@@ -0,0 +1,90 @@
+package com.dev.sistemaautenticacion.cache;
+
+import com.dev.sistemaautenticacion.dto.UserResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Caché acotada de perfiles de usuario indexada por ID.
+ * Sirve las consultas de perfil (individuales y por lotes) sin consultar la base de datos;
+ * cada escritura sobre un usuario invalida su entrada.
+ * Como en {@link CredencialCache}, cada invalidación incrementa una generación: un perfil leído
+ * antes de una invalidación no se guarda, porque podría ser anterior a la escritura que la provocó.
+ */
+@Component
+public class PerfilCache {
+
+    private final CacheLRU<Integer, UserResponse> porId;
+    private volatile long generacion;
+
+    /**
+     * Constructor con la capacidad configurable de la caché.
+     *
+     * @param capacidad Número máximo de perfiles almacenados.
+     */
+    public PerfilCache(@Value("${usuarios.cache.perfiles.capacidad:10000}") int capacidad) {
+        this.porId = new CacheLRU<>(capacidad);
+    }
+
+    /**
+     * Obtiene el perfil cacheado de un usuario.
+     *
+     * @param id El ID del usuario.
+     * @return El perfil o null si no está en caché.
+     */
+    public UserResponse obtener(Integer id) {
+        return porId.obtener(id);
+    }
+
+    /**
+     * @return La generación actual, que debe anotarse antes de leer un perfil para guardarlo.
+     */
+    public long generacion() {
+        return generacion;
+    }
+
+    /**
+     * Almacena un perfil en la caché si no hubo invalidaciones desde que se leyó.
+     *
+     * @param perfil El perfil a almacenar.
+     * @param generacionLeida La generación anotada antes de leer el perfil.
+     * @return true si se guardó.
+     */
+    public synchronized boolean guardar(UserResponse perfil, long generacionLeida) {
+        if (generacion != generacionLeida) {
+            return false;
+        }
+        porId.guardar(perfil.getId(), perfil);
+        return true;
+    }
+
+    /**
+     * Invalida el perfil de un usuario.
+     *
+     * @param id El ID del usuario.
+     */
+    public synchronized void invalidar(Integer id) {
+        generacion++;
+        porId.invalidar(id);
+    }
+
+    /**
+     * Devuelve los perfiles consultados más recientemente.
+     *
+     * @param maximo Número máximo de perfiles a devolver.
+     * @return Los perfiles, del más reciente al menos reciente.
+     */
+    public List<UserResponse> masRecientes(int maximo) {
+        return porId.masRecientes(maximo);
+    }
+
+    /**
+     * Elimina todos los perfiles cacheados.
+     */
+    public synchronized void limpiar() {
+        generacion++;
+        porId.limpiar();
+    }
+}
@@ -0,0 +1,108 @@
+package com.dev.sistemaautenticacion.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Unifica las lecturas concurrentes de una misma clave ("single-flight").
+ * Mientras una carga está en curso, los demás llamantes con la misma clave esperan
+ * y comparten su resultado o su error en lugar de repetir la consulta.
+ * La espera está acotada: si la carga en curso no termina a tiempo, el llamante
+ * realiza su propia carga.
+ *
+ * @param <K> Tipo de la clave.
+ * @param <V> Tipo del resultado.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> enCurso = new ConcurrentHashMap<>();
+    private final long esperaMaximaMs;
+
+    private final LongAdder cargas = new LongAdder();
+    private final LongAdder compartidas = new LongAdder();
+    private final LongAdder esperasAgotadas = new LongAdder();
+
+    /**
+     * Crea la unificación de lecturas con un tiempo máximo de espera.
+     *
+     * @param esperaMaximaMs Tiempo máximo que un llamante espera una carga en curso.
+     */
+    public SingleFlight(long esperaMaximaMs) {
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    /**
+     * Obtiene el valor de una clave, compartiendo la carga con otros llamantes concurrentes.
+     *
+     * @param clave La clave a cargar.
+     * @param carga Función que consulta el valor cuando no hay una carga en curso.
+     * @return El valor cargado.
+     */
+    public V ejecutar(K clave, Supplier<V> carga) {
+        CompletableFuture<V> propia = new CompletableFuture<>();
+        CompletableFuture<V> existente = enCurso.putIfAbsent(clave, propia);
+        if (existente == null) {
+            return cargar(clave, propia, carga);
+        }
+        compartidas.increment();
+        try {
+            return existente.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            esperasAgotadas.increment();
+            cargas.increment();
+            return carga.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Lectura interrumpida.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private V cargar(K clave, CompletableFuture<V> propia, Supplier<V> carga) {
+        cargas.increment();
+        try {
+            V valor = carga.get();
+            propia.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(clave, propia);
+        }
+    }
+
+    /**
+     * Devuelve las métricas de unificación acumuladas.
+     * El ratio de coalescencia es la fracción de llamadas que se resolvieron
+     * compartiendo una carga en curso.
+     *
+     * @return Un mapa con las cargas realizadas, las llamadas compartidas,
+     *         las esperas agotadas y el ratio de coalescencia.
+     */
+    public Map<String, Object> metricas() {
+        long totalCargas = cargas.sum();
+        long totalCompartidas = compartidas.sum() - esperasAgotadas.sum();
+        long llamadas = totalCargas + totalCompartidas;
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("cargas", totalCargas);
+        metricas.put("compartidas", totalCompartidas);
+        metricas.put("esperasAgotadas", esperasAgotadas.sum());
+        metricas.put("ratioCoalescencia", llamadas == 0 ? 0.0 : (double) totalCompartidas / llamadas);
+        return metricas;
+    }
+}
@@ -0,0 +1,43 @@
+package com.dev.sistemaautenticacion.config;
+
+import com.dev.sistemaautenticacion.cache.CredencialCache;
+import com.dev.sistemaautenticacion.cache.InstantaneaCaches;
+import com.dev.sistemaautenticacion.controller.AuthController;
+import com.dev.sistemaautenticacion.repository.UsuarioRepository;
+import com.dev.sistemaautenticacion.service.PurgaUsuarios;
+import com.dev.sistemaautenticacion.service.RegistroDeAccesos;
+import com.dev.sistemaautenticacion.service.RegistroPorLotes;
+import com.dev.sistemaautenticacion.service.UsuarioService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del arranque de la aplicación.
+ * Cuando la inicialización diferida está activa (perfil "prod"), define los beans
+ * de los caminos de autenticación y registro que deben crearse durante el arranque para que el
+ * primer inicio de sesión no pague el coste de su inicialización, y los procesos periódicos que
+ * ningún otro bean utiliza: un bean diferido que nunca se crea no registra sus tareas programadas.
+ */
+@Configuration
+public class ArranqueConfig {
+
+    /**
+     * Excluye de la inicialización diferida los beans utilizados en cada inicio de sesión y registro,
+     * y la purga de usuarios eliminados.
+     *
+     * @return El filtro con los tipos de beans que se inicializan siempre al arrancar.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter beansDelCaminoDeAutenticacion() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                AuthController.class,
+                UsuarioService.class,
+                UsuarioRepository.class,
+                CredencialCache.class,
+                InstantaneaCaches.class,
+                RegistroPorLotes.class,
+                RegistroDeAccesos.class,
+                PurgaUsuarios.class);
+    }
+}
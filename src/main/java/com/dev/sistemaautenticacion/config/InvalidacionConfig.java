@@ -0,0 +1,59 @@
+package com.dev.sistemaautenticacion.config;
+
+import com.dev.sistemaautenticacion.invalidacion.CanalInvalidacion;
+import com.dev.sistemaautenticacion.invalidacion.CanalInvalidacionLocal;
+import com.dev.sistemaautenticacion.invalidacion.CanalInvalidacionUdp;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Configuración del canal por el que las instancias se comunican las invalidaciones de caché.
+ * El canal "local" solo alcanza a las instancias de la misma JVM y es el adecuado para una única
+ * instancia y para las pruebas; el canal "udp" envía datagramas firmados a la lista de instancias
+ * pares y requiere una clave compartida.
+ */
+@Configuration
+public class InvalidacionConfig {
+
+    /**
+     * Crea el canal de invalidación configurado.
+     *
+     * @param tipo Tipo de canal: "local" o "udp".
+     * @param grupo Grupo de instancias del canal local.
+     * @param direccion Dirección "host:puerto" en la que escucha el canal UDP.
+     * @param pares Direcciones "host:puerto" de las demás instancias, separadas por comas.
+     * @param clave Clave compartida con la que el canal UDP firma los mensajes.
+     * @return El canal de invalidación.
+     */
+    @Bean
+    public CanalInvalidacion canalInvalidacion(
+            @Value("${usuarios.invalidacion.canal:local}") String tipo,
+            @Value("${usuarios.invalidacion.grupo:sistema-autenticacion}") String grupo,
+            @Value("${usuarios.invalidacion.direccion:127.0.0.1:9701}") String direccion,
+            @Value("${usuarios.invalidacion.pares:}") String pares,
+            @Value("${usuarios.invalidacion.clave:}") String clave) {
+        return switch (tipo) {
+            case "local" -> new CanalInvalidacionLocal(grupo);
+            case "udp" -> new CanalInvalidacionUdp(direccionDe(direccion), Arrays.stream(pares.split(","))
+                    .map(String::trim)
+                    .filter(par -> !par.isEmpty())
+                    .map(InvalidacionConfig::direccionDe)
+                    .toList(), clave.getBytes(StandardCharsets.UTF_8));
+            default -> throw new IllegalArgumentException("Canal de invalidación desconocido: " + tipo);
+        };
+    }
+
+    private static InetSocketAddress direccionDe(String direccion) {
+        int separador = direccion.lastIndexOf(':');
+        if (separador < 0) {
+            throw new IllegalArgumentException("Se esperaba una dirección host:puerto: " + direccion);
+        }
+        return new InetSocketAddress(direccion.substring(0, separador),
+                Integer.parseInt(direccion.substring(separador + 1)));
+    }
+}
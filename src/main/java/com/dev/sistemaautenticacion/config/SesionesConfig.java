@@ -0,0 +1,48 @@
+package com.dev.sistemaautenticacion.config;
+
+import com.dev.sistemaautenticacion.repository.RefreshTokenRepository;
+import com.dev.sistemaautenticacion.sesiones.AlmacenSesiones;
+import com.dev.sistemaautenticacion.sesiones.AlmacenSesionesEnRegistro;
+import com.dev.sistemaautenticacion.sesiones.AlmacenSesionesJpa;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+
+/**
+ * Configuración del almacén de refresh tokens.
+ * El almacén "registro" guarda los tokens en un registro en disco local a la instancia y no escribe
+ * en la base de datos; el almacén "jpa" los guarda en la tabla "refresh_token", compartida por todas
+ * las instancias.
+ */
+@Configuration
+public class SesionesConfig {
+
+    /**
+     * Crea el almacén de refresh tokens configurado.
+     *
+     * @param tipo Tipo de almacén: "registro" o "jpa".
+     * @param directorio Directorio de los segmentos del registro.
+     * @param tamanoSegmentoMb Tamaño de cada segmento del registro en MB.
+     * @param minimoRegistrosCompactacion Número de registros por debajo del cual no se reescribe el registro.
+     * @param refreshTokenRepository Repositorio de la tabla de tokens.
+     * @param transactionTemplate Plantilla de transacciones del almacén en tabla.
+     * @return El almacén de refresh tokens.
+     */
+    @Bean
+    public AlmacenSesiones almacenSesiones(
+            @Value("${usuarios.sesiones.almacen:registro}") String tipo,
+            @Value("${usuarios.sesiones.directorio:${user.home}/.sistemaautenticacion/sesiones}") String directorio,
+            @Value("${usuarios.sesiones.tamano-segmento-mb:16}") int tamanoSegmentoMb,
+            @Value("${usuarios.sesiones.minimo-registros-compactacion:100000}") long minimoRegistrosCompactacion,
+            RefreshTokenRepository refreshTokenRepository, TransactionTemplate transactionTemplate) {
+        return switch (tipo) {
+            case "registro" -> new AlmacenSesionesEnRegistro(Path.of(directorio), tamanoSegmentoMb * 1024 * 1024,
+                    minimoRegistrosCompactacion);
+            case "jpa" -> new AlmacenSesionesJpa(refreshTokenRepository, transactionTemplate);
+            default -> throw new IllegalArgumentException("Almacén de sesiones desconocido: " + tipo);
+        };
+    }
+}
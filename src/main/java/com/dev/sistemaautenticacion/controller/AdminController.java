@@ -0,0 +1,251 @@
+package com.dev.sistemaautenticacion.controller;
+
+import com.dev.sistemaautenticacion.busqueda.BusquedaUsuarios;
+import com.dev.sistemaautenticacion.importacion.ImportadorUsuarios;
+import com.dev.sistemaautenticacion.importacion.ResultadoImportacion;
+import com.dev.sistemaautenticacion.invalidacion.BusInvalidacion;
+import com.dev.sistemaautenticacion.limite.LimitadorAdaptativo;
+import com.dev.sistemaautenticacion.monitoreo.EstadisticasConsultas;
+import com.dev.sistemaautenticacion.monitoreo.GrabacionesJfr;
+import com.dev.sistemaautenticacion.replica.ReplicaUsuarios;
+import com.dev.sistemaautenticacion.service.LecturasCoalescidas;
+import com.dev.sistemaautenticacion.sesiones.SesionesRefresh;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Controlador REST con endpoints de diagnóstico y operación del servicio.
+ * Estos endpoints solo deberían ser accesibles por administradores.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final LecturasCoalescidas lecturasCoalescidas;
+    private final LimitadorAdaptativo limitadorAdaptativo;
+    private final BusquedaUsuarios busquedaUsuarios;
+    private final ImportadorUsuarios importadorUsuarios;
+    private final EstadisticasConsultas estadisticasConsultas;
+    private final GrabacionesJfr grabacionesJfr;
+    private final ReplicaUsuarios replicaUsuarios;
+    private final BusInvalidacion busInvalidacion;
+    private final SesionesRefresh sesionesRefresh;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param lecturasCoalescidas Unificación de lecturas concurrentes de usuarios.
+     * @param limitadorAdaptativo Limitador de concurrencia de los endpoints de autenticación.
+     * @param busquedaUsuarios Índice de autocompletado de usuarios.
+     * @param importadorUsuarios Importador masivo de usuarios desde CSV.
+     * @param estadisticasConsultas Estadísticas de consultas y consultas lentas.
+     * @param grabacionesJfr Grabaciones de JDK Flight Recorder bajo demanda.
+     * @param replicaUsuarios Réplica en memoria de la tabla de usuarios.
+     * @param busInvalidacion Bus de invalidación de cachés entre instancias.
+     * @param sesionesRefresh Sesiones de larga duración con refresh tokens.
+     */
+    @Autowired
+    public AdminController(LecturasCoalescidas lecturasCoalescidas, LimitadorAdaptativo limitadorAdaptativo,
+                           BusquedaUsuarios busquedaUsuarios, ImportadorUsuarios importadorUsuarios,
+                           EstadisticasConsultas estadisticasConsultas, GrabacionesJfr grabacionesJfr,
+                           ReplicaUsuarios replicaUsuarios, BusInvalidacion busInvalidacion,
+                           SesionesRefresh sesionesRefresh) {
+        this.lecturasCoalescidas = lecturasCoalescidas;
+        this.limitadorAdaptativo = limitadorAdaptativo;
+        this.busquedaUsuarios = busquedaUsuarios;
+        this.importadorUsuarios = importadorUsuarios;
+        this.estadisticasConsultas = estadisticasConsultas;
+        this.grabacionesJfr = grabacionesJfr;
+        this.replicaUsuarios = replicaUsuarios;
+        this.busInvalidacion = busInvalidacion;
+        this.sesionesRefresh = sesionesRefresh;
+    }
+
+    /**
+     * Endpoint para consultar las métricas de coalescencia de lecturas.
+     *
+     * @return Las cargas realizadas, las llamadas compartidas y el ratio de coalescencia por tipo de lectura.
+     */
+    @GetMapping("/lecturas/metricas")
+    public ResponseEntity<Map<String, Map<String, Object>>> getMetricasDeLecturas() {
+        return ResponseEntity.ok(lecturasCoalescidas.metricas());
+    }
+
+    /**
+     * Endpoint para consultar el estado del limitador de concurrencia.
+     *
+     * @return El límite actual, las solicitudes en curso y los rechazos por prioridad.
+     */
+    @GetMapping("/limite")
+    public ResponseEntity<Map<String, Object>> getEstadoDelLimite() {
+        return ResponseEntity.ok(limitadorAdaptativo.estado());
+    }
+
+    /**
+     * Endpoint para consultar el estado y la memoria del índice de autocompletado.
+     *
+     * @return Los usuarios indexados, los n-gramas y la memoria estimada (total y por millón de usuarios).
+     */
+    @GetMapping("/autocompletado")
+    public ResponseEntity<Map<String, Object>> getEstadisticasDeAutocompletado() {
+        return ResponseEntity.ok(busquedaUsuarios.estadisticas());
+    }
+
+    /**
+     * Endpoint para consultar el estado y la memoria de la réplica de usuarios en memoria.
+     *
+     * @return Los usuarios replicados, la última puesta al día y la memoria dentro y fuera del heap.
+     */
+    @GetMapping("/replica")
+    public ResponseEntity<Map<String, Object>> getEstadisticasDeReplica() {
+        return ResponseEntity.ok(replicaUsuarios.estadisticas());
+    }
+
+    /**
+     * Endpoint para consultar el estado del bus de invalidación de cachés entre instancias.
+     *
+     * @return Los mensajes enviados y recibidos, los IDs invalidados y los vaciados completos por mensajes perdidos.
+     */
+    @GetMapping("/invalidacion")
+    public ResponseEntity<Map<String, Object>> getEstadoDeInvalidacion() {
+        return ResponseEntity.ok(busInvalidacion.estadisticas());
+    }
+
+    /**
+     * Endpoint para consultar la ocupación del almacén de refresh tokens.
+     *
+     * @return El tipo de almacén, los tokens y sesiones vigentes y, para el registro en disco, sus segmentos.
+     */
+    @GetMapping("/sesiones")
+    public ResponseEntity<Map<String, Object>> getEstadisticasDeSesiones() {
+        return ResponseEntity.ok(sesionesRefresh.estadisticas());
+    }
+
+    /**
+     * Endpoint para iniciar la importación de un archivo CSV de usuarios del directorio de importación.
+     * La importación se ejecuta en segundo plano; su progreso se consulta con el endpoint de estado.
+     *
+     * @param archivo Ruta del archivo CSV, relativa al directorio de importación (usuarios.importacion.directorio).
+     * @return 202 si la importación se inició, 400 si la ruta sale del directorio de importación,
+     *         404 si el archivo no existe o 409 si ya hay una en curso.
+     */
+    @PostMapping("/importaciones")
+    public ResponseEntity<Void> iniciarImportacion(@RequestParam String archivo) {
+        Path ruta = importadorUsuarios.resolver(archivo);
+        if (!Files.isRegularFile(ruta)) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!importadorUsuarios.iniciar(ruta)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Endpoint para consultar el progreso de la importación en curso o de la última finalizada.
+     *
+     * @return El progreso de la importación, o 404 si no se ha ejecutado ninguna.
+     */
+    @GetMapping("/importaciones/estado")
+    public ResponseEntity<ResultadoImportacion> getEstadoDeImportacion() {
+        ResultadoImportacion estado = importadorUsuarios.estado();
+        return estado == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(estado);
+    }
+
+    /**
+     * Endpoint para consultar las estadísticas de consultas y las últimas consultas lentas.
+     *
+     * @return Las sentencias ejecutadas, las lentas con su origen y las estadísticas de Hibernate.
+     */
+    @GetMapping("/consultas")
+    public ResponseEntity<Map<String, Object>> getEstadisticasDeConsultas() {
+        return ResponseEntity.ok(estadisticasConsultas.estadisticas());
+    }
+
+    /**
+     * Endpoint para iniciar una grabación de JDK Flight Recorder con los eventos de la aplicación.
+     *
+     * @param configuracion Configuración de JFR: "default" (bajo coste) o "profile" (más detalle).
+     * @param duracionSegundos Duración tras la que la grabación se detiene sola (acotada por la máxima configurada).
+     * @return 201 con el estado de la grabación, 400 si la configuración no existe
+     *         o 409 si ya se alcanzó el número máximo de grabaciones.
+     */
+    @PostMapping("/jfr")
+    public ResponseEntity<Map<String, Object>> iniciarGrabacion(
+            @RequestParam(defaultValue = "default") String configuracion,
+            @RequestParam(required = false) Long duracionSegundos) {
+        try {
+            Duration duracion = duracionSegundos == null ? null : Duration.ofSeconds(duracionSegundos);
+            return ResponseEntity.status(HttpStatus.CREATED).body(grabacionesJfr.iniciar(configuracion, duracion));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Endpoint para listar las grabaciones de JFR pendientes de descargar.
+     *
+     * @return El estado de cada grabación.
+     */
+    @GetMapping("/jfr")
+    public ResponseEntity<List<Map<String, Object>>> listarGrabaciones() {
+        return ResponseEntity.ok(grabacionesJfr.listar());
+    }
+
+    /**
+     * Endpoint para detener una grabación de JFR y descargar el archivo .jfr resultante.
+     * El archivo temporal se borra una vez enviado.
+     *
+     * @param id El ID de la grabación.
+     * @return El archivo .jfr, o 404 si la grabación no existe.
+     */
+    @PostMapping("/jfr/{id}/detener")
+    public ResponseEntity<StreamingResponseBody> detenerGrabacion(@PathVariable long id) {
+        Optional<Path> grabacion = grabacionesJfr.detener(id);
+        if (grabacion.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Path archivo = grabacion.get();
+        long tamano;
+        try {
+            tamano = Files.size(archivo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        StreamingResponseBody cuerpo = salida -> {
+            try {
+                Files.copy(archivo, salida);
+            } finally {
+                Files.deleteIfExists(archivo);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(tamano)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("grabacion-" + id + ".jfr").build().toString())
+                .body(cuerpo);
+    }
+}
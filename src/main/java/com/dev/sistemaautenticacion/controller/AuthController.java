@@ -2,10 +2,13 @@ package com.dev.sistemaautenticacion.controller;
 
 
 import com.dev.sistemaautenticacion.dto.LoginRequest;
+import com.dev.sistemaautenticacion.dto.RefreshRequest;
 import com.dev.sistemaautenticacion.dto.RegisterRequest;
+import com.dev.sistemaautenticacion.dto.SesionResponse;
 import com.dev.sistemaautenticacion.dto.UserResponse;
 import com.dev.sistemaautenticacion.entity.Usuario;
 import com.dev.sistemaautenticacion.service.UsuarioService;
+import com.dev.sistemaautenticacion.sesiones.SesionesRefresh;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -17,23 +20,32 @@ import org.springframework.web.bind.annotation.*;
 /**
  * Controlador REST para gestionar las operaciones de autenticación y registro
  * de usuarios en el sistema.
- * Proporciona endpoints para registrar nuevos usuarios y autenticar usuarios existentes.
+ * Proporciona endpoints para registrar nuevos usuarios, autenticar usuarios existentes
+ * y renovar sus sesiones con refresh tokens.
  */
 @RestController
 @RequestMapping("/api/auth")
 @Validated
 public class AuthController {
 
+    /**
+     * Cabecera de la respuesta del inicio de sesión con el refresh token de la nueva sesión.
+     */
+    private static final String CABECERA_REFRESH_TOKEN = "Refresh-Token";
+
     private final UsuarioService usuarioService;
+    private final SesionesRefresh sesionesRefresh;
 
     /**
      * Constructor con inyección de dependencias.
      *
      * @param usuarioService Servicio de usuarios para manejar la lógica de autenticación y registro.
+     * @param sesionesRefresh Emisión y rotación de refresh tokens.
      */
     @Autowired
-    public AuthController(UsuarioService usuarioService) {
+    public AuthController(UsuarioService usuarioService, SesionesRefresh sesionesRefresh) {
         this.usuarioService = usuarioService;
+        this.sesionesRefresh = sesionesRefresh;
     }
 
     /**
@@ -51,14 +63,39 @@ public class AuthController {
 
     /**
      * Endpoint para autenticar un usuario existente.
+     * Por defecto solo devuelve los datos de la credencial (ID, correo, rol y estado);
+     * el perfil completo se carga únicamente si el cliente lo solicita.
+     * Con recordar=true se abre además una sesión de larga duración, cuyo refresh token
+     * se devuelve en la cabecera Refresh-Token.
      *
      * @param request Objeto DTO con el correo y contraseña del usuario.
+     * @param perfil true para incluir todos los datos del perfil en la respuesta.
+     * @param recordar true para emitir un refresh token.
      * @return Respuesta con los datos del usuario autenticado o un error si las credenciales son inválidas.
      */
     @PostMapping("/login")
-    public ResponseEntity<UserResponse> loginUser(@Valid @RequestBody LoginRequest request) {
-        UserResponse response = usuarioService.autenticarUsuario(request.getCorreo(), request.getClave());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<UserResponse> loginUser(@Valid @RequestBody LoginRequest request,
+                                                  @RequestParam(defaultValue = "false") boolean perfil,
+                                                  @RequestParam(defaultValue = "false") boolean recordar) {
+        UserResponse response = usuarioService.autenticarUsuario(request.getCorreo(), request.getClave(), perfil);
+        if (!recordar) {
+            return ResponseEntity.ok(response);
+        }
+        SesionResponse sesion = sesionesRefresh.iniciar(response.getId());
+        return ResponseEntity.ok().header(CABECERA_REFRESH_TOKEN, sesion.getRefreshToken()).body(response);
+    }
+
+    /**
+     * Endpoint para renovar una sesión.
+     * El refresh token presentado queda invalidado y se devuelve uno nuevo; presentar de nuevo
+     * un token ya usado revoca la sesión completa.
+     *
+     * @param request Objeto DTO con el refresh token.
+     * @return El nuevo refresh token, o 401 si el presentado no es válido.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<SesionResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+        return ResponseEntity.ok(sesionesRefresh.refrescar(request.getRefreshToken()));
     }
 
     /**
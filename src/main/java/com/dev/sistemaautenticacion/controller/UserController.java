@@ -1,7 +1,12 @@
 package com.dev.sistemaautenticacion.controller;
 
+import com.dev.sistemaautenticacion.dto.AccesosUsuarioResponse;
+import com.dev.sistemaautenticacion.dto.FiltroUsuarios;
 import com.dev.sistemaautenticacion.dto.RegisterRequest;
+import com.dev.sistemaautenticacion.dto.SugerenciaUsuario;
 import com.dev.sistemaautenticacion.dto.UserResponse;
+import com.dev.sistemaautenticacion.dto.UsuarioPorIdResponse;
+import com.dev.sistemaautenticacion.dto.UsuariosPorIdRequest;
 import com.dev.sistemaautenticacion.service.UsuarioService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +14,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador REST para gestionar las operaciones relacionadas con usuarios.
@@ -44,6 +50,30 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    /**
+     * Endpoint para obtener el último inicio de sesión y el número de inicios de sesión de un usuario.
+     *
+     * @param id El identificador único del usuario.
+     * @return Los accesos del usuario, incluidos los pendientes de guardar.
+     */
+    @GetMapping("/{id}/accesos")
+    public ResponseEntity<AccesosUsuarioResponse> getUserLogins(@PathVariable Integer id) {
+        return ResponseEntity.ok(usuarioService.obtenerAccesosDeUsuario(id));
+    }
+
+    /**
+     * Endpoint para obtener varios usuarios por ID en una sola solicitud.
+     * Reemplaza varias llamadas a GET /api/users/{id}; la respuesta conserva el orden de los IDs
+     * solicitados e indica explícitamente los que no existen.
+     *
+     * @param request Objeto DTO con la lista de IDs.
+     * @return Un resultado por cada ID solicitado.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<UsuarioPorIdResponse>> getUsersByIds(@Valid @RequestBody UsuariosPorIdRequest request) {
+        return ResponseEntity.ok(usuarioService.obtenerUsuariosPorIds(request.getIds()));
+    }
+
     /**
      * Endpoint para actualizar los datos de un usuario.
      *
@@ -69,6 +99,45 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * Endpoint para filtrar usuarios por rol, estado, ciudad, país y rango de edad.
+     * Se atiende desde la réplica en memoria; responde 503 mientras la réplica se carga.
+     *
+     * @param filtro Los criterios de filtrado recibidos como parámetros de la URL.
+     * @param limite Número máximo de usuarios a devolver.
+     * @return Los usuarios que cumplen el filtro.
+     */
+    @GetMapping("/filtrar")
+    public ResponseEntity<List<UserResponse>> filterUsers(FiltroUsuarios filtro,
+                                                          @RequestParam(defaultValue = "100") int limite) {
+        return ResponseEntity.ok(usuarioService.filtrarUsuarios(filtro, limite));
+    }
+
+    /**
+     * Endpoint para contar los usuarios que cumplen un filtro por rol, estado, ciudad, país y rango de edad.
+     *
+     * @param filtro Los criterios de filtrado recibidos como parámetros de la URL.
+     * @return El número de usuarios.
+     */
+    @GetMapping("/contar")
+    public ResponseEntity<Map<String, Long>> countUsers(FiltroUsuarios filtro) {
+        return ResponseEntity.ok(Map.of("total", usuarioService.contarUsuarios(filtro)));
+    }
+
+    /**
+     * Endpoint de autocompletado para la consola de administración.
+     * Busca por nombre, apellido y correo en un índice en memoria.
+     *
+     * @param q El texto escrito por el administrador.
+     * @param limite Número máximo de sugerencias.
+     * @return Las sugerencias ordenadas por relevancia.
+     */
+    @GetMapping("/autocompletar")
+    public ResponseEntity<List<SugerenciaUsuario>> autocompleteUsers(@RequestParam String q,
+                                                                     @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(usuarioService.autocompletarUsuarios(q, limite));
+    }
+
     /**
      * Endpoint para eliminar un usuario por su ID.
      *
@@ -81,6 +150,18 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Endpoint para eliminar varios usuarios en una sola solicitud.
+     * Solo accesible por administradores.
+     *
+     * @param request Objeto DTO con la lista de IDs.
+     * @return El número de usuarios eliminados; los IDs inexistentes se ignoran.
+     */
+    @PostMapping("/batch-delete")
+    public ResponseEntity<Map<String, Integer>> deleteUsers(@Valid @RequestBody UsuariosPorIdRequest request) {
+        return ResponseEntity.ok(Map.of("eliminados", usuarioService.eliminarUsuarios(request.getIds())));
+    }
+
     /**
      * Endpoint para cambiar el rol de un usuario.
      * Solo accesible por administradores.
@@ -0,0 +1,30 @@
+package com.dev.sistemaautenticacion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Clase DTO con el último inicio de sesión y el número de inicios de sesión de un usuario.
+ * Combina los valores ya guardados con los acumulados en memoria pendientes de guardar.
+ */
+@Getter
+@AllArgsConstructor
+public class AccesosUsuarioResponse {
+
+    /**
+     * ID del usuario.
+     */
+    private final Integer usuarioId;
+
+    /**
+     * Fecha del último inicio de sesión correcto, o null si nunca ha iniciado sesión.
+     */
+    private final Instant ultimoAcceso;
+
+    /**
+     * Número total de inicios de sesión correctos.
+     */
+    private final long totalAccesos;
+}
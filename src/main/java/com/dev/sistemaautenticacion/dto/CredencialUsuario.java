@@ -0,0 +1,41 @@
+package com.dev.sistemaautenticacion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Proyección reducida de la entidad Usuario con los datos estrictamente necesarios
+ * para validar un inicio de sesión.
+ * Evita cargar el perfil completo (incluida la dirección) en cada autenticación
+ * y es lo suficientemente pequeña como para mantenerse en caché.
+ * Es inmutable: cualquier cambio en el usuario debe invalidar la instancia cacheada.
+ */
+@Getter
+@AllArgsConstructor
+public class CredencialUsuario {
+
+    /**
+     * Identificador único del usuario.
+     */
+    private final Integer id;
+
+    /**
+     * Correo electrónico normalizado del usuario.
+     */
+    private final String correo;
+
+    /**
+     * Clave almacenada del usuario.
+     */
+    private final String clave;
+
+    /**
+     * Estado de la cuenta del usuario.
+     */
+    private final String estado;
+
+    /**
+     * Rol del usuario en el sistema.
+     */
+    private final String rol;
+}
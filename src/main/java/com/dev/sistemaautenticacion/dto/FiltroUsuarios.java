@@ -0,0 +1,43 @@
+package com.dev.sistemaautenticacion.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Clase DTO con los criterios de filtrado de usuarios.
+ * Los criterios nulos no se aplican; los de texto se comparan sin distinguir mayúsculas.
+ */
+@Getter
+@Setter
+public class FiltroUsuarios {
+
+    /**
+     * Rol de los usuarios (ej. 'usuario', 'administrador').
+     */
+    private String rol;
+
+    /**
+     * Estado de los usuarios (ej. 'activo', 'inactivo').
+     */
+    private String estado;
+
+    /**
+     * Ciudad de residencia.
+     */
+    private String ciudad;
+
+    /**
+     * País de residencia.
+     */
+    private String pais;
+
+    /**
+     * Edad mínima en años cumplidos.
+     */
+    private Integer edadMinima;
+
+    /**
+     * Edad máxima en años cumplidos.
+     */
+    private Integer edadMaxima;
+}
@@ -0,0 +1,19 @@
+package com.dev.sistemaautenticacion.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Clase DTO con el refresh token que el cliente presenta para renovar su sesión.
+ */
+@Getter
+@Setter
+public class RefreshRequest {
+
+    /**
+     * Refresh token recibido en el inicio de sesión o en el último refresco.
+     */
+    @NotBlank(message = "El refresh token es obligatorio.")
+    private String refreshToken;
+}
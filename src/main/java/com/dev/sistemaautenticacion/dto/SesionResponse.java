@@ -0,0 +1,30 @@
+package com.dev.sistemaautenticacion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Clase DTO con el refresh token de una sesión.
+ * Cada refresco devuelve un token nuevo; el anterior deja de ser válido.
+ */
+@Getter
+@AllArgsConstructor
+public class SesionResponse {
+
+    /**
+     * ID del usuario de la sesión.
+     */
+    private final Integer usuarioId;
+
+    /**
+     * Refresh token que debe presentarse en el siguiente refresco.
+     */
+    private final String refreshToken;
+
+    /**
+     * Fecha de caducidad del refresh token.
+     */
+    private final Instant expiracion;
+}
@@ -0,0 +1,33 @@
+package com.dev.sistemaautenticacion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Clase DTO con los datos mínimos de un usuario devueltos por el autocompletado
+ * de la consola de administración.
+ */
+@Getter
+@AllArgsConstructor
+public class SugerenciaUsuario {
+
+    /**
+     * Identificador único del usuario.
+     */
+    private final Integer id;
+
+    /**
+     * Nombre del usuario.
+     */
+    private final String nombre;
+
+    /**
+     * Apellido del usuario.
+     */
+    private final String apellido;
+
+    /**
+     * Correo electrónico del usuario.
+     */
+    private final String correo;
+}
@@ -0,0 +1,29 @@
+package com.dev.sistemaautenticacion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Clase DTO con el resultado de un ID dentro de una consulta por lotes.
+ * Los IDs inexistentes se devuelven con encontrado = false en lugar de omitirse,
+ * de modo que la respuesta conserva el orden y la longitud de la solicitud.
+ */
+@Getter
+@AllArgsConstructor
+public class UsuarioPorIdResponse {
+
+    /**
+     * ID solicitado.
+     */
+    private final Integer id;
+
+    /**
+     * Indica si el usuario existe.
+     */
+    private final boolean encontrado;
+
+    /**
+     * Datos del usuario, o null si no existe.
+     */
+    private final UserResponse usuario;
+}
@@ -0,0 +1,22 @@
+package com.dev.sistemaautenticacion.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Clase DTO para la consulta de varios usuarios por ID en una sola solicitud.
+ */
+@Getter
+@Setter
+public class UsuariosPorIdRequest {
+
+    /**
+     * IDs de los usuarios a consultar, en el orden en que se quieren recibir.
+     */
+    @NotEmpty(message = "La lista de IDs no puede estar vacía.")
+    private List<@NotNull(message = "Los IDs no pueden ser nulos.") Integer> ids;
+}
@@ -0,0 +1,38 @@
+package com.dev.sistemaautenticacion.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Representa los accesos acumulados de un usuario en la tabla auxiliar "acceso_usuario".
+ * Se mantiene fuera de la tabla "usuario" para que los inicios de sesión no actualicen
+ * sus filas; las escrituras las realiza {@code RegistroDeAccesos} por lotes.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "acceso_usuario")
+public class AccesoUsuario {
+
+    /**
+     * ID del usuario en la tabla "usuario".
+     */
+    @Id
+    @Column(name = "usuario_id", nullable = false)
+    private Integer usuarioId;
+
+    /**
+     * Fecha del último inicio de sesión correcto.
+     */
+    @Column(name = "ultimo_acceso", nullable = false)
+    private Instant ultimoAcceso;
+
+    /**
+     * Número total de inicios de sesión correctos.
+     */
+    @Column(name = "total_accesos", nullable = false)
+    private Long totalAccesos;
+}
@@ -0,0 +1,43 @@
+package com.dev.sistemaautenticacion.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Representa un lote confirmado de una importación masiva en la tabla auxiliar "importacion_lote".
+ * {@code ImportadorUsuarios} inserta la fila en la misma transacción que los usuarios del lote,
+ * de modo que al reanudar una importación interrumpida se sabe con exactitud qué registros
+ * posteriores al punto de control ya se confirmaron. Las filas se eliminan al terminar la importación.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "importacion_lote", indexes = @Index(name = "idx_importacion_lote_archivo", columnList = "archivo"))
+public class ImportacionLote {
+
+    /**
+     * Identificador del lote.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Ruta absoluta del archivo importado.
+     */
+    @Column(name = "archivo", nullable = false, length = 500)
+    private String archivo;
+
+    /**
+     * Primer registro del archivo cubierto por el lote.
+     */
+    @Column(name = "desde", nullable = false)
+    private Long desde;
+
+    /**
+     * Último registro del archivo cubierto por el lote.
+     */
+    @Column(name = "hasta", nullable = false)
+    private Long hasta;
+}
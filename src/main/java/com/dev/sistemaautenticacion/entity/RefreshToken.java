@@ -0,0 +1,76 @@
+package com.dev.sistemaautenticacion.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Representa un refresh token en la tabla "refresh_token".
+ * Solo se usa con el almacén de sesiones en tabla (usuarios.sesiones.almacen=jpa);
+ * el almacén por defecto guarda los tokens en un registro en disco.
+ * Implementa Persistable porque la huella es un ID asignado: así save() inserta directamente
+ * sin un SELECT previo para decidir entre inserción y actualización.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "idx_refresh_token_familia", columnList = "familia"),
+        @Index(name = "idx_refresh_token_usuario", columnList = "usuario_id"),
+        @Index(name = "idx_refresh_token_expiracion", columnList = "expiracion")
+})
+public class RefreshToken implements Persistable<String> {
+
+    /**
+     * Huella del token en hexadecimal; el token no se almacena.
+     */
+    @Id
+    @Column(name = "huella", length = 32, nullable = false)
+    private String huella;
+
+    /**
+     * Sesión (familia de tokens) a la que pertenece el token.
+     */
+    @Column(name = "familia", nullable = false)
+    private Long familia;
+
+    /**
+     * ID del usuario de la sesión.
+     */
+    @Column(name = "usuario_id", nullable = false)
+    private Integer usuarioId;
+
+    /**
+     * Fecha de caducidad del token.
+     */
+    @Column(name = "expiracion", nullable = false)
+    private Instant expiracion;
+
+    /**
+     * Indica si el token ya se sustituyó por otro de la misma familia.
+     */
+    @Column(name = "rotado", nullable = false)
+    private boolean rotado;
+
+    @Transient
+    private boolean nuevo = true;
+
+    @Override
+    public String getId() {
+        return huella;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nuevo;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarComoExistente() {
+        nuevo = false;
+    }
+}
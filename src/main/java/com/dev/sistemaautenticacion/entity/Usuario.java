@@ -3,6 +3,7 @@ package com.dev.sistemaautenticacion.entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.SoftDelete;
 
 import java.time.Instant;
 import java.time.LocalDate;
@@ -14,11 +15,17 @@ import java.time.LocalDate;
  * entre otros atributos relevantes.
  * Utiliza anotaciones de JPA para definir el mapeo y de Lombok para
  * generar automáticamente los métodos getter y setter.
+ * La eliminación es lógica: la columna "eliminado" marca los usuarios borrados, que todas las
+ * consultas de Hibernate excluyen, y un proceso en segundo plano los elimina físicamente más tarde.
  */
 @Getter
 @Setter
 @Entity
-@Table(name = "usuario")
+@Table(name = "usuario", indexes = {
+        @Index(name = "idx_usuario_fecha_creacion", columnList = "fecha_creacion"),
+        @Index(name = "idx_usuario_fecha_modificacion", columnList = "fecha_modificacion")
+})
+@SoftDelete(columnName = "eliminado")
 public class Usuario {
 
     /**
@@ -116,8 +123,10 @@ public class Usuario {
     /**
      * Fecha y hora de la última modificación del registro.
      * Se actualiza automáticamente cuando se modifica un registro existente.
+     * Hibernate no la incluye en sus UPDATE: asignarla explícitamente, aunque sea a su valor
+     * actual, impediría que MySQL la actualizara.
      */
-    @Column(name = "fecha_modificacion", insertable = false)
+    @Column(name = "fecha_modificacion", insertable = false, updatable = false)
     private Instant fechaModificacion;
 
 
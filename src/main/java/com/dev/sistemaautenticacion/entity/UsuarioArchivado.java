@@ -0,0 +1,115 @@
+package com.dev.sistemaautenticacion.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Representa un usuario inactivo trasladado a la tabla de archivo "usuario_archivado".
+ * Conserva las mismas columnas que la tabla "usuario" (incluido el ID original) para
+ * que el usuario pueda restaurarse sin cambios, además de la fecha en que se archivó.
+ * Mantener a estos usuarios fuera de la tabla principal reduce el tamaño de sus índices.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "usuario_archivado")
+public class UsuarioArchivado {
+
+    /**
+     * Identificador original del usuario en la tabla "usuario".
+     */
+    @Id
+    @Column(name = "id", nullable = false)
+    private Integer id;
+
+    /**
+     * Nombre del usuario.
+     */
+    @Column(name = "nombre", nullable = false, length = 100)
+    private String nombre;
+
+    /**
+     * Apellido del usuario.
+     */
+    @Column(name = "apellido", nullable = false, length = 100)
+    private String apellido;
+
+    /**
+     * Correo electrónico único del usuario.
+     */
+    @Column(name = "correo", nullable = false, unique = true, length = 100)
+    private String correo;
+
+    /**
+     * Contraseña almacenada del usuario.
+     */
+    @Column(name = "clave", nullable = false)
+    private String clave;
+
+    /**
+     * Fecha de nacimiento del usuario.
+     */
+    @Column(name = "fecha_nacimiento", nullable = false)
+    private LocalDate fechaNacimiento;
+
+    /**
+     * Teléfono del usuario.
+     */
+    @Column(name = "telefono", length = 20)
+    private String telefono;
+
+    /**
+     * Dirección del usuario.
+     */
+    @Lob
+    @Column(name = "direccion")
+    private String direccion;
+
+    /**
+     * Ciudad de residencia del usuario.
+     */
+    @Column(name = "ciudad", length = 100)
+    private String ciudad;
+
+    /**
+     * País de residencia del usuario.
+     */
+    @Column(name = "pais", length = 100)
+    private String pais;
+
+    /**
+     * Rol del usuario en el sistema.
+     */
+    @Lob
+    @Column(name = "rol", nullable = false)
+    private String rol;
+
+    /**
+     * Estado de la cuenta del usuario (normalmente 'inactivo').
+     */
+    @Lob
+    @Column(name = "estado", nullable = false)
+    private String estado;
+
+    /**
+     * Fecha y hora de creación del registro original.
+     */
+    @Column(name = "fecha_creacion")
+    private Instant fechaCreacion;
+
+    /**
+     * Fecha y hora de la última modificación del registro original.
+     */
+    @Column(name = "fecha_modificacion")
+    private Instant fechaModificacion;
+
+    /**
+     * Fecha y hora en que el usuario se trasladó al archivo.
+     */
+    @Column(name = "fecha_archivado", nullable = false)
+    private Instant fechaArchivado;
+}
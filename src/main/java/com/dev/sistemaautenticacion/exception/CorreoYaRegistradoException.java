@@ -0,0 +1,17 @@
+package com.dev.sistemaautenticacion.exception;
+
+/**
+ * Se lanza cuando el correo electrónico ya pertenece a otro usuario.
+ * Al no tener traza ni estado mutable, se reutiliza una única instancia compartida.
+ */
+public final class CorreoYaRegistradoException extends DominioException {
+
+    /**
+     * Instancia compartida de la excepción.
+     */
+    public static final CorreoYaRegistradoException INSTANCIA = new CorreoYaRegistradoException();
+
+    private CorreoYaRegistradoException() {
+        super(ErrorDominio.CORREO_YA_REGISTRADO);
+    }
+}
@@ -0,0 +1,17 @@
+package com.dev.sistemaautenticacion.exception;
+
+/**
+ * Se lanza cuando la contraseña ingresada no coincide con la almacenada.
+ * Al no tener traza ni estado mutable, se reutiliza una única instancia compartida.
+ */
+public final class CredencialesInvalidasException extends DominioException {
+
+    /**
+     * Instancia compartida de la excepción.
+     */
+    public static final CredencialesInvalidasException INSTANCIA = new CredencialesInvalidasException();
+
+    private CredencialesInvalidasException() {
+        super(ErrorDominio.CREDENCIALES_INVALIDAS);
+    }
+}
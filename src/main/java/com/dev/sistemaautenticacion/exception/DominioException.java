@@ -0,0 +1,30 @@
+package com.dev.sistemaautenticacion.exception;
+
+/**
+ * Excepción base para los fallos esperados del dominio (usuario inexistente,
+ * credenciales inválidas, correo duplicado, etc.).
+ * No captura la traza de pila ni admite excepciones suprimidas: estos fallos forman parte
+ * del flujo normal (por ejemplo, un login fallido) y no necesitan diagnóstico,
+ * por lo que lanzarlos cuesta lo mismo que devolver un valor.
+ */
+public abstract class DominioException extends RuntimeException {
+
+    private final ErrorDominio error;
+
+    /**
+     * Crea la excepción para un tipo de error del dominio.
+     *
+     * @param error El tipo de error.
+     */
+    protected DominioException(ErrorDominio error) {
+        super(error.getDetalle(), null, false, false);
+        this.error = error;
+    }
+
+    /**
+     * @return El tipo de error del dominio.
+     */
+    public ErrorDominio getError() {
+        return error;
+    }
+}
@@ -0,0 +1,59 @@
+package com.dev.sistemaautenticacion.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.Locale;
+
+/**
+ * Catálogo de fallos esperados del dominio.
+ * Cada tipo define el estado HTTP, el título y el detalle de su respuesta problem+json,
+ * de modo que el cuerpo puede serializarse una sola vez al arrancar la aplicación.
+ */
+public enum ErrorDominio {
+
+    USUARIO_NO_ENCONTRADO(HttpStatus.NOT_FOUND, "Usuario no encontrado", "Usuario no encontrado."),
+    CREDENCIALES_INVALIDAS(HttpStatus.UNAUTHORIZED, "Credenciales inválidas", "Credenciales inválidas."),
+    CORREO_YA_REGISTRADO(HttpStatus.CONFLICT, "Correo ya registrado", "El correo ya está registrado."),
+    REPLICA_NO_DISPONIBLE(HttpStatus.SERVICE_UNAVAILABLE, "Réplica no disponible",
+            "Los datos de usuarios se están cargando. Por favor, reintente más tarde."),
+    REFRESH_TOKEN_INVALIDO(HttpStatus.UNAUTHORIZED, "Refresh token inválido",
+            "El refresh token no es válido, ha caducado o la sesión fue revocada. Inicie sesión de nuevo.");
+
+    private final HttpStatus estado;
+    private final String titulo;
+    private final String detalle;
+
+    ErrorDominio(HttpStatus estado, String titulo, String detalle) {
+        this.estado = estado;
+        this.titulo = titulo;
+        this.detalle = detalle;
+    }
+
+    /**
+     * @return El estado HTTP asociado al error.
+     */
+    public HttpStatus getEstado() {
+        return estado;
+    }
+
+    /**
+     * @return El título corto del error.
+     */
+    public String getTitulo() {
+        return titulo;
+    }
+
+    /**
+     * @return El mensaje descriptivo del error.
+     */
+    public String getDetalle() {
+        return detalle;
+    }
+
+    /**
+     * @return El identificador del tipo de error usado en el campo "type" de problem+json.
+     */
+    public String getTipo() {
+        return "urn:sistemaautenticacion:error:" + name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
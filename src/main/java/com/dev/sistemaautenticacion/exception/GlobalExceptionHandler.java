@@ -1,6 +1,10 @@
 package com.dev.sistemaautenticacion.exception;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -8,6 +12,8 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 
+import java.net.URI;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -19,6 +25,24 @@ import java.util.Map;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final Map<ErrorDominio, byte[]> cuerposPorError = new EnumMap<>(ErrorDominio.class);
+
+    /**
+     * Constructor que serializa por adelantado el cuerpo problem+json de cada error del dominio,
+     * de forma que responder a un fallo esperado no requiere serialización por solicitud.
+     *
+     * @param objectMapper Serializador JSON configurado por la aplicación.
+     * @throws JsonProcessingException Si algún cuerpo no puede serializarse.
+     */
+    public GlobalExceptionHandler(ObjectMapper objectMapper) throws JsonProcessingException {
+        for (ErrorDominio error : ErrorDominio.values()) {
+            ProblemDetail problema = ProblemDetail.forStatusAndDetail(error.getEstado(), error.getDetalle());
+            problema.setType(URI.create(error.getTipo()));
+            problema.setTitle(error.getTitulo());
+            cuerposPorError.put(error, objectMapper.writeValueAsBytes(problema));
+        }
+    }
+
     /**
      * Maneja excepciones de validación de argumentos (por ejemplo, DTOs inválidos).
      * @param ex Excepción lanzada por la validación de argumentos.
@@ -33,6 +57,19 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Maneja los fallos esperados del dominio devolviendo su cuerpo problem+json pre-serializado.
+     * @param ex Excepción del dominio lanzada por la capa de servicios.
+     * @return Respuesta con el cuerpo problem+json y el estado HTTP del tipo de error.
+     */
+    @ExceptionHandler(DominioException.class)
+    public ResponseEntity<byte[]> handleDominioException(DominioException ex) {
+        ErrorDominio error = ex.getError();
+        return ResponseEntity.status(error.getEstado())
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(cuerposPorError.get(error));
+    }
+
     /**
      * Maneja excepciones genéricas de tipo IllegalArgumentException.
      * @param ex Excepción lanzada con argumentos no válidos.
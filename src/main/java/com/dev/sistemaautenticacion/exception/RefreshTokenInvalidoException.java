@@ -0,0 +1,18 @@
+package com.dev.sistemaautenticacion.exception;
+
+/**
+ * Se lanza cuando un refresh token no existe, ha caducado, pertenece a una sesión revocada
+ * o ya se había usado. La respuesta es la misma en todos los casos para no revelar cuál se da.
+ * Al no tener traza ni estado mutable, se reutiliza una única instancia compartida.
+ */
+public final class RefreshTokenInvalidoException extends DominioException {
+
+    /**
+     * Instancia compartida de la excepción.
+     */
+    public static final RefreshTokenInvalidoException INSTANCIA = new RefreshTokenInvalidoException();
+
+    private RefreshTokenInvalidoException() {
+        super(ErrorDominio.REFRESH_TOKEN_INVALIDO);
+    }
+}
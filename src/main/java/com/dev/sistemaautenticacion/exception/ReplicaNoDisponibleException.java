@@ -0,0 +1,18 @@
+package com.dev.sistemaautenticacion.exception;
+
+/**
+ * Se lanza cuando una consulta que solo se atiende desde la réplica en memoria llega
+ * antes de que la réplica termine de cargarse.
+ * Al no tener traza ni estado mutable, se reutiliza una única instancia compartida.
+ */
+public final class ReplicaNoDisponibleException extends DominioException {
+
+    /**
+     * Instancia compartida de la excepción.
+     */
+    public static final ReplicaNoDisponibleException INSTANCIA = new ReplicaNoDisponibleException();
+
+    private ReplicaNoDisponibleException() {
+        super(ErrorDominio.REPLICA_NO_DISPONIBLE);
+    }
+}
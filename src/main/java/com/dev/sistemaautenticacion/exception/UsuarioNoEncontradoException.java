@@ -0,0 +1,17 @@
+package com.dev.sistemaautenticacion.exception;
+
+/**
+ * Se lanza cuando el usuario solicitado no existe.
+ * Al no tener traza ni estado mutable, se reutiliza una única instancia compartida.
+ */
+public final class UsuarioNoEncontradoException extends DominioException {
+
+    /**
+     * Instancia compartida de la excepción.
+     */
+    public static final UsuarioNoEncontradoException INSTANCIA = new UsuarioNoEncontradoException();
+
+    private UsuarioNoEncontradoException() {
+        super(ErrorDominio.USUARIO_NO_ENCONTRADO);
+    }
+}
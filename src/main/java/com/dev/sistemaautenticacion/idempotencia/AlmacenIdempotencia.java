@@ -0,0 +1,202 @@
+package com.dev.sistemaautenticacion.idempotencia;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Almacén en memoria de las respuestas de las solicitudes con cabecera Idempotency-Key.
+ * Cada clave se reserva al llegar su primera solicitud; los duplicados concurrentes esperan
+ * la respuesta de esa ejecución y los posteriores la reciben directamente.
+ * El almacén está acotado en número de entradas y cada respuesta caduca pasado su tiempo de vida.
+ * Si se alcanza la capacidad se descartan primero las entradas más antiguas, aunque sigan en curso:
+ * bajo esa presión un reintento puede volver a ejecutarse.
+ */
+@Component
+public class AlmacenIdempotencia {
+
+    private final int capacidad;
+    private final long ttlNanos;
+    private final LongSupplier reloj;
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>();
+
+    /**
+     * Constructor con los parámetros configurables del almacén.
+     *
+     * @param capacidad Número máximo de claves conservadas.
+     * @param ttlSegundos Tiempo que se conserva una respuesta desde que se completa.
+     */
+    @Autowired
+    public AlmacenIdempotencia(@Value("${usuarios.idempotencia.capacidad:10000}") int capacidad,
+                               @Value("${usuarios.idempotencia.ttl-segundos:86400}") long ttlSegundos) {
+        this(capacidad, ttlSegundos, System::nanoTime);
+    }
+
+    /**
+     * Constructor con un reloj explícito, utilizado en las pruebas.
+     *
+     * @param capacidad Número máximo de claves conservadas.
+     * @param ttlSegundos Tiempo que se conserva una respuesta desde que se completa.
+     * @param reloj Fuente de tiempo en nanosegundos.
+     */
+    AlmacenIdempotencia(int capacidad, long ttlSegundos, LongSupplier reloj) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad del almacén debe ser mayor que cero.");
+        }
+        this.capacidad = capacidad;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSegundos);
+        this.reloj = reloj;
+    }
+
+    /**
+     * Reserva una clave para ejecutar su solicitud o devuelve la reserva existente.
+     *
+     * @param clave La clave de idempotencia, incluido el método y la ruta.
+     * @param huella El resumen del cuerpo de la solicitud.
+     * @return La reserva; {@link Reserva#isPropia()} indica si el llamante debe ejecutar la solicitud.
+     */
+    public synchronized Reserva reservar(String clave, byte[] huella) {
+        long ahora = reloj.getAsLong();
+        Entrada existente = entradas.get(clave);
+        if (existente != null && !existente.caducada(ahora)) {
+            return new Reserva(false, existente);
+        }
+        entradas.remove(clave);
+        descartarCaducadas(ahora);
+        Entrada nueva = new Entrada(huella, ahora + ttlNanos);
+        entradas.put(clave, nueva);
+        return new Reserva(true, nueva);
+    }
+
+    /**
+     * Guarda la respuesta de una solicitud y la entrega a los duplicados que la esperan.
+     * El tiempo de vida de la entrada empieza a contar en este momento.
+     *
+     * @param entrada La entrada reservada por el llamante.
+     * @param respuesta La respuesta a repetir.
+     */
+    public void completar(Entrada entrada, RespuestaGuardada respuesta) {
+        entrada.caducidad = reloj.getAsLong() + ttlNanos;
+        entrada.resultado.complete(respuesta);
+    }
+
+    /**
+     * Libera una clave cuya respuesta no debe repetirse (por ejemplo, un error del servidor),
+     * de modo que el siguiente reintento vuelva a ejecutarse. Los duplicados en espera
+     * reciben null y reintentan la reserva.
+     *
+     * @param clave La clave de idempotencia.
+     * @param entrada La entrada reservada por el llamante.
+     */
+    public void descartar(String clave, Entrada entrada) {
+        synchronized (this) {
+            entradas.remove(clave, entrada);
+        }
+        entrada.resultado.complete(null);
+    }
+
+    /**
+     * @return El número de claves conservadas actualmente.
+     */
+    public synchronized int tamano() {
+        return entradas.size();
+    }
+
+    /**
+     * Elimina las entradas caducadas más antiguas y, si se alcanza la capacidad, las más antiguas
+     * aunque no hayan caducado. Las entradas se recorren en orden de llegada.
+     */
+    private void descartarCaducadas(long ahora) {
+        Iterator<Map.Entry<String, Entrada>> iterador = entradas.entrySet().iterator();
+        while (iterador.hasNext()) {
+            Entrada entrada = iterador.next().getValue();
+            if (!entrada.caducada(ahora) && entradas.size() < capacidad) {
+                break;
+            }
+            iterador.remove();
+        }
+    }
+
+    /**
+     * Estado de una clave: la huella del cuerpo original y la respuesta, en curso o completada.
+     */
+    public static final class Entrada {
+
+        private final byte[] huella;
+        private final CompletableFuture<RespuestaGuardada> resultado = new CompletableFuture<>();
+        private volatile long caducidad;
+
+        private Entrada(byte[] huella, long caducidad) {
+            this.huella = huella;
+            this.caducidad = caducidad;
+        }
+
+        /**
+         * @return El resumen del cuerpo de la solicitud que reservó la clave.
+         */
+        public byte[] getHuella() {
+            return huella;
+        }
+
+        /**
+         * @return La respuesta de la ejecución original; se completa con null si se descartó.
+         */
+        public CompletableFuture<RespuestaGuardada> getResultado() {
+            return resultado;
+        }
+
+        private boolean caducada(long ahora) {
+            return ahora - caducidad > 0;
+        }
+    }
+
+    /**
+     * Resultado de reservar una clave.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Reserva {
+
+        /**
+         * true si la clave no existía y el llamante debe ejecutar la solicitud.
+         */
+        private final boolean propia;
+
+        /**
+         * Entrada de la clave.
+         */
+        private final Entrada entrada;
+    }
+
+    /**
+     * Respuesta guardada para repetirse ante los reintentos.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class RespuestaGuardada {
+
+        /**
+         * Estado HTTP.
+         */
+        private final int estado;
+
+        /**
+         * Tipo de contenido, o null si la respuesta no tiene cuerpo.
+         */
+        private final String tipoContenido;
+
+        /**
+         * Cuerpo de la respuesta.
+         */
+        private final byte[] cuerpo;
+    }
+}
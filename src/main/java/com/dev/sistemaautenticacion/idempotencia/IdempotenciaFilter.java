@@ -0,0 +1,278 @@
+package com.dev.sistemaautenticacion.idempotencia;
+
+import com.dev.sistemaautenticacion.idempotencia.AlmacenIdempotencia.Entrada;
+import com.dev.sistemaautenticacion.idempotencia.AlmacenIdempotencia.Reserva;
+import com.dev.sistemaautenticacion.idempotencia.AlmacenIdempotencia.RespuestaGuardada;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Filtro que hace idempotentes el registro (POST /api/auth/register) y la actualización de
+ * usuarios (PUT /api/users/{id}) cuando el cliente envía la cabecera Idempotency-Key.
+ * La primera solicitud con una clave se ejecuta y su estado y cuerpo se guardan en el
+ * {@link AlmacenIdempotencia}; los duplicados concurrentes esperan esa ejecución y los
+ * reintentos posteriores reciben la respuesta guardada sin llegar al controlador.
+ * Las respuestas 5xx no se guardan, de modo que un reintento tras un error del servidor se ejecuta.
+ * El cuerpo se lee completo en memoria para calcular su huella, por lo que los cuerpos que superan
+ * el tamaño máximo configurado se rechazan con 413 antes de leerlos o en cuanto lo superan.
+ * Se aplica antes que el limitador de concurrencia para que las repeticiones no ocupen su capacidad.
+ */
+@Component
+@Order(0)
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    /**
+     * Cabecera con la clave de idempotencia elegida por el cliente.
+     */
+    public static final String CABECERA_CLAVE = "Idempotency-Key";
+
+    /**
+     * Cabecera añadida a las respuestas repetidas desde el almacén.
+     */
+    public static final String CABECERA_REPETIDA = "Idempotency-Replayed";
+
+    private static final Pattern RUTA_USUARIO = Pattern.compile("/api/users/\\d+");
+    private static final int LONGITUD_MAXIMA_CLAVE = 255;
+    private static final int INTENTOS_MAXIMOS = 3;
+
+    private static final byte[] MENSAJE_CLAVE_INVALIDA =
+            "La cabecera Idempotency-Key debe tener entre 1 y 255 caracteres.".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MENSAJE_CUERPO_DISTINTO =
+            "La clave de idempotencia ya se utilizó con otro cuerpo de solicitud.".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MENSAJE_EN_CURSO =
+            "La solicitud original con esta clave de idempotencia sigue en curso.".getBytes(StandardCharsets.UTF_8);
+
+    private final AlmacenIdempotencia almacen;
+    private final long esperaMaximaMs;
+    private final int tamanoMaximoCuerpo;
+    private final byte[] mensajeCuerpoDemasiadoGrande;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param almacen Almacén de las respuestas por clave.
+     * @param esperaMaximaMs Tiempo máximo que un duplicado espera a la ejecución en curso.
+     * @param tamanoMaximoCuerpo Tamaño máximo en bytes del cuerpo de una solicitud con clave de idempotencia.
+     */
+    @Autowired
+    public IdempotenciaFilter(AlmacenIdempotencia almacen,
+                              @Value("${usuarios.idempotencia.espera-maxima-ms:10000}") long esperaMaximaMs,
+                              @Value("${usuarios.idempotencia.tamano-maximo-cuerpo:65536}") int tamanoMaximoCuerpo) {
+        this.almacen = almacen;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.tamanoMaximoCuerpo = tamanoMaximoCuerpo;
+        this.mensajeCuerpoDemasiadoGrande = ("El cuerpo de la solicitud supera el tamaño máximo de "
+                + tamanoMaximoCuerpo + " bytes.").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(CABECERA_CLAVE) == null) {
+            return true;
+        }
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        String metodo = request.getMethod();
+        return !("POST".equals(metodo) && "/api/auth/register".equals(ruta))
+                && !("PUT".equals(metodo) && RUTA_USUARIO.matcher(ruta).matches());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String claveCliente = request.getHeader(CABECERA_CLAVE);
+        if (claveCliente.isBlank() || claveCliente.length() > LONGITUD_MAXIMA_CLAVE) {
+            responderError(response, HttpStatus.BAD_REQUEST, MENSAJE_CLAVE_INVALIDA);
+            return;
+        }
+        // La clave se limita al método y la ruta: la misma clave en otro usuario es otra operación
+        String clave = request.getMethod() + " " + request.getRequestURI() + " " + claveCliente;
+        byte[] cuerpo = leerCuerpo(request);
+        if (cuerpo == null) {
+            responderError(response, HttpStatus.PAYLOAD_TOO_LARGE, mensajeCuerpoDemasiadoGrande);
+            return;
+        }
+        CuerpoLeido solicitud = new CuerpoLeido(request, cuerpo);
+        byte[] huella = resumir(cuerpo);
+
+        for (int intento = 0; intento < INTENTOS_MAXIMOS; intento++) {
+            Reserva reserva = almacen.reservar(clave, huella);
+            Entrada entrada = reserva.getEntrada();
+            if (!MessageDigest.isEqual(entrada.getHuella(), huella)) {
+                responderError(response, HttpStatus.UNPROCESSABLE_ENTITY, MENSAJE_CUERPO_DISTINTO);
+                return;
+            }
+            if (reserva.isPropia()) {
+                ejecutar(clave, entrada, solicitud, response, filterChain);
+                return;
+            }
+            RespuestaGuardada guardada = esperar(entrada);
+            if (guardada != null) {
+                repetir(guardada, response);
+                return;
+            }
+            if (!entrada.getResultado().isDone()) {
+                responderError(response, HttpStatus.CONFLICT, MENSAJE_EN_CURSO);
+                return;
+            }
+            // La ejecución original falló sin respuesta guardada: se intenta reservar la clave de nuevo
+        }
+        responderError(response, HttpStatus.CONFLICT, MENSAJE_EN_CURSO);
+    }
+
+    /**
+     * Lee el cuerpo de la solicitud sin pasar del tamaño máximo.
+     *
+     * @return El cuerpo, o null si declara o contiene más bytes que el máximo.
+     */
+    private byte[] leerCuerpo(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > tamanoMaximoCuerpo) {
+            return null;
+        }
+        byte[] cuerpo = request.getInputStream().readNBytes(tamanoMaximoCuerpo + 1);
+        return cuerpo.length > tamanoMaximoCuerpo ? null : cuerpo;
+    }
+
+    /**
+     * Ejecuta la solicitud capturando su respuesta para guardarla.
+     */
+    private void ejecutar(String clave, Entrada entrada, HttpServletRequest request, HttpServletResponse response,
+                          FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper captura = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, captura);
+        } catch (ServletException | IOException | RuntimeException | Error e) {
+            almacen.descartar(clave, entrada);
+            throw e;
+        }
+        int estado = captura.getStatus();
+        if (estado >= 500) {
+            almacen.descartar(clave, entrada);
+        } else {
+            almacen.completar(entrada, new RespuestaGuardada(estado, captura.getContentType(),
+                    captura.getContentAsByteArray()));
+        }
+        captura.copyBodyToResponse();
+    }
+
+    /**
+     * Espera la respuesta de la ejecución en curso.
+     *
+     * @return La respuesta guardada, o null si la ejecución se descartó o no terminó a tiempo.
+     */
+    private RespuestaGuardada esperar(Entrada entrada) throws ServletException {
+        try {
+            return entrada.getResultado().get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Espera de la solicitud original interrumpida.", e);
+        } catch (ExecutionException e) {
+            // El resultado solo se completa con valores; no debería ocurrir
+            throw new ServletException(e.getCause());
+        }
+    }
+
+    private static void repetir(RespuestaGuardada guardada, HttpServletResponse response) throws IOException {
+        response.setStatus(guardada.getEstado());
+        response.setHeader(CABECERA_REPETIDA, "true");
+        if (guardada.getTipoContenido() != null) {
+            response.setContentType(guardada.getTipoContenido());
+        }
+        response.setContentLength(guardada.getCuerpo().length);
+        response.getOutputStream().write(guardada.getCuerpo());
+    }
+
+    private static void responderError(HttpServletResponse response, HttpStatus estado, byte[] mensaje)
+            throws IOException {
+        response.setStatus(estado.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8");
+        response.getOutputStream().write(mensaje);
+    }
+
+    private static byte[] resumir(byte[] cuerpo) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(cuerpo);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible.", e);
+        }
+    }
+
+    /**
+     * Solicitud cuyo cuerpo se lee completo por adelantado para calcular su huella
+     * y que el controlador puede volver a leer.
+     */
+    private static final class CuerpoLeido extends HttpServletRequestWrapper {
+
+        private final byte[] cuerpo;
+
+        private CuerpoLeido(HttpServletRequest request, byte[] cuerpo) {
+            super(request);
+            this.cuerpo = cuerpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream origen = new ByteArrayInputStream(cuerpo);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return origen.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return origen.read();
+                }
+
+                @Override
+                public int read(byte[] destino, int desplazamiento, int longitud) {
+                    return origen.read(destino, desplazamiento, longitud);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String codificacion = getCharacterEncoding();
+            Charset juego = codificacion != null ? Charset.forName(codificacion) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), juego));
+        }
+    }
+}
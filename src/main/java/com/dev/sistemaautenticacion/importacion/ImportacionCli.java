@@ -0,0 +1,47 @@
+package com.dev.sistemaautenticacion.importacion;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Ejecución de la importación desde la línea de comandos.
+ * Si la aplicación se arranca con el argumento --importar=ruta/al/archivo.csv, importa el archivo
+ * y finaliza con código 0 si no hubo errores de ejecución o 1 en caso contrario.
+ * Para no levantar el servidor web se puede añadir --spring.main.web-application-type=none.
+ */
+@Component
+public class ImportacionCli implements ApplicationRunner {
+
+    private final ImportadorUsuarios importadorUsuarios;
+    private final ApplicationContext contexto;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param importadorUsuarios Importador masivo de usuarios.
+     * @param contexto Contexto de la aplicación, para finalizarla tras la importación.
+     */
+    @Autowired
+    public ImportacionCli(ImportadorUsuarios importadorUsuarios, ApplicationContext contexto) {
+        this.importadorUsuarios = importadorUsuarios;
+        this.contexto = contexto;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> archivos = args.getOptionValues("importar");
+        if (archivos == null || archivos.isEmpty()) {
+            return;
+        }
+        ResultadoImportacion resultado = importadorUsuarios.importar(Path.of(archivos.get(0)));
+        int codigo = resultado.getError() == null ? 0 : 1;
+        System.exit(SpringApplication.exit(contexto, () -> codigo));
+    }
+}
@@ -0,0 +1,720 @@
+package com.dev.sistemaautenticacion.importacion;
+
+import com.dev.sistemaautenticacion.busqueda.BusquedaUsuarios;
+import com.dev.sistemaautenticacion.dto.RegisterRequest;
+import com.dev.sistemaautenticacion.invalidacion.BusInvalidacion;
+import com.dev.sistemaautenticacion.replica.ReplicaUsuarios;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Importa usuarios desde archivos CSV de gran tamaño.
+ * El archivo se lee en modo streaming y cada registro se valida con las mismas restricciones
+ * que {@link RegisterRequest}. Los registros válidos se agrupan en lotes que insertan en paralelo
+ * un número reducido de trabajadores mediante lotes JDBC; como el número de lotes en vuelo está
+ * acotado, la memoria utilizada no depende del tamaño del archivo.
+ * Los registros rechazados se escriben en un archivo de errores y el último registro confirmado
+ * se guarda en un archivo de punto de control, de modo que una importación interrumpida
+ * puede reanudarse sin repetir el trabajo ya confirmado.
+ * <p>
+ * Los correos ya registrados (en la tabla principal o en la de archivados) se detectan con una
+ * consulta explícita por lote; el INSERT IGNORE solo cubre los que otra escritura inserta entre
+ * la consulta y el lote. Como los lotes terminan en cualquier orden, el punto de control no cubre
+ * los lotes confirmados tras un hueco; cada lote registra su rango de registros en la tabla
+ * "importacion_lote" dentro de su misma transacción y, al reanudar, esos rangos se omiten y del
+ * archivo de errores se descartan las líneas de los lotes no confirmados, que se vuelven a procesar.
+ * Los usuarios insertados se añaden al autocompletado y a la réplica local y se publican en el bus
+ * de invalidación para el resto de instancias.
+ * Las importaciones iniciadas desde la API se limitan a los archivos del directorio de importación
+ * y se ejecutan de una en una en un hilo propio.
+ */
+@Component
+public class ImportadorUsuarios {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportadorUsuarios.class);
+
+    private static final List<String> COLUMNAS = List.of("nombre", "apellido", "correo", "clave",
+            "fechaNacimiento", "telefono", "direccion", "ciudad", "pais");
+
+    private static final String INSERT = "INSERT INTO usuario (nombre, apellido, correo, clave, fecha_nacimiento, " +
+            "telefono, direccion, ciudad, pais, rol, estado, eliminado) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'usuario', 'activo', 0)";
+
+    private static final String INSERT_IGNORANDO_DUPLICADOS = INSERT.replaceFirst("INSERT", "INSERT IGNORE");
+
+    private static final String CORREO_DUPLICADO = "El correo ya está registrado.";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final BusquedaUsuarios busquedaUsuarios;
+    private final ReplicaUsuarios replicaUsuarios;
+    private final BusInvalidacion busInvalidacion;
+    private final int tamanoLote;
+    private final int trabajadores;
+    private final Path directorio;
+
+    private final AtomicReference<Progreso> actual = new AtomicReference<>();
+    private final ExecutorService segundoPlano = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "importacion");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    /**
+     * Constructor con inyección de dependencias y parámetros configurables.
+     *
+     * @param jdbcTemplate Plantilla JDBC para las inserciones por lotes.
+     * @param transactionTemplate Plantilla de transacciones para confirmar cada lote junto con su rango.
+     * @param validator Validador de Bean Validation.
+     * @param busquedaUsuarios Índice de autocompletado al que se añaden los usuarios importados.
+     * @param replicaUsuarios Réplica en memoria que vuelve a leer los usuarios importados.
+     * @param busInvalidacion Bus que publica los usuarios importados al resto de instancias.
+     * @param tamanoLote Número de registros por lote JDBC.
+     * @param trabajadores Número de hilos que insertan lotes en paralelo.
+     * @param directorio Directorio fuera del cual no se admiten las importaciones iniciadas desde la API.
+     */
+    @Autowired
+    public ImportadorUsuarios(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, Validator validator,
+                              BusquedaUsuarios busquedaUsuarios, ReplicaUsuarios replicaUsuarios,
+                              BusInvalidacion busInvalidacion,
+                              @Value("${usuarios.importacion.tamano-lote:1000}") int tamanoLote,
+                              @Value("${usuarios.importacion.trabajadores:4}") int trabajadores,
+                              @Value("${usuarios.importacion.directorio:${user.home}/.sistemaautenticacion/importaciones}")
+                              String directorio) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.busquedaUsuarios = busquedaUsuarios;
+        this.replicaUsuarios = replicaUsuarios;
+        this.busInvalidacion = busInvalidacion;
+        this.tamanoLote = tamanoLote;
+        this.trabajadores = trabajadores;
+        this.directorio = Path.of(directorio).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Resuelve la ruta de un archivo a importar dentro del directorio de importación.
+     *
+     * @param archivo La ruta del archivo, relativa al directorio de importación.
+     * @return La ruta absoluta y normalizada del archivo.
+     * @throws IllegalArgumentException Si la ruta queda fuera del directorio de importación,
+     *         también a través de enlaces simbólicos.
+     */
+    public Path resolver(String archivo) {
+        Path ruta = directorio.resolve(archivo).normalize();
+        if (!ruta.startsWith(directorio) || ruta.equals(directorio)) {
+            throw new IllegalArgumentException("El archivo debe estar dentro del directorio de importación.");
+        }
+        try {
+            if (Files.exists(ruta) && !ruta.toRealPath().startsWith(directorio.toRealPath())) {
+                throw new IllegalArgumentException("El archivo debe estar dentro del directorio de importación.");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ruta;
+    }
+
+    /**
+     * Inicia en segundo plano la importación de un archivo, si no hay otra en curso.
+     * La comprobación y la reserva del estado son atómicas: de dos llamadas simultáneas solo una la inicia.
+     *
+     * @param archivo El archivo CSV a importar.
+     * @return true si se inició, false si ya había una importación en curso.
+     */
+    public boolean iniciar(Path archivo) {
+        Progreso progreso = reservar(archivo);
+        if (progreso == null) {
+            return false;
+        }
+        segundoPlano.execute(() -> completar(progreso));
+        return true;
+    }
+
+    /**
+     * Detiene el hilo de las importaciones en segundo plano.
+     */
+    @PreDestroy
+    public void detener() {
+        segundoPlano.shutdownNow();
+    }
+
+    /**
+     * Importa un archivo CSV con cabecera. Las columnas reconocidas son nombre, apellido, correo,
+     * clave, fechaNacimiento (formato ISO, AAAA-MM-DD), telefono, direccion, ciudad y pais.
+     * Si existe un punto de control de una ejecución anterior, se omiten los registros ya confirmados,
+     * tanto los anteriores al punto de control como los de lotes confirmados después de él.
+     *
+     * @param archivo El archivo CSV a importar.
+     * @return El resultado de la importación.
+     */
+    public ResultadoImportacion importar(Path archivo) {
+        Progreso progreso = reservar(archivo);
+        if (progreso == null) {
+            throw new IllegalStateException("Ya hay una importación en curso.");
+        }
+        return completar(progreso);
+    }
+
+    /**
+     * @return El progreso de la importación en curso o de la última finalizada, o null si no hubo ninguna.
+     */
+    public ResultadoImportacion estado() {
+        Progreso progreso = actual.get();
+        return progreso == null ? null : progreso.resultado();
+    }
+
+    /**
+     * Reserva el estado para una importación nueva.
+     *
+     * @return El progreso de la nueva importación, o null si hay otra en curso.
+     */
+    private Progreso reservar(Path archivo) {
+        Progreso progreso = new Progreso(archivo);
+        return actual.compareAndSet(null, progreso) || reemplazarFinalizada(progreso) ? progreso : null;
+    }
+
+    private ResultadoImportacion completar(Progreso progreso) {
+        try {
+            ejecutar(progreso);
+        } catch (IOException | RuntimeException e) {
+            progreso.registrarError(e);
+        } finally {
+            progreso.enCurso = false;
+        }
+        ResultadoImportacion resultado = progreso.resultado();
+        log.info("Importación de {} finalizada: {} insertados, {} rechazados, {} omitidos{}", progreso.archivo,
+                resultado.getInsertados(), resultado.getRechazados(), resultado.getOmitidos(),
+                resultado.getError() == null ? "" : " (error: " + resultado.getError() + ")");
+        return resultado;
+    }
+
+    private boolean reemplazarFinalizada(Progreso nuevo) {
+        Progreso anterior = actual.get();
+        return anterior != null && !anterior.enCurso && actual.compareAndSet(anterior, nuevo);
+    }
+
+    private void ejecutar(Progreso progreso) throws IOException {
+        Path archivoPuntoDeControl = progreso.archivo.resolveSibling(progreso.archivo.getFileName() + ".checkpoint");
+        Path archivoErrores = progreso.archivo.resolveSibling(progreso.archivo.getFileName() + ".errores.csv");
+        String clave = progreso.archivo.toAbsolutePath().normalize().toString();
+        long puntoDeControl = leerPuntoDeControl(archivoPuntoDeControl);
+        progreso.puntoDeControl.set(puntoDeControl);
+        LotesConfirmados confirmados = new LotesConfirmados(lotesConfirmados(clave));
+        boolean reanudando = puntoDeControl > 0 || !confirmados.estaVacio();
+        boolean conCabecera = reanudando && Files.exists(archivoErrores);
+        if (conCabecera) {
+            depurarErrores(archivoErrores, puntoDeControl, confirmados);
+        }
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(trabajadores, tarea -> {
+            Thread hilo = new Thread(tarea, "importacion-usuarios");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        // Como máximo dos lotes por trabajador en memoria: el lector se bloquea si los trabajadores no dan abasto
+        Semaphore lotesEnVuelo = new Semaphore(trabajadores * 2);
+        ConfirmacionDeLotes confirmacion = new ConfirmacionDeLotes(archivoPuntoDeControl, progreso);
+
+        try (LectorCsv lector = new LectorCsv(Files.newBufferedReader(progreso.archivo, StandardCharsets.UTF_8), ',');
+             BufferedWriter errores = Files.newBufferedWriter(archivoErrores, StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     conCabecera ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (!conCabecera) {
+                errores.write("linea,registro,errores");
+                errores.newLine();
+            }
+            Map<String, Integer> indices = leerCabecera(lector);
+            RegistroDeErrores registroDeErrores = new RegistroDeErrores(errores);
+            List<FilaValida> lote = new ArrayList<>(tamanoLote);
+            long numeroRegistro = 0;
+            long primerRegistro = puntoDeControl + 1;
+            long secuencia = 0;
+            List<String> campos;
+            while ((campos = lector.leerRegistro()) != null && progreso.error.get() == null) {
+                if (campos.isEmpty() || (campos.size() == 1 && campos.get(0).isBlank())) {
+                    continue;
+                }
+                numeroRegistro++;
+                if (numeroRegistro <= puntoDeControl || confirmados.contiene(numeroRegistro)) {
+                    progreso.omitidos.incrementAndGet();
+                    continue;
+                }
+                progreso.leidos.incrementAndGet();
+                String rechazo = validar(campos, indices, lote, lector.getLineaDelRegistro(), numeroRegistro);
+                if (rechazo != null) {
+                    progreso.rechazados.incrementAndGet();
+                    registroDeErrores.escribir(lector.getLineaDelRegistro(), numeroRegistro, rechazo);
+                }
+                if (lote.size() == tamanoLote) {
+                    enviarLote(ejecutor, lotesEnVuelo, confirmacion, registroDeErrores, progreso, clave,
+                            secuencia++, lote, primerRegistro, numeroRegistro);
+                    lote = new ArrayList<>(tamanoLote);
+                    primerRegistro = numeroRegistro + 1;
+                }
+            }
+            enviarLote(ejecutor, lotesEnVuelo, confirmacion, registroDeErrores, progreso, clave,
+                    secuencia, lote, primerRegistro, numeroRegistro);
+            ejecutor.shutdown();
+            if (!ejecutor.awaitTermination(1, TimeUnit.DAYS)) {
+                throw new IOException("Tiempo de espera agotado al finalizar la importación.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importación interrumpida.", e);
+        } finally {
+            ejecutor.shutdownNow();
+        }
+        if (progreso.error.get() == null) {
+            // El punto de control ya cubre todo el archivo: los rangos de lotes dejan de ser necesarios
+            olvidarLotes(clave);
+        }
+    }
+
+    /**
+     * Envía un lote a los trabajadores. Los lotes sin filas válidas se confirman directamente
+     * para que el punto de control avance sobre los registros rechazados.
+     */
+    private void enviarLote(ExecutorService ejecutor, Semaphore lotesEnVuelo, ConfirmacionDeLotes confirmacion,
+                            RegistroDeErrores registroDeErrores, Progreso progreso, String clave,
+                            long secuencia, List<FilaValida> lote, long primerRegistro, long ultimoRegistro)
+            throws InterruptedException {
+        lotesEnVuelo.acquire();
+        ejecutor.execute(() -> {
+            try {
+                if (progreso.error.get() == null) {
+                    insertar(clave, lote, primerRegistro, ultimoRegistro, registroDeErrores, progreso);
+                    confirmacion.confirmar(secuencia, ultimoRegistro);
+                }
+            } catch (RuntimeException e) {
+                progreso.registrarError(e);
+            } finally {
+                lotesEnVuelo.release();
+            }
+        });
+    }
+
+    /**
+     * Inserta las filas válidas de un lote y registra su rango en una única transacción.
+     * Los correos duplicados (ya registrados, archivados o repetidos dentro del lote) se rechazan
+     * antes del INSERT; los insertados por otra escritura entretanto los descarta el INSERT IGNORE.
+     */
+    private void insertar(String clave, List<FilaValida> lote, long primerRegistro, long ultimoRegistro,
+                          RegistroDeErrores registroDeErrores, Progreso progreso) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        Set<String> existentes = correosExistentes(lote.stream().map(fila -> fila.request.getCorreo()).distinct().toList());
+        Set<String> correosDelLote = new HashSet<>();
+        List<FilaValida> nuevas = new ArrayList<>(lote.size());
+        List<FilaValida> duplicadas = new ArrayList<>();
+        for (FilaValida fila : lote) {
+            String correo = fila.request.getCorreo();
+            (existentes.contains(correo) || !correosDelLote.add(correo) ? duplicadas : nuevas).add(fila);
+        }
+        List<FilaValida> insertadas = new ArrayList<>(nuevas.size());
+        transactionTemplate.executeWithoutResult(estado -> {
+            int[] filasAfectadas = nuevas.isEmpty() ? new int[0]
+                    : insertarFilas(nuevas.stream().map(fila -> fila.request).toList());
+            for (int i = 0; i < filasAfectadas.length; i++) {
+                // INSERT IGNORE devuelve 0 filas afectadas si el correo ya existía
+                (filasAfectadas[i] == 0 ? duplicadas : insertadas).add(nuevas.get(i));
+            }
+            registrarLote(clave, primerRegistro, ultimoRegistro);
+            // Las líneas del lote deben estar en disco antes de confirmarlo: al reanudar no se repiten
+            for (FilaValida fila : duplicadas) {
+                registroDeErrores.escribir(fila.linea, fila.registro, CORREO_DUPLICADO);
+            }
+            registroDeErrores.vaciar();
+        });
+        progreso.insertados.addAndGet(insertadas.size());
+        progreso.rechazados.addAndGet(duplicadas.size());
+        publicar(insertadas);
+    }
+
+    /**
+     * Añade los usuarios insertados al autocompletado y a la réplica local y los publica en el bus.
+     * Un fallo aquí no detiene la importación: los usuarios ya están confirmados y la réplica
+     * y el índice los recogen en su siguiente puesta al día o recarga.
+     */
+    private void publicar(List<FilaValida> insertadas) {
+        if (insertadas.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, Integer> ids = idsPorCorreo(insertadas.stream().map(fila -> fila.request.getCorreo()).toList());
+            List<Integer> publicados = new ArrayList<>(ids.size());
+            for (FilaValida fila : insertadas) {
+                RegisterRequest request = fila.request;
+                Integer id = ids.get(request.getCorreo());
+                if (id != null) {
+                    busquedaUsuarios.indexar(id, request.getNombre(), request.getApellido(), request.getCorreo());
+                    publicados.add(id);
+                }
+            }
+            replicaUsuarios.releer(publicados);
+            busInvalidacion.publicar(publicados);
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron publicar {} usuarios importados", insertadas.size(), e);
+        }
+    }
+
+    /**
+     * @return Los correos de la lista que ya existen en la tabla principal o en la de archivados.
+     */
+    Set<String> correosExistentes(List<String> correos) {
+        String marcadores = String.join(", ", Collections.nCopies(correos.size(), "?"));
+        Object[] parametros = new Object[correos.size() * 2];
+        for (int i = 0; i < correos.size(); i++) {
+            parametros[i] = correos.get(i);
+            parametros[correos.size() + i] = correos.get(i);
+        }
+        List<String> existentes = jdbcTemplate.queryForList(
+                "SELECT correo FROM usuario WHERE correo IN (" + marcadores + ") " +
+                "UNION SELECT correo FROM usuario_archivado WHERE correo IN (" + marcadores + ")",
+                String.class, parametros);
+        return existentes.stream().map(correo -> correo.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+    }
+
+    /**
+     * Ejecuta el INSERT IGNORE por lotes JDBC.
+     *
+     * @return Las filas afectadas por cada usuario: 0 si su correo ya existía.
+     */
+    int[] insertarFilas(List<RegisterRequest> usuarios) {
+        int[][] resultados = jdbcTemplate.batchUpdate(INSERT_IGNORANDO_DUPLICADOS, usuarios, usuarios.size(),
+                (PreparedStatement ps, RegisterRequest request) -> {
+                    ps.setString(1, request.getNombre());
+                    ps.setString(2, request.getApellido());
+                    ps.setString(3, request.getCorreo());
+                    ps.setString(4, request.getClave());
+                    ps.setDate(5, Date.valueOf(request.getFechaNacimiento()));
+                    ps.setString(6, request.getTelefono());
+                    ps.setString(7, request.getDireccion());
+                    ps.setString(8, request.getCiudad());
+                    ps.setString(9, request.getPais());
+                });
+        return resultados[0];
+    }
+
+    /**
+     * @return Los IDs asignados a los correos indicados.
+     */
+    Map<String, Integer> idsPorCorreo(List<String> correos) {
+        String marcadores = String.join(", ", Collections.nCopies(correos.size(), "?"));
+        Map<String, Integer> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, correo FROM usuario WHERE correo IN (" + marcadores + ")",
+                fila -> {
+                    ids.put(fila.getString("correo").toLowerCase(Locale.ROOT), fila.getInt("id"));
+                }, correos.toArray());
+        return ids;
+    }
+
+    /**
+     * Registra el rango de registros de un lote. Se ejecuta en la transacción del lote.
+     */
+    void registrarLote(String archivo, long desde, long hasta) {
+        jdbcTemplate.update("INSERT INTO importacion_lote (archivo, desde, hasta) VALUES (?, ?, ?)",
+                archivo, desde, hasta);
+    }
+
+    /**
+     * @return Los rangos [desde, hasta] de los lotes confirmados de un archivo.
+     */
+    List<long[]> lotesConfirmados(String archivo) {
+        return jdbcTemplate.query("SELECT desde, hasta FROM importacion_lote WHERE archivo = ?",
+                (fila, numero) -> new long[]{fila.getLong("desde"), fila.getLong("hasta")}, archivo);
+    }
+
+    /**
+     * Elimina los rangos de lotes de un archivo importado por completo.
+     */
+    void olvidarLotes(String archivo) {
+        jdbcTemplate.update("DELETE FROM importacion_lote WHERE archivo = ?", archivo);
+    }
+
+    private Map<String, Integer> leerCabecera(LectorCsv lector) throws IOException {
+        List<String> cabecera = lector.leerRegistro();
+        if (cabecera == null) {
+            throw new IOException("El archivo está vacío.");
+        }
+        Map<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < cabecera.size(); i++) {
+            indices.put(cabecera.get(i).trim().replace("﻿", ""), i);
+        }
+        for (String obligatoria : List.of("nombre", "apellido", "correo", "clave", "fechaNacimiento")) {
+            if (!indices.containsKey(obligatoria)) {
+                throw new IOException("Falta la columna obligatoria '" + obligatoria + "'. Columnas admitidas: " + COLUMNAS);
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Convierte un registro en RegisterRequest y lo valida. Si es válido se añade al lote.
+     *
+     * @return null si el registro es válido, o la descripción de los errores.
+     */
+    private String validar(List<String> campos, Map<String, Integer> indices, List<FilaValida> lote,
+                           long linea, long numeroRegistro) {
+        RegisterRequest request = new RegisterRequest();
+        request.setNombre(campo(campos, indices, "nombre"));
+        request.setApellido(campo(campos, indices, "apellido"));
+        request.setCorreo(campo(campos, indices, "correo"));
+        request.setClave(campo(campos, indices, "clave"));
+        request.setTelefono(campo(campos, indices, "telefono"));
+        request.setDireccion(campo(campos, indices, "direccion"));
+        request.setCiudad(campo(campos, indices, "ciudad"));
+        request.setPais(campo(campos, indices, "pais"));
+        String fecha = campo(campos, indices, "fechaNacimiento");
+        try {
+            request.setFechaNacimiento(fecha == null ? null : LocalDate.parse(fecha));
+        } catch (DateTimeParseException e) {
+            return "La fecha de nacimiento debe tener el formato AAAA-MM-DD.";
+        }
+        Set<ConstraintViolation<RegisterRequest>> violaciones = validator.validate(request);
+        if (!violaciones.isEmpty()) {
+            return violaciones.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(" "));
+        }
+        request.setCorreo(request.getCorreo().toLowerCase(Locale.ROOT));
+        lote.add(new FilaValida(request, linea, numeroRegistro));
+        return null;
+    }
+
+    private static String campo(List<String> campos, Map<String, Integer> indices, String columna) {
+        Integer indice = indices.get(columna);
+        if (indice == null || indice >= campos.size()) {
+            return null;
+        }
+        String valor = campos.get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private static long leerPuntoDeControl(Path archivo) throws IOException {
+        if (!Files.exists(archivo)) {
+            return 0;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String linea = reader.readLine();
+            return linea == null || linea.isBlank() ? 0 : Long.parseLong(linea.trim());
+        }
+    }
+
+    /**
+     * Reescribe el archivo de errores de una importación interrumpida conservando solo las líneas
+     * de los registros que no se volverán a procesar: los anteriores al punto de control y los de
+     * lotes confirmados. El resto se descarta porque esos registros se vuelven a validar e insertar.
+     */
+    private static void depurarErrores(Path archivo, long puntoDeControl, LotesConfirmados confirmados) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (BufferedReader reader = Files.newBufferedReader(archivo, StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(temporal, StandardCharsets.UTF_8)) {
+            String linea = reader.readLine();
+            if (linea != null) {
+                writer.write(linea); // cabecera
+                writer.newLine();
+            }
+            while ((linea = reader.readLine()) != null) {
+                String[] partes = linea.split(",", 3);
+                long registro = partes.length < 3 ? Long.MAX_VALUE : Long.parseLong(partes[1]);
+                if (registro <= puntoDeControl || confirmados.contiene(registro)) {
+                    writer.write(linea);
+                    writer.newLine();
+                }
+            }
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Rangos de registros de los lotes confirmados en ejecuciones anteriores, fusionados y ordenados.
+     */
+    private static final class LotesConfirmados {
+
+        private final long[] desdes;
+        private final long[] hastas;
+
+        private LotesConfirmados(List<long[]> rangos) {
+            List<long[]> ordenados = new ArrayList<>(rangos);
+            ordenados.sort(Comparator.comparingLong(rango -> rango[0]));
+            List<long[]> fusionados = new ArrayList<>();
+            for (long[] rango : ordenados) {
+                long[] ultimo = fusionados.isEmpty() ? null : fusionados.get(fusionados.size() - 1);
+                if (ultimo != null && rango[0] <= ultimo[1] + 1) {
+                    ultimo[1] = Math.max(ultimo[1], rango[1]);
+                } else {
+                    fusionados.add(new long[]{rango[0], rango[1]});
+                }
+            }
+            desdes = fusionados.stream().mapToLong(rango -> rango[0]).toArray();
+            hastas = fusionados.stream().mapToLong(rango -> rango[1]).toArray();
+        }
+
+        private boolean estaVacio() {
+            return desdes.length == 0;
+        }
+
+        private boolean contiene(long registro) {
+            int posicion = Arrays.binarySearch(desdes, registro);
+            int anterior = posicion >= 0 ? posicion : -posicion - 2;
+            return anterior >= 0 && registro <= hastas[anterior];
+        }
+    }
+
+    /**
+     * Registro válido pendiente de inserción.
+     */
+    private static final class FilaValida {
+
+        private final RegisterRequest request;
+        private final long linea;
+        private final long registro;
+
+        private FilaValida(RegisterRequest request, long linea, long registro) {
+            this.request = request;
+            this.linea = linea;
+            this.registro = registro;
+        }
+    }
+
+    /**
+     * Escritura sincronizada del archivo de errores, compartido entre el lector y los trabajadores.
+     */
+    private static final class RegistroDeErrores {
+
+        private final BufferedWriter writer;
+
+        private RegistroDeErrores(BufferedWriter writer) {
+            this.writer = writer;
+        }
+
+        private synchronized void escribir(long linea, long registro, String errores) {
+            try {
+                writer.write(linea + "," + registro + ",\"" + errores.replace("\"", "\"\"") + "\"");
+                writer.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private synchronized void vaciar() {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Confirma los lotes en orden de secuencia. Los trabajadores terminan lotes en cualquier orden,
+     * pero el punto de control solo avanza hasta el último lote de una secuencia contigua confirmada.
+     */
+    private static final class ConfirmacionDeLotes {
+
+        private final Path archivo;
+        private final Progreso progreso;
+        private final TreeMap<Long, Long> terminados = new TreeMap<>();
+        private long siguienteSecuencia;
+
+        private ConfirmacionDeLotes(Path archivo, Progreso progreso) {
+            this.archivo = archivo;
+            this.progreso = progreso;
+        }
+
+        private synchronized void confirmar(long secuencia, long ultimoRegistro) {
+            terminados.put(secuencia, ultimoRegistro);
+            Long registro = null;
+            while (terminados.containsKey(siguienteSecuencia)) {
+                registro = terminados.remove(siguienteSecuencia++);
+            }
+            if (registro != null) {
+                guardar(registro);
+                progreso.puntoDeControl.set(registro);
+            }
+        }
+
+        private void guardar(long registro) {
+            try {
+                Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+                Files.writeString(temporal, Long.toString(registro), StandardCharsets.UTF_8);
+                Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Contadores de progreso de una importación.
+     */
+    private static final class Progreso {
+
+        private final Path archivo;
+        private final AtomicLong leidos = new AtomicLong();
+        private final AtomicLong omitidos = new AtomicLong();
+        private final AtomicLong insertados = new AtomicLong();
+        private final AtomicLong rechazados = new AtomicLong();
+        private final AtomicLong puntoDeControl = new AtomicLong();
+        private final AtomicReference<String> error = new AtomicReference<>();
+        private volatile boolean enCurso = true;
+
+        private Progreso(Path archivo) {
+            this.archivo = archivo;
+        }
+
+        private void registrarError(Exception e) {
+            log.error("Error durante la importación de {}", archivo, e);
+            error.compareAndSet(null, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+        }
+
+        private ResultadoImportacion resultado() {
+            return new ResultadoImportacion(archivo.toString(), enCurso, leidos.get(), omitidos.get(),
+                    insertados.get(), rechazados.get(), puntoDeControl.get(), error.get());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.dev.sistemaautenticacion.importacion;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector de archivos CSV en modo streaming (RFC 4180).
+ * Lee un registro cada vez, por lo que la memoria utilizada no depende del tamaño del archivo.
+ * Admite campos entre comillas con comas, saltos de línea y comillas escapadas ("").
+ */
+public class LectorCsv implements Closeable {
+
+    private final Reader reader;
+    private final char separador;
+    private long linea = 1;
+    private long lineaDelRegistro;
+    private int siguiente = -2;
+
+    /**
+     * Crea el lector sobre un Reader (preferiblemente con búfer).
+     *
+     * @param reader Origen de los caracteres.
+     * @param separador Carácter separador de campos.
+     */
+    public LectorCsv(Reader reader, char separador) {
+        this.reader = reader;
+        this.separador = separador;
+    }
+
+    /**
+     * Lee el siguiente registro del archivo.
+     *
+     * @return Los campos del registro o null si se alcanzó el final del archivo.
+     * @throws IOException Si ocurre un error de lectura o el archivo termina dentro de un campo entre comillas.
+     */
+    public List<String> leerRegistro() throws IOException {
+        int caracter = leer();
+        if (caracter == -1) {
+            return null;
+        }
+        lineaDelRegistro = linea;
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        while (true) {
+            if (entreComillas) {
+                if (caracter == -1) {
+                    throw new IOException("Campo entre comillas sin cerrar en el registro de la línea " + lineaDelRegistro);
+                }
+                if (caracter == '"') {
+                    int posterior = leer();
+                    if (posterior == '"') {
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                        caracter = posterior;
+                        continue;
+                    }
+                } else {
+                    if (caracter == '\n') {
+                        linea++;
+                    }
+                    campo.append((char) caracter);
+                }
+            } else if (caracter == '"' && campo.length() == 0) {
+                entreComillas = true;
+            } else if (caracter == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (caracter == '\r' || caracter == '\n' || caracter == -1) {
+                if (caracter == '\r') {
+                    int posterior = leer();
+                    if (posterior != '\n') {
+                        siguiente = posterior;
+                    }
+                }
+                if (caracter != -1) {
+                    linea++;
+                }
+                campos.add(campo.toString());
+                return campos;
+            } else {
+                campo.append((char) caracter);
+            }
+            caracter = leer();
+        }
+    }
+
+    /**
+     * @return El número de línea (empezando en 1) en el que comienza el último registro leído.
+     */
+    public long getLineaDelRegistro() {
+        return lineaDelRegistro;
+    }
+
+    private int leer() throws IOException {
+        if (siguiente != -2) {
+            int caracter = siguiente;
+            siguiente = -2;
+            return caracter;
+        }
+        return reader.read();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,52 @@
+package com.dev.sistemaautenticacion.importacion;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Resumen del progreso o del resultado final de una importación de usuarios.
+ */
+@Getter
+@AllArgsConstructor
+public class ResultadoImportacion {
+
+    /**
+     * Archivo CSV importado.
+     */
+    private final String archivo;
+
+    /**
+     * Indica si la importación sigue en curso.
+     */
+    private final boolean enCurso;
+
+    /**
+     * Registros leídos en esta ejecución (sin contar los omitidos por el punto de control).
+     */
+    private final long leidos;
+
+    /**
+     * Registros omitidos porque ya se habían confirmado en una ejecución anterior.
+     */
+    private final long omitidos;
+
+    /**
+     * Usuarios insertados.
+     */
+    private final long insertados;
+
+    /**
+     * Registros rechazados por validación o por correo duplicado.
+     */
+    private final long rechazados;
+
+    /**
+     * Último registro confirmado (punto de control).
+     */
+    private final long puntoDeControl;
+
+    /**
+     * Mensaje del error que detuvo la importación, o null si no hubo error.
+     */
+    private final String error;
+}
@@ -0,0 +1,406 @@
+package com.dev.sistemaautenticacion.invalidacion;
+
+import com.dev.sistemaautenticacion.cache.CredencialCache;
+import com.dev.sistemaautenticacion.cache.PerfilCache;
+import com.dev.sistemaautenticacion.replica.ReplicaUsuarios;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bus de invalidación de las cachés locales entre las instancias de la aplicación.
+ * Las escrituras publican el ID del usuario modificado sin esperar a la red; un hilo propio agrupa
+ * los IDs publicados durante un intervalo (un usuario modificado varias veces se envía una sola vez)
+ * y los envía por lotes a través del {@link CanalInvalidacion} configurado.
+ * Cada mensaje lleva el identificador de la instancia que lo envía y un número de secuencia
+ * consecutivo. Las demás instancias invalidan la credencial y el perfil cacheados de cada ID y
+ * vuelven a leerlo en su réplica; si detectan un hueco en la secuencia, es decir, un mensaje perdido,
+ * vacían por completo sus cachés y ponen al día la réplica. Sin escrituras se envía periódicamente un
+ * latido con la última secuencia, de modo que también se detecta la pérdida del último mensaje.
+ * Las revocaciones de sesiones se envían igual, en mensajes propios que comparten la secuencia, y cada
+ * instancia las entrega al receptor registrado con {@link #alRevocar(Consumer)}. Una revocación perdida
+ * no puede recuperarse con un vaciado: se registra como error, y las sesiones afectadas siguen activas
+ * en las demás instancias hasta su caducidad o una nueva revocación.
+ */
+@Component
+public class BusInvalidacion {
+
+    private static final Logger log = LoggerFactory.getLogger(BusInvalidacion.class);
+
+    private static final int MAGIA = 0x494E5641; // "INVA"
+    private static final int MAGIA_REVOCACION = 0x5245564F; // "REVO"
+    private static final int CABECERA = Integer.BYTES + Long.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int LATIDOS_ANTES_DE_OLVIDAR = 10;
+
+    private final CanalInvalidacion canal;
+    private final CredencialCache credencialCache;
+    private final PerfilCache perfilCache;
+    private final ReplicaUsuarios replicaUsuarios;
+    private final long intervaloMs;
+    private final long latidoMs;
+    private final int tamanoLote;
+    private final long esperaDetencionMs;
+
+    private final long nodo = ThreadLocalRandom.current().nextLong();
+    private final Set<Integer> pendientes = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> revocacionesPendientes = ConcurrentHashMap.newKeySet();
+    private final Semaphore senal = new Semaphore(0);
+    private final Object envio = new Object();
+    private final Object recepcion = new Object();
+    private final Map<Long, Origen> origenes = new HashMap<>();
+
+    private final AtomicLong mensajesEnviados = new AtomicLong();
+    private final AtomicLong idsEnviados = new AtomicLong();
+    private final AtomicLong erroresDeEnvio = new AtomicLong();
+    private final AtomicLong mensajesRecibidos = new AtomicLong();
+    private final AtomicLong idsInvalidados = new AtomicLong();
+    private final AtomicLong vaciadosCompletos = new AtomicLong();
+    private final AtomicLong revocacionesEnviadas = new AtomicLong();
+    private final AtomicLong revocacionesRecibidas = new AtomicLong();
+
+    private long secuencia;
+    private long ultimoEnvio = System.currentTimeMillis();
+    private volatile boolean activo;
+    private volatile Consumer<Integer> receptorRevocaciones = id -> { };
+    private Thread trabajador;
+
+    /**
+     * Constructor con inyección de dependencias y parámetros configurables.
+     *
+     * @param canal Transporte de los mensajes entre instancias.
+     * @param credencialCache Caché de credenciales que se invalida con los mensajes recibidos.
+     * @param perfilCache Caché de perfiles que se invalida con los mensajes recibidos.
+     * @param replicaUsuarios Réplica en memoria, que vuelve a leer los usuarios modificados en otras instancias.
+     * @param intervaloMs Tiempo durante el que se agrupan los IDs publicados antes de enviarlos.
+     * @param latidoMs Tiempo sin envíos tras el que se envía un latido con la última secuencia.
+     * @param tamanoLote Número máximo de IDs por mensaje; al alcanzarse se adelanta el envío.
+     * @param esperaDetencionMs Tiempo máximo que se espera al hilo de envío al detener la aplicación.
+     * @throws IllegalArgumentException Si un mensaje con el tamaño de lote no cabe en el canal.
+     */
+    @Autowired
+    public BusInvalidacion(CanalInvalidacion canal, CredencialCache credencialCache, PerfilCache perfilCache,
+                           ReplicaUsuarios replicaUsuarios,
+                           @Value("${usuarios.invalidacion.intervalo-ms:100}") long intervaloMs,
+                           @Value("${usuarios.invalidacion.latido-ms:1000}") long latidoMs,
+                           @Value("${usuarios.invalidacion.tamano-lote:256}") int tamanoLote,
+                           @Value("${usuarios.invalidacion.espera-detencion-ms:5000}") long esperaDetencionMs) {
+        if (tamanoLote < 1 || CABECERA + (long) tamanoLote * Integer.BYTES > canal.tamanoMaximoMensaje()) {
+            throw new IllegalArgumentException("El tamaño de lote de invalidación debe estar entre 1 y "
+                    + (canal.tamanoMaximoMensaje() - CABECERA) / Integer.BYTES + " para el canal configurado.");
+        }
+        this.canal = canal;
+        this.credencialCache = credencialCache;
+        this.perfilCache = perfilCache;
+        this.replicaUsuarios = replicaUsuarios;
+        this.intervaloMs = intervaloMs;
+        this.latidoMs = latidoMs;
+        this.tamanoLote = tamanoLote;
+        this.esperaDetencionMs = esperaDetencionMs;
+    }
+
+    /**
+     * Empieza a recibir los mensajes de las demás instancias e inicia el hilo de envío.
+     */
+    @PostConstruct
+    public void iniciar() {
+        canal.escuchar(this::recibir);
+        activo = true;
+        trabajador = new Thread(this::procesar, "bus-invalidacion");
+        trabajador.setDaemon(true);
+        trabajador.start();
+    }
+
+    /**
+     * Detiene el hilo de envío y envía los IDs pendientes.
+     *
+     * @throws InterruptedException Si se interrumpe la espera de finalización.
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        senal.release();
+        trabajador.join(esperaDetencionMs);
+        enviarPendientes();
+    }
+
+    /**
+     * Publica la modificación de un usuario para que las demás instancias invaliden sus cachés.
+     * No accede a la red.
+     *
+     * @param id El ID del usuario modificado.
+     */
+    public void publicar(Integer id) {
+        pendientes.add(id);
+        if (pendientes.size() >= tamanoLote) {
+            senal.release();
+        }
+    }
+
+    /**
+     * Publica la modificación de varios usuarios.
+     *
+     * @param ids Los IDs de los usuarios modificados.
+     */
+    public void publicar(List<Integer> ids) {
+        ids.forEach(this::publicar);
+    }
+
+    /**
+     * Publica la revocación de las sesiones de un usuario para que las demás instancias las revoquen
+     * en sus almacenes locales. No accede a la red.
+     *
+     * @param id El ID del usuario cuyas sesiones se revocaron.
+     */
+    public void publicarRevocacion(Integer id) {
+        revocacionesPendientes.add(id);
+        if (revocacionesPendientes.size() >= tamanoLote) {
+            senal.release();
+        }
+    }
+
+    /**
+     * Registra el receptor de las revocaciones publicadas por las demás instancias.
+     *
+     * @param receptor Recibe el ID de cada usuario cuyas sesiones deben revocarse.
+     */
+    public void alRevocar(Consumer<Integer> receptor) {
+        this.receptorRevocaciones = receptor;
+    }
+
+    /**
+     * @return Los contadores de mensajes enviados y recibidos y las instancias conocidas.
+     */
+    public Map<String, Object> estadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("nodo", Long.toHexString(nodo));
+        estadisticas.put("pendientes", pendientes.size());
+        estadisticas.put("mensajesEnviados", mensajesEnviados.get());
+        estadisticas.put("idsEnviados", idsEnviados.get());
+        estadisticas.put("erroresDeEnvio", erroresDeEnvio.get());
+        estadisticas.put("mensajesRecibidos", mensajesRecibidos.get());
+        estadisticas.put("idsInvalidados", idsInvalidados.get());
+        estadisticas.put("vaciadosCompletos", vaciadosCompletos.get());
+        estadisticas.put("revocacionesPendientes", revocacionesPendientes.size());
+        estadisticas.put("revocacionesEnviadas", revocacionesEnviadas.get());
+        estadisticas.put("revocacionesRecibidas", revocacionesRecibidas.get());
+        synchronized (recepcion) {
+            estadisticas.put("instanciasConocidas", origenes.size());
+        }
+        return estadisticas;
+    }
+
+    /**
+     * Envía las revocaciones y los IDs pendientes en mensajes de como mucho el tamaño de lote configurado,
+     * o un latido si no hay nada que enviar y ha transcurrido el intervalo de latido.
+     * Un mensaje que no puede enviarse no se reintenta: consume su número de secuencia,
+     * y las demás instancias detectan el hueco y vacían sus cachés.
+     */
+    void enviarPendientes() {
+        synchronized (envio) {
+            long ahora = System.currentTimeMillis();
+            if (pendientes.isEmpty() && revocacionesPendientes.isEmpty()) {
+                if (ahora - ultimoEnvio >= latidoMs) {
+                    enviar(codificar(MAGIA, secuencia, new int[0]));
+                    ultimoEnvio = ahora;
+                }
+                return;
+            }
+            revocacionesEnviadas.addAndGet(enviarLotes(MAGIA_REVOCACION, revocacionesPendientes));
+            idsEnviados.addAndGet(enviarLotes(MAGIA, pendientes));
+            ultimoEnvio = ahora;
+        }
+    }
+
+    /**
+     * Vacía un conjunto de IDs pendientes en mensajes del tipo indicado.
+     *
+     * @return El número de IDs enviados.
+     */
+    private int enviarLotes(int tipo, Set<Integer> ids) {
+        int enviados = 0;
+        Iterator<Integer> iterador = ids.iterator();
+        while (iterador.hasNext()) {
+            int[] lote = new int[tamanoLote];
+            int cantidad = 0;
+            while (cantidad < tamanoLote && iterador.hasNext()) {
+                lote[cantidad++] = iterador.next();
+                iterador.remove();
+            }
+            if (cantidad < tamanoLote) {
+                lote = Arrays.copyOf(lote, cantidad);
+            }
+            if (enviar(codificar(tipo, ++secuencia, lote))) {
+                mensajesEnviados.incrementAndGet();
+                enviados += cantidad;
+            }
+        }
+        return enviados;
+    }
+
+    /**
+     * Procesa un mensaje recibido de otra instancia. Los mensajes malformados, los propios y los
+     * duplicados o ya cubiertos por un vaciado completo se descartan.
+     *
+     * @param mensaje El mensaje codificado.
+     */
+    void recibir(byte[] mensaje) {
+        ByteBuffer bufer = ByteBuffer.wrap(mensaje);
+        int tipo = mensaje.length < CABECERA ? 0 : bufer.getInt();
+        if (tipo != MAGIA && tipo != MAGIA_REVOCACION) {
+            log.debug("Mensaje de invalidación descartado: formato desconocido");
+            return;
+        }
+        long origen = bufer.getLong();
+        long secuenciaRecibida = bufer.getLong();
+        int cantidad = bufer.getInt();
+        if (origen == nodo || cantidad < 0 || bufer.remaining() != cantidad * Integer.BYTES) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            ids.add(bufer.getInt());
+        }
+
+        synchronized (recepcion) {
+            long ahora = System.currentTimeMillis();
+            olvidarInactivos(ahora);
+            Origen anterior = origenes.get(origen);
+            long esperada = anterior == null ? 1 : anterior.secuencia + 1;
+            // Un latido lleva la última secuencia enviada: si es la esperada o posterior, se perdió un mensaje
+            boolean perdida = cantidad == 0 ? secuenciaRecibida >= esperada : secuenciaRecibida > esperada;
+            boolean duplicado = cantidad > 0 && secuenciaRecibida < esperada;
+            origenes.put(origen, new Origen(Math.max(secuenciaRecibida, esperada - 1), ahora));
+            if (cantidad == 0 || duplicado) {
+                if (perdida) {
+                    vaciarTodo(origen);
+                }
+                return;
+            }
+            mensajesRecibidos.incrementAndGet();
+            if (perdida) {
+                vaciarTodo(origen);
+            }
+            if (tipo == MAGIA_REVOCACION) {
+                revocar(ids);
+            } else if (!perdida) {
+                invalidar(ids);
+            }
+        }
+    }
+
+    /**
+     * Bucle del hilo de envío: espera el intervalo de agrupación, o menos si se llena un lote, y envía.
+     */
+    private void procesar() {
+        while (activo) {
+            try {
+                senal.tryAcquire(intervaloMs, TimeUnit.MILLISECONDS);
+                senal.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (activo) {
+                enviarPendientes();
+            }
+        }
+    }
+
+    private boolean enviar(byte[] mensaje) {
+        try {
+            canal.enviar(mensaje);
+            return true;
+        } catch (RuntimeException e) {
+            erroresDeEnvio.incrementAndGet();
+            log.warn("No se pudo enviar un mensaje de invalidación", e);
+            return false;
+        }
+    }
+
+    private byte[] codificar(int tipo, long numero, int[] ids) {
+        ByteBuffer bufer = ByteBuffer.allocate(CABECERA + ids.length * Integer.BYTES);
+        bufer.putInt(tipo).putLong(nodo).putLong(numero).putInt(ids.length);
+        for (int id : ids) {
+            bufer.putInt(id);
+        }
+        return bufer.array();
+    }
+
+    private void invalidar(List<Integer> ids) {
+        for (Integer id : ids) {
+            credencialCache.invalidarPorId(id);
+            perfilCache.invalidar(id);
+        }
+        idsInvalidados.addAndGet(ids.size());
+        try {
+            replicaUsuarios.releer(ids);
+        } catch (RuntimeException e) {
+            // La réplica recoge el cambio en su siguiente puesta al día
+            log.warn("No se pudieron volver a leer en la réplica {} usuarios invalidados", ids.size(), e);
+        }
+    }
+
+    private void revocar(List<Integer> ids) {
+        Consumer<Integer> receptor = receptorRevocaciones;
+        for (Integer id : ids) {
+            try {
+                receptor.accept(id);
+            } catch (RuntimeException e) {
+                log.error("No se pudieron revocar las sesiones del usuario {}", id, e);
+            }
+        }
+        revocacionesRecibidas.addAndGet(ids.size());
+    }
+
+    private void vaciarTodo(long origen) {
+        log.error("Se perdieron mensajes de invalidación de la instancia {}; se vacían las cachés locales. "
+                + "Si contenían revocaciones de sesiones, no se aplicaron en esta instancia",
+                Long.toHexString(origen));
+        vaciadosCompletos.incrementAndGet();
+        credencialCache.limpiar();
+        perfilCache.limpiar();
+        replicaUsuarios.ponerAlDia();
+    }
+
+    /**
+     * Olvida las instancias de las que no llega nada durante varios latidos, por ejemplo porque se
+     * detuvieron. Si una de ellas vuelve a enviar, su secuencia no será la esperada y se vacían las cachés.
+     */
+    private void olvidarInactivos(long ahora) {
+        origenes.values().removeIf(o -> ahora - o.recibido > latidoMs * LATIDOS_ANTES_DE_OLVIDAR);
+    }
+
+    /**
+     * Última secuencia recibida de una instancia y momento en que llegó su último mensaje.
+     */
+    private static final class Origen {
+
+        private final long secuencia;
+        private final long recibido;
+
+        private Origen(long secuencia, long recibido) {
+            this.secuencia = secuencia;
+            this.recibido = recibido;
+        }
+    }
+}
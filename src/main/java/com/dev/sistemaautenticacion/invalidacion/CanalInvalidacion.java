@@ -0,0 +1,40 @@
+package com.dev.sistemaautenticacion.invalidacion;
+
+import java.util.function.Consumer;
+
+/**
+ * Transporte de los mensajes de invalidación entre las instancias de la aplicación.
+ * No garantiza la entrega ni el orden: el bus numera los mensajes de cada instancia y detecta
+ * las pérdidas por su cuenta. Cada implementación entrega los mensajes a las demás instancias,
+ * no a la que los envía.
+ */
+public interface CanalInvalidacion extends AutoCloseable {
+
+    /**
+     * Envía un mensaje a las demás instancias.
+     *
+     * @param mensaje El mensaje codificado.
+     * @throws java.io.UncheckedIOException Si el mensaje no pudo enviarse.
+     */
+    void enviar(byte[] mensaje);
+
+    /**
+     * Registra el receptor de los mensajes de las demás instancias. Se invoca una sola vez.
+     *
+     * @param receptor El receptor, que puede invocarse desde otro hilo.
+     */
+    void escuchar(Consumer<byte[]> receptor);
+
+    /**
+     * @return El tamaño máximo en bytes de un mensaje que el canal puede entregar.
+     */
+    default int tamanoMaximoMensaje() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Libera los recursos del canal; a partir de ese momento no se envían ni reciben mensajes.
+     */
+    @Override
+    void close();
+}
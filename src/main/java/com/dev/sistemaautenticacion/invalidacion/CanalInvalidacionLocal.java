@@ -0,0 +1,55 @@
+package com.dev.sistemaautenticacion.invalidacion;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Canal de invalidación dentro de la misma JVM.
+ * Los canales creados con el mismo grupo se entregan los mensajes entre sí de forma síncrona,
+ * lo que permite probar el comportamiento de varias instancias en un único proceso.
+ * Con una sola instancia por grupo no envía nada.
+ */
+public class CanalInvalidacionLocal implements CanalInvalidacion {
+
+    private static final Map<String, List<CanalInvalidacionLocal>> GRUPOS = new ConcurrentHashMap<>();
+
+    private final String grupo;
+    private volatile Consumer<byte[]> receptor;
+
+    /**
+     * Crea un canal y lo une a un grupo.
+     *
+     * @param grupo El nombre del grupo.
+     */
+    public CanalInvalidacionLocal(String grupo) {
+        this.grupo = grupo;
+        GRUPOS.computeIfAbsent(grupo, g -> new CopyOnWriteArrayList<>()).add(this);
+    }
+
+    @Override
+    public void enviar(byte[] mensaje) {
+        for (CanalInvalidacionLocal canal : GRUPOS.getOrDefault(grupo, List.of())) {
+            Consumer<byte[]> destino = canal.receptor;
+            if (canal != this && destino != null) {
+                destino.accept(mensaje.clone());
+            }
+        }
+    }
+
+    @Override
+    public void escuchar(Consumer<byte[]> receptor) {
+        this.receptor = receptor;
+    }
+
+    @Override
+    public void close() {
+        receptor = null;
+        GRUPOS.computeIfPresent(grupo, (g, canales) -> {
+            canales.remove(this);
+            return canales.isEmpty() ? null : canales;
+        });
+    }
+}
@@ -0,0 +1,174 @@
+package com.dev.sistemaautenticacion.invalidacion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Canal de invalidación sobre datagramas UDP.
+ * Cada instancia escucha en una dirección propia y envía cada mensaje a la lista configurada de
+ * instancias pares. Con direcciones de loopback permite levantar varias instancias en una misma
+ * máquina. Los datagramas perdidos o desordenados los detecta el bus por el número de secuencia.
+ * <p>
+ * Un mensaje falsificado basta para que el bus vacíe las cachés y ponga al día la réplica, de modo
+ * que cada datagrama lleva un HMAC-SHA256 calculado con una clave compartida por todas las
+ * instancias, y se descartan los que no proceden de la dirección de un par o cuyo HMAC no coincide.
+ */
+public class CanalInvalidacionUdp implements CanalInvalidacion {
+
+    private static final Logger log = LoggerFactory.getLogger(CanalInvalidacionUdp.class);
+
+    /**
+     * Tamaño máximo de un datagrama UDP sobre IPv4.
+     */
+    private static final int TAMANO_MAXIMO = 65_507;
+
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final int TAMANO_HMAC = 32;
+
+    private final DatagramChannel canal;
+    private final List<InetSocketAddress> pares;
+    private final Set<InetSocketAddress> origenesPermitidos;
+    private final Mac firmaEnvio;
+    private final Mac firmaRecepcion;
+    private final AtomicLong descartados = new AtomicLong();
+
+    /**
+     * Abre el canal en la dirección local indicada.
+     *
+     * @param local Dirección en la que escucha esta instancia.
+     * @param pares Direcciones de las demás instancias; solo se aceptan datagramas procedentes de ellas.
+     * @param clave Clave compartida por todas las instancias para firmar los mensajes.
+     * @throws IllegalArgumentException Si la clave está vacía.
+     * @throws UncheckedIOException Si no puede abrirse el socket.
+     */
+    public CanalInvalidacionUdp(InetSocketAddress local, List<InetSocketAddress> pares, byte[] clave) {
+        if (clave.length == 0) {
+            throw new IllegalArgumentException("El canal de invalidación UDP requiere una clave compartida.");
+        }
+        this.firmaEnvio = crearFirma(clave);
+        this.firmaRecepcion = crearFirma(clave);
+        try {
+            this.canal = DatagramChannel.open().bind(local);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el canal de invalidación en " + local, e);
+        }
+        this.pares = pares.stream().filter(par -> !par.equals(local)).toList();
+        this.origenesPermitidos = this.pares.stream().collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public void enviar(byte[] mensaje) {
+        byte[] firmado = Arrays.copyOf(mensaje, mensaje.length + TAMANO_HMAC);
+        synchronized (firmaEnvio) {
+            firmaEnvio.update(mensaje);
+            System.arraycopy(firmaEnvio.doFinal(), 0, firmado, mensaje.length, TAMANO_HMAC);
+        }
+        IOException error = null;
+        for (InetSocketAddress par : pares) {
+            try {
+                canal.send(ByteBuffer.wrap(firmado), par);
+            } catch (IOException e) {
+                error = e; // se intenta con el resto de instancias
+            }
+        }
+        if (error != null) {
+            throw new UncheckedIOException(error);
+        }
+    }
+
+    @Override
+    public void escuchar(Consumer<byte[]> receptor) {
+        Thread hilo = new Thread(() -> recibir(receptor), "canal-invalidacion-udp");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    @Override
+    public int tamanoMaximoMensaje() {
+        return TAMANO_MAXIMO - TAMANO_HMAC;
+    }
+
+    /**
+     * @return El número de datagramas descartados por no proceder de un par o no tener un HMAC válido.
+     */
+    public long descartados() {
+        return descartados.get();
+    }
+
+    @Override
+    public void close() {
+        try {
+            canal.close();
+        } catch (IOException e) {
+            log.warn("No se pudo cerrar el canal de invalidación", e);
+        }
+    }
+
+    private void recibir(Consumer<byte[]> receptor) {
+        ByteBuffer bufer = ByteBuffer.allocate(TAMANO_MAXIMO);
+        while (canal.isOpen()) {
+            try {
+                bufer.clear();
+                SocketAddress origen = canal.receive(bufer);
+                bufer.flip();
+                byte[] datagrama = new byte[bufer.remaining()];
+                bufer.get(datagrama);
+                byte[] mensaje = verificar(origen, datagrama);
+                if (mensaje == null) {
+                    descartados.incrementAndGet();
+                    log.debug("Datagrama de invalidación descartado desde {}", origen);
+                    continue;
+                }
+                receptor.accept(mensaje);
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Error al recibir un mensaje de invalidación", e);
+            }
+        }
+    }
+
+    /**
+     * @return El mensaje sin el HMAC, o null si el origen no es un par o el HMAC no es válido.
+     */
+    private byte[] verificar(SocketAddress origen, byte[] datagrama) {
+        if (!origenesPermitidos.contains(origen) || datagrama.length < TAMANO_HMAC) {
+            return null;
+        }
+        int longitud = datagrama.length - TAMANO_HMAC;
+        firmaRecepcion.update(datagrama, 0, longitud);
+        byte[] esperado = firmaRecepcion.doFinal();
+        if (!MessageDigest.isEqual(esperado, Arrays.copyOfRange(datagrama, longitud, datagrama.length))) {
+            return null;
+        }
+        return Arrays.copyOf(datagrama, longitud);
+    }
+
+    private static Mac crearFirma(byte[] clave) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(new SecretKeySpec(clave, ALGORITMO));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo inicializar " + ALGORITMO, e);
+        }
+    }
+}
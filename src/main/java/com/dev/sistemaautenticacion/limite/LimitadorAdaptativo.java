@@ -0,0 +1,125 @@
+package com.dev.sistemaautenticacion.limite;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitador de concurrencia adaptativo basado en el gradiente de la latencia.
+ * Compara la latencia reciente con una media de largo plazo: si la latencia crece
+ * (por ejemplo, porque la base de datos se ralentiza) el límite de solicitudes
+ * simultáneas se reduce; si se mantiene estable, el límite crece poco a poco.
+ * Las solicitudes que superan el límite se rechazan de inmediato en lugar de
+ * acumularse en los hilos del servidor.
+ */
+@Component
+public class LimitadorAdaptativo {
+
+    private static final double FACTOR_MEDIA_LARGA = 2.0 / (600 + 1);
+    private static final double TOLERANCIA = 1.5;
+
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final double suavizado;
+
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final Map<Prioridad, LongAdder> rechazos = new EnumMap<>(Prioridad.class);
+    private final LongAdder aceptadas = new LongAdder();
+
+    private volatile double limite;
+    private double latenciaLargaNanos;
+
+    /**
+     * Constructor con los parámetros configurables del limitador.
+     *
+     * @param limiteInicial Límite de concurrencia con el que arranca el servicio.
+     * @param limiteMinimo Límite mínimo que nunca se reduce.
+     * @param limiteMaximo Límite máximo que nunca se supera.
+     * @param suavizado Peso de cada nueva estimación sobre el límite actual (entre 0 y 1).
+     */
+    public LimitadorAdaptativo(@Value("${usuarios.limite.inicial:50}") int limiteInicial,
+                               @Value("${usuarios.limite.minimo:10}") int limiteMinimo,
+                               @Value("${usuarios.limite.maximo:200}") int limiteMaximo,
+                               @Value("${usuarios.limite.suavizado:0.2}") double suavizado) {
+        this.limite = limiteInicial;
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.suavizado = suavizado;
+        for (Prioridad prioridad : Prioridad.values()) {
+            rechazos.put(prioridad, new LongAdder());
+        }
+    }
+
+    /**
+     * Intenta reservar capacidad para una solicitud.
+     *
+     * @param prioridad La prioridad de la solicitud.
+     * @return true si la solicitud puede ejecutarse; false si debe rechazarse.
+     */
+    public boolean intentarAdquirir(Prioridad prioridad) {
+        int permitidas = Math.max(1, (int) (limite * prioridad.getFraccionDelLimite()));
+        while (true) {
+            int actuales = enCurso.get();
+            if (actuales >= permitidas) {
+                rechazos.get(prioridad).increment();
+                return false;
+            }
+            if (enCurso.compareAndSet(actuales, actuales + 1)) {
+                aceptadas.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera la capacidad reservada y ajusta el límite con la latencia observada.
+     *
+     * @param latenciaNanos La latencia de la solicitud completada.
+     */
+    public void liberar(long latenciaNanos) {
+        int actuales = enCurso.getAndDecrement();
+        actualizarLimite(latenciaNanos, actuales);
+    }
+
+    private synchronized void actualizarLimite(long latenciaNanos, int enCursoAlTerminar) {
+        if (latenciaLargaNanos == 0) {
+            latenciaLargaNanos = latenciaNanos;
+            return;
+        }
+        latenciaLargaNanos += (latenciaNanos - latenciaLargaNanos) * FACTOR_MEDIA_LARGA;
+
+        // Sin presión de concurrencia la latencia no aporta información sobre el límite
+        if (enCursoAlTerminar < limite / 2) {
+            return;
+        }
+        // Si la carga baja tras un periodo de latencias altas, la media larga se recupera más rápido
+        if (latenciaLargaNanos / latenciaNanos > 2) {
+            latenciaLargaNanos *= 0.95;
+        }
+
+        double gradiente = Math.max(0.5, Math.min(1.0, TOLERANCIA * latenciaLargaNanos / latenciaNanos));
+        double colaPermitida = Math.sqrt(limite);
+        double nuevoLimite = limite * gradiente + colaPermitida;
+        nuevoLimite = limite * (1 - suavizado) + nuevoLimite * suavizado;
+        limite = Math.max(limiteMinimo, Math.min(limiteMaximo, nuevoLimite));
+    }
+
+    /**
+     * @return El estado actual del limitador: límite, solicitudes en curso, aceptadas y rechazos por prioridad.
+     */
+    public Map<String, Object> estado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("limite", (int) limite);
+        estado.put("enCurso", enCurso.get());
+        estado.put("aceptadas", aceptadas.sum());
+        Map<String, Long> rechazosPorPrioridad = new LinkedHashMap<>();
+        rechazos.forEach((prioridad, total) -> rechazosPorPrioridad.put(prioridad.name(), total.sum()));
+        estado.put("rechazos", rechazosPorPrioridad);
+        return estado;
+    }
+}
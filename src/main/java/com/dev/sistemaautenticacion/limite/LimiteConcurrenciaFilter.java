@@ -0,0 +1,104 @@
+package com.dev.sistemaautenticacion.limite;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongSupplier;
+
+/**
+ * Filtro que aplica el limitador de concurrencia adaptativo a los endpoints de autenticación
+ * y al listado de usuarios.
+ * Las solicitudes que exceden la capacidad de su prioridad se rechazan antes de ocupar
+ * recursos con un estado HTTP 503 (Service Unavailable) y la cabecera Retry-After.
+ */
+@Component
+public class LimiteConcurrenciaFilter extends OncePerRequestFilter {
+
+    private static final byte[] MENSAJE_RECHAZO =
+            "El servicio está saturado. Por favor, reintente más tarde.".getBytes(StandardCharsets.UTF_8);
+
+    private final LimitadorAdaptativo limitador;
+    private final String reintentarTrasSegundos;
+    private final LongSupplier reloj;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param limitador Limitador de concurrencia adaptativo.
+     * @param reintentarTrasSegundos Valor de la cabecera Retry-After en las respuestas rechazadas.
+     */
+    @Autowired
+    public LimiteConcurrenciaFilter(LimitadorAdaptativo limitador,
+                                    @Value("${usuarios.limite.reintentar-tras-segundos:1}") int reintentarTrasSegundos) {
+        this(limitador, reintentarTrasSegundos, System::nanoTime);
+    }
+
+    /**
+     * Constructor con un reloj propio para medir la latencia de las solicitudes.
+     *
+     * @param limitador Limitador de concurrencia adaptativo.
+     * @param reintentarTrasSegundos Valor de la cabecera Retry-After en las respuestas rechazadas.
+     * @param reloj Fuente de tiempo en nanosegundos.
+     */
+    LimiteConcurrenciaFilter(LimitadorAdaptativo limitador, int reintentarTrasSegundos, LongSupplier reloj) {
+        this.limitador = limitador;
+        this.reintentarTrasSegundos = String.valueOf(reintentarTrasSegundos);
+        this.reloj = reloj;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return clasificar(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Prioridad prioridad = clasificar(request);
+        if (!limitador.intentarAdquirir(prioridad)) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, reintentarTrasSegundos);
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8");
+            response.getOutputStream().write(MENSAJE_RECHAZO);
+            return;
+        }
+        long inicio = reloj.getAsLong();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limitador.liberar(reloj.getAsLong() - inicio);
+        }
+    }
+
+    /**
+     * Determina la prioridad de una solicitud.
+     *
+     * @param request La solicitud HTTP.
+     * @return La prioridad o null si la solicitud no está sujeta al limitador.
+     */
+    private Prioridad clasificar(HttpServletRequest request) {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        String metodo = request.getMethod();
+        if ("POST".equals(metodo) && ("/api/auth/login".equals(ruta) || "/api/auth/refresh".equals(ruta))) {
+            return Prioridad.LOGIN;
+        }
+        if ("POST".equals(metodo) && "/api/auth/register".equals(ruta)) {
+            return Prioridad.REGISTRO;
+        }
+        if ("GET".equals(metodo) && "/api/users".equals(ruta)) {
+            return Prioridad.ADMINISTRACION;
+        }
+        return null;
+    }
+}
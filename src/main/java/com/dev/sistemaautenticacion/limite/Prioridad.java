@@ -0,0 +1,27 @@
+package com.dev.sistemaautenticacion.limite;
+
+/**
+ * Prioridad de una solicitud frente al limitador de concurrencia.
+ * Cada prioridad puede ocupar solo una fracción del límite actual, de forma que
+ * ante una sobrecarga se rechazan primero las solicitudes menos importantes
+ * y los inicios de sesión conservan capacidad.
+ */
+public enum Prioridad {
+
+    LOGIN(1.0),
+    REGISTRO(0.8),
+    ADMINISTRACION(0.5);
+
+    private final double fraccionDelLimite;
+
+    Prioridad(double fraccionDelLimite) {
+        this.fraccionDelLimite = fraccionDelLimite;
+    }
+
+    /**
+     * @return La fracción del límite de concurrencia que puede ocupar esta prioridad.
+     */
+    public double getFraccionDelLimite() {
+        return fraccionDelLimite;
+    }
+}
@@ -0,0 +1,94 @@
+package com.dev.sistemaautenticacion.monitoreo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cuenta las sentencias SQL que ejecuta el hilo actual dentro de un ámbito de medición.
+ * El conteo lo alimenta {@link MonitorSentencias} al interceptar cada ejecución JDBC, por lo que
+ * incluye tanto las consultas de los repositorios JPA como las de JdbcTemplate.
+ * Pensado para pruebas que fijan el número máximo de sentencias de cada método del servicio.
+ */
+public final class ContadorSentencias {
+
+    private static final ThreadLocal<List<String>> AMBITO = new ThreadLocal<>();
+
+    private ContadorSentencias() {
+    }
+
+    /**
+     * Ejecuta una acción y registra las sentencias que emite el hilo actual durante su ejecución.
+     * Las sentencias emitidas por otros hilos (por ejemplo, el del registro por lotes) no se cuentan.
+     *
+     * @param accion La acción a medir.
+     * @param <T> Tipo del resultado de la acción.
+     * @return El resultado de la acción junto con las sentencias ejecutadas.
+     */
+    public static <T> Medicion<T> medir(Supplier<T> accion) {
+        List<String> anterior = AMBITO.get();
+        List<String> sentencias = new ArrayList<>();
+        AMBITO.set(sentencias);
+        try {
+            T resultado = accion.get();
+            return new Medicion<>(resultado, Collections.unmodifiableList(sentencias));
+        } finally {
+            if (anterior == null) {
+                AMBITO.remove();
+            } else {
+                anterior.addAll(sentencias);
+                AMBITO.set(anterior);
+            }
+        }
+    }
+
+    /**
+     * Registra una sentencia ejecutada si el hilo actual está dentro de un ámbito de medición.
+     *
+     * @param sql La sentencia ejecutada.
+     */
+    static void registrar(String sql) {
+        List<String> sentencias = AMBITO.get();
+        if (sentencias != null) {
+            sentencias.add(sql);
+        }
+    }
+
+    /**
+     * Resultado de una medición.
+     *
+     * @param <T> Tipo del resultado de la acción medida.
+     */
+    public static final class Medicion<T> {
+
+        private final T resultado;
+        private final List<String> sentencias;
+
+        private Medicion(T resultado, List<String> sentencias) {
+            this.resultado = resultado;
+            this.sentencias = sentencias;
+        }
+
+        /**
+         * @return El resultado de la acción medida.
+         */
+        public T getResultado() {
+            return resultado;
+        }
+
+        /**
+         * @return Las sentencias ejecutadas, en orden.
+         */
+        public List<String> getSentencias() {
+            return sentencias;
+        }
+
+        /**
+         * @return El número de sentencias ejecutadas.
+         */
+        public int getTotal() {
+            return sentencias.size();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.dev.sistemaautenticacion.monitoreo;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reúne las estadísticas de Hibernate y las del {@link MonitorSentencias}.
+ * Las estadísticas de Hibernate solo se acumulan si hibernate.generate_statistics está activo.
+ */
+@Component
+public class EstadisticasConsultas {
+
+    private final MonitorSentencias monitorSentencias;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param monitorSentencias Monitor de sentencias JDBC.
+     * @param entityManagerFactory Factoría de JPA, de la que se obtiene la de Hibernate.
+     */
+    @Autowired
+    public EstadisticasConsultas(MonitorSentencias monitorSentencias, EntityManagerFactory entityManagerFactory) {
+        this.monitorSentencias = monitorSentencias;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Devuelve las estadísticas de consultas.
+     *
+     * @return Las estadísticas del monitor de sentencias y, si están activas, las de Hibernate.
+     */
+    public Map<String, Object> estadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>(monitorSentencias.estado());
+        Statistics hibernate = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (hibernate.isStatisticsEnabled()) {
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("sentenciasPreparadas", hibernate.getPrepareStatementCount());
+            datos.put("consultas", hibernate.getQueryExecutionCount());
+            datos.put("consultaMasLenta", hibernate.getQueryExecutionMaxTimeQueryString());
+            datos.put("consultaMasLentaMs", hibernate.getQueryExecutionMaxTime());
+            datos.put("entidadesCargadas", hibernate.getEntityLoadCount());
+            datos.put("entidadesObtenidas", hibernate.getEntityFetchCount());
+            datos.put("colecciones", hibernate.getCollectionFetchCount());
+            datos.put("transacciones", hibernate.getTransactionCount());
+            estadisticas.put("hibernate", datos);
+        }
+        return estadisticas;
+    }
+}
@@ -0,0 +1,31 @@
+package com.dev.sistemaautenticacion.monitoreo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * Evento JFR de un inicio de sesión (autenticarUsuario).
+ * Mientras no haya una grabación activa que lo habilite, begin() y commit() no hacen nada.
+ */
+@Name("com.dev.sistemaautenticacion.Autenticacion")
+@Label("Autenticación de usuario")
+@Category({"Sistema de autenticación", "Usuarios"})
+@Description("Duración y resultado de autenticarUsuario")
+@StackTrace(false)
+@Setter
+public class EventoAutenticacion extends Event {
+
+    @Label("Resultado")
+    private String resultado;
+
+    @Label("Credencial en caché")
+    private boolean desdeCache;
+
+    @Label("Incluye perfil")
+    private boolean incluirPerfil;
+}
@@ -0,0 +1,28 @@
+package com.dev.sistemaautenticacion.monitoreo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * Evento JFR de un alta de usuario (registrarUsuario), incluida la espera de su lote de inserción.
+ * Mientras no haya una grabación activa que lo habilite, begin() y commit() no hacen nada.
+ */
+@Name("com.dev.sistemaautenticacion.Registro")
+@Label("Registro de usuario")
+@Category({"Sistema de autenticación", "Usuarios"})
+@Description("Duración y resultado de registrarUsuario")
+@StackTrace(false)
+@Setter
+public class EventoRegistro extends Event {
+
+    @Label("Resultado")
+    private String resultado;
+
+    @Label("ID del usuario")
+    private int usuarioId;
+}
@@ -0,0 +1,26 @@
+package com.dev.sistemaautenticacion.monitoreo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+/**
+ * Evento JFR de una llamada a un repositorio de Spring Data.
+ * Conserva la traza de pila para localizar el método del servicio que originó la llamada.
+ */
+@Name("com.dev.sistemaautenticacion.Repositorio")
+@Label("Llamada a repositorio")
+@Category({"Sistema de autenticación", "Repositorios"})
+@Description("Duración y resultado de cada método de repositorio")
+@Setter
+public class EventoRepositorio extends Event {
+
+    @Label("Método")
+    private String metodo;
+
+    @Label("Resultado")
+    private String resultado;
+}
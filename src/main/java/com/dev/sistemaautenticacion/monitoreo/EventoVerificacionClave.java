@@ -0,0 +1,25 @@
+package com.dev.sistemaautenticacion.monitoreo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * Evento JFR de la verificación de una contraseña durante el inicio de sesión.
+ * Mientras no haya una grabación activa que lo habilite, begin() y commit() no hacen nada.
+ */
+@Name("com.dev.sistemaautenticacion.VerificacionClave")
+@Label("Verificación de contraseña")
+@Category({"Sistema de autenticación", "Usuarios"})
+@Description("Duración del cifrado y comparación de la contraseña")
+@StackTrace(false)
+@Setter
+public class EventoVerificacionClave extends Event {
+
+    @Label("Contraseña válida")
+    private boolean valida;
+}
@@ -0,0 +1,58 @@
+package com.dev.sistemaautenticacion.monitoreo;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * Añade a cada repositorio de Spring Data un interceptor que emite un {@link EventoRepositorio}
+ * por llamada. Si el evento no está habilitado en ninguna grabación, el interceptor solo
+ * delega en el repositorio.
+ */
+@Component
+public class EventosRepositorio implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoria) {
+            factoria.addRepositoryFactoryCustomizer(repositorios -> repositorios.addRepositoryProxyPostProcessor(
+                    (proxy, informacion) -> proxy.addAdvice(
+                            new Interceptor(informacion.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    /**
+     * Interceptor que mide cada llamada de un repositorio.
+     */
+    private static final class Interceptor implements MethodInterceptor {
+
+        private final String repositorio;
+
+        private Interceptor(String repositorio) {
+            this.repositorio = repositorio;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocacion) throws Throwable {
+            EventoRepositorio evento = new EventoRepositorio();
+            if (!evento.isEnabled()) {
+                return invocacion.proceed();
+            }
+            evento.begin();
+            evento.setMetodo(repositorio + "." + invocacion.getMethod().getName());
+            try {
+                Object resultado = invocacion.proceed();
+                evento.setResultado("ok");
+                return resultado;
+            } catch (Throwable e) {
+                evento.setResultado(e.getClass().getSimpleName());
+                throw e;
+            } finally {
+                evento.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.dev.sistemaautenticacion.monitoreo;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gestiona grabaciones de JDK Flight Recorder bajo demanda, sin reiniciar el servicio.
+ * Cada grabación parte de una configuración de JFR ("default" o "profile") y habilita además
+ * los eventos propios de la aplicación. Las grabaciones tienen una duración máxima para que una
+ * grabación olvidada no siga consumiendo recursos indefinidamente.
+ */
+@Component
+public class GrabacionesJfr {
+
+    private static final List<Class<? extends Event>> EVENTOS = List.of(EventoAutenticacion.class,
+            EventoRegistro.class, EventoVerificacionClave.class, EventoRepositorio.class);
+
+    private final Duration duracionMaxima;
+    private final int grabacionesMaximas;
+    private final Map<Long, Recording> grabaciones = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor con los parámetros configurables de las grabaciones.
+     *
+     * @param duracionMaximaSegundos Duración máxima de una grabación; al alcanzarla se detiene sola.
+     * @param grabacionesMaximas Número máximo de grabaciones simultáneas.
+     */
+    public GrabacionesJfr(@Value("${usuarios.jfr.duracion-maxima-segundos:600}") long duracionMaximaSegundos,
+                          @Value("${usuarios.jfr.grabaciones-maximas:2}") int grabacionesMaximas) {
+        this.duracionMaxima = Duration.ofSeconds(duracionMaximaSegundos);
+        this.grabacionesMaximas = grabacionesMaximas;
+        EVENTOS.forEach(FlightRecorder::register);
+    }
+
+    /**
+     * Inicia una grabación.
+     *
+     * @param configuracion Nombre de la configuración de JFR ("default" o "profile").
+     * @param duracion Duración solicitada, o null para usar la máxima.
+     * @return El estado de la grabación iniciada.
+     * @throws IllegalArgumentException Si la configuración no existe.
+     * @throws IllegalStateException Si ya se alcanzó el número máximo de grabaciones.
+     */
+    public synchronized Map<String, Object> iniciar(String configuracion, Duration duracion) {
+        grabaciones.values().removeIf(grabacion -> grabacion.getState() == RecordingState.CLOSED);
+        long activas = grabaciones.values().stream()
+                .filter(grabacion -> grabacion.getState() == RecordingState.RUNNING)
+                .count();
+        if (activas >= grabacionesMaximas) {
+            throw new IllegalStateException("Ya hay " + activas + " grabaciones en curso.");
+        }
+        Recording grabacion;
+        try {
+            grabacion = new Recording(Configuration.getConfiguration(configuracion));
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Configuración de JFR desconocida: " + configuracion, e);
+        }
+        EVENTOS.forEach(evento -> grabacion.enable(evento).withThreshold(Duration.ZERO));
+        grabacion.setName("admin-" + configuracion);
+        grabacion.setToDisk(true);
+        grabacion.setDuration(duracion == null || duracion.compareTo(duracionMaxima) > 0 ? duracionMaxima : duracion);
+        grabacion.start();
+        grabaciones.put(grabacion.getId(), grabacion);
+        return describir(grabacion);
+    }
+
+    /**
+     * Detiene una grabación (si sigue en curso) y vuelca su contenido a un archivo temporal.
+     * La grabación se cierra; el llamante es responsable de borrar el archivo.
+     *
+     * @param id El ID de la grabación.
+     * @return El archivo .jfr con la grabación, o vacío si no existe.
+     */
+    public Optional<Path> detener(long id) {
+        Recording grabacion = grabaciones.remove(id);
+        if (grabacion == null) {
+            return Optional.empty();
+        }
+        try {
+            if (grabacion.getState() == RecordingState.RUNNING) {
+                grabacion.stop();
+            }
+            Path archivo = Files.createTempFile("grabacion-" + id + "-", ".jfr");
+            grabacion.dump(archivo);
+            return Optional.of(archivo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            grabacion.close();
+        }
+    }
+
+    /**
+     * @return El estado de las grabaciones pendientes de descargar.
+     */
+    public List<Map<String, Object>> listar() {
+        List<Map<String, Object>> estado = new ArrayList<>();
+        grabaciones.values().forEach(grabacion -> estado.add(describir(grabacion)));
+        return estado;
+    }
+
+    private static Map<String, Object> describir(Recording grabacion) {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("id", grabacion.getId());
+        estado.put("nombre", grabacion.getName());
+        estado.put("estado", grabacion.getState());
+        estado.put("inicio", grabacion.getStartTime());
+        estado.put("duracionSegundos", grabacion.getDuration() == null ? null : grabacion.getDuration().toSeconds());
+        estado.put("bytes", grabacion.getSize());
+        return estado;
+    }
+}
@@ -0,0 +1,273 @@
+package com.dev.sistemaautenticacion.monitoreo;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Intercepta las sentencias JDBC de la aplicación para detectar consultas lentas.
+ * Envuelve el DataSource con proxies de conexión y sentencia que miden cada ejecución;
+ * las que superan el umbral configurado se registran en el log con su SQL, la forma de sus
+ * parámetros (tipos, nunca valores, para no exponer datos personales) y el método de la
+ * aplicación que las originó. Las últimas consultas lentas se conservan para el endpoint de
+ * administración y cada ejecución alimenta el {@link ContadorSentencias} del hilo actual.
+ * Está desactivado por defecto: los proxies añaden una llamada reflexiva a cada sentencia del
+ * camino crítico y ocultan el tipo real del DataSource. Se activa con
+ * usuarios.consultas.monitoreo.habilitado=true para diagnosticar o en las pruebas de sentencias.
+ */
+@Component
+public class MonitorSentencias implements BeanPostProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorSentencias.class);
+
+    private static final String PAQUETE_APLICACION = "com.dev.sistemaautenticacion.";
+    private static final String PAQUETE_MONITOREO = MonitorSentencias.class.getPackageName() + ".";
+    private static final StackWalker PILA = StackWalker.getInstance();
+
+    private final boolean habilitado;
+    private final long umbralNanos;
+    private final int maximoRegistradas;
+
+    private final LongAdder sentencias = new LongAdder();
+    private final LongAdder lentas = new LongAdder();
+    private final Deque<ConsultaLenta> ultimasLentas = new ArrayDeque<>();
+
+    /**
+     * Constructor con los parámetros configurables del monitor.
+     *
+     * @param habilitado Indica si se interceptan las sentencias.
+     * @param umbralMs Duración a partir de la cual una sentencia se considera lenta.
+     * @param maximoRegistradas Número de consultas lentas recientes que se conservan.
+     */
+    public MonitorSentencias(@Value("${usuarios.consultas.monitoreo.habilitado:false}") boolean habilitado,
+                             @Value("${usuarios.consultas.umbral-lento-ms:200}") long umbralMs,
+                             @Value("${usuarios.consultas.lentas-registradas:100}") int maximoRegistradas) {
+        this.habilitado = habilitado;
+        this.umbralNanos = TimeUnit.MILLISECONDS.toNanos(umbralMs);
+        this.maximoRegistradas = maximoRegistradas;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (habilitado && bean instanceof DataSource dataSource && !Proxy.isProxyClass(bean.getClass())) {
+            return envolver(dataSource);
+        }
+        return bean;
+    }
+
+    /**
+     * Envuelve un DataSource para que todas las sentencias de sus conexiones se midan.
+     * El proxy implementa las mismas interfaces que el original (por ejemplo Closeable),
+     * de modo que el cierre del pool al detener la aplicación se mantiene.
+     *
+     * @param dataSource El DataSource original.
+     * @return El DataSource monitorizado.
+     */
+    public DataSource envolver(DataSource dataSource) {
+        return (DataSource) Proxy.newProxyInstance(dataSource.getClass().getClassLoader(),
+                ClassUtils.getAllInterfaces(dataSource), (proxy, metodo, args) -> {
+                    Object resultado = invocar(dataSource, metodo, args);
+                    return resultado instanceof Connection conexion ? envolverConexion(conexion) : resultado;
+                });
+    }
+
+    /**
+     * Devuelve el estado del monitor.
+     *
+     * @return El umbral, las sentencias ejecutadas, las lentas y las últimas consultas lentas.
+     */
+    public Map<String, Object> estado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("umbralMs", TimeUnit.NANOSECONDS.toMillis(umbralNanos));
+        estado.put("sentencias", sentencias.sum());
+        estado.put("lentas", lentas.sum());
+        synchronized (ultimasLentas) {
+            estado.put("ultimasLentas", new ArrayList<>(ultimasLentas));
+        }
+        return estado;
+    }
+
+    private Connection envolverConexion(Connection conexion) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, metodo, args) -> {
+                    Object resultado = invocar(conexion, metodo, args);
+                    if (resultado instanceof Statement sentencia) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String texto ? texto : null;
+                        return envolverSentencia(sentencia, sql);
+                    }
+                    return resultado;
+                });
+    }
+
+    private Statement envolverSentencia(Statement sentencia, String sql) {
+        Class<?> tipo = sentencia instanceof CallableStatement ? CallableStatement.class
+                : sentencia instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{tipo},
+                new SentenciaMonitorizada(sentencia, sql));
+    }
+
+    private void registrar(String sql, String parametros, int filasDelLote, long nanos) {
+        sentencias.increment();
+        ContadorSentencias.registrar(sql);
+        if (nanos < umbralNanos) {
+            return;
+        }
+        lentas.increment();
+        ConsultaLenta consulta = new ConsultaLenta(Instant.now(), TimeUnit.NANOSECONDS.toMillis(nanos),
+                sql, parametros, filasDelLote, llamante());
+        log.warn("Consulta lenta ({} ms) desde {}: {} parámetros={}{}", consulta.duracionMs, consulta.llamante,
+                sql, parametros, filasDelLote > 0 ? " lote=" + filasDelLote : "");
+        synchronized (ultimasLentas) {
+            if (ultimasLentas.size() == maximoRegistradas) {
+                ultimasLentas.removeFirst();
+            }
+            ultimasLentas.addLast(consulta);
+        }
+    }
+
+    /**
+     * Busca en la pila el primer método de la aplicación fuera del monitor y de los proxies de Spring.
+     * Solo se ejecuta para las consultas lentas.
+     */
+    private static String llamante() {
+        return PILA.walk(marcos -> marcos
+                .filter(marco -> marco.getClassName().startsWith(PAQUETE_APLICACION)
+                        && !marco.getClassName().startsWith(PAQUETE_MONITOREO)
+                        && !marco.getClassName().contains("$$"))
+                .findFirst()
+                .map(marco -> ClassUtils.getShortName(marco.getClassName()) + "." + marco.getMethodName())
+                .orElse("desconocido"));
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Proxy de una sentencia: recuerda los tipos de los parámetros y mide cada ejecución.
+     */
+    private final class SentenciaMonitorizada implements InvocationHandler {
+
+        private final Statement sentencia;
+        private final String sql;
+        private final Map<Integer, String> parametros = new TreeMap<>();
+        private final List<String> lote = new ArrayList<>();
+        private int filasDelLote;
+
+        private SentenciaMonitorizada(Statement sentencia, String sql) {
+            this.sentencia = sentencia;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            String nombre = metodo.getName();
+            if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer indice) {
+                parametros.put(indice, forma(nombre, args[1]));
+            } else if (nombre.equals("clearParameters")) {
+                parametros.clear();
+            } else if (nombre.equals("addBatch")) {
+                if (args != null && args.length == 1 && args[0] instanceof String texto) {
+                    lote.add(texto);
+                }
+                filasDelLote++;
+            } else if (nombre.equals("clearBatch")) {
+                lote.clear();
+                filasDelLote = 0;
+            } else if (nombre.startsWith("execute")) {
+                return ejecutar(metodo, args, nombre);
+            }
+            return invocar(sentencia, metodo, args);
+        }
+
+        private Object ejecutar(Method metodo, Object[] args, String nombre) throws Throwable {
+            String texto = args != null && args.length > 0 && args[0] instanceof String directo ? directo
+                    : sql != null ? sql : String.join("; ", lote);
+            boolean esLote = nombre.startsWith("executeBatch") || nombre.startsWith("executeLargeBatch");
+            long inicio = System.nanoTime();
+            try {
+                return invocar(sentencia, metodo, args);
+            } finally {
+                registrar(texto, parametros.toString(), esLote ? filasDelLote : 0, System.nanoTime() - inicio);
+                if (esLote) {
+                    lote.clear();
+                    filasDelLote = 0;
+                }
+            }
+        }
+
+        private static String forma(String metodo, Object valor) {
+            if (valor == null || metodo.equals("setNull")) {
+                return "null";
+            }
+            return valor.getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * Consulta lenta registrada.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class ConsultaLenta {
+
+        /**
+         * Momento en que terminó la consulta.
+         */
+        private final Instant fecha;
+
+        /**
+         * Duración de la consulta.
+         */
+        private final long duracionMs;
+
+        /**
+         * Sentencia ejecutada.
+         */
+        private final String sql;
+
+        /**
+         * Tipos de los parámetros por posición.
+         */
+        private final String parametros;
+
+        /**
+         * Filas del lote JDBC, o 0 si no es un lote.
+         */
+        private final int filasDelLote;
+
+        /**
+         * Método de la aplicación que originó la consulta.
+         */
+        private final String llamante;
+    }
+}
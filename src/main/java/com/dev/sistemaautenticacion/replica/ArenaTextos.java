@@ -0,0 +1,131 @@
+package com.dev.sistemaautenticacion.replica;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Área de memoria fuera del heap donde se guardan consecutivamente los textos de la réplica en UTF-8.
+ * Cada texto se referencia con un long que combina su posición (32 bits altos) y su longitud
+ * (32 bits bajos). Los textos sustituidos no se reutilizan: se contabilizan como liberados y
+ * el espacio se recupera en la siguiente recarga completa de la réplica.
+ * No está sincronizada: la protege el cerrojo de {@link ReplicaColumnar}.
+ */
+final class ArenaTextos {
+
+    /**
+     * Referencia que representa un texto null.
+     */
+    static final long NULO = -1L;
+
+    private ByteBuffer datos;
+    private int usados;
+    private long liberados;
+
+    /**
+     * @param capacidadInicial Bytes reservados inicialmente.
+     */
+    ArenaTextos(int capacidadInicial) {
+        this.datos = ByteBuffer.allocateDirect(Math.max(capacidadInicial, 64));
+    }
+
+    /**
+     * Sustituye un texto, conservando la referencia anterior si el contenido no cambia.
+     *
+     * @param anterior La referencia actual o {@link #NULO}.
+     * @param texto El nuevo texto.
+     * @return La referencia del nuevo texto.
+     */
+    long reemplazar(long anterior, String texto) {
+        if (texto == null) {
+            liberar(anterior);
+            return NULO;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (anterior != NULO && igual(anterior, bytes)) {
+            return anterior;
+        }
+        liberar(anterior);
+        return anadir(bytes);
+    }
+
+    /**
+     * @param referencia Una referencia devuelta por esta arena.
+     * @return El texto, o null para {@link #NULO}.
+     */
+    String leer(long referencia) {
+        if (referencia == NULO) {
+            return null;
+        }
+        byte[] bytes = new byte[longitud(referencia)];
+        datos.get(posicion(referencia), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Marca como liberado el espacio de un texto.
+     *
+     * @param referencia La referencia del texto, o {@link #NULO}.
+     */
+    void liberar(long referencia) {
+        if (referencia != NULO) {
+            liberados += longitud(referencia);
+        }
+    }
+
+    /**
+     * @return Bytes reservados fuera del heap.
+     */
+    long capacidad() {
+        return datos.capacity();
+    }
+
+    /**
+     * @return Bytes ocupados por textos, incluidos los liberados.
+     */
+    long usados() {
+        return usados;
+    }
+
+    /**
+     * @return Bytes de textos sustituidos o eliminados pendientes de recuperar.
+     */
+    long liberados() {
+        return liberados;
+    }
+
+    private long anadir(byte[] bytes) {
+        if (datos.capacity() - usados < bytes.length) {
+            crecer(bytes.length);
+        }
+        datos.put(usados, bytes);
+        long referencia = ((long) usados << 32) | bytes.length;
+        usados += bytes.length;
+        return referencia;
+    }
+
+    private boolean igual(long referencia, byte[] bytes) {
+        if (longitud(referencia) != bytes.length) {
+            return false;
+        }
+        return datos.slice(posicion(referencia), bytes.length).equals(ByteBuffer.wrap(bytes));
+    }
+
+    private void crecer(int minimo) {
+        long necesaria = (long) usados + minimo;
+        if (necesaria > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("La arena de textos de la réplica superó los 2 GB.");
+        }
+        int nueva = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(necesaria, (long) datos.capacity() * 2));
+        ByteBuffer ampliada = ByteBuffer.allocateDirect(nueva);
+        ampliada.put(0, datos, 0, usados);
+        datos = ampliada;
+    }
+
+    private static int posicion(long referencia) {
+        return (int) (referencia >>> 32);
+    }
+
+    private static int longitud(long referencia) {
+        return (int) referencia;
+    }
+}
@@ -0,0 +1,88 @@
+package com.dev.sistemaautenticacion.replica;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codificación por diccionario de una columna con pocos valores distintos (rol, estado, ciudad, país).
+ * Cada valor distinto recibe un código entero consecutivo; el código -1 representa null.
+ * No está sincronizado: lo protege el cerrojo de {@link ReplicaColumnar}.
+ */
+final class Diccionario {
+
+    /**
+     * Código que representa un valor null.
+     */
+    static final int NULO = -1;
+
+    private final Map<String, Integer> codigos = new HashMap<>();
+    private final List<String> valores = new ArrayList<>();
+
+    /**
+     * Devuelve el código de un valor, asignándole uno nuevo si no existía.
+     *
+     * @param valor El valor a codificar.
+     * @return Su código, o {@link #NULO} si el valor es null.
+     */
+    int codificar(String valor) {
+        if (valor == null) {
+            return NULO;
+        }
+        Integer codigo = codigos.get(valor);
+        if (codigo == null) {
+            codigo = valores.size();
+            valores.add(valor);
+            codigos.put(valor, codigo);
+        }
+        return codigo;
+    }
+
+    /**
+     * @param codigo Un código asignado por este diccionario.
+     * @return El valor del código, o null para {@link #NULO}.
+     */
+    String valor(int codigo) {
+        return codigo == NULO ? null : valores.get(codigo);
+    }
+
+    /**
+     * Construye la tabla de coincidencias de un filtro de igualdad, sin distinguir mayúsculas
+     * igual que la intercalación de MySQL. La posición {@code codigo + 1} vale 1 si el valor
+     * del código coincide, de modo que el recorrido de la columna no necesita ramas.
+     *
+     * @param filtro El valor buscado.
+     * @return La tabla de coincidencias, o null si ningún valor coincide.
+     */
+    byte[] tablaDeCoincidencias(String filtro) {
+        byte[] tabla = new byte[valores.size() + 1];
+        boolean alguno = false;
+        for (int codigo = 0; codigo < valores.size(); codigo++) {
+            if (valores.get(codigo).equalsIgnoreCase(filtro)) {
+                tabla[codigo + 1] = 1;
+                alguno = true;
+            }
+        }
+        return alguno ? tabla : null;
+    }
+
+    /**
+     * @return El número de valores distintos.
+     */
+    int tamano() {
+        return valores.size();
+    }
+
+    /**
+     * @return Estimación de la memoria del heap ocupada por el diccionario.
+     */
+    long bytesEstimados() {
+        long bytes = 0;
+        for (String valor : valores) {
+            // Cadena, su arreglo de bytes, la entrada del mapa y el Integer del código
+            bytes += 40 + valor.length() + 48 + 16;
+        }
+        return bytes;
+    }
+}
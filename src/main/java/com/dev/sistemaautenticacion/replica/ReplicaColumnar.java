@@ -0,0 +1,426 @@
+package com.dev.sistemaautenticacion.replica;
+
+import com.dev.sistemaautenticacion.dto.FiltroUsuarios;
+import com.dev.sistemaautenticacion.dto.UserResponse;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Copia en memoria de la tabla "usuario" organizada por columnas fuera del heap.
+ * Cada usuario ocupa una fila; cada columna es un búfer directo de primitivos:
+ * <ul>
+ *     <li>rol, estado, ciudad y país como códigos de un {@link Diccionario};</li>
+ *     <li>ID, fecha de nacimiento (día epoch) y fechas de creación y modificación (microsegundos epoch);</li>
+ *     <li>nombre, apellido, correo, teléfono y dirección como referencias a una {@link ArenaTextos}.</li>
+ * </ul>
+ * Los filtros recorren las columnas por bloques de 64 filas y combinan los resultados en un mapa
+ * de bits con operaciones AND, sin ramas por fila, para que el JIT pueda desenrollar los bucles.
+ * Las filas de usuarios eliminados quedan como huecos hasta la siguiente recarga completa.
+ * Las lecturas son concurrentes; las escrituras se serializan con un cerrojo de lectura/escritura.
+ */
+public final class ReplicaColumnar {
+
+    private static final int NULO_DIA = Integer.MIN_VALUE;
+    private static final long NULO_INSTANTE = Long.MIN_VALUE;
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    private static final int NOMBRE = 0;
+    private static final int APELLIDO = 1;
+    private static final int CORREO = 2;
+    private static final int TELEFONO = 3;
+    private static final int DIRECCION = 4;
+    private static final int TOTAL_TEXTOS = 5;
+
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+
+    private final Diccionario roles = new Diccionario();
+    private final Diccionario estados = new Diccionario();
+    private final Diccionario ciudades = new Diccionario();
+    private final Diccionario paises = new Diccionario();
+    private final ArenaTextos arena;
+
+    private int capacidad;
+    private int filas;
+    private int vivas;
+
+    private LongBuffer filasVivas;
+    private IntBuffer ids;
+    private IntBuffer codigosRol;
+    private IntBuffer codigosEstado;
+    private IntBuffer codigosCiudad;
+    private IntBuffer codigosPais;
+    private IntBuffer nacimientos;
+    private LongBuffer creaciones;
+    private LongBuffer modificaciones;
+    private final LongBuffer[] textos = new LongBuffer[TOTAL_TEXTOS];
+
+    /**
+     * Índice de ID a fila + 1 (0 si el ID no está en la réplica). Los IDs son autoincrementales,
+     * por lo que un arreglo directo indexado por ID es más compacto que un mapa.
+     */
+    private IntBuffer posiciones;
+
+    /**
+     * Crea una réplica vacía.
+     */
+    public ReplicaColumnar() {
+        this.capacidad = CAPACIDAD_INICIAL;
+        this.arena = new ArenaTextos(CAPACIDAD_INICIAL * 64);
+        this.filasVivas = largos(palabras(capacidad));
+        this.ids = enteros(capacidad);
+        this.codigosRol = enteros(capacidad);
+        this.codigosEstado = enteros(capacidad);
+        this.codigosCiudad = enteros(capacidad);
+        this.codigosPais = enteros(capacidad);
+        this.nacimientos = enteros(capacidad);
+        this.creaciones = largos(capacidad);
+        this.modificaciones = largos(capacidad);
+        for (int campo = 0; campo < TOTAL_TEXTOS; campo++) {
+            textos[campo] = largos(capacidad);
+        }
+        this.posiciones = enteros(CAPACIDAD_INICIAL);
+    }
+
+    /**
+     * Añade o sustituye los datos de un usuario.
+     *
+     * @param usuario Los datos del usuario; el ID es obligatorio.
+     */
+    public void guardar(UserResponse usuario) {
+        cerrojo.writeLock().lock();
+        try {
+            int id = usuario.getId();
+            int fila = fila(id);
+            if (fila < 0) {
+                fila = nuevaFila(id);
+            }
+            codigosRol.put(fila, roles.codificar(usuario.getRol()));
+            codigosEstado.put(fila, estados.codificar(usuario.getEstado()));
+            codigosCiudad.put(fila, ciudades.codificar(usuario.getCiudad()));
+            codigosPais.put(fila, paises.codificar(usuario.getPais()));
+            nacimientos.put(fila, usuario.getFechaNacimiento() == null
+                    ? NULO_DIA : (int) usuario.getFechaNacimiento().toEpochDay());
+            creaciones.put(fila, microsegundos(usuario.getFechaCreacion()));
+            modificaciones.put(fila, microsegundos(usuario.getFechaModificacion()));
+            reemplazarTexto(NOMBRE, fila, usuario.getNombre());
+            reemplazarTexto(APELLIDO, fila, usuario.getApellido());
+            reemplazarTexto(CORREO, fila, usuario.getCorreo());
+            reemplazarTexto(TELEFONO, fila, usuario.getTelefono());
+            reemplazarTexto(DIRECCION, fila, usuario.getDireccion());
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina un usuario de la réplica.
+     *
+     * @param id El ID del usuario.
+     * @return true si el usuario estaba en la réplica.
+     */
+    public boolean eliminar(int id) {
+        cerrojo.writeLock().lock();
+        try {
+            int fila = fila(id);
+            if (fila < 0) {
+                return false;
+            }
+            filasVivas.put(fila >>> 6, filasVivas.get(fila >>> 6) & ~(1L << fila));
+            posiciones.put(id, 0);
+            for (int campo = 0; campo < TOTAL_TEXTOS; campo++) {
+                arena.liberar(textos[campo].get(fila));
+                textos[campo].put(fila, ArenaTextos.NULO);
+            }
+            vivas--;
+            return true;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca un usuario por ID.
+     *
+     * @param id El ID del usuario.
+     * @return Los datos del usuario, o null si no está en la réplica.
+     */
+    public UserResponse obtener(int id) {
+        cerrojo.readLock().lock();
+        try {
+            int fila = fila(id);
+            return fila < 0 ? null : leerFila(fila);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cuenta los usuarios que cumplen un filtro.
+     *
+     * @param filtro Los criterios de filtrado.
+     * @param hoy Fecha de referencia para calcular las edades.
+     * @return El número de usuarios.
+     */
+    public long contar(FiltroUsuarios filtro, LocalDate hoy) {
+        cerrojo.readLock().lock();
+        try {
+            long total = 0;
+            for (long palabra : seleccionar(filtro, hoy)) {
+                total += Long.bitCount(palabra);
+            }
+            return total;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve los usuarios que cumplen un filtro, en el orden de las filas de la réplica.
+     *
+     * @param filtro Los criterios de filtrado.
+     * @param hoy Fecha de referencia para calcular las edades.
+     * @param limite Número máximo de usuarios a devolver.
+     * @return Los usuarios encontrados.
+     */
+    public List<UserResponse> filtrar(FiltroUsuarios filtro, LocalDate hoy, int limite) {
+        cerrojo.readLock().lock();
+        try {
+            long[] seleccion = seleccionar(filtro, hoy);
+            List<UserResponse> usuarios = new ArrayList<>(Math.min(limite, 1024));
+            for (int palabra = 0; palabra < seleccion.length && usuarios.size() < limite; palabra++) {
+                long bits = seleccion[palabra];
+                while (bits != 0 && usuarios.size() < limite) {
+                    usuarios.add(leerFila((palabra << 6) + Long.numberOfTrailingZeros(bits)));
+                    bits &= bits - 1;
+                }
+            }
+            return usuarios;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return El número de usuarios en la réplica.
+     */
+    public int tamano() {
+        cerrojo.readLock().lock();
+        try {
+            return vivas;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve el estado de la réplica y la memoria que ocupa dentro y fuera del heap.
+     *
+     * @return Usuarios, filas (incluidos huecos), bytes fuera del heap y estimación del heap.
+     */
+    public Map<String, Object> estadisticas() {
+        cerrojo.readLock().lock();
+        try {
+            long fueraDelHeap = 4L * capacidad * 6 + 8L * capacidad * (2 + TOTAL_TEXTOS)
+                    + 8L * palabras(capacidad) + 4L * posiciones.capacity() + arena.capacidad();
+            long enHeap = roles.bytesEstimados() + estados.bytesEstimados()
+                    + ciudades.bytesEstimados() + paises.bytesEstimados();
+            Map<String, Object> estadisticas = new LinkedHashMap<>();
+            estadisticas.put("usuarios", vivas);
+            estadisticas.put("filas", filas);
+            estadisticas.put("bytesFueraDelHeap", fueraDelHeap);
+            estadisticas.put("bytesEnHeap", enHeap);
+            estadisticas.put("bytesTextos", arena.usados());
+            estadisticas.put("bytesTextosLiberados", arena.liberados());
+            estadisticas.put("bytesPorMillonDeUsuarios", vivas == 0 ? 0 : (fueraDelHeap + enHeap) * 1_000_000 / vivas);
+            estadisticas.put("ciudadesDistintas", ciudades.tamano());
+            estadisticas.put("paisesDistintos", paises.tamano());
+            return estadisticas;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Calcula el mapa de bits de las filas que cumplen el filtro.
+     * Se parte de las filas vivas y cada criterio elimina bits; los bloques ya vacíos no se recorren.
+     */
+    private long[] seleccionar(FiltroUsuarios filtro, LocalDate hoy) {
+        long[] seleccion = new long[palabras(filas)];
+        filasVivas.get(0, seleccion);
+        if (!filtrarPorCodigo(seleccion, codigosRol, roles, filtro.getRol())
+                || !filtrarPorCodigo(seleccion, codigosEstado, estados, filtro.getEstado())
+                || !filtrarPorCodigo(seleccion, codigosCiudad, ciudades, filtro.getCiudad())
+                || !filtrarPorCodigo(seleccion, codigosPais, paises, filtro.getPais())) {
+            return new long[0];
+        }
+        if (filtro.getEdadMinima() != null || filtro.getEdadMaxima() != null) {
+            // Edad >= mínima: nacido como tarde hoy - mínima años; edad <= máxima: nacido después de hoy - (máxima + 1) años
+            long desde = filtro.getEdadMaxima() == null ? NULO_DIA + 1L
+                    : hoy.minusYears(filtro.getEdadMaxima() + 1L).plusDays(1).toEpochDay();
+            long hasta = filtro.getEdadMinima() == null ? Integer.MAX_VALUE
+                    : hoy.minusYears(filtro.getEdadMinima()).toEpochDay();
+            if (desde > hasta) {
+                return new long[0];
+            }
+            filtrarPorRango(seleccion, nacimientos, desde, hasta);
+        }
+        return seleccion;
+    }
+
+    /**
+     * Aplica un filtro de igualdad sobre una columna codificada.
+     *
+     * @return false si ningún valor del diccionario coincide y el resultado es vacío.
+     */
+    private boolean filtrarPorCodigo(long[] seleccion, IntBuffer columna, Diccionario diccionario, String valor) {
+        if (valor == null) {
+            return true;
+        }
+        byte[] tabla = diccionario.tablaDeCoincidencias(valor);
+        if (tabla == null) {
+            return false;
+        }
+        for (int palabra = 0; palabra < seleccion.length; palabra++) {
+            long actual = seleccion[palabra];
+            if (actual == 0) {
+                continue;
+            }
+            int base = palabra << 6;
+            int fin = Math.min(64, filas - base);
+            long bits = 0;
+            for (int j = 0; j < fin; j++) {
+                bits |= (long) tabla[columna.get(base + j) + 1] << j;
+            }
+            seleccion[palabra] = actual & bits;
+        }
+        return true;
+    }
+
+    /**
+     * Aplica un filtro de rango cerrado sobre una columna de enteros.
+     * La comprobación {@code desde <= v <= hasta} se resuelve con aritmética de signos, sin ramas.
+     */
+    private void filtrarPorRango(long[] seleccion, IntBuffer columna, long desde, long hasta) {
+        long ancho = hasta - desde;
+        for (int palabra = 0; palabra < seleccion.length; palabra++) {
+            long actual = seleccion[palabra];
+            if (actual == 0) {
+                continue;
+            }
+            int base = palabra << 6;
+            int fin = Math.min(64, filas - base);
+            long bits = 0;
+            for (int j = 0; j < fin; j++) {
+                long desplazado = columna.get(base + j) - desde;
+                bits |= (((desplazado | (ancho - desplazado)) >>> 63) ^ 1L) << j;
+            }
+            seleccion[palabra] = actual & bits;
+        }
+    }
+
+    private UserResponse leerFila(int fila) {
+        UserResponse usuario = new UserResponse();
+        usuario.setId(ids.get(fila));
+        usuario.setNombre(arena.leer(textos[NOMBRE].get(fila)));
+        usuario.setApellido(arena.leer(textos[APELLIDO].get(fila)));
+        usuario.setCorreo(arena.leer(textos[CORREO].get(fila)));
+        int dia = nacimientos.get(fila);
+        usuario.setFechaNacimiento(dia == NULO_DIA ? null : LocalDate.ofEpochDay(dia));
+        usuario.setTelefono(arena.leer(textos[TELEFONO].get(fila)));
+        usuario.setDireccion(arena.leer(textos[DIRECCION].get(fila)));
+        usuario.setCiudad(ciudades.valor(codigosCiudad.get(fila)));
+        usuario.setPais(paises.valor(codigosPais.get(fila)));
+        usuario.setRol(roles.valor(codigosRol.get(fila)));
+        usuario.setEstado(estados.valor(codigosEstado.get(fila)));
+        usuario.setFechaCreacion(instante(creaciones.get(fila)));
+        usuario.setFechaModificacion(instante(modificaciones.get(fila)));
+        return usuario;
+    }
+
+    private int fila(int id) {
+        return id >= 0 && id < posiciones.capacity() ? posiciones.get(id) - 1 : -1;
+    }
+
+    private int nuevaFila(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("ID de usuario no válido: " + id);
+        }
+        if (filas == capacidad) {
+            crecer();
+        }
+        if (id >= posiciones.capacity()) {
+            int nueva = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(id + 1L, posiciones.capacity() * 2L));
+            posiciones = copiar(posiciones, enteros(nueva), posiciones.capacity());
+        }
+        int fila = filas++;
+        ids.put(fila, id);
+        for (int campo = 0; campo < TOTAL_TEXTOS; campo++) {
+            textos[campo].put(fila, ArenaTextos.NULO);
+        }
+        filasVivas.put(fila >>> 6, filasVivas.get(fila >>> 6) | (1L << fila));
+        posiciones.put(id, fila + 1);
+        vivas++;
+        return fila;
+    }
+
+    private void crecer() {
+        int nueva = capacidad * 2;
+        filasVivas = copiar(filasVivas, largos(palabras(nueva)), palabras(filas));
+        ids = copiar(ids, enteros(nueva), filas);
+        codigosRol = copiar(codigosRol, enteros(nueva), filas);
+        codigosEstado = copiar(codigosEstado, enteros(nueva), filas);
+        codigosCiudad = copiar(codigosCiudad, enteros(nueva), filas);
+        codigosPais = copiar(codigosPais, enteros(nueva), filas);
+        nacimientos = copiar(nacimientos, enteros(nueva), filas);
+        creaciones = copiar(creaciones, largos(nueva), filas);
+        modificaciones = copiar(modificaciones, largos(nueva), filas);
+        for (int campo = 0; campo < TOTAL_TEXTOS; campo++) {
+            textos[campo] = copiar(textos[campo], largos(nueva), filas);
+        }
+        capacidad = nueva;
+    }
+
+    private void reemplazarTexto(int campo, int fila, String valor) {
+        textos[campo].put(fila, arena.reemplazar(textos[campo].get(fila), valor));
+    }
+
+    private static long microsegundos(Instant instante) {
+        return instante == null ? NULO_INSTANTE
+                : Math.addExact(Math.multiplyExact(instante.getEpochSecond(), 1_000_000L), instante.getNano() / 1_000);
+    }
+
+    private static Instant instante(long microsegundos) {
+        return microsegundos == NULO_INSTANTE ? null
+                : Instant.ofEpochSecond(Math.floorDiv(microsegundos, 1_000_000L), Math.floorMod(microsegundos, 1_000_000L) * 1_000L);
+    }
+
+    private static int palabras(int filas) {
+        return (filas + 63) >>> 6;
+    }
+
+    private static IntBuffer enteros(int tamano) {
+        return ByteBuffer.allocateDirect(tamano * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    private static LongBuffer largos(int tamano) {
+        return ByteBuffer.allocateDirect(tamano * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    private static IntBuffer copiar(IntBuffer origen, IntBuffer destino, int cantidad) {
+        return destino.put(0, origen, 0, cantidad);
+    }
+
+    private static LongBuffer copiar(LongBuffer origen, LongBuffer destino, int cantidad) {
+        return destino.put(0, origen, 0, cantidad);
+    }
+}
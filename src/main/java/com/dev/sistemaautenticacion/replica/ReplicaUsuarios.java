@@ -0,0 +1,323 @@
+package com.dev.sistemaautenticacion.replica;
+
+import com.dev.sistemaautenticacion.dto.FiltroUsuarios;
+import com.dev.sistemaautenticacion.dto.UserResponse;
+import com.dev.sistemaautenticacion.exception.ReplicaNoDisponibleException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Réplica de lectura de la tabla "usuario" en memoria, basada en una {@link ReplicaColumnar}.
+ * Se carga en segundo plano al arrancar leyendo la tabla en modo streaming y se mantiene al día
+ * de tres formas:
+ * <ul>
+ *     <li>las operaciones de escritura de la capa de servicios la actualizan al confirmar cada cambio;</li>
+ *     <li>cada intervalo se leen las filas creadas o modificadas desde la última puesta al día
+ *     (por fecha_creacion y fecha_modificacion, con un margen para las transacciones que confirman tarde),
+ *     lo que incluye los cambios de otras instancias y las eliminaciones lógicas;</li>
+ *     <li>una recarga completa periódica sustituye la réplica, recupera los huecos y los textos liberados
+ *     y descarta los usuarios archivados por otras instancias.</li>
+ * </ul>
+ * Mientras la réplica no está cargada, las consultas por ID recurren a la base de datos y los filtros
+ * responden que la réplica no está disponible.
+ */
+@Component
+public class ReplicaUsuarios {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaUsuarios.class);
+
+    private static final String SELECT_COLUMNAS = "SELECT id, nombre, apellido, correo, fecha_nacimiento, telefono, " +
+            "direccion, ciudad, pais, rol, estado, fecha_creacion, fecha_modificacion, eliminado FROM usuario";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean habilitada;
+    private final Duration margen;
+    private final int limiteMaximo;
+
+    private final ReentrantLock actualizacion = new ReentrantLock();
+    private final AtomicBoolean cargando = new AtomicBoolean();
+
+    private volatile ReplicaColumnar replica;
+    private volatile Instant ultimaPuestaAlDia;
+
+    /**
+     * Constructor con inyección de dependencias y parámetros configurables.
+     *
+     * @param jdbcTemplate Plantilla JDBC para la carga y la puesta al día.
+     * @param habilitada Indica si se mantiene la réplica.
+     * @param margenSegundos Margen con el que se vuelven a leer los cambios anteriores a la última puesta al día.
+     * @param limiteMaximo Número máximo de usuarios devueltos por un filtro.
+     */
+    @Autowired
+    public ReplicaUsuarios(JdbcTemplate jdbcTemplate,
+                           @Value("${usuarios.replica.habilitada:true}") boolean habilitada,
+                           @Value("${usuarios.replica.margen-segundos:60}") long margenSegundos,
+                           @Value("${usuarios.replica.limite-maximo:1000}") int limiteMaximo) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.habilitada = habilitada;
+        this.margen = Duration.ofSeconds(margenSegundos);
+        this.limiteMaximo = limiteMaximo;
+    }
+
+    /**
+     * Carga la réplica en segundo plano una vez que la aplicación está lista,
+     * para no retrasar el arranque ni la atención de los primeros inicios de sesión.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlArrancar() {
+        if (!habilitada) {
+            return;
+        }
+        Thread hilo = new Thread(this::recargar, "carga-replica-usuarios");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Construye una réplica nueva leyendo la tabla completa y la sustituye por la actual.
+     * Los cambios confirmados durante la lectura se aplican con una puesta al día antes de la sustitución;
+     * mientras tanto, la réplica actual sigue atendiendo las lecturas.
+     */
+    @Scheduled(fixedDelayString = "${usuarios.replica.recarga-completa-ms:21600000}",
+            initialDelayString = "${usuarios.replica.recarga-completa-ms:21600000}")
+    public void recargar() {
+        if (!habilitada || !cargando.compareAndSet(false, true)) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        try {
+            ReplicaColumnar nueva = new ReplicaColumnar();
+            Instant desde = ahoraEnBaseDeDatos();
+            jdbcTemplate.query(conexion -> {
+                PreparedStatement sentencia = conexion.prepareStatement(SELECT_COLUMNAS + " WHERE eliminado = 0",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                // Con MySQL Connector/J, Integer.MIN_VALUE activa la lectura fila a fila
+                sentencia.setFetchSize(Integer.MIN_VALUE);
+                return sentencia;
+            }, fila -> {
+                nueva.guardar(leer(fila));
+            });
+            actualizacion.lock();
+            try {
+                ultimaPuestaAlDia = aplicarCambiosDesde(nueva, desde);
+                replica = nueva;
+            } finally {
+                actualizacion.unlock();
+            }
+            Map<String, Object> estadisticas = nueva.estadisticas();
+            log.info("Réplica de usuarios cargada: {} usuarios, {} MB fuera del heap ({} MB por millón de usuarios) en {} ms",
+                    estadisticas.get("usuarios"), (long) estadisticas.get("bytesFueraDelHeap") / (1024 * 1024),
+                    (long) estadisticas.get("bytesPorMillonDeUsuarios") / (1024 * 1024),
+                    (System.nanoTime() - inicio) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("No se pudo cargar la réplica de usuarios", e);
+        } finally {
+            cargando.set(false);
+        }
+    }
+
+    /**
+     * Aplica a la réplica las filas creadas o modificadas desde la última puesta al día.
+     * No se ejecuta durante una recarga completa, que termina con su propia puesta al día.
+     */
+    @Scheduled(fixedDelayString = "${usuarios.replica.intervalo-ms:30000}",
+            initialDelayString = "${usuarios.replica.intervalo-ms:30000}")
+    public void ponerAlDia() {
+        if (replica == null || cargando.get()) {
+            return;
+        }
+        actualizacion.lock();
+        try {
+            ultimaPuestaAlDia = aplicarCambiosDesde(replica, ultimaPuestaAlDia);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo poner al día la réplica de usuarios", e);
+        } finally {
+            actualizacion.unlock();
+        }
+    }
+
+    /**
+     * Busca un usuario por ID en la réplica.
+     *
+     * @param id El ID del usuario.
+     * @return El usuario, o vacío si la réplica no está cargada o no lo contiene (por ejemplo, si está archivado).
+     */
+    public Optional<UserResponse> obtener(Integer id) {
+        ReplicaColumnar actual = replica;
+        return actual == null ? Optional.empty() : Optional.ofNullable(actual.obtener(id));
+    }
+
+    /**
+     * Filtra los usuarios de la réplica.
+     *
+     * @param filtro Los criterios de filtrado.
+     * @param limite Número máximo de usuarios (acotado por la configuración).
+     * @return Los usuarios que cumplen el filtro.
+     * @throws ReplicaNoDisponibleException Si la réplica aún no está cargada.
+     */
+    public List<UserResponse> filtrar(FiltroUsuarios filtro, int limite) {
+        return disponible().filtrar(filtro, LocalDate.now(), Math.min(limite, limiteMaximo));
+    }
+
+    /**
+     * Cuenta los usuarios de la réplica que cumplen un filtro.
+     *
+     * @param filtro Los criterios de filtrado.
+     * @return El número de usuarios.
+     * @throws ReplicaNoDisponibleException Si la réplica aún no está cargada.
+     */
+    public long contar(FiltroUsuarios filtro) {
+        return disponible().contar(filtro, LocalDate.now());
+    }
+
+    /**
+     * Añade o actualiza un usuario tras una escritura confirmada.
+     *
+     * @param usuario Los datos del usuario.
+     */
+    public void guardar(UserResponse usuario) {
+        ReplicaColumnar actual = replica;
+        if (actual != null) {
+            actual.guardar(usuario);
+        }
+    }
+
+    /**
+     * Elimina un usuario tras una eliminación confirmada.
+     *
+     * @param id El ID del usuario.
+     */
+    public void eliminar(Integer id) {
+        ReplicaColumnar actual = replica;
+        if (actual != null) {
+            actual.eliminar(id);
+        }
+    }
+
+    /**
+     * Vuelve a leer de la base de datos varios usuarios, por ejemplo tras archivarlos o restaurarlos.
+     * Los que ya no están en la tabla principal se eliminan de la réplica.
+     *
+     * @param ids Los IDs de los usuarios.
+     */
+    public void releer(List<Integer> ids) {
+        ReplicaColumnar actual = replica;
+        if (actual == null || ids.isEmpty()) {
+            return;
+        }
+        Set<Integer> pendientes = new HashSet<>(ids);
+        String marcadores = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.query(SELECT_COLUMNAS + " WHERE id IN (" + marcadores + ")", fila -> {
+            pendientes.remove(fila.getInt("id"));
+            aplicar(actual, fila);
+        }, ids.toArray());
+        pendientes.forEach(actual::eliminar);
+    }
+
+    /**
+     * @return El estado de la réplica y la memoria que ocupa.
+     */
+    public Map<String, Object> estadisticas() {
+        ReplicaColumnar actual = replica;
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("habilitada", habilitada);
+        estadisticas.put("cargando", cargando.get());
+        estadisticas.put("ultimaPuestaAlDia", ultimaPuestaAlDia);
+        if (actual != null) {
+            estadisticas.putAll(actual.estadisticas());
+        }
+        return estadisticas;
+    }
+
+    /**
+     * Libera la referencia a la réplica para que sus búferes fuera del heap puedan recuperarse.
+     */
+    @PreDestroy
+    public void liberar() {
+        replica = null;
+    }
+
+    private ReplicaColumnar disponible() {
+        ReplicaColumnar actual = replica;
+        if (actual == null) {
+            throw ReplicaNoDisponibleException.INSTANCIA;
+        }
+        return actual;
+    }
+
+    /**
+     * Lee las filas creadas o modificadas desde una fecha (menos el margen) y las aplica.
+     * Las fechas se toman del reloj de MySQL para no depender del reloj de esta instancia.
+     *
+     * @return La fecha de MySQL anterior a la lectura, desde la que se hará la siguiente puesta al día.
+     */
+    private Instant aplicarCambiosDesde(ReplicaColumnar destino, Instant desde) {
+        Instant ahora = ahoraEnBaseDeDatos();
+        Timestamp limite = Timestamp.from(desde.minus(margen));
+        jdbcTemplate.query(SELECT_COLUMNAS + " WHERE fecha_modificacion >= ? UNION ALL "
+                        + SELECT_COLUMNAS + " WHERE fecha_creacion >= ?",
+                fila -> {
+                    aplicar(destino, fila);
+                }, limite, limite);
+        return ahora;
+    }
+
+    private Instant ahoraEnBaseDeDatos() {
+        return jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP(6)", Timestamp.class).toInstant();
+    }
+
+    private static void aplicar(ReplicaColumnar destino, ResultSet fila) throws SQLException {
+        if (fila.getBoolean("eliminado")) {
+            destino.eliminar(fila.getInt("id"));
+        } else {
+            destino.guardar(leer(fila));
+        }
+    }
+
+    private static UserResponse leer(ResultSet fila) throws SQLException {
+        UserResponse usuario = new UserResponse();
+        usuario.setId(fila.getInt(1));
+        usuario.setNombre(fila.getString(2));
+        usuario.setApellido(fila.getString(3));
+        usuario.setCorreo(fila.getString(4));
+        Date nacimiento = fila.getDate(5);
+        usuario.setFechaNacimiento(nacimiento == null ? null : nacimiento.toLocalDate());
+        usuario.setTelefono(fila.getString(6));
+        usuario.setDireccion(fila.getString(7));
+        usuario.setCiudad(fila.getString(8));
+        usuario.setPais(fila.getString(9));
+        usuario.setRol(fila.getString(10));
+        usuario.setEstado(fila.getString(11));
+        Timestamp creacion = fila.getTimestamp(12);
+        usuario.setFechaCreacion(creacion == null ? null : creacion.toInstant());
+        Timestamp modificacion = fila.getTimestamp(13);
+        usuario.setFechaModificacion(modificacion == null ? null : modificacion.toInstant());
+        return usuario;
+    }
+}
@@ -0,0 +1,66 @@
+package com.dev.sistemaautenticacion.repository;
+
+import com.dev.sistemaautenticacion.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+/**
+ * Interfaz de repositorio para la tabla de refresh tokens.
+ * Las sentencias de modificación se ejecutan sin cargar las entidades en memoria.
+ */
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    /**
+     * Marca un token como rotado si aún no lo estaba.
+     * Dos rotaciones simultáneas del mismo token no pueden actualizar ambas la fila.
+     *
+     * @param huella La huella del token.
+     * @return 1 si el token se marcó, 0 si ya estaba rotado o no existe.
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.rotado = true WHERE t.huella = :huella AND t.rotado = false")
+    int marcarComoRotado(@Param("huella") String huella);
+
+    /**
+     * Elimina todos los tokens de una familia.
+     *
+     * @param familia La familia.
+     * @return El número de tokens eliminados.
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.familia = :familia")
+    int eliminarFamilia(@Param("familia") Long familia);
+
+    /**
+     * Elimina todos los tokens de un usuario.
+     *
+     * @param usuarioId El ID del usuario.
+     * @return El número de tokens eliminados.
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.usuarioId = :usuarioId")
+    int eliminarDeUsuario(@Param("usuarioId") Integer usuarioId);
+
+    /**
+     * Cuenta las familias distintas de un usuario.
+     *
+     * @param usuarioId El ID del usuario.
+     * @return El número de familias.
+     */
+    @Query("SELECT COUNT(DISTINCT t.familia) FROM RefreshToken t WHERE t.usuarioId = :usuarioId")
+    int contarFamiliasDeUsuario(@Param("usuarioId") Integer usuarioId);
+
+    /**
+     * Elimina los tokens caducados.
+     *
+     * @param ahora El instante actual.
+     * @return El número de tokens eliminados.
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiracion <= :ahora")
+    int eliminarCaducados(@Param("ahora") Instant ahora);
+}
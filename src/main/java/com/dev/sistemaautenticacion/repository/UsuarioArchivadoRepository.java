@@ -0,0 +1,132 @@
+package com.dev.sistemaautenticacion.repository;
+
+import com.dev.sistemaautenticacion.dto.CredencialUsuario;
+import com.dev.sistemaautenticacion.entity.UsuarioArchivado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interfaz de repositorio para la tabla de archivo de usuarios inactivos.
+ * Además de las consultas de respaldo por ID y correo, define las sentencias que
+ * trasladan usuarios entre la tabla "usuario" y "usuario_archivado" en bloque,
+ * sin cargar las entidades en memoria.
+ */
+public interface UsuarioArchivadoRepository extends JpaRepository<UsuarioArchivado, Integer> {
+
+    /**
+     * Obtiene los datos de credenciales de un usuario archivado a partir de su correo.
+     *
+     * @param correo El correo electrónico normalizado.
+     * @return Un Optional con la credencial si el usuario está archivado.
+     */
+    @Query("SELECT new com.dev.sistemaautenticacion.dto.CredencialUsuario(u.id, u.correo, u.clave, u.estado, u.rol) " +
+            "FROM UsuarioArchivado u WHERE u.correo = :correo")
+    Optional<CredencialUsuario> buscarCredencialPorCorreo(@Param("correo") String correo);
+
+    /**
+     * Busca un usuario archivado por su correo electrónico.
+     *
+     * @param correo El correo electrónico.
+     * @return Un Optional con el usuario archivado si existe.
+     */
+    Optional<UsuarioArchivado> findByCorreo(String correo);
+
+    /**
+     * Verifica si un correo pertenece a un usuario archivado.
+     *
+     * @param correo El correo electrónico normalizado.
+     * @return true si existe un usuario archivado con ese correo.
+     */
+    boolean existsByCorreo(String correo);
+
+    /**
+     * Selecciona un lote de usuarios inactivos sin modificaciones desde la fecha límite.
+     *
+     * @param fechaLimite Los usuarios modificados por última vez antes de esta fecha son candidatos.
+     * @param tamanoLote Número máximo de IDs a devolver.
+     * @return Los IDs de los usuarios a archivar, ordenados.
+     */
+    @Query(value = "SELECT id FROM usuario WHERE estado = 'inactivo' AND eliminado = 0 " +
+            "AND COALESCE(fecha_modificacion, fecha_creacion) < :fechaLimite ORDER BY id LIMIT :tamanoLote",
+            nativeQuery = true)
+    List<Integer> buscarCandidatosAArchivar(@Param("fechaLimite") Instant fechaLimite,
+                                            @Param("tamanoLote") int tamanoLote);
+
+    /**
+     * Copia a la tabla de archivo los usuarios indicados que sigan inactivos.
+     *
+     * @param ids Los IDs de los usuarios a copiar.
+     * @return El número de filas copiadas.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO usuario_archivado (id, nombre, apellido, correo, clave, fecha_nacimiento, telefono, " +
+            "direccion, ciudad, pais, rol, estado, fecha_creacion, fecha_modificacion, fecha_archivado) " +
+            "SELECT id, nombre, apellido, correo, clave, fecha_nacimiento, telefono, direccion, ciudad, pais, rol, " +
+            "estado, fecha_creacion, fecha_modificacion, CURRENT_TIMESTAMP FROM usuario " +
+            "WHERE id IN (:ids) AND estado = 'inactivo' AND eliminado = 0", nativeQuery = true)
+    int copiarAlArchivo(@Param("ids") List<Integer> ids);
+
+    /**
+     * Elimina de la tabla principal los usuarios ya copiados al archivo.
+     *
+     * @param ids Los IDs de los usuarios archivados.
+     * @return El número de filas eliminadas.
+     */
+    @Modifying
+    @Query(value = "DELETE u FROM usuario u JOIN usuario_archivado a ON a.id = u.id WHERE u.id IN (:ids)",
+            nativeQuery = true)
+    int eliminarArchivadosDeLaTablaPrincipal(@Param("ids") List<Integer> ids);
+
+    /**
+     * Restaura un usuario archivado en la tabla principal con un nuevo estado.
+     *
+     * @param id El ID del usuario archivado.
+     * @param estado El estado con el que se restaura el usuario.
+     * @return El número de filas restauradas.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO usuario (id, nombre, apellido, correo, clave, fecha_nacimiento, telefono, direccion, " +
+            "ciudad, pais, rol, estado, fecha_creacion, fecha_modificacion, eliminado) " +
+            "SELECT id, nombre, apellido, correo, clave, fecha_nacimiento, telefono, direccion, ciudad, pais, rol, " +
+            ":estado, fecha_creacion, CURRENT_TIMESTAMP, 0 FROM usuario_archivado WHERE id = :id", nativeQuery = true)
+    int restaurar(@Param("id") Integer id, @Param("estado") String estado);
+
+    /**
+     * Elimina un usuario archivado con una única sentencia.
+     *
+     * @param id El ID del usuario archivado.
+     * @return El número de filas eliminadas.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UsuarioArchivado u WHERE u.id = :id")
+    int eliminarPorId(@Param("id") Integer id);
+
+    /**
+     * Elimina varios usuarios archivados con una única sentencia.
+     *
+     * @param ids Los IDs de los usuarios archivados.
+     * @return El número de filas eliminadas.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UsuarioArchivado u WHERE u.id IN :ids")
+    int eliminarPorIds(@Param("ids") List<Integer> ids);
+
+    /**
+     * Actualiza el estado de un usuario que permanece archivado.
+     *
+     * @param id El ID del usuario archivado.
+     * @param nuevoEstado El nuevo estado.
+     */
+    @Modifying
+    @Query("UPDATE UsuarioArchivado u SET u.estado = :nuevoEstado WHERE u.id = :id")
+    void actualizarEstado(@Param("id") Integer id, @Param("nuevoEstado") String nuevoEstado);
+}
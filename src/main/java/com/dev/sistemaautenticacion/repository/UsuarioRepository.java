@@ -1,5 +1,6 @@
 package com.dev.sistemaautenticacion.repository;
 
+import com.dev.sistemaautenticacion.dto.CredencialUsuario;
 import com.dev.sistemaautenticacion.entity.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -57,6 +58,27 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
      */
     Optional<Usuario> findByCorreo(String correo);
 
+    /**
+     * Obtiene únicamente los datos de credenciales de un usuario a partir de su correo.
+     * Utiliza el índice único de la columna correo y evita cargar el perfil completo.
+     *
+     * @param correo El correo electrónico normalizado del usuario.
+     * @return Un Optional con la credencial si el usuario existe.
+     */
+    @Query("SELECT new com.dev.sistemaautenticacion.dto.CredencialUsuario(u.id, u.correo, u.clave, u.estado, u.rol) " +
+            "FROM Usuario u WHERE u.correo = :correo")
+    Optional<CredencialUsuario> buscarCredencialPorCorreo(@Param("correo") String correo);
+
+    /**
+     * Obtiene los datos de credenciales de varios usuarios con una única consulta.
+     *
+     * @param ids Los IDs de los usuarios.
+     * @return Las credenciales de los usuarios que existen, en cualquier orden.
+     */
+    @Query("SELECT new com.dev.sistemaautenticacion.dto.CredencialUsuario(u.id, u.correo, u.clave, u.estado, u.rol) " +
+            "FROM Usuario u WHERE u.id IN :ids")
+    List<CredencialUsuario> buscarCredencialesPorIds(@Param("ids") List<Integer> ids);
+
     /**
      * Busca usuarios que tengan un rol específico.
      *
@@ -165,6 +187,54 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
     @NonNull
     void deleteById(@NonNull Integer id);
 
+    /**
+     * Marca un usuario como eliminado con una única sentencia, sin cargar la entidad.
+     * La fecha de modificación registra el momento de la eliminación para la purga posterior.
+     *
+     * @param id El ID del usuario.
+     * @return El número de filas marcadas (0 si el usuario no existe o ya estaba eliminado).
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE usuario SET eliminado = 1, fecha_modificacion = CURRENT_TIMESTAMP " +
+            "WHERE id = :id AND eliminado = 0", nativeQuery = true)
+    int marcarComoEliminado(@Param("id") Integer id);
+
+    /**
+     * Marca como eliminados varios usuarios con una única sentencia.
+     *
+     * @param ids Los IDs de los usuarios.
+     * @return El número de filas marcadas.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE usuario SET eliminado = 1, fecha_modificacion = CURRENT_TIMESTAMP " +
+            "WHERE id IN (:ids) AND eliminado = 0", nativeQuery = true)
+    int marcarComoEliminados(@Param("ids") List<Integer> ids);
+
+    /**
+     * Selecciona un lote de usuarios eliminados lógicamente antes de la fecha límite.
+     *
+     * @param fechaLimite Los usuarios eliminados antes de esta fecha se pueden purgar.
+     * @param tamanoLote Número máximo de IDs a devolver.
+     * @return Los IDs de los usuarios a purgar, ordenados.
+     */
+    @Query(value = "SELECT id FROM usuario WHERE eliminado = 1 AND fecha_modificacion < :fechaLimite " +
+            "ORDER BY id LIMIT :tamanoLote", nativeQuery = true)
+    List<Integer> buscarEliminadosAPurgar(@Param("fechaLimite") Instant fechaLimite,
+                                          @Param("tamanoLote") int tamanoLote);
+
+    /**
+     * Elimina físicamente los usuarios indicados que sigan marcados como eliminados.
+     *
+     * @param ids Los IDs de los usuarios a purgar.
+     * @return El número de filas eliminadas.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM usuario WHERE id IN (:ids) AND eliminado = 1", nativeQuery = true)
+    int purgar(@Param("ids") List<Integer> ids);
+
     /**
      * Cuenta el número total de usuarios.
      *
@@ -240,4 +310,14 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
      */
     @Query("SELECT u.fechaModificacion FROM Usuario u WHERE u.id = :id")
     Instant obtenerUltimaModificacion(@Param("id") Integer id);
+
+    /**
+     * Obtiene la fecha del último cambio de un usuario: su última modificación o, si nunca
+     * se ha modificado, su creación.
+     *
+     * @param id El ID del usuario.
+     * @return La fecha del último cambio, o null si el usuario no existe.
+     */
+    @Query("SELECT COALESCE(u.fechaModificacion, u.fechaCreacion) FROM Usuario u WHERE u.id = :id")
+    Instant obtenerUltimoCambio(@Param("id") Integer id);
 }
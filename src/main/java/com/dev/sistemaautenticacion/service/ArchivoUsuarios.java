@@ -0,0 +1,246 @@
+package com.dev.sistemaautenticacion.service;
+
+import com.dev.sistemaautenticacion.busqueda.BusquedaUsuarios;
+import com.dev.sistemaautenticacion.dto.CredencialUsuario;
+import com.dev.sistemaautenticacion.entity.UsuarioArchivado;
+import com.dev.sistemaautenticacion.exception.CorreoYaRegistradoException;
+import com.dev.sistemaautenticacion.invalidacion.BusInvalidacion;
+import com.dev.sistemaautenticacion.replica.ReplicaUsuarios;
+import com.dev.sistemaautenticacion.repository.UsuarioArchivadoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Gestiona el archivo de usuarios inactivos.
+ * Un proceso periódico traslada por lotes a la tabla "usuario_archivado" los usuarios
+ * inactivos que llevan mucho tiempo sin modificarse, con pausas entre lotes para no
+ * afectar al tráfico de producción. Las lecturas por ID y por correo recurren al archivo
+ * cuando el usuario no está en la tabla principal; la reactivación y cualquier otra escritura lo restauran.
+ * Los usuarios archivados conservan su correo: no puede registrarse otro usuario con él,
+ * y salen del índice de autocompletado hasta que se restauran.
+ */
+@Component
+public class ArchivoUsuarios {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivoUsuarios.class);
+
+    private final UsuarioArchivadoRepository archivadoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReplicaUsuarios replicaUsuarios;
+    private final BusInvalidacion busInvalidacion;
+    private final BusquedaUsuarios busquedaUsuarios;
+    private final boolean habilitado;
+    private final Duration antiguedadMinima;
+    private final int tamanoLote;
+    private final int lotesMaximosPorEjecucion;
+    private final long pausaEntreLotesMs;
+
+    /**
+     * Constructor con inyección de dependencias y parámetros configurables.
+     *
+     * @param archivadoRepository Repositorio de la tabla de archivo.
+     * @param transactionTemplate Plantilla para ejecutar cada lote en su propia transacción.
+     * @param replicaUsuarios Réplica en memoria, de la que se retiran los usuarios archivados.
+     * @param busInvalidacion Bus que comunica los usuarios archivados a las demás instancias.
+     * @param busquedaUsuarios Índice de autocompletado, del que salen los usuarios archivados.
+     * @param habilitado Indica si el proceso periódico de archivo está activo.
+     * @param diasDeInactividad Días sin modificaciones tras los que un usuario inactivo se archiva.
+     * @param tamanoLote Número de usuarios trasladados por transacción.
+     * @param lotesMaximosPorEjecucion Número máximo de lotes en cada ejecución del proceso.
+     * @param pausaEntreLotesMs Pausa entre lotes consecutivos.
+     */
+    @Autowired
+    public ArchivoUsuarios(UsuarioArchivadoRepository archivadoRepository,
+                           TransactionTemplate transactionTemplate, ReplicaUsuarios replicaUsuarios,
+                           BusInvalidacion busInvalidacion, BusquedaUsuarios busquedaUsuarios,
+                           @Value("${usuarios.archivo.habilitado:true}") boolean habilitado,
+                           @Value("${usuarios.archivo.dias-de-inactividad:365}") long diasDeInactividad,
+                           @Value("${usuarios.archivo.tamano-lote:500}") int tamanoLote,
+                           @Value("${usuarios.archivo.lotes-maximos-por-ejecucion:20}") int lotesMaximosPorEjecucion,
+                           @Value("${usuarios.archivo.pausa-entre-lotes-ms:200}") long pausaEntreLotesMs) {
+        this.archivadoRepository = archivadoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.replicaUsuarios = replicaUsuarios;
+        this.busInvalidacion = busInvalidacion;
+        this.busquedaUsuarios = busquedaUsuarios;
+        this.habilitado = habilitado;
+        this.antiguedadMinima = Duration.ofDays(diasDeInactividad);
+        this.tamanoLote = tamanoLote;
+        this.lotesMaximosPorEjecucion = lotesMaximosPorEjecucion;
+        this.pausaEntreLotesMs = pausaEntreLotesMs;
+    }
+
+    /**
+     * Traslada al archivo los usuarios inactivos más antiguos, lote a lote.
+     * Cada lote se copia y elimina de la tabla principal en una única transacción;
+     * los usuarios reactivados entre la selección y la copia no se trasladan.
+     */
+    @Scheduled(fixedDelayString = "${usuarios.archivo.intervalo-ms:3600000}",
+            initialDelayString = "${usuarios.archivo.retraso-inicial-ms:600000}")
+    public void archivarUsuariosInactivos() {
+        if (!habilitado) {
+            return;
+        }
+        Instant fechaLimite = Instant.now().minus(antiguedadMinima);
+        int totalArchivados = 0;
+        for (int lote = 0; lote < lotesMaximosPorEjecucion; lote++) {
+            List<Integer> ids = archivadoRepository.buscarCandidatosAArchivar(fechaLimite, tamanoLote);
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer archivados = transactionTemplate.execute(estado -> {
+                archivadoRepository.copiarAlArchivo(ids);
+                return archivadoRepository.eliminarArchivadosDeLaTablaPrincipal(ids);
+            });
+            totalArchivados += archivados == null ? 0 : archivados;
+            ids.forEach(busquedaUsuarios::eliminar);
+            replicaUsuarios.releer(ids);
+            busInvalidacion.publicar(ids);
+            if (ids.size() < tamanoLote || !pausar()) {
+                break;
+            }
+        }
+        if (totalArchivados > 0) {
+            log.info("Se archivaron {} usuarios inactivos", totalArchivados);
+        }
+    }
+
+    /**
+     * Busca un usuario archivado por su ID.
+     *
+     * @param id El ID del usuario.
+     * @return El usuario archivado, si existe.
+     */
+    public Optional<UsuarioArchivado> buscarPorId(Integer id) {
+        return archivadoRepository.findById(id);
+    }
+
+    /**
+     * Busca varios usuarios archivados por sus IDs con una sola consulta.
+     *
+     * @param ids Los IDs de los usuarios.
+     * @return Los usuarios archivados encontrados, en cualquier orden.
+     */
+    public List<UsuarioArchivado> buscarPorIds(List<Integer> ids) {
+        return archivadoRepository.findAllById(ids);
+    }
+
+    /**
+     * Busca la credencial de un usuario archivado por su correo.
+     *
+     * @param correo El correo normalizado.
+     * @return La credencial, si el usuario está archivado.
+     */
+    public Optional<CredencialUsuario> buscarCredencialPorCorreo(String correo) {
+        return archivadoRepository.buscarCredencialPorCorreo(correo);
+    }
+
+    /**
+     * Verifica si un correo pertenece a un usuario archivado.
+     *
+     * @param correo El correo normalizado.
+     * @return true si el correo está archivado.
+     */
+    public boolean existeCorreo(String correo) {
+        return archivadoRepository.existsByCorreo(correo);
+    }
+
+    /**
+     * Cambia el estado de un usuario archivado. Si pasa a estar activo, se restaura
+     * en la tabla principal y vuelve al índice de autocompletado; en otro caso permanece en el archivo.
+     *
+     * @param id El ID del usuario archivado.
+     * @param nuevoEstado El nuevo estado.
+     * @return true si el usuario estaba archivado; false si no existe en el archivo.
+     * @throws CorreoYaRegistradoException Si al restaurarlo su correo ya pertenece a un usuario de la tabla principal.
+     */
+    public boolean cambiarEstado(Integer id, String nuevoEstado) {
+        if ("activo".equals(nuevoEstado)) {
+            return restaurar(id, archivado -> nuevoEstado);
+        }
+        return Boolean.TRUE.equals(transactionTemplate.execute(estado -> {
+            if (archivadoRepository.findById(id).isEmpty()) {
+                return false;
+            }
+            archivadoRepository.actualizarEstado(id, nuevoEstado);
+            return true;
+        }));
+    }
+
+    /**
+     * Restaura un usuario archivado en la tabla principal con su estado actual, para que una
+     * escritura sobre él se aplique como sobre cualquier otro usuario. Vuelve al índice de autocompletado.
+     *
+     * @param id El ID del usuario archivado.
+     * @return true si el usuario estaba archivado; false si no existe en el archivo.
+     * @throws CorreoYaRegistradoException Si su correo ya pertenece a un usuario de la tabla principal.
+     */
+    public boolean restaurar(Integer id) {
+        return restaurar(id, UsuarioArchivado::getEstado);
+    }
+
+    private boolean restaurar(Integer id, Function<UsuarioArchivado, String> estadoRestaurado) {
+        UsuarioArchivado restaurado;
+        try {
+            restaurado = transactionTemplate.execute(estado -> {
+                UsuarioArchivado archivado = archivadoRepository.findById(id).orElse(null);
+                if (archivado == null) {
+                    return null;
+                }
+                archivadoRepository.restaurar(id, estadoRestaurado.apply(archivado));
+                archivadoRepository.deleteById(id);
+                return archivado;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // El correo ya pertenece a otro usuario de la tabla principal, registrado mientras este se archivaba
+            throw CorreoYaRegistradoException.INSTANCIA;
+        }
+        if (restaurado == null) {
+            return false;
+        }
+        busquedaUsuarios.indexar(id, restaurado.getNombre(), restaurado.getApellido(), restaurado.getCorreo());
+        return true;
+    }
+
+    /**
+     * Elimina definitivamente un usuario archivado con una única sentencia.
+     *
+     * @param id El ID del usuario.
+     * @return true si el usuario estaba archivado.
+     */
+    public boolean eliminar(Integer id) {
+        return archivadoRepository.eliminarPorId(id) > 0;
+    }
+
+    /**
+     * Elimina definitivamente varios usuarios archivados con una única sentencia.
+     *
+     * @param ids Los IDs de los usuarios.
+     * @return El número de usuarios archivados eliminados.
+     */
+    public int eliminar(List<Integer> ids) {
+        return archivadoRepository.eliminarPorIds(ids);
+    }
+
+    private boolean pausar() {
+        try {
+            Thread.sleep(pausaEntreLotesMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.dev.sistemaautenticacion.service;
+
+import com.dev.sistemaautenticacion.cache.SingleFlight;
+import com.dev.sistemaautenticacion.dto.CredencialUsuario;
+import com.dev.sistemaautenticacion.dto.UserResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa las unificaciones de lecturas concurrentes que utiliza la capa de servicios.
+ * Cuando muchas solicitudes consultan a la vez el mismo usuario (por ID o por correo),
+ * solo una de ellas llega al repositorio y el resto comparte su resultado.
+ * Funciona con o sin una caché de resultados delante.
+ * El resultado compartido llega a varios hilos a la vez, por lo que siempre es un DTO desacoplado
+ * de la sesión de JPA ({@link UserResponse} o {@link CredencialUsuario}) y nunca una entidad gestionada.
+ */
+@Component
+public class LecturasCoalescidas {
+
+    private final SingleFlight<Integer, Optional<UserResponse>> porId;
+    private final SingleFlight<String, Optional<CredencialUsuario>> porCorreo;
+
+    /**
+     * Constructor con el tiempo máximo de espera configurable.
+     *
+     * @param esperaMaximaMs Tiempo máximo que un llamante espera una lectura en curso.
+     */
+    public LecturasCoalescidas(@Value("${usuarios.lecturas.espera-maxima-ms:2000}") long esperaMaximaMs) {
+        this.porId = new SingleFlight<>(esperaMaximaMs);
+        this.porCorreo = new SingleFlight<>(esperaMaximaMs);
+    }
+
+    /**
+     * Busca el perfil de un usuario por ID compartiendo la consulta con las lecturas concurrentes del mismo ID.
+     *
+     * @param id El ID del usuario.
+     * @param carga Consulta al repositorio y conversión a DTO.
+     * @return El perfil, si el usuario existe.
+     */
+    public Optional<UserResponse> perfilPorId(Integer id, Supplier<Optional<UserResponse>> carga) {
+        return porId.ejecutar(id, carga);
+    }
+
+    /**
+     * Busca una credencial por correo compartiendo la consulta con las lecturas concurrentes del mismo correo.
+     *
+     * @param correo El correo normalizado.
+     * @param carga Consulta al repositorio.
+     * @return La credencial, si existe.
+     */
+    public Optional<CredencialUsuario> credencialPorCorreo(String correo, Supplier<Optional<CredencialUsuario>> carga) {
+        return porCorreo.ejecutar(correo, carga);
+    }
+
+    /**
+     * @return Las métricas de coalescencia de cada tipo de lectura.
+     */
+    public Map<String, Map<String, Object>> metricas() {
+        Map<String, Map<String, Object>> metricas = new LinkedHashMap<>();
+        metricas.put("perfilPorId", porId.metricas());
+        metricas.put("credencialPorCorreo", porCorreo.metricas());
+        return metricas;
+    }
+}
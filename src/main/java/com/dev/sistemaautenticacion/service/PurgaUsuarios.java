@@ -0,0 +1,98 @@
+package com.dev.sistemaautenticacion.service;
+
+import com.dev.sistemaautenticacion.repository.UsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Elimina físicamente los usuarios marcados como eliminados.
+ * La eliminación síncrona solo marca la fila; este proceso periódico borra por lotes
+ * las filas cuya eliminación supera el tiempo de retención, con pausas entre lotes para
+ * no competir con el tráfico de producción. Hasta la purga, el correo del usuario eliminado
+ * sigue ocupando el índice único y no puede volver a registrarse.
+ */
+@Component
+public class PurgaUsuarios {
+
+    private static final Logger log = LoggerFactory.getLogger(PurgaUsuarios.class);
+
+    private final UsuarioRepository usuarioRepository;
+    private final RegistroDeAccesos registroDeAccesos;
+    private final boolean habilitado;
+    private final Duration retencion;
+    private final int tamanoLote;
+    private final int lotesMaximosPorEjecucion;
+    private final long pausaEntreLotesMs;
+
+    /**
+     * Constructor con inyección de dependencias y parámetros configurables.
+     *
+     * @param usuarioRepository Repositorio de usuarios.
+     * @param registroDeAccesos Registro de accesos, cuyas filas se borran junto con los usuarios purgados.
+     * @param habilitado Indica si el proceso periódico de purga está activo.
+     * @param retencionMinutos Minutos que un usuario eliminado se conserva antes de purgarse.
+     * @param tamanoLote Número de usuarios borrados por sentencia.
+     * @param lotesMaximosPorEjecucion Número máximo de lotes en cada ejecución del proceso.
+     * @param pausaEntreLotesMs Pausa entre lotes consecutivos.
+     */
+    @Autowired
+    public PurgaUsuarios(UsuarioRepository usuarioRepository, RegistroDeAccesos registroDeAccesos,
+                         @Value("${usuarios.purga.habilitado:true}") boolean habilitado,
+                         @Value("${usuarios.purga.retencion-minutos:60}") long retencionMinutos,
+                         @Value("${usuarios.purga.tamano-lote:500}") int tamanoLote,
+                         @Value("${usuarios.purga.lotes-maximos-por-ejecucion:20}") int lotesMaximosPorEjecucion,
+                         @Value("${usuarios.purga.pausa-entre-lotes-ms:200}") long pausaEntreLotesMs) {
+        this.usuarioRepository = usuarioRepository;
+        this.registroDeAccesos = registroDeAccesos;
+        this.habilitado = habilitado;
+        this.retencion = Duration.ofMinutes(retencionMinutos);
+        this.tamanoLote = tamanoLote;
+        this.lotesMaximosPorEjecucion = lotesMaximosPorEjecucion;
+        this.pausaEntreLotesMs = pausaEntreLotesMs;
+    }
+
+    /**
+     * Borra lote a lote los usuarios eliminados hace más tiempo que la retención configurada.
+     */
+    @Scheduled(fixedDelayString = "${usuarios.purga.intervalo-ms:300000}",
+            initialDelayString = "${usuarios.purga.retraso-inicial-ms:120000}")
+    public void purgarUsuariosEliminados() {
+        if (!habilitado) {
+            return;
+        }
+        Instant fechaLimite = Instant.now().minus(retencion);
+        int totalPurgados = 0;
+        for (int lote = 0; lote < lotesMaximosPorEjecucion; lote++) {
+            List<Integer> ids = usuarioRepository.buscarEliminadosAPurgar(fechaLimite, tamanoLote);
+            if (ids.isEmpty()) {
+                break;
+            }
+            totalPurgados += usuarioRepository.purgar(ids);
+            registroDeAccesos.eliminar(ids);
+            if (ids.size() < tamanoLote || !pausar()) {
+                break;
+            }
+        }
+        if (totalPurgados > 0) {
+            log.info("Se purgaron {} usuarios eliminados", totalPurgados);
+        }
+    }
+
+    private boolean pausar() {
+        try {
+            Thread.sleep(pausaEntreLotesMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.dev.sistemaautenticacion.service;
+
+import com.dev.sistemaautenticacion.dto.AccesosUsuarioResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registro diferido del último inicio de sesión y del número de inicios de sesión de cada usuario.
+ * Cada inicio de sesión correcto solo actualiza un acumulado en memoria por usuario; un hilo
+ * propio guarda los acumulados periódicamente en la tabla "acceso_usuario" con sentencias
+ * INSERT ... ON DUPLICATE KEY UPDATE de varias filas, de modo que la tabla "usuario" no recibe
+ * una escritura por cada inicio de sesión.
+ * Los límites de durabilidad son configurables: ante una caída se pierden como mucho los accesos
+ * del último intervalo; el número máximo de usuarios pendientes adelanta el guardado al alcanzarse.
+ * Si la base de datos falla, los accesos no guardados vuelven a quedar pendientes y se reintentan,
+ * pero la memoria está acotada por la capacidad máxima: alcanzada esta, los accesos de usuarios
+ * que no tenían accesos pendientes se descartan y se cuentan. Al detener la aplicación se guarda
+ * todo lo pendiente.
+ */
+@Component
+public class RegistroDeAccesos {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistroDeAccesos.class);
+
+    private static final String INSERT_COLUMNAS =
+            "INSERT INTO acceso_usuario (usuario_id, ultimo_acceso, total_accesos) VALUES ";
+    private static final String INSERT_VALORES = "(?, ?, ?)";
+    private static final String INSERT_ACTUALIZAR = " ON DUPLICATE KEY UPDATE " +
+            "ultimo_acceso = GREATEST(ultimo_acceso, VALUES(ultimo_acceso)), " +
+            "total_accesos = total_accesos + VALUES(total_accesos)";
+    private static final String SELECT_ACCESOS =
+            "SELECT ultimo_acceso, total_accesos FROM acceso_usuario WHERE usuario_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long intervaloMs;
+    private final int maximoPendientes;
+    private final int capacidadMaxima;
+    private final int tamanoLote;
+    private final long esperaDetencionMs;
+
+    private final Map<Integer, Pendiente> pendientes = new ConcurrentHashMap<>();
+    private final Semaphore senal = new Semaphore(0);
+    private final AtomicLong descartados = new AtomicLong();
+    private final AtomicBoolean descartando = new AtomicBoolean();
+
+    private volatile boolean activo;
+    private Thread trabajador;
+
+    /**
+     * Constructor con inyección de dependencias y parámetros configurables.
+     *
+     * @param jdbcTemplate Plantilla JDBC para guardar y leer los accesos.
+     * @param intervaloMs Tiempo máximo que un acceso permanece solo en memoria.
+     * @param maximoPendientes Número de usuarios con accesos pendientes que adelanta el guardado.
+     * @param capacidadMaxima Número máximo de usuarios con accesos pendientes en memoria.
+     * @param tamanoLote Número de usuarios por sentencia INSERT.
+     * @param esperaDetencionMs Tiempo máximo que se espera al hilo de guardado al detener la aplicación.
+     */
+    @Autowired
+    public RegistroDeAccesos(JdbcTemplate jdbcTemplate,
+                             @Value("${usuarios.accesos.intervalo-ms:10000}") long intervaloMs,
+                             @Value("${usuarios.accesos.maximo-pendientes:50000}") int maximoPendientes,
+                             @Value("${usuarios.accesos.capacidad-maxima:200000}") int capacidadMaxima,
+                             @Value("${usuarios.accesos.tamano-lote:500}") int tamanoLote,
+                             @Value("${usuarios.accesos.espera-detencion-ms:10000}") long esperaDetencionMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.intervaloMs = intervaloMs;
+        this.maximoPendientes = maximoPendientes;
+        this.capacidadMaxima = capacidadMaxima;
+        this.tamanoLote = tamanoLote;
+        this.esperaDetencionMs = esperaDetencionMs;
+    }
+
+    /**
+     * Inicia el hilo que guarda los accesos acumulados.
+     */
+    @PostConstruct
+    public void iniciar() {
+        activo = true;
+        trabajador = new Thread(this::procesar, "registro-de-accesos");
+        trabajador.setDaemon(true);
+        trabajador.start();
+    }
+
+    /**
+     * Detiene el hilo de guardado y guarda los accesos pendientes.
+     *
+     * @throws InterruptedException Si se interrumpe la espera de finalización.
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        senal.release();
+        trabajador.join(esperaDetencionMs);
+        int guardados = vaciar();
+        if (guardados > 0) {
+            log.info("Se guardaron los accesos pendientes de {} usuarios al detener la aplicación", guardados);
+        }
+    }
+
+    /**
+     * Registra un inicio de sesión correcto. No accede a la base de datos.
+     * Si se ha alcanzado la capacidad máxima y el usuario no tenía accesos pendientes, se descarta.
+     *
+     * @param usuarioId El ID del usuario autenticado.
+     */
+    public void registrar(Integer usuarioId) {
+        acumular(usuarioId, new Pendiente(Instant.now(), 1));
+        if (pendientes.size() >= maximoPendientes) {
+            senal.release();
+        }
+    }
+
+    /**
+     * @return El número de usuarios cuyos accesos se descartaron por haberse alcanzado la capacidad máxima.
+     */
+    public long descartados() {
+        return descartados.get();
+    }
+
+    /**
+     * Devuelve los accesos de un usuario combinando los guardados con los pendientes.
+     * Mientras se guarda el lote de ese usuario, durante unos milisegundos el total puede
+     * no incluir sus últimos accesos.
+     *
+     * @param usuarioId El ID del usuario.
+     * @return El último acceso y el número total de accesos.
+     */
+    public AccesosUsuarioResponse consultar(Integer usuarioId) {
+        Pendiente guardado = jdbcTemplate.query(SELECT_ACCESOS, resultado -> resultado.next()
+                ? new Pendiente(resultado.getTimestamp(1).toInstant(), resultado.getLong(2))
+                : null, usuarioId);
+        Pendiente pendiente = pendientes.get(usuarioId);
+        Pendiente total = guardado == null ? pendiente
+                : pendiente == null ? guardado : guardado.combinar(pendiente);
+        return total == null
+                ? new AccesosUsuarioResponse(usuarioId, null, 0)
+                : new AccesosUsuarioResponse(usuarioId, total.ultimoAcceso, total.totalAccesos);
+    }
+
+    /**
+     * Elimina los accesos guardados y pendientes de usuarios purgados.
+     * Se sincroniza con el guardado: si hay un lote en curso con accesos de estos usuarios,
+     * se espera a que termine para que su INSERT no vuelva a crear las filas ya borradas.
+     *
+     * @param usuarioIds Los IDs de los usuarios.
+     */
+    public synchronized void eliminar(List<Integer> usuarioIds) {
+        if (usuarioIds.isEmpty()) {
+            return;
+        }
+        usuarioIds.forEach(pendientes::remove);
+        String marcadores = String.join(", ", Collections.nCopies(usuarioIds.size(), "?"));
+        jdbcTemplate.update("DELETE FROM acceso_usuario WHERE usuario_id IN (" + marcadores + ")",
+                usuarioIds.toArray());
+    }
+
+    /**
+     * Bucle del hilo de guardado: espera el intervalo configurado, o menos si se alcanza el
+     * número máximo de usuarios pendientes, y guarda lo acumulado.
+     */
+    private void procesar() {
+        while (activo) {
+            try {
+                senal.tryAcquire(intervaloMs, TimeUnit.MILLISECONDS);
+                senal.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (activo) {
+                vaciar();
+            }
+        }
+    }
+
+    /**
+     * Guarda los accesos pendientes por lotes ordenados por ID, para que dos instancias que
+     * guardan a la vez bloqueen las filas en el mismo orden. Si un lote falla, sus accesos
+     * vuelven a quedar pendientes y se reintentan en el siguiente intervalo.
+     *
+     * @return El número de usuarios cuyos accesos se guardaron.
+     */
+    synchronized int vaciar() {
+        if (pendientes.isEmpty()) {
+            return 0;
+        }
+        List<Integer> ids = new ArrayList<>(pendientes.keySet());
+        Collections.sort(ids);
+        int guardados = 0;
+        for (int inicio = 0; inicio < ids.size(); inicio += tamanoLote) {
+            Map<Integer, Pendiente> lote = new LinkedHashMap<>();
+            for (Integer id : ids.subList(inicio, Math.min(inicio + tamanoLote, ids.size()))) {
+                Pendiente pendiente = pendientes.remove(id);
+                if (pendiente != null) {
+                    lote.put(id, pendiente);
+                }
+            }
+            try {
+                guardar(lote);
+                guardados += lote.size();
+            } catch (RuntimeException e) {
+                log.error("Error al guardar los accesos de {} usuarios; se reintentará", lote.size(), e);
+                lote.forEach(this::acumular);
+                return guardados;
+            }
+        }
+        if (descartando.compareAndSet(true, false)) {
+            log.warn("Se reanudó el registro de accesos; usuarios descartados por falta de capacidad desde el arranque: {}",
+                    descartados.get());
+        }
+        return guardados;
+    }
+
+    /**
+     * Suma unos accesos a los pendientes del usuario. Un usuario sin accesos pendientes solo
+     * se añade si no se ha alcanzado la capacidad máxima.
+     */
+    private void acumular(Integer usuarioId, Pendiente accesos) {
+        if (pendientes.computeIfPresent(usuarioId, (id, pendiente) -> pendiente.combinar(accesos)) != null) {
+            return;
+        }
+        if (pendientes.size() >= capacidadMaxima) {
+            descartados.incrementAndGet();
+            if (descartando.compareAndSet(false, true)) {
+                log.warn("Se alcanzó la capacidad máxima de {} usuarios con accesos pendientes; " +
+                        "se descartan los accesos de nuevos usuarios hasta el siguiente guardado", capacidadMaxima);
+            }
+            return;
+        }
+        pendientes.merge(usuarioId, accesos, Pendiente::combinar);
+    }
+
+    /**
+     * Ejecuta un INSERT ... ON DUPLICATE KEY UPDATE de varias filas que suma los accesos
+     * y conserva la fecha más reciente.
+     *
+     * @param lote Los accesos acumulados por ID de usuario.
+     */
+    private void guardar(Map<Integer, Pendiente> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(INSERT_COLUMNAS);
+        List<Object> parametros = new ArrayList<>(lote.size() * 3);
+        lote.forEach((id, pendiente) -> {
+            sql.append(parametros.isEmpty() ? "" : ", ").append(INSERT_VALORES);
+            parametros.add(id);
+            parametros.add(Timestamp.from(pendiente.ultimoAcceso));
+            parametros.add(pendiente.totalAccesos);
+        });
+        sql.append(INSERT_ACTUALIZAR);
+        jdbcTemplate.update(sql.toString(), parametros.toArray());
+    }
+
+    /**
+     * Accesos acumulados de un usuario. Es inmutable para que las lecturas concurrentes
+     * nunca vean la fecha y el total de dos actualizaciones distintas.
+     */
+    private static final class Pendiente {
+
+        private final Instant ultimoAcceso;
+        private final long totalAccesos;
+
+        private Pendiente(Instant ultimoAcceso, long totalAccesos) {
+            this.ultimoAcceso = ultimoAcceso;
+            this.totalAccesos = totalAccesos;
+        }
+
+        private Pendiente combinar(Pendiente otro) {
+            Instant masReciente = ultimoAcceso.isAfter(otro.ultimoAcceso) ? ultimoAcceso : otro.ultimoAcceso;
+            return new Pendiente(masReciente, totalAccesos + otro.totalAccesos);
+        }
+    }
+}
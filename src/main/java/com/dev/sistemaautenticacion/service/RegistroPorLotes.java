@@ -0,0 +1,316 @@
+package com.dev.sistemaautenticacion.service;
+
+import com.dev.sistemaautenticacion.entity.Usuario;
+import com.dev.sistemaautenticacion.exception.CorreoYaRegistradoException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Canal de registro que agrupa las altas concurrentes de usuarios en lotes.
+ * Las solicitudes que llegan dentro de una ventana de pocos milisegundos se insertan
+ * con una única sentencia INSERT de varias filas y un único commit.
+ * Los correos duplicados se detectan mediante la restricción única de la columna correo
+ * y se notifican únicamente a la solicitud afectada; cada llamante recibe su ID generado.
+ * Esa restricción no cubre la tabla "usuario_archivado", por lo que antes de cada INSERT se
+ * consultan con una sola sentencia los correos del lote que pertenecen a un usuario archivado.
+ * Si la espera se agota mientras la solicitud sigue en la cola, se cancela y no llega a insertarse;
+ * si el trabajador ya la tomó, el llamante espera el resultado del INSERT en curso, porque
+ * devolver un error de una fila que acaba confirmándose haría que el reintento del cliente
+ * recibiera "El correo ya está registrado".
+ */
+@Component
+public class RegistroPorLotes {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistroPorLotes.class);
+
+    private static final String INSERT_COLUMNAS = "INSERT INTO usuario (nombre, apellido, correo, clave, " +
+            "fecha_nacimiento, telefono, direccion, ciudad, pais, rol, estado, eliminado) VALUES ";
+    private static final String INSERT_VALORES = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int tamanoMaximoLote;
+    private final long ventanaNanos;
+    private final long esperaMaximaMs;
+    private final BlockingQueue<SolicitudRegistro> cola;
+
+    private volatile boolean activo;
+    private Thread trabajador;
+
+    /**
+     * Constructor con inyección de dependencias y parámetros configurables.
+     *
+     * @param jdbcTemplate Plantilla JDBC para ejecutar las inserciones.
+     * @param tamanoMaximoLote Número máximo de usuarios por sentencia INSERT.
+     * @param ventanaMs Tiempo máximo que se espera para completar un lote.
+     * @param capacidadCola Número máximo de solicitudes pendientes.
+     * @param esperaMaximaMs Tiempo máximo que un llamante espera su resultado.
+     */
+    @Autowired
+    public RegistroPorLotes(JdbcTemplate jdbcTemplate,
+                            @Value("${usuarios.registro.lote.tamano-maximo:50}") int tamanoMaximoLote,
+                            @Value("${usuarios.registro.lote.ventana-ms:5}") long ventanaMs,
+                            @Value("${usuarios.registro.lote.capacidad-cola:1000}") int capacidadCola,
+                            @Value("${usuarios.registro.lote.espera-maxima-ms:5000}") long esperaMaximaMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tamanoMaximoLote = tamanoMaximoLote;
+        this.ventanaNanos = TimeUnit.MILLISECONDS.toNanos(ventanaMs);
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+    }
+
+    /**
+     * Inicia el hilo que agrupa e inserta los lotes.
+     */
+    @PostConstruct
+    public void iniciar() {
+        activo = true;
+        trabajador = new Thread(this::procesar, "registro-por-lotes");
+        trabajador.setDaemon(true);
+        trabajador.start();
+    }
+
+    /**
+     * Detiene el hilo de inserción después de vaciar las solicitudes pendientes.
+     *
+     * @throws InterruptedException Si se interrumpe la espera de finalización.
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        trabajador.interrupt();
+        trabajador.join(esperaMaximaMs);
+    }
+
+    /**
+     * Encola un usuario para su inserción y espera a que su lote sea confirmado.
+     *
+     * @param usuario El usuario a registrar (sin ID).
+     * @return El mismo usuario con el ID generado por la base de datos.
+     * @throws CorreoYaRegistradoException Si el correo ya pertenece a otro usuario.
+     * @throws IllegalStateException Si la cola está llena o la espera se agotó antes de que el trabajador
+     *         tomara la solicitud; en ambos casos el usuario no se insertó.
+     */
+    public Usuario registrar(Usuario usuario) {
+        SolicitudRegistro solicitud = new SolicitudRegistro(usuario);
+        try {
+            if (!cola.offer(solicitud, esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("La cola de registros está llena.");
+            }
+            try {
+                return solicitud.resultado.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (solicitud.cancelar()) {
+                    cola.remove(solicitud);
+                    throw new IllegalStateException("Tiempo de espera agotado al registrar el usuario.", e);
+                }
+                // El lote ya está en curso: su resultado es el definitivo
+                return solicitud.resultado.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Registro interrumpido.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Bucle del hilo trabajador: toma la primera solicitud disponible y agrupa
+     * las que lleguen durante la ventana configurada.
+     */
+    private void procesar() {
+        List<SolicitudRegistro> lote = new ArrayList<>(tamanoMaximoLote);
+        while (activo || !cola.isEmpty()) {
+            try {
+                SolicitudRegistro primera = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primera == null || !primera.tomar()) {
+                    continue;
+                }
+                lote.add(primera);
+                long limite = System.nanoTime() + ventanaNanos;
+                while (lote.size() < tamanoMaximoLote) {
+                    long restante = limite - System.nanoTime();
+                    SolicitudRegistro siguiente = restante > 0 ? cola.poll(restante, TimeUnit.NANOSECONDS) : cola.poll();
+                    if (siguiente == null) {
+                        break;
+                    }
+                    if (siguiente.tomar()) {
+                        lote.add(siguiente);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Se solicitó la detención: se vacía la cola sin esperar la ventana
+                List<SolicitudRegistro> restantes = new ArrayList<>();
+                cola.drainTo(restantes, tamanoMaximoLote - lote.size());
+                restantes.stream().filter(SolicitudRegistro::tomar).forEach(lote::add);
+            }
+            if (!lote.isEmpty()) {
+                insertarLote(lote);
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Inserta un lote con una sola sentencia. Las solicitudes con el correo de un usuario archivado
+     * se rechazan antes del INSERT. Si la restricción única de correo falla, se reintenta fila por
+     * fila para notificar el duplicado solo a la solicitud afectada.
+     *
+     * @param lote Las solicitudes a insertar.
+     */
+    private void insertarLote(List<SolicitudRegistro> lote) {
+        List<SolicitudRegistro> nuevas = new ArrayList<>(lote);
+        try {
+            Set<String> archivados = correosArchivados(lote.stream().map(solicitud -> solicitud.usuario.getCorreo()).toList());
+            nuevas.removeIf(solicitud -> archivados.contains(solicitud.usuario.getCorreo())
+                    && solicitud.resultado.completeExceptionally(CorreoYaRegistradoException.INSTANCIA));
+            if (nuevas.isEmpty()) {
+                return;
+            }
+            insertar(nuevas);
+            nuevas.forEach(SolicitudRegistro::completar);
+        } catch (DuplicateKeyException e) {
+            for (SolicitudRegistro solicitud : nuevas) {
+                try {
+                    insertar(List.of(solicitud));
+                    solicitud.completar();
+                } catch (DuplicateKeyException duplicado) {
+                    solicitud.resultado.completeExceptionally(CorreoYaRegistradoException.INSTANCIA);
+                } catch (RuntimeException error) {
+                    solicitud.resultado.completeExceptionally(error);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Error al insertar un lote de {} registros", lote.size(), e);
+            lote.forEach(solicitud -> solicitud.resultado.completeExceptionally(e));
+        }
+    }
+
+    private void insertar(List<SolicitudRegistro> lote) {
+        insertarFilas(lote.stream().map(solicitud -> solicitud.usuario).toList());
+    }
+
+    /**
+     * Ejecuta un INSERT de varias filas y asigna a cada usuario su ID generado.
+     *
+     * @param usuarios Los usuarios a insertar.
+     * @throws DuplicateKeyException Si algún correo ya está registrado; no se inserta ninguna fila.
+     */
+    void insertarFilas(List<Usuario> usuarios) {
+        StringBuilder sql = new StringBuilder(INSERT_COLUMNAS);
+        for (int i = 0; i < usuarios.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(INSERT_VALORES);
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) conexion -> {
+            ejecutarInsert(conexion, sql.toString(), usuarios);
+            return null;
+        });
+    }
+
+    /**
+     * Busca cuáles de los correos indicados pertenecen a un usuario archivado.
+     *
+     * @param correos Los correos normalizados del lote.
+     * @return Los correos archivados.
+     */
+    Set<String> correosArchivados(List<String> correos) {
+        String marcadores = String.join(", ", Collections.nCopies(correos.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT correo FROM usuario_archivado WHERE correo IN (" + marcadores + ")",
+                String.class, correos.toArray()));
+    }
+
+    private void ejecutarInsert(Connection conexion, String sql, List<Usuario> usuarios) throws SQLException {
+        try (PreparedStatement ps = conexion.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            int indice = 1;
+            for (Usuario usuario : usuarios) {
+                ps.setString(indice++, usuario.getNombre());
+                ps.setString(indice++, usuario.getApellido());
+                ps.setString(indice++, usuario.getCorreo());
+                ps.setString(indice++, usuario.getClave());
+                ps.setDate(indice++, Date.valueOf(usuario.getFechaNacimiento()));
+                ps.setString(indice++, usuario.getTelefono());
+                ps.setString(indice++, usuario.getDireccion());
+                ps.setString(indice++, usuario.getCiudad());
+                ps.setString(indice++, usuario.getPais());
+                ps.setString(indice++, usuario.getRol());
+                ps.setString(indice++, usuario.getEstado());
+            }
+            ps.executeUpdate();
+            try (ResultSet claves = ps.getGeneratedKeys()) {
+                for (Usuario usuario : usuarios) {
+                    if (!claves.next()) {
+                        throw new SQLException("No se recibieron todos los IDs generados del lote.");
+                    }
+                    usuario.setId(claves.getInt(1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Solicitud de registro pendiente junto con el resultado que espera el llamante.
+     */
+    private static final class SolicitudRegistro {
+
+        private static final int PENDIENTE = 0;
+        private static final int TOMADA = 1;
+        private static final int CANCELADA = 2;
+
+        private final Usuario usuario;
+        private final CompletableFuture<Usuario> resultado = new CompletableFuture<>();
+        private final AtomicInteger estado = new AtomicInteger(PENDIENTE);
+
+        private SolicitudRegistro(Usuario usuario) {
+            this.usuario = usuario;
+        }
+
+        /**
+         * La reserva el trabajador para un lote; falla si el llamante ya la canceló.
+         */
+        private boolean tomar() {
+            return estado.compareAndSet(PENDIENTE, TOMADA);
+        }
+
+        /**
+         * La cancela el llamante al agotar la espera; falla si ya forma parte de un lote.
+         */
+        private boolean cancelar() {
+            return estado.compareAndSet(PENDIENTE, CANCELADA);
+        }
+
+        private void completar() {
+            resultado.complete(usuario);
+        }
+    }
+}
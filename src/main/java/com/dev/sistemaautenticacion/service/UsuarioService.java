@@ -1,7 +1,11 @@
 package com.dev.sistemaautenticacion.service;
 
+import com.dev.sistemaautenticacion.dto.AccesosUsuarioResponse;
+import com.dev.sistemaautenticacion.dto.FiltroUsuarios;
 import com.dev.sistemaautenticacion.dto.RegisterRequest;
+import com.dev.sistemaautenticacion.dto.SugerenciaUsuario;
 import com.dev.sistemaautenticacion.dto.UserResponse;
+import com.dev.sistemaautenticacion.dto.UsuarioPorIdResponse;
 import com.dev.sistemaautenticacion.entity.Usuario;
 
 import java.util.List;
@@ -31,13 +35,65 @@ public interface UsuarioService {
     UserResponse obtenerUsuarioPorId(Integer id);
 
     /**
-     * Busca un usuario por su correo electrónico.
+     * Busca varios usuarios por ID en una sola operación.
+     * Los perfiles en caché se sirven sin consultar la base de datos; el resto se resuelve
+     * con consultas WHERE id IN (...) por bloques.
+     *
+     * @param ids Los IDs solicitados (pueden repetirse).
+     * @return Un resultado por cada ID, en el mismo orden de la solicitud, con los inexistentes marcados como no encontrados.
+     * @throws IllegalArgumentException Si se supera el número máximo de IDs por solicitud.
+     */
+    List<UsuarioPorIdResponse> obtenerUsuariosPorIds(List<Integer> ids);
+
+    /**
+     * Autentica a un usuario por su correo electrónico y contraseña.
+     * Solo devuelve los datos de la credencial (ID, correo, rol y estado).
      *
      * @param correo El correo del usuario.
-     * @return Una respuesta DTO con los datos del usuario.
+     * @param clave La contraseña ingresada.
+     * @return Una respuesta DTO con los datos básicos del usuario.
      */
     UserResponse  autenticarUsuario(String correo, String clave);
 
+    /**
+     * Autentica a un usuario por su correo electrónico y contraseña.
+     * El perfil completo solo se carga desde la base de datos si se solicita.
+     *
+     * @param correo El correo del usuario.
+     * @param clave La contraseña ingresada.
+     * @param incluirPerfil true para devolver todos los datos del perfil.
+     * @return Una respuesta DTO con los datos del usuario.
+     */
+    UserResponse autenticarUsuario(String correo, String clave, boolean incluirPerfil);
+
+    /**
+     * Obtiene el último inicio de sesión y el número de inicios de sesión de un usuario.
+     * Incluye los accesos registrados en memoria que aún no se han guardado.
+     *
+     * @param id El ID del usuario.
+     * @return Los accesos del usuario.
+     */
+    AccesosUsuarioResponse obtenerAccesosDeUsuario(Integer id);
+
+    /**
+     * Busca los usuarios que cumplen un filtro por rol, estado, ciudad, país y rango de edad.
+     * Se resuelve en la réplica en memoria, sin consultar la base de datos.
+     *
+     * @param filtro Los criterios de filtrado; los nulos no se aplican.
+     * @param limite Número máximo de usuarios a devolver.
+     * @return Los usuarios que cumplen el filtro.
+     */
+    List<UserResponse> filtrarUsuarios(FiltroUsuarios filtro, int limite);
+
+    /**
+     * Cuenta los usuarios que cumplen un filtro por rol, estado, ciudad, país y rango de edad.
+     * Se resuelve en la réplica en memoria, sin consultar la base de datos.
+     *
+     * @param filtro Los criterios de filtrado; los nulos no se aplican.
+     * @return El número de usuarios.
+     */
+    long contarUsuarios(FiltroUsuarios filtro);
+
     /**
      * Obtiene una lista de todos los usuarios en el sistema.
      * Solo puede ser utilizada por administradores.
@@ -48,6 +104,7 @@ public interface UsuarioService {
 
     /**
      * Actualiza la información de un usuario existente.
+     * Como el resto de escrituras por ID, si el usuario está archivado primero lo restaura en la tabla principal.
      *
      * @param id El ID del usuario a actualizar.
      * @param request Objeto DTO con los datos actualizados del usuario.
@@ -62,6 +119,16 @@ public interface UsuarioService {
      */
     void eliminarUsuario(Integer id);
 
+    /**
+     * Elimina varios usuarios por su ID con una sentencia por bloque de IDs.
+     * Los IDs inexistentes se ignoran.
+     *
+     * @param ids Los IDs de los usuarios a eliminar.
+     * @return El número de usuarios eliminados.
+     * @throws IllegalArgumentException Si se supera el número máximo de IDs por solicitud.
+     */
+    int eliminarUsuarios(List<Integer> ids);
+
     /**
      * Cambia el rol de un usuario en el sistema.
      * Solo puede ser realizada por administradores.
@@ -78,4 +145,29 @@ public interface UsuarioService {
      * @param nuevoEstado El nuevo estado a asignar (activo o inactivo).
      */
     void cambiarEstadoDeUsuario(Integer id, String nuevoEstado);
+
+    /**
+     * Actualiza la contraseña de un usuario.
+     *
+     * @param id El ID del usuario.
+     * @param nuevaClave La nueva contraseña en texto plano.
+     */
+    void actualizarClave(Integer id, String nuevaClave);
+
+    /**
+     * Actualiza el correo electrónico de un usuario.
+     *
+     * @param id El ID del usuario.
+     * @param nuevoCorreo El nuevo correo electrónico.
+     */
+    void actualizarCorreo(Integer id, String nuevoCorreo);
+
+    /**
+     * Busca usuarios por nombre, apellido o correo para el autocompletado de la consola de administración.
+     *
+     * @param consulta El texto escrito por el administrador.
+     * @param limite Número máximo de sugerencias.
+     * @return Las sugerencias ordenadas por relevancia.
+     */
+    List<SugerenciaUsuario> autocompletarUsuarios(String consulta, int limite);
 }
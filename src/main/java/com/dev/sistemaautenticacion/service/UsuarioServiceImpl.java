@@ -1,13 +1,41 @@
 package com.dev.sistemaautenticacion.service;
 
+import com.dev.sistemaautenticacion.busqueda.BusquedaUsuarios;
+import com.dev.sistemaautenticacion.cache.CredencialCache;
+import com.dev.sistemaautenticacion.cache.InstantaneaCaches;
+import com.dev.sistemaautenticacion.cache.PerfilCache;
+import com.dev.sistemaautenticacion.dto.AccesosUsuarioResponse;
+import com.dev.sistemaautenticacion.dto.CredencialUsuario;
+import com.dev.sistemaautenticacion.dto.FiltroUsuarios;
 import com.dev.sistemaautenticacion.dto.RegisterRequest;
+import com.dev.sistemaautenticacion.dto.SugerenciaUsuario;
 import com.dev.sistemaautenticacion.dto.UserResponse;
+import com.dev.sistemaautenticacion.dto.UsuarioPorIdResponse;
 import com.dev.sistemaautenticacion.entity.Usuario;
+import com.dev.sistemaautenticacion.entity.UsuarioArchivado;
+import com.dev.sistemaautenticacion.exception.CorreoYaRegistradoException;
+import com.dev.sistemaautenticacion.exception.CredencialesInvalidasException;
+import com.dev.sistemaautenticacion.exception.DominioException;
+import com.dev.sistemaautenticacion.exception.UsuarioNoEncontradoException;
+import com.dev.sistemaautenticacion.invalidacion.BusInvalidacion;
+import com.dev.sistemaautenticacion.monitoreo.EventoAutenticacion;
+import com.dev.sistemaautenticacion.monitoreo.EventoRegistro;
+import com.dev.sistemaautenticacion.monitoreo.EventoVerificacionClave;
+import com.dev.sistemaautenticacion.replica.ReplicaUsuarios;
 import com.dev.sistemaautenticacion.repository.UsuarioRepository;
+import com.dev.sistemaautenticacion.sesiones.SesionesRefresh;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -18,28 +46,75 @@ import java.util.stream.Collectors;
 @Service
 public class UsuarioServiceImpl implements UsuarioService {
 
+    private static final String RESULTADO_EXITO = "EXITO";
+
     private final UsuarioRepository usuarioRepository;
+    private final CredencialCache credencialCache;
+    private final RegistroPorLotes registroPorLotes;
+    private final LecturasCoalescidas lecturasCoalescidas;
+    private final ArchivoUsuarios archivoUsuarios;
+    private final BusquedaUsuarios busquedaUsuarios;
+    private final PerfilCache perfilCache;
+    private final InstantaneaCaches instantaneaCaches;
+    private final RegistroDeAccesos registroDeAccesos;
+    private final ReplicaUsuarios replicaUsuarios;
+    private final BusInvalidacion busInvalidacion;
+    private final SesionesRefresh sesionesRefresh;
+    private final int maximoIdsPorLote;
+    private final int tamanoBloqueIds;
 
     /**
      * Constructor con inyección de dependencias.
      *
      * @param usuarioRepository Repositorio para interactuar con la base de datos de usuarios.
+     * @param credencialCache Caché de credenciales utilizada en el inicio de sesión.
+     * @param registroPorLotes Canal que agrupa las inserciones de nuevos usuarios.
+     * @param lecturasCoalescidas Unificación de lecturas concurrentes de un mismo usuario.
+     * @param archivoUsuarios Archivo de usuarios inactivos, consultado cuando el usuario no está en la tabla principal.
+     * @param busquedaUsuarios Índice de autocompletado que se mantiene al día con cada escritura.
+     * @param perfilCache Caché de perfiles por ID.
+     * @param instantaneaCaches Instantáneas de las cachés, que revalidan las entradas restauradas al arrancar.
+     * @param registroDeAccesos Registro diferido de los inicios de sesión de cada usuario.
+     * @param replicaUsuarios Réplica en memoria de la tabla de usuarios para las lecturas y los filtros.
+     * @param busInvalidacion Bus que comunica cada escritura a las demás instancias para que invaliden sus cachés.
+     * @param sesionesRefresh Sesiones de larga duración, que se revocan al eliminar un usuario o cambiar su clave.
+     * @param maximoIdsPorLote Número máximo de IDs en una consulta por lotes.
+     * @param tamanoBloqueIds Número de IDs por cada consulta WHERE id IN (...).
      */
     @Autowired
-    public UsuarioServiceImpl(UsuarioRepository usuarioRepository) {
+    public UsuarioServiceImpl(UsuarioRepository usuarioRepository, CredencialCache credencialCache,
+                              RegistroPorLotes registroPorLotes, LecturasCoalescidas lecturasCoalescidas,
+                              ArchivoUsuarios archivoUsuarios, BusquedaUsuarios busquedaUsuarios,
+                              PerfilCache perfilCache, InstantaneaCaches instantaneaCaches,
+                              RegistroDeAccesos registroDeAccesos, ReplicaUsuarios replicaUsuarios,
+                              BusInvalidacion busInvalidacion, SesionesRefresh sesionesRefresh,
+                              @Value("${usuarios.lectura-por-lotes.maximo-ids:500}") int maximoIdsPorLote,
+                              @Value("${usuarios.lectura-por-lotes.tamano-bloque:100}") int tamanoBloqueIds) {
         this.usuarioRepository = usuarioRepository;
+        this.credencialCache = credencialCache;
+        this.registroPorLotes = registroPorLotes;
+        this.lecturasCoalescidas = lecturasCoalescidas;
+        this.archivoUsuarios = archivoUsuarios;
+        this.busquedaUsuarios = busquedaUsuarios;
+        this.perfilCache = perfilCache;
+        this.instantaneaCaches = instantaneaCaches;
+        this.registroDeAccesos = registroDeAccesos;
+        this.replicaUsuarios = replicaUsuarios;
+        this.busInvalidacion = busInvalidacion;
+        this.sesionesRefresh = sesionesRefresh;
+        this.maximoIdsPorLote = maximoIdsPorLote;
+        this.tamanoBloqueIds = tamanoBloqueIds;
     }
 
     @Override
     public Usuario registrarUsuario(RegisterRequest request) {
-        if (usuarioRepository.existsByCorreo(request.getCorreo())) {
-            throw new IllegalArgumentException("El correo ya está registrado.");
-        }
-
+        // La unicidad del correo la garantiza la restricción única; el canal por lotes
+        // informa del duplicado a esta solicitud y comprueba el archivo con una consulta por lote
+        String correo = normalizarCorreo(request.getCorreo());
         Usuario usuario = new Usuario();
         usuario.setNombre(request.getNombre());
         usuario.setApellido(request.getApellido());
-        usuario.setCorreo(request.getCorreo());
+        usuario.setCorreo(correo);
         usuario.setClave(encriptarClave(request.getClave())); // Suponiendo que existe un método para encriptar contraseñas
         usuario.setFechaNacimiento(request.getFechaNacimiento());
         usuario.setTelefono(request.getTelefono());
@@ -49,24 +124,127 @@ public class UsuarioServiceImpl implements UsuarioService {
         usuario.setRol("usuario"); // Rol predeterminado
         usuario.setEstado("activo"); // Estado predeterminado
 
-        return usuarioRepository.save(usuario);
+        EventoRegistro evento = new EventoRegistro();
+        evento.begin();
+        try {
+            Usuario usuarioCreado = registroPorLotes.registrar(usuario);
+            busquedaUsuarios.indexar(usuarioCreado.getId(), usuarioCreado.getNombre(),
+                    usuarioCreado.getApellido(), usuarioCreado.getCorreo());
+            replicaUsuarios.guardar(convertirAUserResponse(usuarioCreado));
+            busInvalidacion.publicar(usuarioCreado.getId());
+            evento.setUsuarioId(usuarioCreado.getId());
+            evento.setResultado(RESULTADO_EXITO);
+            return usuarioCreado;
+        } catch (RuntimeException e) {
+            evento.setResultado(resultadoDeError(e));
+            throw e;
+        } finally {
+            evento.commit();
+        }
     }
 
     @Override
     public UserResponse obtenerUsuarioPorId(Integer id) {
-        Usuario usuario = usuarioRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado."));
-        return convertirAUserResponse(usuario);
+        UserResponse cacheado = perfilCache.obtener(id);
+        if (cacheado != null && instantaneaCaches.vigente(id)) {
+            return cacheado;
+        }
+        long generacion = perfilCache.generacion();
+        UserResponse perfil = replicaUsuarios.obtener(id).orElseGet(() ->
+                lecturasCoalescidas.perfilPorId(id, () -> usuarioRepository.findById(id)
+                                .map(this::convertirAUserResponse)
+                                .or(() -> archivoUsuarios.buscarPorId(id).map(this::convertirAUserResponse)))
+                        .orElseThrow(() -> UsuarioNoEncontradoException.INSTANCIA));
+        perfilCache.guardar(perfil, generacion);
+        return perfil;
+    }
+
+    @Override
+    public List<UsuarioPorIdResponse> obtenerUsuariosPorIds(List<Integer> ids) {
+        if (ids.size() > maximoIdsPorLote) {
+            throw new IllegalArgumentException("Se admiten como máximo " + maximoIdsPorLote + " IDs por solicitud.");
+        }
+        long generacion = perfilCache.generacion();
+        Map<Integer, UserResponse> perfiles = new HashMap<>();
+        LinkedHashSet<Integer> pendientes = new LinkedHashSet<>();
+        for (Integer id : ids) {
+            UserResponse cacheado = perfilCache.obtener(id);
+            UserResponse encontrado = cacheado != null && instantaneaCaches.vigente(id)
+                    ? cacheado : replicaUsuarios.obtener(id).orElse(null);
+            if (encontrado != null) {
+                perfiles.put(id, encontrado);
+            } else {
+                pendientes.add(id);
+            }
+        }
+        List<Integer> porConsultar = new ArrayList<>(pendientes);
+        for (int inicio = 0; inicio < porConsultar.size(); inicio += tamanoBloqueIds) {
+            List<Integer> bloque = porConsultar.subList(inicio, Math.min(inicio + tamanoBloqueIds, porConsultar.size()));
+            usuarioRepository.findAllById(bloque).forEach(usuario -> perfiles.put(usuario.getId(), convertirAUserResponse(usuario)));
+            List<Integer> ausentes = bloque.stream().filter(id -> !perfiles.containsKey(id)).toList();
+            if (!ausentes.isEmpty()) {
+                archivoUsuarios.buscarPorIds(ausentes).forEach(usuario -> perfiles.put(usuario.getId(), convertirAUserResponse(usuario)));
+            }
+            bloque.stream().map(perfiles::get).filter(Objects::nonNull).forEach(perfil -> perfilCache.guardar(perfil, generacion));
+        }
+        return ids.stream()
+                .map(id -> new UsuarioPorIdResponse(id, perfiles.containsKey(id), perfiles.get(id)))
+                .toList();
     }
 
     @Override
     public UserResponse autenticarUsuario(String correo, String clave) {
-        Usuario usuario = usuarioRepository.findByCorreo(correo)
-                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado."));
-        if (!usuario.getClave().equals(clave)) {
-            throw new IllegalArgumentException("Credenciales inválidas.");
+        return autenticarUsuario(correo, clave, false);
+    }
+
+    @Override
+    public UserResponse autenticarUsuario(String correo, String clave, boolean incluirPerfil) {
+        EventoAutenticacion evento = new EventoAutenticacion();
+        evento.begin();
+        evento.setIncluirPerfil(incluirPerfil);
+        try {
+            String correoNormalizado = normalizarCorreo(correo);
+            CredencialUsuario credencial = credencialCache.obtener(correoNormalizado);
+            if (credencial != null && !instantaneaCaches.vigente(credencial.getId())) {
+                credencial = null;
+            }
+            evento.setDesdeCache(credencial != null);
+            if (credencial == null) {
+                credencial = lecturasCoalescidas.credencialPorCorreo(correoNormalizado,
+                                () -> cargarCredencial(correoNormalizado))
+                        .orElseThrow(() -> UsuarioNoEncontradoException.INSTANCIA);
+            }
+            if (!verificarClave(credencial, clave)) {
+                throw CredencialesInvalidasException.INSTANCIA;
+            }
+            registroDeAccesos.registrar(credencial.getId());
+            UserResponse respuesta = incluirPerfil
+                    ? obtenerUsuarioPorId(credencial.getId())
+                    : convertirAUserResponse(credencial);
+            evento.setResultado(RESULTADO_EXITO);
+            return respuesta;
+        } catch (RuntimeException e) {
+            evento.setResultado(resultadoDeError(e));
+            throw e;
+        } finally {
+            evento.commit();
         }
-        return convertirAUserResponse(usuario);
+    }
+
+    @Override
+    public AccesosUsuarioResponse obtenerAccesosDeUsuario(Integer id) {
+        obtenerUsuarioPorId(id);
+        return registroDeAccesos.consultar(id);
+    }
+
+    @Override
+    public List<UserResponse> filtrarUsuarios(FiltroUsuarios filtro, int limite) {
+        return replicaUsuarios.filtrar(filtro, limite);
+    }
+
+    @Override
+    public long contarUsuarios(FiltroUsuarios filtro) {
+        return replicaUsuarios.contar(filtro);
     }
 
     @Override
@@ -79,8 +257,8 @@ public class UsuarioServiceImpl implements UsuarioService {
 
     @Override
     public UserResponse actualizarUsuario(Integer id, RegisterRequest request) {
-        Usuario usuario = usuarioRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado."));
+        Usuario usuario = buscarParaModificar(id)
+                .orElseThrow(() -> UsuarioNoEncontradoException.INSTANCIA);
 
         usuario.setNombre(request.getNombre());
         usuario.setApellido(request.getApellido());
@@ -90,33 +268,162 @@ public class UsuarioServiceImpl implements UsuarioService {
         usuario.setPais(request.getPais());
 
         Usuario usuarioActualizado = usuarioRepository.save(usuario);
-        return convertirAUserResponse(usuarioActualizado);
+        perfilCache.invalidar(id);
+        busquedaUsuarios.indexar(usuarioActualizado.getId(), usuarioActualizado.getNombre(),
+                usuarioActualizado.getApellido(), usuarioActualizado.getCorreo());
+        UserResponse respuesta = convertirAUserResponse(usuarioActualizado);
+        replicaUsuarios.guardar(respuesta);
+        busInvalidacion.publicar(id);
+        return respuesta;
     }
 
     @Override
     public void eliminarUsuario(Integer id) {
-        if (!usuarioRepository.existsById(id)) {
-            throw new IllegalArgumentException("Usuario no encontrado.");
+        // Eliminación lógica con una única sentencia; PurgaUsuarios borra la fila más tarde
+        if (usuarioRepository.marcarComoEliminado(id) == 0 && !archivoUsuarios.eliminar(id)) {
+            throw UsuarioNoEncontradoException.INSTANCIA;
         }
-        usuarioRepository.deleteById(id);
+        credencialCache.invalidarPorId(id);
+        perfilCache.invalidar(id);
+        busquedaUsuarios.eliminar(id);
+        replicaUsuarios.eliminar(id);
+        busInvalidacion.publicar(id);
+        sesionesRefresh.revocarUsuario(id);
+    }
+
+    @Override
+    public int eliminarUsuarios(List<Integer> ids) {
+        if (ids.size() > maximoIdsPorLote) {
+            throw new IllegalArgumentException("Se admiten como máximo " + maximoIdsPorLote + " IDs por solicitud.");
+        }
+        List<Integer> distintos = ids.stream().distinct().toList();
+        int eliminados = 0;
+        for (int inicio = 0; inicio < distintos.size(); inicio += tamanoBloqueIds) {
+            List<Integer> bloque = distintos.subList(inicio, Math.min(inicio + tamanoBloqueIds, distintos.size()));
+            eliminados += usuarioRepository.marcarComoEliminados(bloque);
+            eliminados += archivoUsuarios.eliminar(bloque);
+        }
+        for (Integer id : distintos) {
+            credencialCache.invalidarPorId(id);
+            perfilCache.invalidar(id);
+            busquedaUsuarios.eliminar(id);
+            replicaUsuarios.eliminar(id);
+            sesionesRefresh.revocarUsuario(id);
+        }
+        busInvalidacion.publicar(distintos);
+        return eliminados;
     }
 
     @Override
     public void cambiarRolDeUsuario(Integer id, String nuevoRol) {
-        Usuario usuario = usuarioRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado."));
+        Usuario usuario = buscarParaModificar(id)
+                .orElseThrow(() -> UsuarioNoEncontradoException.INSTANCIA);
 
         usuario.setRol(nuevoRol);
         usuarioRepository.save(usuario);
+        credencialCache.invalidarPorCorreo(usuario.getCorreo());
+        perfilCache.invalidar(id);
+        replicaUsuarios.guardar(convertirAUserResponse(usuario));
+        busInvalidacion.publicar(id);
     }
 
     @Override
     public void cambiarEstadoDeUsuario(Integer id, String nuevoEstado) {
-        Usuario usuario = usuarioRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado."));
+        Usuario usuario = usuarioRepository.findById(id).orElse(null);
+        if (usuario == null) {
+            // El usuario puede estar archivado: la reactivación lo restaura en la tabla principal
+            if (!archivoUsuarios.cambiarEstado(id, nuevoEstado)) {
+                throw UsuarioNoEncontradoException.INSTANCIA;
+            }
+            credencialCache.invalidarPorId(id);
+            perfilCache.invalidar(id);
+            replicaUsuarios.releer(List.of(id));
+            busInvalidacion.publicar(id);
+            return;
+        }
 
         usuario.setEstado(nuevoEstado);
         usuarioRepository.save(usuario);
+        credencialCache.invalidarPorCorreo(usuario.getCorreo());
+        perfilCache.invalidar(id);
+        replicaUsuarios.guardar(convertirAUserResponse(usuario));
+        busInvalidacion.publicar(id);
+    }
+
+    @Override
+    public void actualizarClave(Integer id, String nuevaClave) {
+        boolean restaurado = false;
+        if (!usuarioRepository.existsById(id)) {
+            restaurado = archivoUsuarios.restaurar(id);
+            if (!restaurado) {
+                throw UsuarioNoEncontradoException.INSTANCIA;
+            }
+        }
+        usuarioRepository.actualizarClave(id, encriptarClave(nuevaClave));
+        credencialCache.invalidarPorId(id);
+        perfilCache.invalidar(id);
+        if (restaurado) {
+            replicaUsuarios.releer(List.of(id));
+        }
+        busInvalidacion.publicar(id);
+        sesionesRefresh.revocarUsuario(id);
+    }
+
+    @Override
+    public void actualizarCorreo(Integer id, String nuevoCorreo) {
+        Usuario usuario = buscarParaModificar(id)
+                .orElseThrow(() -> UsuarioNoEncontradoException.INSTANCIA);
+        String correo = normalizarCorreo(nuevoCorreo);
+        if (!correo.equals(usuario.getCorreo())
+                && (usuarioRepository.existsByCorreo(correo) || archivoUsuarios.existeCorreo(correo))) {
+            throw CorreoYaRegistradoException.INSTANCIA;
+        }
+        usuarioRepository.actualizarCorreo(id, correo);
+        busquedaUsuarios.indexar(id, usuario.getNombre(), usuario.getApellido(), correo);
+        credencialCache.invalidarPorCorreo(usuario.getCorreo());
+        credencialCache.invalidarPorId(id);
+        perfilCache.invalidar(id);
+        usuario.setCorreo(correo);
+        replicaUsuarios.guardar(convertirAUserResponse(usuario));
+        busInvalidacion.publicar(id);
+    }
+
+    @Override
+    public List<SugerenciaUsuario> autocompletarUsuarios(String consulta, int limite) {
+        return busquedaUsuarios.autocompletar(consulta, limite);
+    }
+
+    /**
+     * Busca un usuario para modificarlo. Si está archivado, primero lo restaura en la tabla principal,
+     * como la reactivación, de modo que se puede modificar cualquier usuario que devuelve la consulta por ID.
+     *
+     * @param id El ID del usuario.
+     * @return El usuario de la tabla principal, si existe o estaba archivado.
+     * @throws CorreoYaRegistradoException Si al restaurarlo su correo ya pertenece a otro usuario.
+     */
+    private Optional<Usuario> buscarParaModificar(Integer id) {
+        Optional<Usuario> usuario = usuarioRepository.findById(id);
+        if (usuario.isEmpty() && archivoUsuarios.restaurar(id)) {
+            return usuarioRepository.findById(id);
+        }
+        return usuario;
+    }
+
+    /**
+     * Lee una credencial y la guarda en la caché. La generación de la caché se anota antes de la
+     * consulta: si una escritura invalida la caché mientras tanto, la credencial leída puede ser
+     * anterior a esa escritura y no se guarda. Solo la ejecuta la lectura que comparten las
+     * solicitudes concurrentes, por lo que la generación es la de la consulta realmente ejecutada.
+     *
+     * @param correo El correo normalizado.
+     * @return La credencial, si existe.
+     */
+    private Optional<CredencialUsuario> cargarCredencial(String correo) {
+        long generacion = credencialCache.generacion();
+        Optional<CredencialUsuario> credencial = usuarioRepository.buscarCredencialPorCorreo(correo)
+                .or(() -> archivoUsuarios.buscarCredencialPorCorreo(correo));
+        credencial.ifPresent(leida -> credencialCache.guardar(leida, generacion));
+        return credencial;
     }
 
     /**
@@ -143,6 +450,81 @@ public class UsuarioServiceImpl implements UsuarioService {
         return response;
     }
 
+    /**
+     * Convierte un usuario archivado a un DTO UserResponse.
+     *
+     * @param usuario El usuario archivado.
+     * @return Un objeto UserResponse.
+     */
+    private UserResponse convertirAUserResponse(UsuarioArchivado usuario) {
+        UserResponse response = new UserResponse();
+        response.setId(usuario.getId());
+        response.setNombre(usuario.getNombre());
+        response.setApellido(usuario.getApellido());
+        response.setCorreo(usuario.getCorreo());
+        response.setFechaNacimiento(usuario.getFechaNacimiento());
+        response.setTelefono(usuario.getTelefono());
+        response.setDireccion(usuario.getDireccion());
+        response.setCiudad(usuario.getCiudad());
+        response.setPais(usuario.getPais());
+        response.setRol(usuario.getRol());
+        response.setEstado(usuario.getEstado());
+        response.setFechaCreacion(usuario.getFechaCreacion());
+        response.setFechaModificacion(usuario.getFechaModificacion());
+        return response;
+    }
+
+    /**
+     * Convierte una credencial en un DTO UserResponse con los datos básicos del usuario.
+     * El resto de campos del perfil quedan sin informar.
+     *
+     * @param credencial La credencial del usuario.
+     * @return Un objeto UserResponse.
+     */
+    private UserResponse convertirAUserResponse(CredencialUsuario credencial) {
+        UserResponse response = new UserResponse();
+        response.setId(credencial.getId());
+        response.setCorreo(credencial.getCorreo());
+        response.setRol(credencial.getRol());
+        response.setEstado(credencial.getEstado());
+        return response;
+    }
+
+    /**
+     * Compara la contraseña recibida con la almacenada.
+     *
+     * @param credencial La credencial del usuario.
+     * @param clave La contraseña recibida.
+     * @return true si coinciden.
+     */
+    private boolean verificarClave(CredencialUsuario credencial, String clave) {
+        EventoVerificacionClave evento = new EventoVerificacionClave();
+        evento.begin();
+        boolean valida = credencial.getClave().equals(encriptarClave(clave));
+        evento.setValida(valida);
+        evento.commit();
+        return valida;
+    }
+
+    /**
+     * Resultado de una operación fallida para los eventos JFR: el código del error del dominio
+     * o el tipo de la excepción inesperada.
+     */
+    private static String resultadoDeError(RuntimeException e) {
+        return e instanceof DominioException dominio ? dominio.getError().name() : e.getClass().getSimpleName();
+    }
+
+    /**
+     * Normaliza un correo electrónico para que las búsquedas por el índice de correo
+     * no dependan de mayúsculas ni de espacios accidentales.
+     *
+     * @param correo El correo ingresado.
+     * @return El correo sin espacios y en minúsculas.
+     */
+    private String normalizarCorreo(String correo) {
+        return correo == null ? null : correo.trim().toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Método auxiliar para encriptar contraseñas.
      *
@@ -0,0 +1,67 @@
+package com.dev.sistemaautenticacion.sesiones;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Almacén de los refresh tokens.
+ * Cada inicio de sesión abre una familia de tokens; cada refresco sustituye el token vigente
+ * de la familia por uno nuevo. Los tokens ya rotados se conservan hasta su caducidad para
+ * detectar su reutilización, que revoca la familia completa.
+ * Las implementaciones son seguras para uso concurrente: dos rotaciones simultáneas del mismo
+ * token no pueden tener éxito ambas.
+ */
+public interface AlmacenSesiones {
+
+    /**
+     * Abre una familia con su primer token.
+     *
+     * @param huella La huella del token.
+     * @param familia El identificador de la familia.
+     * @param usuarioId El usuario de la sesión.
+     * @param expiracion La caducidad del token.
+     */
+    void emitir(Huella huella, long familia, int usuarioId, Instant expiracion);
+
+    /**
+     * Sustituye el token vigente de una familia por uno nuevo.
+     * Si el token presentado ya estaba rotado, revoca la familia.
+     *
+     * @param presentada La huella del token presentado.
+     * @param nueva La huella del token que lo sustituye.
+     * @param ahora El instante actual, para comprobar la caducidad.
+     * @param expiracion La caducidad del token nuevo.
+     * @return El resultado de la rotación.
+     */
+    ResultadoRotacion rotar(Huella presentada, Huella nueva, Instant ahora, Instant expiracion);
+
+    /**
+     * Revoca todas las familias de un usuario.
+     *
+     * @param usuarioId El ID del usuario.
+     * @return El número de familias revocadas.
+     */
+    int revocarUsuario(int usuarioId);
+
+    /**
+     * Indica si el almacén es compartido por todas las instancias. Las revocaciones en un almacén
+     * local se propagan a las demás instancias por el bus de invalidación.
+     *
+     * @return {@code true} si todas las instancias ven los mismos tokens.
+     */
+    default boolean compartido() {
+        return false;
+    }
+
+    /**
+     * Descarta los tokens caducados y los de familias revocadas.
+     *
+     * @param ahora El instante actual.
+     */
+    void compactar(Instant ahora);
+
+    /**
+     * @return El tipo de almacén y su ocupación.
+     */
+    Map<String, Object> estadisticas();
+}
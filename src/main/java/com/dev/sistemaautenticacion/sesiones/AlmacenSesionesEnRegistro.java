@@ -0,0 +1,251 @@
+package com.dev.sistemaautenticacion.sesiones;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Almacén de refresh tokens sobre un registro de solo anexado proyectado en memoria.
+ * El estado completo se mantiene en un índice en memoria; cada emisión o revocación añade un
+ * registro al final del segmento activo, sin ninguna escritura en la base de datos. Las escrituras
+ * llegan a la caché de páginas del sistema operativo, por lo que sobreviven a una caída del proceso;
+ * ante una caída del sistema se pierden como mucho las del último intervalo de sincronización.
+ * Al arrancar, el índice se reconstruye leyendo el registro. La compactación periódica descarta los
+ * tokens caducados y las familias revocadas, y reescribe el registro cuando acumula más del doble de
+ * registros que tokens vigentes.
+ * El almacén es local a cada instancia: con varias instancias, cada cliente debe refrescar sus
+ * tokens en la instancia que los emitió, y las revocaciones se propagan por el bus de invalidación.
+ */
+public class AlmacenSesionesEnRegistro implements AlmacenSesiones {
+
+    private static final Logger log = LoggerFactory.getLogger(AlmacenSesionesEnRegistro.class);
+
+    private static final byte EMITIDO = 1;
+    private static final byte REVOCADO = 2;
+    private static final int TAMANO_EMITIDO = 1 + Long.BYTES * 3 + Integer.BYTES + Long.BYTES;
+    private static final int TAMANO_REVOCADO = 1 + Long.BYTES;
+
+    private final RegistroSegmentado registro;
+    private final long minimoRegistrosParaCompactar;
+
+    private final Map<Huella, Token> tokens = new HashMap<>();
+    private final Map<Long, Familia> familias = new HashMap<>();
+    private final Map<Integer, Set<Long>> familiasPorUsuario = new HashMap<>();
+    private long registros;
+    private long compactaciones;
+
+    /**
+     * @param directorio Directorio de los segmentos del registro.
+     * @param tamanoSegmento Tamaño de cada segmento en bytes.
+     * @param minimoRegistrosParaCompactar Número de registros por debajo del cual no se reescribe el registro.
+     */
+    public AlmacenSesionesEnRegistro(Path directorio, int tamanoSegmento, long minimoRegistrosParaCompactar) {
+        this.registro = new RegistroSegmentado(directorio, tamanoSegmento);
+        this.minimoRegistrosParaCompactar = minimoRegistrosParaCompactar;
+    }
+
+    /**
+     * Reconstruye el índice a partir del registro.
+     */
+    @PostConstruct
+    public synchronized void recuperar() {
+        long inicio = System.nanoTime();
+        registros = registro.recuperar(this::aplicar);
+        log.info("Registro de sesiones recuperado: {} registros, {} tokens y {} familias en {} ms",
+                registros, tokens.size(), familias.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Fuerza la escritura en disco de los últimos registros.
+     */
+    @Scheduled(fixedDelayString = "${usuarios.sesiones.sincronizacion-ms:1000}")
+    public void sincronizar() {
+        registro.sincronizar();
+    }
+
+    /**
+     * Fuerza la escritura en disco al detener la aplicación.
+     */
+    @PreDestroy
+    public void cerrar() {
+        sincronizar();
+    }
+
+    @Override
+    public synchronized void emitir(Huella huella, long familia, int usuarioId, Instant expiracion) {
+        anexar(emision(huella, familia, usuarioId, expiracion.toEpochMilli()));
+        registrarEmision(huella, familia, usuarioId, expiracion.toEpochMilli());
+    }
+
+    @Override
+    public synchronized ResultadoRotacion rotar(Huella presentada, Huella nueva, Instant ahora, Instant expiracion) {
+        Token token = tokens.get(presentada);
+        Familia familia = token == null ? null : familias.get(token.familia);
+        if (familia == null) {
+            return ResultadoRotacion.invalido();
+        }
+        if (!familia.actual.equals(presentada)) {
+            revocar(token.familia, familia);
+            return ResultadoRotacion.reutilizado(familia.usuarioId, token.familia);
+        }
+        if (token.expiracion <= ahora.toEpochMilli()) {
+            return ResultadoRotacion.invalido();
+        }
+        anexar(emision(nueva, token.familia, familia.usuarioId, expiracion.toEpochMilli()));
+        registrarEmision(nueva, token.familia, familia.usuarioId, expiracion.toEpochMilli());
+        return ResultadoRotacion.rotado(familia.usuarioId, token.familia);
+    }
+
+    @Override
+    public synchronized int revocarUsuario(int usuarioId) {
+        List<Long> delUsuario = List.copyOf(familiasPorUsuario.getOrDefault(usuarioId, Set.of()));
+        for (Long familia : delUsuario) {
+            revocar(familia, familias.get(familia));
+        }
+        return delUsuario.size();
+    }
+
+    @Override
+    public synchronized void compactar(Instant ahora) {
+        long limite = ahora.toEpochMilli();
+        familias.entrySet().removeIf(entrada -> {
+            Token vigente = tokens.get(entrada.getValue().actual);
+            boolean caducada = vigente == null || vigente.expiracion <= limite;
+            if (caducada) {
+                quitarDeUsuario(entrada.getValue().usuarioId, entrada.getKey());
+            }
+            return caducada;
+        });
+        tokens.values().removeIf(token -> token.expiracion <= limite || !familias.containsKey(token.familia));
+
+        if (registros <= Math.max(minimoRegistrosParaCompactar, 2L * tokens.size())) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        long bytesAntes = registro.bytesUsados();
+        registro.compactar(escritor -> {
+            // Primero los tokens rotados y después el vigente, que es el último emitido de cada familia
+            tokens.forEach((huella, token) -> {
+                Familia familia = familias.get(token.familia);
+                if (!familia.actual.equals(huella)) {
+                    escritor.accept(emision(huella, token.familia, familia.usuarioId, token.expiracion));
+                }
+            });
+            familias.forEach((id, familia) -> escritor.accept(
+                    emision(familia.actual, id, familia.usuarioId, tokens.get(familia.actual).expiracion)));
+        });
+        registros = tokens.size();
+        compactaciones++;
+        log.info("Registro de sesiones compactado de {} a {} bytes en {} ms", bytesAntes, registro.bytesUsados(),
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    @Override
+    public synchronized Map<String, Object> estadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("almacen", "registro");
+        estadisticas.put("tokens", tokens.size());
+        estadisticas.put("familias", familias.size());
+        estadisticas.put("registros", registros);
+        estadisticas.put("segmentos", registro.segmentos());
+        estadisticas.put("bytesRegistro", registro.bytesUsados());
+        estadisticas.put("compactaciones", compactaciones);
+        return estadisticas;
+    }
+
+    private void revocar(long id, Familia familia) {
+        ByteBuffer revocacion = ByteBuffer.allocate(TAMANO_REVOCADO).put(REVOCADO).putLong(id);
+        anexar(revocacion.array());
+        familias.remove(id);
+        quitarDeUsuario(familia.usuarioId, id);
+    }
+
+    private void anexar(byte[] datos) {
+        registro.agregar(datos);
+        registros++;
+    }
+
+    /**
+     * Aplica al índice un registro leído al recuperar.
+     */
+    private void aplicar(ByteBuffer datos) {
+        byte tipo = datos.get();
+        if (tipo == EMITIDO) {
+            Huella huella = new Huella(datos.getLong(), datos.getLong());
+            long familia = datos.getLong();
+            int usuarioId = datos.getInt();
+            registrarEmision(huella, familia, usuarioId, datos.getLong());
+        } else if (tipo == REVOCADO) {
+            long familia = datos.getLong();
+            Familia revocada = familias.remove(familia);
+            if (revocada != null) {
+                quitarDeUsuario(revocada.usuarioId, familia);
+            }
+        }
+    }
+
+    private void registrarEmision(Huella huella, long id, int usuarioId, long expiracion) {
+        tokens.put(huella, new Token(id, expiracion));
+        Familia familia = familias.get(id);
+        if (familia == null) {
+            familias.put(id, new Familia(usuarioId, huella));
+            familiasPorUsuario.computeIfAbsent(usuarioId, usuario -> new HashSet<>()).add(id);
+        } else {
+            familia.actual = huella;
+        }
+    }
+
+    private void quitarDeUsuario(int usuarioId, long familia) {
+        Set<Long> delUsuario = familiasPorUsuario.get(usuarioId);
+        if (delUsuario != null && delUsuario.remove(familia) && delUsuario.isEmpty()) {
+            familiasPorUsuario.remove(usuarioId);
+        }
+    }
+
+    private static byte[] emision(Huella huella, long familia, int usuarioId, long expiracion) {
+        return ByteBuffer.allocate(TAMANO_EMITIDO).put(EMITIDO)
+                .putLong(huella.getAlto()).putLong(huella.getBajo())
+                .putLong(familia).putInt(usuarioId).putLong(expiracion)
+                .array();
+    }
+
+    /**
+     * Familia a la que pertenece un token y su caducidad en milisegundos desde la época.
+     */
+    private static final class Token {
+
+        private final long familia;
+        private final long expiracion;
+
+        private Token(long familia, long expiracion) {
+            this.familia = familia;
+            this.expiracion = expiracion;
+        }
+    }
+
+    /**
+     * Usuario de una familia y huella de su token vigente.
+     */
+    private static final class Familia {
+
+        private final int usuarioId;
+        private Huella actual;
+
+        private Familia(int usuarioId, Huella actual) {
+            this.usuarioId = usuarioId;
+            this.actual = actual;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.dev.sistemaautenticacion.sesiones;
+
+import com.dev.sistemaautenticacion.entity.RefreshToken;
+import com.dev.sistemaautenticacion.repository.RefreshTokenRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Almacén de refresh tokens en la tabla "refresh_token".
+ * Cada refresco ejecuta una transacción con una lectura, una actualización condicional y una
+ * inserción. Al estar en la base de datos compartida, sirve para varias instancias sin que los
+ * clientes tengan que volver a la instancia que emitió el token.
+ */
+public class AlmacenSesionesJpa implements AlmacenSesiones {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * @param refreshTokenRepository Repositorio de la tabla de tokens.
+     * @param transactionTemplate Plantilla para ejecutar cada operación en su propia transacción.
+     */
+    public AlmacenSesionesJpa(RefreshTokenRepository refreshTokenRepository, TransactionTemplate transactionTemplate) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public boolean compartido() {
+        return true;
+    }
+
+    @Override
+    public void emitir(Huella huella, long familia, int usuarioId, Instant expiracion) {
+        transactionTemplate.executeWithoutResult(estado -> insertar(huella, familia, usuarioId, expiracion));
+    }
+
+    @Override
+    public ResultadoRotacion rotar(Huella presentada, Huella nueva, Instant ahora, Instant expiracion) {
+        return transactionTemplate.execute(estado -> {
+            RefreshToken token = refreshTokenRepository.findById(presentada.hexadecimal()).orElse(null);
+            if (token == null) {
+                return ResultadoRotacion.invalido();
+            }
+            // Si otra transacción lo rotó entre la lectura y la actualización, también es una reutilización
+            if (token.isRotado() || refreshTokenRepository.marcarComoRotado(token.getHuella()) == 0) {
+                refreshTokenRepository.eliminarFamilia(token.getFamilia());
+                return ResultadoRotacion.reutilizado(token.getUsuarioId(), token.getFamilia());
+            }
+            if (!token.getExpiracion().isAfter(ahora)) {
+                estado.setRollbackOnly();
+                return ResultadoRotacion.invalido();
+            }
+            insertar(nueva, token.getFamilia(), token.getUsuarioId(), expiracion);
+            return ResultadoRotacion.rotado(token.getUsuarioId(), token.getFamilia());
+        });
+    }
+
+    @Override
+    public int revocarUsuario(int usuarioId) {
+        Integer revocadas = transactionTemplate.execute(estado -> {
+            int familias = refreshTokenRepository.contarFamiliasDeUsuario(usuarioId);
+            refreshTokenRepository.eliminarDeUsuario(usuarioId);
+            return familias;
+        });
+        return revocadas == null ? 0 : revocadas;
+    }
+
+    @Override
+    public void compactar(Instant ahora) {
+        transactionTemplate.executeWithoutResult(estado -> refreshTokenRepository.eliminarCaducados(ahora));
+    }
+
+    @Override
+    public Map<String, Object> estadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("almacen", "jpa");
+        estadisticas.put("tokens", refreshTokenRepository.count());
+        return estadisticas;
+    }
+
+    private void insertar(Huella huella, long familia, int usuarioId, Instant expiracion) {
+        RefreshToken token = new RefreshToken();
+        token.setHuella(huella.hexadecimal());
+        token.setFamilia(familia);
+        token.setUsuarioId(usuarioId);
+        token.setExpiracion(expiracion);
+        refreshTokenRepository.save(token);
+    }
+}
@@ -0,0 +1,74 @@
+package com.dev.sistemaautenticacion.sesiones;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Huella de un refresh token: los primeros 128 bits de su SHA-256.
+ * Los almacenes solo guardan la huella, de modo que una copia del registro o de la tabla
+ * no permite usar los tokens.
+ */
+public final class Huella {
+
+    private final long alto;
+    private final long bajo;
+
+    /**
+     * @param alto Los 64 bits más significativos.
+     * @param bajo Los 64 bits menos significativos.
+     */
+    public Huella(long alto, long bajo) {
+        this.alto = alto;
+        this.bajo = bajo;
+    }
+
+    /**
+     * Calcula la huella de un token.
+     *
+     * @param token El token tal como lo presenta el cliente.
+     * @return Su huella.
+     */
+    public static Huella de(String token) {
+        try {
+            byte[] resumen = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            ByteBuffer bufer = ByteBuffer.wrap(resumen);
+            return new Huella(bufer.getLong(), bufer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * @return Los 64 bits más significativos.
+     */
+    public long getAlto() {
+        return alto;
+    }
+
+    /**
+     * @return Los 64 bits menos significativos.
+     */
+    public long getBajo() {
+        return bajo;
+    }
+
+    /**
+     * @return La huella en hexadecimal (32 caracteres).
+     */
+    public String hexadecimal() {
+        return HexFormat.of().toHexDigits(alto) + HexFormat.of().toHexDigits(bajo);
+    }
+
+    @Override
+    public boolean equals(Object otro) {
+        return otro instanceof Huella huella && huella.alto == alto && huella.bajo == bajo;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(alto) * 31 + Long.hashCode(bajo);
+    }
+}
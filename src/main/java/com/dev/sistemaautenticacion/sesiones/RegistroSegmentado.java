@@ -0,0 +1,292 @@
+package com.dev.sistemaautenticacion.sesiones;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Registro de solo anexado repartido en segmentos de tamaño fijo proyectados en memoria.
+ * Cada registro se enmarca como [tipo:1][longitud:2][datos][crc32:4]; el CRC cubre el tipo, la
+ * longitud y los datos, de modo que tras una caída la lectura se detiene en el primer registro
+ * escrito a medias. Los segmentos se crean llenos de ceros, y un tipo 0 marca el final de los datos.
+ * La compactación escribe en segmentos nuevos una base con el estado vigente entre las marcas
+ * BASE y FIN_BASE, y después borra los segmentos anteriores. Al recuperar, se parte de la última base
+ * completa y se descarta una base sin FIN_BASE, que corresponde a una compactación interrumpida.
+ * No es seguro para uso concurrente, salvo {@link #sincronizar()}.
+ */
+final class RegistroSegmentado {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistroSegmentado.class);
+
+    private static final byte VACIO = 0;
+    private static final byte DATOS = 1;
+    private static final byte BASE = 2;
+    private static final byte FIN_BASE = 3;
+    private static final int CABECERA = 1 + Short.BYTES;
+    private static final int MARCO = CABECERA + Integer.BYTES;
+    private static final int LONGITUD_MAXIMA = 0xFFFF;
+    private static final String PREFIJO = "segmento-";
+    private static final String SUFIJO = ".log";
+
+    private final Path directorio;
+    private final int tamanoSegmento;
+    private final List<Long> segmentos = new ArrayList<>();
+
+    private volatile MappedByteBuffer activo;
+    private long numeroActivo;
+
+    /**
+     * @param directorio Directorio de los segmentos.
+     * @param tamanoSegmento Tamaño de cada segmento en bytes.
+     */
+    RegistroSegmentado(Path directorio, int tamanoSegmento) {
+        this.directorio = directorio;
+        this.tamanoSegmento = tamanoSegmento;
+    }
+
+    /**
+     * Lee los registros de datos desde la última base completa y deja el registro listo para anexar.
+     * Borra los segmentos anteriores a esa base y los de una compactación interrumpida, y limpia
+     * lo que haya tras el último registro válido.
+     *
+     * @param lector Recibe los datos de cada registro, en orden.
+     * @return El número de registros leídos.
+     * @throws UncheckedIOException Si no pueden leerse o crearse los segmentos.
+     */
+    long recuperar(Consumer<ByteBuffer> lector) {
+        try {
+            Files.createDirectories(directorio);
+            List<Long> existentes;
+            try (Stream<Path> archivos = Files.list(directorio)) {
+                existentes = archivos.map(ruta -> ruta.getFileName().toString())
+                        .filter(nombre -> nombre.startsWith(PREFIJO) && nombre.endsWith(SUFIJO))
+                        .map(nombre -> Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - SUFIJO.length())))
+                        .sorted()
+                        .toList();
+            }
+
+            // Primera pasada: localizar la última base completa y una posible base sin terminar
+            int base = 0;
+            int baseAbierta = -1;
+            for (int i = 0; i < existentes.size(); i++) {
+                MappedByteBuffer segmento = proyectar(existentes.get(i));
+                int indice = i;
+                int[] abierta = {baseAbierta};
+                int[] completa = {base};
+                recorrer(segmento, (tipo, datos) -> {
+                    if (tipo == BASE) {
+                        abierta[0] = indice;
+                    } else if (tipo == FIN_BASE && abierta[0] >= 0) {
+                        completa[0] = abierta[0];
+                        abierta[0] = -1;
+                    }
+                });
+                baseAbierta = abierta[0];
+                base = completa[0];
+            }
+            int fin = baseAbierta >= 0 ? baseAbierta : existentes.size();
+            for (int i = 0; i < existentes.size(); i++) {
+                if (i < base || i >= fin) {
+                    Files.delete(ruta(existentes.get(i)));
+                }
+            }
+            if (baseAbierta >= 0) {
+                log.warn("Se descartó una compactación interrumpida del registro de sesiones");
+            }
+
+            // Segunda pasada: entregar los datos y situarse tras el último registro válido
+            long leidos = 0;
+            int posicion = 0;
+            for (int i = base; i < fin; i++) {
+                MappedByteBuffer segmento = proyectar(existentes.get(i));
+                long[] contador = {0};
+                posicion = recorrer(segmento, (tipo, datos) -> {
+                    if (tipo == DATOS) {
+                        lector.accept(datos);
+                        contador[0]++;
+                    }
+                });
+                leidos += contador[0];
+                segmentos.add(existentes.get(i));
+                if (i < fin - 1 && posicion < tamanoSegmento && segmento.get(posicion) != VACIO) {
+                    log.warn("Registro dañado en el segmento {} del registro de sesiones; se continúa con el siguiente",
+                            existentes.get(i));
+                }
+                activo = segmento;
+            }
+            if (segmentos.isEmpty()) {
+                numeroActivo = 1;
+                activo = proyectar(numeroActivo);
+                segmentos.add(numeroActivo);
+            } else {
+                numeroActivo = segmentos.get(segmentos.size() - 1);
+                limpiarDesde(activo, posicion);
+                activo.position(posicion);
+            }
+            return leidos;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo recuperar el registro de sesiones en " + directorio, e);
+        }
+    }
+
+    /**
+     * Anexa un registro de datos.
+     *
+     * @param datos Los datos del registro.
+     */
+    void agregar(byte[] datos) {
+        escribir(DATOS, datos);
+    }
+
+    /**
+     * Sustituye el contenido del registro por una base nueva.
+     * Si el volcado falla, se borran los segmentos nuevos y el registro continúa donde estaba.
+     *
+     * @param volcado Escribe la base con el consumidor que recibe, un registro de datos por llamada.
+     */
+    void compactar(Consumer<Consumer<byte[]>> volcado) {
+        List<Long> anteriores = List.copyOf(segmentos);
+        long numeroAnterior = numeroActivo;
+        MappedByteBuffer activoAnterior = activo;
+        int posicionAnterior = activoAnterior.position();
+        try {
+            nuevoSegmento();
+            escribir(BASE, new byte[0]);
+            volcado.accept(this::agregar);
+            escribir(FIN_BASE, new byte[0]);
+            activo.force();
+        } catch (RuntimeException e) {
+            for (Long numero : segmentos) {
+                if (!anteriores.contains(numero)) {
+                    borrar(numero);
+                }
+            }
+            segmentos.retainAll(anteriores);
+            numeroActivo = numeroAnterior;
+            activo = activoAnterior;
+            activo.position(posicionAnterior);
+            throw e;
+        }
+        for (Long numero : anteriores) {
+            borrar(numero);
+        }
+        segmentos.removeAll(anteriores);
+    }
+
+    /**
+     * Fuerza la escritura en disco del segmento activo. Los segmentos anteriores se fuerzan al completarse.
+     */
+    void sincronizar() {
+        activo.force();
+    }
+
+    /**
+     * @return El número de segmentos del registro.
+     */
+    int segmentos() {
+        return segmentos.size();
+    }
+
+    /**
+     * @return Los bytes ocupados por los registros.
+     */
+    long bytesUsados() {
+        return (long) (segmentos.size() - 1) * tamanoSegmento + activo.position();
+    }
+
+    private void escribir(byte tipo, byte[] datos) {
+        if (datos.length > LONGITUD_MAXIMA || MARCO + datos.length > tamanoSegmento) {
+            throw new IllegalArgumentException("Registro demasiado grande: " + datos.length + " bytes");
+        }
+        if (activo.remaining() < MARCO + datos.length) {
+            nuevoSegmento();
+        }
+        MappedByteBuffer destino = activo;
+        int inicio = destino.position();
+        destino.put(tipo).putShort((short) datos.length).put(datos);
+        CRC32 crc = new CRC32();
+        crc.update(destino.slice(inicio, CABECERA + datos.length));
+        destino.putInt((int) crc.getValue());
+    }
+
+    private void nuevoSegmento() {
+        activo.force();
+        numeroActivo++;
+        borrar(numeroActivo); // un segmento nuevo debe empezar lleno de ceros
+        MappedByteBuffer nuevo = proyectar(numeroActivo);
+        segmentos.add(numeroActivo);
+        activo = nuevo;
+    }
+
+    /**
+     * Recorre los registros válidos de un segmento.
+     *
+     * @return La posición tras el último registro válido.
+     */
+    private int recorrer(MappedByteBuffer segmento, Visitante visitante) {
+        int posicion = 0;
+        while (posicion + MARCO <= tamanoSegmento) {
+            byte tipo = segmento.get(posicion);
+            int longitud = Short.toUnsignedInt(segmento.getShort(posicion + 1));
+            if (tipo < DATOS || tipo > FIN_BASE || posicion + MARCO + longitud > tamanoSegmento) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(segmento.slice(posicion, CABECERA + longitud));
+            if ((int) crc.getValue() != segmento.getInt(posicion + CABECERA + longitud)) {
+                break;
+            }
+            visitante.visitar(tipo, segmento.slice(posicion + CABECERA, longitud));
+            posicion += MARCO + longitud;
+        }
+        return posicion;
+    }
+
+    private void limpiarDesde(MappedByteBuffer segmento, int posicion) {
+        byte[] ceros = new byte[8192];
+        for (int i = posicion; i < tamanoSegmento; i += ceros.length) {
+            segmento.put(i, ceros, 0, Math.min(ceros.length, tamanoSegmento - i));
+        }
+    }
+
+    private MappedByteBuffer proyectar(long numero) {
+        try (FileChannel canal = FileChannel.open(ruta(numero), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // La proyección sigue siendo válida tras cerrar el canal
+            return canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanoSegmento);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo proyectar el segmento " + numero + " del registro de sesiones", e);
+        }
+    }
+
+    private void borrar(Long numero) {
+        try {
+            // En Linux puede borrarse un archivo proyectado; la memoria se libera con la proyección
+            Files.deleteIfExists(ruta(numero));
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el segmento {} del registro de sesiones", numero, e);
+        }
+    }
+
+    private Path ruta(long numero) {
+        return directorio.resolve(String.format("%s%012d%s", PREFIJO, numero, SUFIJO));
+    }
+
+    @FunctionalInterface
+    private interface Visitante {
+        void visitar(byte tipo, ByteBuffer datos);
+    }
+}
@@ -0,0 +1,62 @@
+package com.dev.sistemaautenticacion.sesiones;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Resultado de presentar un refresh token para rotarlo.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ResultadoRotacion {
+
+    /**
+     * Tipos de resultado de una rotación.
+     */
+    public enum Tipo {
+        /**
+         * El token era el vigente de su sesión y se sustituyó por el nuevo.
+         */
+        ROTADO,
+        /**
+         * El token ya se había rotado: alguien lo reutiliza y la sesión completa se revocó.
+         */
+        REUTILIZADO,
+        /**
+         * El token no existe, caducó o su sesión fue revocada.
+         */
+        INVALIDO
+    }
+
+    private static final ResultadoRotacion INVALIDO = new ResultadoRotacion(Tipo.INVALIDO, 0, 0);
+
+    private final Tipo tipo;
+    private final int usuarioId;
+    private final long familia;
+
+    /**
+     * @param usuarioId El usuario de la sesión.
+     * @param familia La sesión del token.
+     * @return Un resultado de rotación correcta.
+     */
+    public static ResultadoRotacion rotado(int usuarioId, long familia) {
+        return new ResultadoRotacion(Tipo.ROTADO, usuarioId, familia);
+    }
+
+    /**
+     * @param usuarioId El usuario de la sesión revocada.
+     * @param familia La sesión revocada.
+     * @return Un resultado de reutilización detectada.
+     */
+    public static ResultadoRotacion reutilizado(int usuarioId, long familia) {
+        return new ResultadoRotacion(Tipo.REUTILIZADO, usuarioId, familia);
+    }
+
+    /**
+     * @return Un resultado de token inválido.
+     */
+    public static ResultadoRotacion invalido() {
+        return INVALIDO;
+    }
+}
@@ -0,0 +1,135 @@
+package com.dev.sistemaautenticacion.sesiones;
+
+import com.dev.sistemaautenticacion.dto.SesionResponse;
+import com.dev.sistemaautenticacion.exception.RefreshTokenInvalidoException;
+import com.dev.sistemaautenticacion.invalidacion.BusInvalidacion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Emisión y rotación de refresh tokens.
+ * Un token son 256 bits aleatorios codificados en Base64 URL; el almacén solo conoce su huella.
+ * Cada refresco invalida el token presentado y devuelve uno nuevo de la misma sesión; presentar
+ * un token ya rotado indica que fue copiado, y revoca la sesión completa.
+ * Si el almacén es local a cada instancia, las revocaciones de un usuario se publican en el
+ * {@link BusInvalidacion} y se aplican también al recibir las de las demás instancias.
+ */
+@Service
+public class SesionesRefresh {
+
+    private static final Logger log = LoggerFactory.getLogger(SesionesRefresh.class);
+
+    private static final int BYTES_TOKEN = 32;
+    private static final int LONGITUD_TOKEN = 43;
+
+    private final AlmacenSesiones almacenSesiones;
+    private final BusInvalidacion busInvalidacion;
+    private final Duration duracion;
+    private final SecureRandom aleatorio = new SecureRandom();
+    private final Base64.Encoder codificador = Base64.getUrlEncoder().withoutPadding();
+
+    /**
+     * Constructor con inyección de dependencias y parámetros configurables.
+     *
+     * @param almacenSesiones Almacén configurado de los refresh tokens.
+     * @param busInvalidacion Bus por el que se propagan las revocaciones entre instancias.
+     * @param duracionDias Días de validez de cada refresh token desde su emisión.
+     */
+    @Autowired
+    public SesionesRefresh(AlmacenSesiones almacenSesiones, BusInvalidacion busInvalidacion,
+                           @Value("${usuarios.sesiones.duracion-dias:30}") long duracionDias) {
+        this.almacenSesiones = almacenSesiones;
+        this.busInvalidacion = busInvalidacion;
+        this.duracion = Duration.ofDays(duracionDias);
+        if (!almacenSesiones.compartido()) {
+            busInvalidacion.alRevocar(almacenSesiones::revocarUsuario);
+        }
+    }
+
+    /**
+     * Abre una sesión para un usuario recién autenticado.
+     *
+     * @param usuarioId El ID del usuario.
+     * @return El primer refresh token de la sesión.
+     */
+    public SesionResponse iniciar(Integer usuarioId) {
+        String token = nuevoToken();
+        Instant expiracion = Instant.now().plus(duracion);
+        almacenSesiones.emitir(Huella.de(token), aleatorio.nextLong(), usuarioId, expiracion);
+        return new SesionResponse(usuarioId, token, expiracion);
+    }
+
+    /**
+     * Sustituye un refresh token por uno nuevo de la misma sesión.
+     *
+     * @param token El refresh token presentado.
+     * @return El nuevo refresh token.
+     * @throws RefreshTokenInvalidoException Si el token no es válido, caducó, ya se usó o su sesión fue revocada.
+     */
+    public SesionResponse refrescar(String token) {
+        if (token.length() != LONGITUD_TOKEN) {
+            throw RefreshTokenInvalidoException.INSTANCIA;
+        }
+        String nuevo = nuevoToken();
+        Instant ahora = Instant.now();
+        Instant expiracion = ahora.plus(duracion);
+        ResultadoRotacion resultado = almacenSesiones.rotar(Huella.de(token), Huella.de(nuevo), ahora, expiracion);
+        if (resultado.getTipo() == ResultadoRotacion.Tipo.REUTILIZADO) {
+            log.warn("Reutilización de un refresh token rotado del usuario {}; se revoca la sesión {}",
+                    resultado.getUsuarioId(), Long.toHexString(resultado.getFamilia()));
+        }
+        if (resultado.getTipo() != ResultadoRotacion.Tipo.ROTADO) {
+            throw RefreshTokenInvalidoException.INSTANCIA;
+        }
+        return new SesionResponse(resultado.getUsuarioId(), nuevo, expiracion);
+    }
+
+    /**
+     * Revoca todas las sesiones de un usuario, por ejemplo al cambiar su clave o eliminarlo,
+     * en esta instancia y, si el almacén es local, en las demás.
+     *
+     * @param usuarioId El ID del usuario.
+     */
+    public void revocarUsuario(Integer usuarioId) {
+        almacenSesiones.revocarUsuario(usuarioId);
+        if (!almacenSesiones.compartido()) {
+            busInvalidacion.publicarRevocacion(usuarioId);
+        }
+    }
+
+    /**
+     * Descarta periódicamente los tokens caducados y los de sesiones revocadas.
+     */
+    @Scheduled(fixedDelayString = "${usuarios.sesiones.compactacion-ms:600000}",
+            initialDelayString = "${usuarios.sesiones.compactacion-ms:600000}")
+    public void compactar() {
+        try {
+            almacenSesiones.compactar(Instant.now());
+        } catch (RuntimeException e) {
+            log.warn("No se pudo compactar el almacén de sesiones", e);
+        }
+    }
+
+    /**
+     * @return El tipo de almacén y su ocupación.
+     */
+    public Map<String, Object> estadisticas() {
+        return almacenSesiones.estadisticas();
+    }
+
+    private String nuevoToken() {
+        byte[] bytes = new byte[BYTES_TOKEN];
+        aleatorio.nextBytes(bytes);
+        return codificador.encodeToString(bytes);
+    }
+}
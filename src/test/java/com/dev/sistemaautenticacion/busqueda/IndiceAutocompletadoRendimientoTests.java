@@ -0,0 +1,69 @@
+package com.dev.sistemaautenticacion.busqueda;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mide la memoria y la latencia del índice de autocompletado con un millón de usuarios sintéticos.
+ * Ejecutar con: mvn test -Dtest=IndiceAutocompletadoRendimientoTests -Dpruebas.rendimiento=true
+ */
+@EnabledIfSystemProperty(named = "pruebas.rendimiento", matches = "true")
+class IndiceAutocompletadoRendimientoTests {
+
+    private static final int USUARIOS = 1_000_000;
+    private static final int REPETICIONES = 2_000;
+    private static final String[] NOMBRES = {"Juan", "María", "José", "Ana", "Luis", "Carmen", "Carlos", "Lucía",
+            "Jorge", "Sofía", "Andrés", "Valentina", "Miguel", "Camila", "Pedro", "Daniela", "Javier", "Paula"};
+    private static final String[] APELLIDOS = {"García", "Rodríguez", "Martínez", "López", "González", "Pérez",
+            "Sánchez", "Ramírez", "Torres", "Flores", "Rivera", "Gómez", "Díaz", "Reyes", "Morales", "Jiménez",
+            "Ruiz", "Álvarez", "Romero", "Herrera", "Medina", "Castro", "Vargas", "Ortiz"};
+    private static final String[] CONSULTAS = {"j", "ma", "gar", "juan gar", "lucia.tor", "12345", "usuario99"};
+
+    @Test
+    void midePorMillonDeUsuarios() {
+        long heapAntes = heapUsado();
+        IndiceAutocompletado indice = new IndiceAutocompletado();
+        long inicioCarga = System.nanoTime();
+        for (int id = 1; id <= USUARIOS; id++) {
+            String nombre = NOMBRES[id % NOMBRES.length];
+            String apellido = APELLIDOS[(id / NOMBRES.length) % APELLIDOS.length];
+            indice.agregarSiNoExiste(id, nombre, apellido, "usuario" + id + "@miapp.com");
+        }
+        indice.ajustarCapacidad();
+        long cargaMs = (System.nanoTime() - inicioCarga) / 1_000_000;
+        long heap = heapUsado() - heapAntes;
+        assertEquals(USUARIOS, indice.tamano());
+
+        StringBuilder latencias = new StringBuilder();
+        for (String consulta : CONSULTAS) {
+            latencias.append(String.format(" \"%s\" %.1f µs", consulta, microsegundosPorBusqueda(indice, consulta)));
+        }
+        System.out.printf("Índice de autocompletado con %,d usuarios: carga %d ms, heap %,d bytes "
+                        + "(estimado %,d), %,d n-gramas; latencia media:%s%n",
+                USUARIOS, cargaMs, heap, indice.bytesEstimados(), indice.totalNGramas(), latencias);
+    }
+
+    private static double microsegundosPorBusqueda(IndiceAutocompletado indice, String consulta) {
+        long total = 0;
+        for (int i = 0; i < REPETICIONES; i++) {
+            total += indice.buscar(consulta, 10).size(); // calentamiento del JIT
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < REPETICIONES; i++) {
+            total += indice.buscar(consulta, 10).size();
+        }
+        long nanos = System.nanoTime() - inicio;
+        if (total < 0) {
+            throw new AssertionError();
+        }
+        return nanos / 1e3 / REPETICIONES;
+    }
+
+    private static long heapUsado() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
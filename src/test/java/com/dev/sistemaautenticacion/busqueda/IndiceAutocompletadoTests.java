@@ -0,0 +1,109 @@
+package com.dev.sistemaautenticacion.busqueda;
+
+import com.dev.sistemaautenticacion.dto.SugerenciaUsuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceAutocompletadoTests {
+
+    private IndiceAutocompletado indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceAutocompletado();
+        indice.agregar(1, "Juan", "Pérez", "juan.perez@miapp.com");
+        indice.agregar(2, "Juana", "Gómez", "jgomez@miapp.com");
+        indice.agregar(3, "Pedro", "Juárez", "pedro@otro.com");
+    }
+
+    @Test
+    void buscaPorPrefijoCortoYOrdenaPorRelevancia() {
+        List<SugerenciaUsuario> resultado = indice.buscar("ju", 10);
+        assertEquals(List.of(1, 2, 3), resultado.stream().map(SugerenciaUsuario::getId).toList());
+    }
+
+    @Test
+    void ignoraAcentosYMayusculas() {
+        List<SugerenciaUsuario> resultado = indice.buscar("PEREZ", 10);
+        assertEquals(1, resultado.size());
+        assertEquals(1, resultado.get(0).getId());
+    }
+
+    @Test
+    void buscaSubcadenasEnElCorreoYCombinaTerminos() {
+        assertEquals(List.of(3), indice.buscar("otro.c", 10).stream().map(SugerenciaUsuario::getId).toList());
+        assertEquals(List.of(2), indice.buscar("jua gom", 10).stream().map(SugerenciaUsuario::getId).toList());
+    }
+
+    @Test
+    void aplicaActualizacionesEliminacionesYLimite() {
+        indice.agregar(2, "Ana", "Gómez", "agomez@miapp.com");
+        indice.eliminar(3);
+        assertEquals(List.of(1), indice.buscar("ju", 10).stream().map(SugerenciaUsuario::getId).toList());
+        assertEquals(1, indice.buscar("miapp", 1).size());
+        assertTrue(indice.buscar("xyz", 10).isEmpty());
+        assertEquals(2, indice.tamano());
+    }
+
+    @Test
+    void compactaTrasMuchasActualizaciones() {
+        for (int i = 0; i < 5000; i++) {
+            indice.agregar(1, "Juan", "Pérez " + i, "juan.perez@miapp.com");
+        }
+        assertEquals(3, indice.tamano());
+        assertEquals(List.of(1), indice.buscar("perez 4999", 10).stream().map(SugerenciaUsuario::getId).toList());
+    }
+
+    @Test
+    void elLimiteDeCandidatosNoDescartaCoincidenciasMasRelevantesPosteriores() {
+        IndiceAutocompletado indice = new IndiceAutocompletado();
+        for (int id = 1; id <= 3000; id++) {
+            // Coincidencias en mitad de palabra y de inicio de palabra, indexadas antes
+            indice.agregar(id, "Xjuan", "Lopez", "ana.juan" + id + "@miapp.com");
+        }
+        indice.agregar(5000, "Juan", "Lopez", "juan@miapp.com");
+        indice.agregar(5001, "Ana", "Juanes", "ana@miapp.com");
+
+        assertEquals(List.of(5000), indice.buscar("jua", 1).stream().map(SugerenciaUsuario::getId).toList());
+        assertEquals(List.of(5000, 5001), indice.buscar("juan", 2).stream().map(SugerenciaUsuario::getId).toList());
+        assertEquals(List.of(5000), indice.buscar("j lop", 1).stream().map(SugerenciaUsuario::getId).toList());
+    }
+
+    @Test
+    void mantieneLosIdsTrasMuchasAltasYBajasIntercaladas() {
+        IndiceAutocompletado indice = new IndiceAutocompletado();
+        for (int id = 0; id < 20_000; id++) {
+            indice.agregar(id * 7919, "Nombre", "Apellido", "u" + id + "@miapp.com");
+        }
+        for (int id = 0; id < 20_000; id += 2) {
+            indice.eliminar(id * 7919);
+        }
+        indice.ajustarCapacidad();
+
+        assertEquals(10_000, indice.tamano());
+        for (int id = 0; id < 20_000; id += 997) {
+            List<Integer> resultado = indice.buscar("u" + id + "@miapp", 10).stream()
+                    .map(SugerenciaUsuario::getId).toList();
+            // El correo exacto es el más corto de los que empiezan por el término
+            if (id % 2 == 0) {
+                assertFalse(resultado.contains(id * 7919), "u" + id);
+            } else {
+                assertEquals(id * 7919, resultado.get(0), "u" + id);
+            }
+        }
+    }
+
+    @Test
+    void devuelveLosCamposOriginales() {
+        SugerenciaUsuario sugerencia = indice.buscar("perez", 1).get(0);
+        assertEquals("Juan", sugerencia.getNombre());
+        assertEquals("Pérez", sugerencia.getApellido());
+        assertEquals("juan.perez@miapp.com", sugerencia.getCorreo());
+    }
+}
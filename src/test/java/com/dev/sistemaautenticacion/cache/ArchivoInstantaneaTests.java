@@ -0,0 +1,77 @@
+package com.dev.sistemaautenticacion.cache;
+
+import com.dev.sistemaautenticacion.dto.UserResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArchivoInstantaneaTests {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void conservaPerfilesYLosIdsDeLasCredenciales() throws IOException {
+        Path archivo = directorio.resolve("instantanea.bin");
+        Instant instante = Instant.parse("2026-01-15T10:00:00Z");
+        ArchivoInstantanea.escribir(archivo, instante, List.of(perfil()), List.of(7, 3));
+
+        ArchivoInstantanea.Contenido contenido = ArchivoInstantanea.leer(archivo);
+
+        assertEquals(instante, contenido.getInstante());
+        UserResponse perfil = contenido.getPerfiles().get(0);
+        assertEquals("Pérez", perfil.getApellido());
+        assertEquals(LocalDate.of(1990, 5, 1), perfil.getFechaNacimiento());
+        assertEquals(Instant.parse("2025-12-01T08:30:00.123456Z"), perfil.getFechaModificacion());
+        assertNull(perfil.getTelefono());
+        assertEquals(List.of(7, 3), contenido.getCredenciales());
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void elDirectorioYElArchivoSoloSonAccesiblesParaElPropietario() throws IOException {
+        Path archivo = directorio.resolve("caches").resolve("instantanea.bin");
+        ArchivoInstantanea.escribir(archivo, Instant.now(), List.of(perfil()), List.of(7));
+
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(archivo.getParent())));
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(archivo)));
+    }
+
+    @Test
+    void rechazaUnaInstantaneaDanada() throws IOException {
+        Path archivo = directorio.resolve("instantanea.bin");
+        ArchivoInstantanea.escribir(archivo, Instant.now(), List.of(perfil()), List.of());
+        byte[] bytes = Files.readAllBytes(archivo);
+        bytes[bytes.length - 5] ^= 1;
+        Files.write(archivo, bytes);
+
+        assertThrows(IOException.class, () -> ArchivoInstantanea.leer(archivo));
+    }
+
+    private static UserResponse perfil() {
+        UserResponse perfil = new UserResponse();
+        perfil.setId(7);
+        perfil.setNombre("Juan");
+        perfil.setApellido("Pérez");
+        perfil.setCorreo("juan@miapp.com");
+        perfil.setFechaNacimiento(LocalDate.of(1990, 5, 1));
+        perfil.setRol("usuario");
+        perfil.setEstado("activo");
+        perfil.setFechaCreacion(Instant.parse("2025-01-01T00:00:00Z"));
+        perfil.setFechaModificacion(Instant.parse("2025-12-01T08:30:00.123456Z"));
+        return perfil;
+    }
+}
@@ -0,0 +1,104 @@
+package com.dev.sistemaautenticacion.cache;
+
+import com.dev.sistemaautenticacion.dto.CredencialUsuario;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CredencialCacheTests {
+
+    private static final String CORREO = "juan@miapp.com";
+
+    private final CredencialCache cache = new CredencialCache(100);
+
+    @Test
+    void guardaLaCredencialSiNoHuboInvalidaciones() {
+        long generacion = cache.generacion();
+
+        assertTrue(cache.guardar(credencial("clave1"), generacion));
+        assertEquals("clave1", cache.obtener(CORREO).getClave());
+    }
+
+    @Test
+    void descartaUnaCredencialLeidaAntesDeUnaInvalidacion() {
+        long generacion = cache.generacion();
+        CredencialUsuario leida = credencial("claveAntigua");
+        cache.invalidarPorId(7); // el cambio de clave se confirma y se invalida mientras la lectura está en curso
+
+        assertFalse(cache.guardar(leida, generacion));
+        assertNull(cache.obtener(CORREO));
+    }
+
+    @Test
+    void invalidarPorIdEliminaLaCredencialDeAmbosIndices() {
+        cache.guardar(credencial("clave1"), cache.generacion());
+
+        cache.invalidarPorId(7);
+
+        assertNull(cache.obtener(CORREO));
+        assertTrue(cache.guardar(credencial("clave2"), cache.generacion()));
+        cache.invalidarPorCorreo(CORREO);
+        cache.invalidarPorId(7);
+        assertNull(cache.obtener(CORREO));
+    }
+
+    @Test
+    void ningunaCredencialObsoletaSobreviveALasEscriturasConcurrentes() throws InterruptedException {
+        for (int ronda = 0; ronda < 50; ronda++) {
+            CredencialCache cache = new CredencialCache(100);
+            AtomicReference<CredencialUsuario> baseDeDatos = new AtomicReference<>(credencial("clave0"));
+            AtomicBoolean terminado = new AtomicBoolean();
+            CountDownLatch inicio = new CountDownLatch(1);
+            List<Thread> lectores = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Thread lector = new Thread(() -> {
+                    await(inicio);
+                    while (!terminado.get()) {
+                        if (cache.obtener(CORREO) == null) {
+                            long generacion = cache.generacion();
+                            cache.guardar(baseDeDatos.get(), generacion);
+                        }
+                    }
+                });
+                lector.start();
+                lectores.add(lector);
+            }
+            inicio.countDown();
+            for (int version = 1; version <= 200; version++) {
+                baseDeDatos.set(credencial("clave" + version));
+                cache.invalidarPorId(7);
+            }
+            terminado.set(true);
+            for (Thread lector : lectores) {
+                lector.join();
+            }
+
+            CredencialUsuario cacheada = cache.obtener(CORREO);
+            if (cacheada != null) {
+                assertSame(baseDeDatos.get(), cacheada);
+            }
+        }
+    }
+
+    private static CredencialUsuario credencial(String clave) {
+        return new CredencialUsuario(7, CORREO, clave, "activo", "usuario");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
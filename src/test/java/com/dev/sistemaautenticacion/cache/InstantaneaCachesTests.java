@@ -0,0 +1,67 @@
+package com.dev.sistemaautenticacion.cache;
+
+import com.dev.sistemaautenticacion.dto.CredencialUsuario;
+import com.dev.sistemaautenticacion.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InstantaneaCachesTests {
+
+    @TempDir
+    Path directorio;
+
+    private final UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+
+    @Test
+    void laInstantaneaNoContieneClavesYLasCredencialesSeRecarganDeLaBaseDeDatos() throws IOException {
+        Path archivo = directorio.resolve("instantanea.bin");
+        CredencialCache origen = new CredencialCache(100);
+        origen.guardar(credencial(7, "juan@miapp.com", "claveGuardada"), origen.generacion());
+        instantanea(origen, archivo).guardar();
+        assertFalse(new String(Files.readAllBytes(archivo), StandardCharsets.ISO_8859_1).contains("claveGuardada"));
+
+        when(usuarioRepository.buscarCredencialesPorIds(List.of(7)))
+                .thenReturn(List.of(credencial(7, "juan@miapp.com", "claveActual")));
+        CredencialCache restaurada = new CredencialCache(100);
+        instantanea(restaurada, archivo).restaurar();
+
+        assertEquals("claveActual", restaurada.obtener("juan@miapp.com").getClave());
+    }
+
+    @Test
+    void siLaBaseDeDatosNoEstaDisponibleLasCredencialesSeCarganEnSuPrimerUso() throws IOException {
+        Path archivo = directorio.resolve("instantanea.bin");
+        CredencialCache origen = new CredencialCache(100);
+        origen.guardar(credencial(7, "juan@miapp.com", "clave"), origen.generacion());
+        instantanea(origen, archivo).guardar();
+
+        when(usuarioRepository.buscarCredencialesPorIds(any()))
+                .thenThrow(new DataAccessResourceFailureException("sin conexión"));
+        CredencialCache restaurada = new CredencialCache(100);
+        instantanea(restaurada, archivo).restaurar();
+
+        assertNull(restaurada.obtener("juan@miapp.com"));
+    }
+
+    private InstantaneaCaches instantanea(CredencialCache credencialCache, Path archivo) {
+        return new InstantaneaCaches(new PerfilCache(100), credencialCache, usuarioRepository, true, archivo, 100, 300);
+    }
+
+    private static CredencialUsuario credencial(Integer id, String correo, String clave) {
+        return new CredencialUsuario(id, correo, clave, "activo", "usuario");
+    }
+}
@@ -0,0 +1,107 @@
+package com.dev.sistemaautenticacion.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTests {
+
+    private static final int LLAMANTES = 8;
+
+    private final ExecutorService hilos = Executors.newCachedThreadPool();
+    private final AtomicInteger cargas = new AtomicInteger();
+    private final CountDownLatch cargaEnCurso = new CountDownLatch(1);
+    private final CountDownLatch continuar = new CountDownLatch(1);
+
+    @Test
+    void lasLlamadasConcurrentesCompartenUnaSolaCarga() throws Exception {
+        SingleFlight<Integer, String> singleFlight = new SingleFlight<>(5000);
+        List<CompletableFuture<String>> resultados = llamarConcurrentemente(singleFlight, () -> "perfil");
+
+        continuar.countDown();
+        String primero = resultados.get(0).get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<String> resultado : resultados) {
+            assertSame(primero, resultado.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, cargas.get());
+        assertEquals(1L, singleFlight.metricas().get("cargas"));
+        assertEquals((long) LLAMANTES - 1, singleFlight.metricas().get("compartidas"));
+    }
+
+    @Test
+    void elErrorDeLaCargaSePropagaATodosLosQueEsperan() throws Exception {
+        SingleFlight<Integer, String> singleFlight = new SingleFlight<>(5000);
+        List<CompletableFuture<String>> resultados = llamarConcurrentemente(singleFlight, () -> {
+            throw new QueryTimeoutException("tiempo de consulta agotado");
+        });
+
+        continuar.countDown();
+        for (CompletableFuture<String> resultado : resultados) {
+            ExecutionException error = assertThrows(ExecutionException.class, () -> resultado.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(QueryTimeoutException.class, error.getCause());
+        }
+        assertEquals(1, cargas.get());
+    }
+
+    @Test
+    void siLaCargaEnCursoNoTerminaATiempoCadaLlamanteCargaPorSuCuenta() throws Exception {
+        SingleFlight<Integer, String> singleFlight = new SingleFlight<>(100);
+        List<CompletableFuture<String>> resultados = llamarConcurrentemente(singleFlight, () -> "perfil");
+
+        for (int i = 1; i < resultados.size(); i++) {
+            assertEquals("perfil", resultados.get(i).get(5, TimeUnit.SECONDS));
+        }
+        continuar.countDown();
+        assertEquals("perfil", resultados.get(0).get(5, TimeUnit.SECONDS));
+        assertEquals(LLAMANTES, cargas.get());
+        assertEquals((long) LLAMANTES - 1, singleFlight.metricas().get("esperasAgotadas"));
+    }
+
+    /**
+     * Lanza una primera llamada cuya carga queda bloqueada hasta {@link #continuar} y, mientras está
+     * en curso, el resto de llamadas con la misma clave. Solo la primera carga espera.
+     */
+    private List<CompletableFuture<String>> llamarConcurrentemente(SingleFlight<Integer, String> singleFlight,
+                                                                   Supplier<String> valor) throws InterruptedException {
+        Supplier<String> carga = () -> {
+            if (cargas.incrementAndGet() == 1) {
+                cargaEnCurso.countDown();
+                try {
+                    continuar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return valor.get();
+        };
+        List<CompletableFuture<String>> resultados = new ArrayList<>();
+        resultados.add(CompletableFuture.supplyAsync(() -> singleFlight.ejecutar(1, carga), hilos));
+        assertTrue(cargaEnCurso.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < LLAMANTES; i++) {
+            resultados.add(CompletableFuture.supplyAsync(() -> singleFlight.ejecutar(1, carga), hilos));
+        }
+        // Los llamantes se unen a la carga en curso antes de que termine
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((long) singleFlight.metricas().get("compartidas") + (long) singleFlight.metricas().get("esperasAgotadas")
+                < LLAMANTES - 1 && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+        return resultados;
+    }
+}
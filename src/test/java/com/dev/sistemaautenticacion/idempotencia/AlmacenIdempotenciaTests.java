@@ -0,0 +1,74 @@
+package com.dev.sistemaautenticacion.idempotencia;
+
+import com.dev.sistemaautenticacion.idempotencia.AlmacenIdempotencia.Reserva;
+import com.dev.sistemaautenticacion.idempotencia.AlmacenIdempotencia.RespuestaGuardada;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlmacenIdempotenciaTests {
+
+    private static final byte[] HUELLA = {1, 2, 3};
+
+    private final AtomicLong reloj = new AtomicLong();
+
+    @Test
+    void losDuplicadosRecibenLaRespuestaDeLaPrimeraEjecucion() throws Exception {
+        AlmacenIdempotencia almacen = new AlmacenIdempotencia(10, 60, reloj::get);
+        Reserva primera = almacen.reservar("POST /api/auth/register a", HUELLA);
+        Reserva duplicada = almacen.reservar("POST /api/auth/register a", HUELLA);
+
+        assertTrue(primera.isPropia());
+        assertFalse(duplicada.isPropia());
+        assertFalse(duplicada.getEntrada().getResultado().isDone());
+
+        RespuestaGuardada respuesta = new RespuestaGuardada(201, "application/json", new byte[]{'{', '}'});
+        almacen.completar(primera.getEntrada(), respuesta);
+
+        assertSame(respuesta, duplicada.getEntrada().getResultado().get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void lasRespuestasCaducanTrasSuTiempoDeVida() {
+        AlmacenIdempotencia almacen = new AlmacenIdempotencia(10, 60, reloj::get);
+        Reserva primera = almacen.reservar("clave", HUELLA);
+        almacen.completar(primera.getEntrada(), new RespuestaGuardada(200, null, new byte[0]));
+
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        assertFalse(almacen.reservar("clave", HUELLA).isPropia());
+
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertTrue(almacen.reservar("clave", HUELLA).isPropia());
+    }
+
+    @Test
+    void unaEjecucionDescartadaLiberaLaClave() throws Exception {
+        AlmacenIdempotencia almacen = new AlmacenIdempotencia(10, 60, reloj::get);
+        Reserva primera = almacen.reservar("clave", HUELLA);
+        Reserva duplicada = almacen.reservar("clave", HUELLA);
+
+        almacen.descartar("clave", primera.getEntrada());
+
+        assertNull(duplicada.getEntrada().getResultado().get(1, TimeUnit.SECONDS));
+        assertTrue(almacen.reservar("clave", HUELLA).isPropia());
+    }
+
+    @Test
+    void respetaLaCapacidadDescartandoLasMasAntiguas() {
+        AlmacenIdempotencia almacen = new AlmacenIdempotencia(2, 60, reloj::get);
+        almacen.reservar("a", HUELLA);
+        almacen.reservar("b", HUELLA);
+        almacen.reservar("c", HUELLA);
+
+        assertEquals(2, almacen.tamano());
+        assertTrue(almacen.reservar("a", HUELLA).isPropia());
+        assertFalse(almacen.reservar("c", HUELLA).isPropia());
+    }
+}
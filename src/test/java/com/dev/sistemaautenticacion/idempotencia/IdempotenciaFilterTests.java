@@ -0,0 +1,72 @@
+package com.dev.sistemaautenticacion.idempotencia;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IdempotenciaFilterTests {
+
+    private final IdempotenciaFilter filtro = new IdempotenciaFilter(new AlmacenIdempotencia(10, 60), 1000, 16);
+    private final AtomicReference<byte[]> leidoPorElControlador = new AtomicReference<>();
+    private final FilterChain controlador = (solicitud, respuesta) -> {
+        leidoPorElControlador.set(solicitud.getInputStream().readAllBytes());
+        ((HttpServletResponse) respuesta).setStatus(201);
+    };
+
+    @Test
+    void elControladorVuelveALeerUnCuerpoDentroDelMaximo() throws Exception {
+        byte[] cuerpo = "{\"a\":1}".getBytes(StandardCharsets.UTF_8);
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+
+        filtro.doFilter(registro(cuerpo), respuesta, controlador);
+
+        assertEquals(201, respuesta.getStatus());
+        assertArrayEquals(cuerpo, leidoPorElControlador.get());
+    }
+
+    @Test
+    void rechazaSinLeerloUnCuerpoQueDeclaraMasDelMaximo() throws Exception {
+        MockHttpServletRequest solicitud = registro(new byte[17]);
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+
+        filtro.doFilter(solicitud, respuesta, controlador);
+
+        assertEquals(413, respuesta.getStatus());
+        assertEquals(17, solicitud.getInputStream().available());
+        assertNull(leidoPorElControlador.get());
+    }
+
+    @Test
+    void rechazaUnCuerpoSinLongitudDeclaradaQueSuperaElMaximo() throws Exception {
+        MockHttpServletRequest solicitud = new MockHttpServletRequest("POST", "/api/auth/register") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        solicitud.addHeader(IdempotenciaFilter.CABECERA_CLAVE, "clave");
+        solicitud.setContent(new byte[1024]);
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+
+        filtro.doFilter(solicitud, respuesta, controlador);
+
+        assertEquals(413, respuesta.getStatus());
+        assertNull(leidoPorElControlador.get());
+    }
+
+    private static MockHttpServletRequest registro(byte[] cuerpo) {
+        MockHttpServletRequest solicitud = new MockHttpServletRequest("POST", "/api/auth/register");
+        solicitud.addHeader(IdempotenciaFilter.CABECERA_CLAVE, "clave");
+        solicitud.setContent(cuerpo);
+        return solicitud;
+    }
+}
@@ -0,0 +1,244 @@
+package com.dev.sistemaautenticacion.importacion;
+
+import com.dev.sistemaautenticacion.busqueda.BusquedaUsuarios;
+import com.dev.sistemaautenticacion.dto.RegisterRequest;
+import com.dev.sistemaautenticacion.invalidacion.BusInvalidacion;
+import com.dev.sistemaautenticacion.replica.ReplicaUsuarios;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ImportadorUsuariosTests {
+
+    private static final String CABECERA = "nombre,apellido,correo,clave,fechaNacimiento";
+
+    @TempDir
+    Path directorio;
+
+    @TempDir
+    Path fuera;
+
+    private final BusquedaUsuarios busquedaUsuarios = mock(BusquedaUsuarios.class);
+    private final ReplicaUsuarios replicaUsuarios = mock(ReplicaUsuarios.class);
+    private final BusInvalidacion busInvalidacion = mock(BusInvalidacion.class);
+
+    @Test
+    void rechazaLosCorreosYaRegistradosArchivadosORepetidosEnElArchivo() throws IOException {
+        BaseDeDatosSimulada importador = new BaseDeDatosSimulada(10);
+        importador.usuarios.put("existente@miapp.com", 1);
+        importador.archivados.add("archivado@miapp.com");
+        Path archivo = csv(fila("nuevo1@miapp.com"), fila("Existente@MiApp.com"), fila("archivado@miapp.com"),
+                fila("nuevo1@miapp.com"), fila("nuevo2@miapp.com"));
+
+        ResultadoImportacion resultado = importador.importar(archivo);
+
+        assertNull(resultado.getError());
+        assertEquals(2, resultado.getInsertados());
+        assertEquals(3, resultado.getRechazados());
+        assertEquals(Set.of("existente@miapp.com", "nuevo1@miapp.com", "nuevo2@miapp.com"), importador.usuarios.keySet());
+        assertEquals(List.of(2L, 3L, 4L), registrosConError(archivo));
+    }
+
+    @Test
+    void unCorreoInsertadoPorOtraEscrituraTrasLaConsultaSeRechaza() throws IOException {
+        BaseDeDatosSimulada importador = new BaseDeDatosSimulada(10);
+        importador.insertadoPorOtro = "carrera@miapp.com";
+        Path archivo = csv(fila("nuevo@miapp.com"), fila("carrera@miapp.com"));
+
+        ResultadoImportacion resultado = importador.importar(archivo);
+
+        assertEquals(1, resultado.getInsertados());
+        assertEquals(1, resultado.getRechazados());
+        assertEquals(List.of(2L), registrosConError(archivo));
+    }
+
+    @Test
+    void losUsuariosImportadosSePublicanEnElAutocompletadoLaReplicaYElBus() throws IOException {
+        BaseDeDatosSimulada importador = new BaseDeDatosSimulada(10);
+        importador.usuarios.put("existente@miapp.com", 1);
+        Path archivo = csv(fila("ana@miapp.com"), fila("existente@miapp.com"), fila("luis@miapp.com"));
+
+        importador.importar(archivo);
+
+        int ana = importador.usuarios.get("ana@miapp.com");
+        int luis = importador.usuarios.get("luis@miapp.com");
+        verify(busquedaUsuarios).indexar(ana, "Juan", "Pérez", "ana@miapp.com");
+        verify(busquedaUsuarios).indexar(luis, "Juan", "Pérez", "luis@miapp.com");
+        verify(replicaUsuarios).releer(List.of(ana, luis));
+        verify(busInvalidacion).publicar(List.of(ana, luis));
+    }
+
+    @Test
+    void alReanudarSeOmitenLosLotesConfirmadosTrasElPuntoDeControlSinDuplicarErrores() throws IOException {
+        BaseDeDatosSimulada importador = new BaseDeDatosSimulada(2);
+        Path archivo = csv(fila("r1@miapp.com"), fila("r2@miapp.com"), "Juan,Pérez,r3@miapp.com,claveSegura123,1990-13-01",
+                fila("r4@miapp.com"), fila("r5@miapp.com"), fila("r6@miapp.com"));
+        // Ejecución interrumpida: el lote 3-4 no llegó a confirmarse, pero el lote 5-6 sí
+        importador.usuarios.put("r1@miapp.com", 1);
+        importador.usuarios.put("r2@miapp.com", 2);
+        importador.usuarios.put("r5@miapp.com", 5);
+        importador.usuarios.put("r6@miapp.com", 6);
+        importador.lotes.add(new long[]{5, 6});
+        Files.writeString(directorio.resolve("usuarios.csv.checkpoint"), "2");
+        Files.write(directorio.resolve("usuarios.csv.errores.csv"), List.of("linea,registro,errores",
+                "2,1,\"anterior al punto de control\"", "4,3,\"lote no confirmado\"", "7,6,\"lote confirmado\""));
+
+        ResultadoImportacion resultado = importador.importar(archivo);
+
+        assertNull(resultado.getError());
+        assertEquals(4, resultado.getOmitidos());
+        assertEquals(1, resultado.getInsertados());
+        assertEquals(1, resultado.getRechazados());
+        assertEquals(6, resultado.getPuntoDeControl());
+        assertEquals(List.of(1L, 6L, 3L), registrosConError(archivo));
+        assertTrue(importador.lotes.isEmpty());
+    }
+
+    @Test
+    void laApiSoloAdmiteArchivosDelDirectorioDeImportacion() throws IOException {
+        BaseDeDatosSimulada importador = new BaseDeDatosSimulada(10);
+        Path externo = Files.writeString(fuera.resolve("externo.csv"), CABECERA);
+        Files.createSymbolicLink(directorio.resolve("enlace.csv"), externo);
+
+        assertEquals(directorio.resolve("lotes/usuarios.csv"), importador.resolver("lotes/../lotes/usuarios.csv"));
+        assertThrows(IllegalArgumentException.class, () -> importador.resolver("../externo.csv"));
+        assertThrows(IllegalArgumentException.class, () -> importador.resolver(externo.toString()));
+        assertThrows(IllegalArgumentException.class, () -> importador.resolver("enlace.csv"));
+    }
+
+    @Test
+    void noSeIniciaUnaImportacionMientrasOtraEstaEnCurso() throws Exception {
+        BaseDeDatosSimulada importador = new BaseDeDatosSimulada(10);
+        importador.consultaEnCurso = new CountDownLatch(1);
+        importador.continuar = new CountDownLatch(1);
+        Path archivo = csv(fila("ana@miapp.com"));
+
+        assertTrue(importador.iniciar(archivo));
+        assertTrue(importador.consultaEnCurso.await(5, TimeUnit.SECONDS));
+        assertFalse(importador.iniciar(archivo));
+        assertThrows(IllegalStateException.class, () -> importador.importar(archivo));
+        importador.continuar.countDown();
+
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (importador.estado().isEnCurso() && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, importador.estado().getInsertados());
+        assertNull(importador.importar(archivo).getError());
+        importador.detener();
+    }
+
+    private Path csv(String... filas) throws IOException {
+        List<String> lineas = new ArrayList<>();
+        lineas.add(CABECERA);
+        lineas.addAll(List.of(filas));
+        Path archivo = directorio.resolve("usuarios.csv");
+        Files.write(archivo, lineas, StandardCharsets.UTF_8);
+        return archivo;
+    }
+
+    private static String fila(String correo) {
+        return "Juan,Pérez," + correo + ",claveSegura123,1990-01-01";
+    }
+
+    private static List<Long> registrosConError(Path archivo) throws IOException {
+        List<String> lineas = Files.readAllLines(archivo.resolveSibling(archivo.getFileName() + ".errores.csv"));
+        return lineas.stream().skip(1).map(linea -> Long.parseLong(linea.split(",")[1])).toList();
+    }
+
+    /**
+     * Sustituye las consultas y el INSERT IGNORE por tablas en memoria. Con un solo trabajador
+     * los lotes se procesan en orden.
+     */
+    private final class BaseDeDatosSimulada extends ImportadorUsuarios {
+
+        private final Map<String, Integer> usuarios = new LinkedHashMap<>();
+        private final Set<String> archivados = new HashSet<>();
+        private final List<long[]> lotes = new ArrayList<>();
+        private String insertadoPorOtro;
+        private CountDownLatch consultaEnCurso;
+        private CountDownLatch continuar;
+
+        private BaseDeDatosSimulada(int tamanoLote) {
+            super(null, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                    Validation.buildDefaultValidatorFactory().getValidator(),
+                    busquedaUsuarios, replicaUsuarios, busInvalidacion, tamanoLote, 1, directorio.toString());
+        }
+
+        @Override
+        Set<String> correosExistentes(List<String> correos) {
+            if (consultaEnCurso != null) {
+                consultaEnCurso.countDown();
+                try {
+                    continuar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return consultar(correos);
+        }
+
+        private synchronized Set<String> consultar(List<String> correos) {
+            Set<String> existentes = correos.stream()
+                    .filter(correo -> usuarios.containsKey(correo) || archivados.contains(correo))
+                    .collect(Collectors.toSet());
+            if (insertadoPorOtro != null) {
+                usuarios.put(insertadoPorOtro, 1000);
+            }
+            return existentes;
+        }
+
+        @Override
+        synchronized int[] insertarFilas(List<RegisterRequest> filas) {
+            int[] afectadas = new int[filas.size()];
+            for (int i = 0; i < filas.size(); i++) {
+                afectadas[i] = usuarios.putIfAbsent(filas.get(i).getCorreo(), usuarios.size() + 100) == null ? 1 : 0;
+            }
+            return afectadas;
+        }
+
+        @Override
+        synchronized Map<String, Integer> idsPorCorreo(List<String> correos) {
+            return correos.stream().collect(Collectors.toMap(correo -> correo, usuarios::get));
+        }
+
+        @Override
+        synchronized void registrarLote(String archivo, long desde, long hasta) {
+            lotes.add(new long[]{desde, hasta});
+        }
+
+        @Override
+        synchronized List<long[]> lotesConfirmados(String archivo) {
+            return new ArrayList<>(lotes);
+        }
+
+        @Override
+        synchronized void olvidarLotes(String archivo) {
+            lotes.clear();
+        }
+    }
+}
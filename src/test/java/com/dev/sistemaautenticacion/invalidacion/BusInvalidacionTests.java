@@ -0,0 +1,194 @@
+package com.dev.sistemaautenticacion.invalidacion;
+
+import com.dev.sistemaautenticacion.cache.CredencialCache;
+import com.dev.sistemaautenticacion.cache.PerfilCache;
+import com.dev.sistemaautenticacion.dto.UserResponse;
+import com.dev.sistemaautenticacion.replica.ReplicaUsuarios;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BusInvalidacionTests {
+
+    private final List<CanalInvalidacion> canales = new ArrayList<>();
+
+    @AfterEach
+    void cerrarCanales() {
+        canales.forEach(CanalInvalidacion::close);
+    }
+
+    @Test
+    void otraInstanciaInvalidaLosUsuariosPublicados() {
+        Nodo a = nodo(new CanalInvalidacionLocal("invalidar"));
+        Nodo b = nodo(new CanalInvalidacionLocal("invalidar"));
+        b.perfiles.guardar(perfil(1), b.perfiles.generacion());
+        b.perfiles.guardar(perfil(2), b.perfiles.generacion());
+
+        a.bus.publicar(1);
+        a.bus.publicar(1);
+        a.bus.enviarPendientes();
+
+        assertNull(b.perfiles.obtener(1));
+        assertNotNull(b.perfiles.obtener(2));
+        assertEquals(1L, a.bus.estadisticas().get("mensajesEnviados"));
+        assertEquals(1L, b.bus.estadisticas().get("idsInvalidados"));
+        assertEquals(0L, b.bus.estadisticas().get("vaciadosCompletos"));
+    }
+
+    @Test
+    void agrupaLosIdsEnMensajesDelTamanoDeLote() {
+        Nodo a = nodo(new CanalInvalidacionLocal("lotes"));
+        Nodo b = nodo(new CanalInvalidacionLocal("lotes"));
+        for (int id = 1; id <= 10; id++) {
+            a.bus.publicar(id);
+        }
+
+        a.bus.enviarPendientes();
+
+        assertEquals(3L, a.bus.estadisticas().get("mensajesEnviados"));
+        assertEquals(10L, b.bus.estadisticas().get("idsInvalidados"));
+        assertEquals(0L, b.bus.estadisticas().get("vaciadosCompletos"));
+    }
+
+    @Test
+    void unMensajePerdidoVaciaLasCaches() {
+        CanalConPerdidas conPerdidas = new CanalConPerdidas(new CanalInvalidacionLocal("perdidas"));
+        Nodo a = nodo(conPerdidas);
+        Nodo b = nodo(new CanalInvalidacionLocal("perdidas"));
+        b.perfiles.guardar(perfil(7), b.perfiles.generacion());
+
+        conPerdidas.perderSiguiente = true;
+        a.bus.publicar(1);
+        a.bus.enviarPendientes();
+        assertNotNull(b.perfiles.obtener(7));
+
+        a.bus.publicar(2);
+        a.bus.enviarPendientes();
+
+        assertNull(b.perfiles.obtener(7));
+        assertEquals(1L, b.bus.estadisticas().get("vaciadosCompletos"));
+    }
+
+    @Test
+    void elLatidoDetectaLaPerdidaDelUltimoMensaje() {
+        CanalConPerdidas conPerdidas = new CanalConPerdidas(new CanalInvalidacionLocal("latido"));
+        Nodo a = nodo(conPerdidas, 0);
+        Nodo b = nodo(new CanalInvalidacionLocal("latido"));
+
+        a.bus.publicar(1);
+        a.bus.enviarPendientes();
+        b.perfiles.guardar(perfil(7), b.perfiles.generacion());
+        conPerdidas.perderSiguiente = true;
+        a.bus.publicar(2);
+        a.bus.enviarPendientes();
+        a.bus.enviarPendientes(); // sin pendientes: latido con la última secuencia
+
+        assertNull(b.perfiles.obtener(7));
+        assertEquals(1L, b.bus.estadisticas().get("vaciadosCompletos"));
+    }
+
+    @Test
+    void otraInstanciaRevocaLasSesionesPublicadas() {
+        Nodo a = nodo(new CanalInvalidacionLocal("revocar"));
+        Nodo b = nodo(new CanalInvalidacionLocal("revocar"));
+        List<Integer> revocados = new ArrayList<>();
+        b.bus.alRevocar(revocados::add);
+        b.perfiles.guardar(perfil(3), b.perfiles.generacion());
+
+        a.bus.publicarRevocacion(1);
+        a.bus.publicarRevocacion(2);
+        a.bus.publicar(3);
+        a.bus.enviarPendientes();
+
+        assertEquals(List.of(1, 2), revocados);
+        assertNull(b.perfiles.obtener(3));
+        assertEquals(2L, a.bus.estadisticas().get("revocacionesEnviadas"));
+        assertEquals(2L, b.bus.estadisticas().get("revocacionesRecibidas"));
+        assertEquals(0L, b.bus.estadisticas().get("vaciadosCompletos"));
+    }
+
+    @Test
+    void unaRevocacionTrasUnMensajePerdidoSeAplica() {
+        CanalConPerdidas conPerdidas = new CanalConPerdidas(new CanalInvalidacionLocal("revocar-perdidas"));
+        Nodo a = nodo(conPerdidas);
+        Nodo b = nodo(new CanalInvalidacionLocal("revocar-perdidas"));
+        List<Integer> revocados = new ArrayList<>();
+        b.bus.alRevocar(revocados::add);
+
+        conPerdidas.perderSiguiente = true;
+        a.bus.publicar(1);
+        a.bus.enviarPendientes();
+        a.bus.publicarRevocacion(2);
+        a.bus.enviarPendientes();
+
+        assertEquals(List.of(2), revocados);
+        assertEquals(1L, b.bus.estadisticas().get("vaciadosCompletos"));
+    }
+
+    private Nodo nodo(CanalInvalidacion canal) {
+        return nodo(canal, 60_000);
+    }
+
+    private Nodo nodo(CanalInvalidacion canal, long latidoMs) {
+        canales.add(canal);
+        PerfilCache perfiles = new PerfilCache(100);
+        ReplicaUsuarios replica = new ReplicaUsuarios(null, false, 60, 1000);
+        BusInvalidacion bus = new BusInvalidacion(canal, new CredencialCache(100), perfiles, replica, 100, latidoMs, 4, 0);
+        canal.escuchar(bus::recibir);
+        return new Nodo(bus, perfiles);
+    }
+
+    private static UserResponse perfil(int id) {
+        UserResponse perfil = new UserResponse();
+        perfil.setId(id);
+        perfil.setNombre("Nombre" + id);
+        return perfil;
+    }
+
+    private static final class Nodo {
+
+        private final BusInvalidacion bus;
+        private final PerfilCache perfiles;
+
+        private Nodo(BusInvalidacion bus, PerfilCache perfiles) {
+            this.bus = bus;
+            this.perfiles = perfiles;
+        }
+    }
+
+    private static final class CanalConPerdidas implements CanalInvalidacion {
+
+        private final CanalInvalidacion canal;
+        private boolean perderSiguiente;
+
+        private CanalConPerdidas(CanalInvalidacion canal) {
+            this.canal = canal;
+        }
+
+        @Override
+        public void enviar(byte[] mensaje) {
+            if (perderSiguiente) {
+                perderSiguiente = false;
+                return;
+            }
+            canal.enviar(mensaje);
+        }
+
+        @Override
+        public void escuchar(Consumer<byte[]> receptor) {
+            canal.escuchar(receptor);
+        }
+
+        @Override
+        public void close() {
+            canal.close();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.dev.sistemaautenticacion.invalidacion;
+
+import com.dev.sistemaautenticacion.cache.CredencialCache;
+import com.dev.sistemaautenticacion.cache.PerfilCache;
+import com.dev.sistemaautenticacion.replica.ReplicaUsuarios;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CanalInvalidacionUdpTests {
+
+    private static final byte[] CLAVE = "clave-compartida".getBytes(StandardCharsets.UTF_8);
+
+    private final List<CanalInvalidacion> canales = new ArrayList<>();
+    private final BlockingQueue<byte[]> recibidos = new LinkedBlockingQueue<>();
+
+    @AfterEach
+    void cerrarCanales() {
+        canales.forEach(CanalInvalidacion::close);
+    }
+
+    @Test
+    void entregaLosMensajesFirmadosDeUnPar() throws Exception {
+        InetSocketAddress a = direccionLibre();
+        InetSocketAddress b = direccionLibre();
+        CanalInvalidacionUdp emisor = canal(a, b, CLAVE);
+        canal(b, a, CLAVE).escuchar(recibidos::add);
+
+        emisor.enviar(new byte[]{1, 2, 3});
+
+        assertArrayEquals(new byte[]{1, 2, 3}, recibidos.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void descartaLosDatagramasConOtraClaveOSinFirma() throws Exception {
+        InetSocketAddress a = direccionLibre();
+        InetSocketAddress b = direccionLibre();
+        CanalInvalidacionUdp conOtraClave = canal(a, b, "otra-clave".getBytes(StandardCharsets.UTF_8));
+        CanalInvalidacionUdp receptor = canal(b, a, CLAVE);
+        receptor.escuchar(recibidos::add);
+
+        conOtraClave.enviar(new byte[]{9});
+        conOtraClave.close();
+        try (DatagramChannel sinFirma = DatagramChannel.open().bind(a)) {
+            sinFirma.send(ByteBuffer.wrap(new byte[40]), b);
+        }
+        CanalInvalidacionUdp legitimo = canal(a, b, CLAVE);
+        legitimo.enviar(new byte[]{1});
+
+        assertArrayEquals(new byte[]{1}, recibidos.poll(5, TimeUnit.SECONDS));
+        assertEquals(2, receptor.descartados());
+    }
+
+    @Test
+    void descartaLosDatagramasDeDireccionesQueNoSonPares() throws Exception {
+        InetSocketAddress a = direccionLibre();
+        InetSocketAddress b = direccionLibre();
+        InetSocketAddress intruso = direccionLibre();
+        CanalInvalidacionUdp receptor = canal(b, a, CLAVE);
+        receptor.escuchar(recibidos::add);
+
+        canal(intruso, b, CLAVE).enviar(new byte[]{9}); // firma válida, pero no es un par de b
+        canal(a, b, CLAVE).enviar(new byte[]{1});
+
+        assertArrayEquals(new byte[]{1}, recibidos.poll(5, TimeUnit.SECONDS));
+        assertEquals(1, receptor.descartados());
+    }
+
+    @Test
+    void exigeUnaClaveYUnTamanoDeLoteQueQuepaEnUnDatagrama() throws Exception {
+        InetSocketAddress a = direccionLibre();
+        InetSocketAddress b = direccionLibre();
+        assertThrows(IllegalArgumentException.class, () -> new CanalInvalidacionUdp(a, List.of(b), new byte[0]));
+
+        CanalInvalidacionUdp canal = canal(a, b, CLAVE);
+        ReplicaUsuarios replica = new ReplicaUsuarios(null, false, 60, 1000);
+        assertThrows(IllegalArgumentException.class, () -> new BusInvalidacion(canal, new CredencialCache(100),
+                new PerfilCache(100), replica, 100, 1000, 20_000, 0));
+        new BusInvalidacion(canal, new CredencialCache(100), new PerfilCache(100), replica, 100, 1000, 16_000, 0);
+    }
+
+    private CanalInvalidacionUdp canal(InetSocketAddress local, InetSocketAddress par, byte[] clave) {
+        CanalInvalidacionUdp canal = new CanalInvalidacionUdp(local, List.of(par), clave);
+        canales.add(canal);
+        return canal;
+    }
+
+    private static InetSocketAddress direccionLibre() throws IOException {
+        try (DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            return new InetSocketAddress(socket.getLocalAddress(), socket.getLocalPort());
+        }
+    }
+}
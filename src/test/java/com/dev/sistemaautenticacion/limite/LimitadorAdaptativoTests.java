@@ -0,0 +1,102 @@
+package com.dev.sistemaautenticacion.limite;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas deterministas del límite: cada muestra libera una solicitud con una latencia fija
+ * mientras el resto de la capacidad permanece ocupada, como ocurre con el servicio saturado.
+ */
+class LimitadorAdaptativoTests {
+
+    private static final long RAPIDA = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long LENTA = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final LimitadorAdaptativo limitador = new LimitadorAdaptativo(50, 10, 200, 0.2);
+
+    @Test
+    void elLimiteCreceMientrasLaLatenciaSeMantieneEstable() {
+        muestras(RAPIDA, 20);
+
+        assertTrue(limite() > 50, "Límite: " + limite());
+    }
+
+    @Test
+    void elLimiteSeReduceCuandoLaLatenciaCreceYSeRecuperaCuandoBaja() {
+        muestras(RAPIDA, 20);
+        int antesDeLaSobrecarga = limite();
+
+        muestras(LENTA, 10);
+        int trasLasPrimerasMuestrasLentas = limite();
+        assertTrue(trasLasPrimerasMuestrasLentas < antesDeLaSobrecarga,
+                trasLasPrimerasMuestrasLentas + " >= " + antesDeLaSobrecarga);
+        muestras(LENTA, 100);
+        assertEquals(10, limite());
+
+        muestras(RAPIDA, 200);
+        assertTrue(limite() >= antesDeLaSobrecarga, "Límite: " + limite());
+    }
+
+    @Test
+    void elLimiteNoSuperaElMaximo() {
+        muestras(RAPIDA, 500);
+
+        assertEquals(200, limite());
+    }
+
+    @Test
+    void sinPresionDeConcurrenciaLaLatenciaNoCambiaElLimite() {
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limitador.intentarAdquirir(Prioridad.LOGIN));
+            limitador.liberar(i == 0 ? RAPIDA : LENTA);
+        }
+
+        assertEquals(50, limite());
+    }
+
+    @Test
+    void laAdministracionSeRechazaAntesQueElInicioDeSesion() {
+        LimitadorAdaptativo limitador = new LimitadorAdaptativo(10, 10, 10, 0.2);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limitador.intentarAdquirir(Prioridad.ADMINISTRACION));
+        }
+
+        assertFalse(limitador.intentarAdquirir(Prioridad.ADMINISTRACION));
+        assertTrue(limitador.intentarAdquirir(Prioridad.REGISTRO));
+        assertTrue(limitador.intentarAdquirir(Prioridad.REGISTRO));
+        assertTrue(limitador.intentarAdquirir(Prioridad.REGISTRO));
+        assertFalse(limitador.intentarAdquirir(Prioridad.REGISTRO));
+        assertTrue(limitador.intentarAdquirir(Prioridad.LOGIN));
+        assertTrue(limitador.intentarAdquirir(Prioridad.LOGIN));
+        assertFalse(limitador.intentarAdquirir(Prioridad.LOGIN));
+
+        Map<?, ?> rechazos = (Map<?, ?>) limitador.estado().get("rechazos");
+        assertEquals(1L, rechazos.get("ADMINISTRACION"));
+        assertEquals(1L, rechazos.get("REGISTRO"));
+        assertEquals(1L, rechazos.get("LOGIN"));
+        assertEquals(10, limitador.estado().get("enCurso"));
+    }
+
+    /**
+     * Ocupa toda la capacidad disponible y completa {@code cantidad} solicitudes con la latencia indicada,
+     * volviendo a ocupar la capacidad tras cada una.
+     */
+    private void muestras(long latenciaNanos, int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            while (limitador.intentarAdquirir(Prioridad.LOGIN)) {
+                // ocupa la capacidad del límite actual
+            }
+            limitador.liberar(latenciaNanos);
+        }
+    }
+
+    private int limite() {
+        return (int) limitador.estado().get("limite");
+    }
+}
@@ -0,0 +1,93 @@
+package com.dev.sistemaautenticacion.limite;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class LimiteConcurrenciaFilterTests {
+
+    private final AtomicLong reloj = new AtomicLong();
+
+    @Test
+    void rechazaConRetryAfterCuandoSeSuperaElLimite() throws Exception {
+        LimitadorAdaptativo limitador = new LimitadorAdaptativo(10, 10, 10, 0.2);
+        for (int i = 0; i < 5; i++) {
+            limitador.intentarAdquirir(Prioridad.ADMINISTRACION);
+        }
+        LimiteConcurrenciaFilter filtro = new LimiteConcurrenciaFilter(limitador, 3, reloj::get);
+
+        MockHttpServletResponse listado = new MockHttpServletResponse();
+        MockFilterChain cadenaListado = new MockFilterChain();
+        filtro.doFilter(solicitud("GET", "/api/users"), listado, cadenaListado);
+        MockHttpServletResponse login = new MockHttpServletResponse();
+        MockFilterChain cadenaLogin = new MockFilterChain();
+        filtro.doFilter(solicitud("POST", "/api/auth/login"), login, cadenaLogin);
+
+        assertEquals(503, listado.getStatus());
+        assertEquals("3", listado.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(listado.getContentAsString().contains("saturado"));
+        assertNull(cadenaListado.getRequest());
+        assertEquals(200, login.getStatus());
+        assertNotNull(cadenaLogin.getRequest());
+    }
+
+    @Test
+    void liberaLaCapacidadConLaLatenciaMedidaPorElReloj() throws Exception {
+        LimitadorAdaptativo limitador = mock(LimitadorAdaptativo.class);
+        when(limitador.intentarAdquirir(Prioridad.REGISTRO)).thenReturn(true);
+        LimiteConcurrenciaFilter filtro = new LimiteConcurrenciaFilter(limitador, 1, reloj::get);
+        FilterChain cadena = (request, response) -> reloj.addAndGet(TimeUnit.MILLISECONDS.toNanos(80));
+
+        filtro.doFilter(solicitud("POST", "/api/auth/register"), new MockHttpServletResponse(), cadena);
+
+        verify(limitador).liberar(TimeUnit.MILLISECONDS.toNanos(80));
+    }
+
+    @Test
+    void liberaLaCapacidadAunqueLaSolicitudFalle() throws Exception {
+        LimitadorAdaptativo limitador = mock(LimitadorAdaptativo.class);
+        when(limitador.intentarAdquirir(Prioridad.LOGIN)).thenReturn(true);
+        LimiteConcurrenciaFilter filtro = new LimiteConcurrenciaFilter(limitador, 1, reloj::get);
+        FilterChain cadena = (request, response) -> {
+            reloj.addAndGet(TimeUnit.MILLISECONDS.toNanos(5));
+            throw new IllegalStateException("fallo");
+        };
+
+        assertThrows(IllegalStateException.class,
+                () -> filtro.doFilter(solicitud("POST", "/api/auth/refresh"), new MockHttpServletResponse(), cadena));
+
+        verify(limitador).liberar(TimeUnit.MILLISECONDS.toNanos(5));
+    }
+
+    @Test
+    void lasRutasNoLimitadasNoPasanPorElLimitador() throws Exception {
+        LimitadorAdaptativo limitador = mock(LimitadorAdaptativo.class);
+        LimiteConcurrenciaFilter filtro = new LimiteConcurrenciaFilter(limitador, 1, reloj::get);
+        MockFilterChain cadena = new MockFilterChain();
+
+        filtro.doFilter(solicitud("GET", "/api/users/5"), new MockHttpServletResponse(), cadena);
+
+        assertNotNull(cadena.getRequest());
+        verifyNoInteractions(limitador);
+    }
+
+    private static MockHttpServletRequest solicitud(String metodo, String ruta) {
+        return new MockHttpServletRequest(metodo, ruta);
+    }
+}
@@ -0,0 +1,53 @@
+package com.dev.sistemaautenticacion.monitoreo;
+
+import java.util.function.Supplier;
+
+/**
+ * Afirmaciones para pruebas sobre el número de sentencias SQL de una llamada.
+ * Si una llamada supera el máximo permitido, la prueba falla mostrando las sentencias ejecutadas,
+ * lo que permite detectar consultas N+1 o cargas adicionales introducidas por un cambio en los repositorios.
+ */
+public final class AfirmacionesDeSentencias {
+
+    private AfirmacionesDeSentencias() {
+    }
+
+    /**
+     * Ejecuta una acción y falla si emite más sentencias que las permitidas.
+     *
+     * @param maximo Número máximo de sentencias permitidas.
+     * @param accion La acción a medir.
+     * @param <T> Tipo del resultado de la acción.
+     * @return El resultado de la acción.
+     */
+    public static <T> T conMaximoDeSentencias(int maximo, Supplier<T> accion) {
+        ContadorSentencias.Medicion<T> medicion = ContadorSentencias.medir(accion);
+        if (medicion.getTotal() > maximo) {
+            throw new AssertionError(mensaje("como máximo " + maximo, medicion));
+        }
+        return medicion.getResultado();
+    }
+
+    /**
+     * Ejecuta una acción y falla si no emite exactamente el número de sentencias indicado.
+     *
+     * @param esperadas Número exacto de sentencias esperadas.
+     * @param accion La acción a medir.
+     * @param <T> Tipo del resultado de la acción.
+     * @return El resultado de la acción.
+     */
+    public static <T> T conSentencias(int esperadas, Supplier<T> accion) {
+        ContadorSentencias.Medicion<T> medicion = ContadorSentencias.medir(accion);
+        if (medicion.getTotal() != esperadas) {
+            throw new AssertionError(mensaje("exactamente " + esperadas, medicion));
+        }
+        return medicion.getResultado();
+    }
+
+    private static String mensaje(String esperado, ContadorSentencias.Medicion<?> medicion) {
+        StringBuilder mensaje = new StringBuilder("Se esperaban ").append(esperado)
+                .append(" sentencias y se ejecutaron ").append(medicion.getTotal()).append(':');
+        medicion.getSentencias().forEach(sql -> mensaje.append(System.lineSeparator()).append("  ").append(sql));
+        return mensaje.toString();
+    }
+}
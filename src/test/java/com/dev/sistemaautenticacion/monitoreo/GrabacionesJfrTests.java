@@ -0,0 +1,55 @@
+package com.dev.sistemaautenticacion.monitoreo;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GrabacionesJfrTests {
+
+    private final GrabacionesJfr grabaciones = new GrabacionesJfr(60, 1);
+
+    @Test
+    void grabaLosEventosDeLaAplicacionYDevuelveElArchivo() throws Exception {
+        EventoAutenticacion fueraDeGrabacion = new EventoAutenticacion();
+        assertFalse(fueraDeGrabacion.isEnabled());
+
+        long id = (Long) grabaciones.iniciar("default", Duration.ofSeconds(30)).get("id");
+        EventoAutenticacion evento = new EventoAutenticacion();
+        evento.begin();
+        evento.setResultado("CREDENCIALES_INVALIDAS");
+        evento.commit();
+
+        Path archivo = grabaciones.detener(id).orElseThrow();
+        try {
+            List<RecordedEvent> eventos = RecordingFile.readAllEvents(archivo).stream()
+                    .filter(registrado -> registrado.getEventType().getName().equals("com.dev.sistemaautenticacion.Autenticacion"))
+                    .toList();
+            assertEquals(1, eventos.size());
+            assertEquals("CREDENCIALES_INVALIDAS", eventos.get(0).getString("resultado"));
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+        assertTrue(grabaciones.detener(id).isEmpty());
+    }
+
+    @Test
+    void rechazaConfiguracionesDesconocidasYGrabacionesDeMas() {
+        assertThrows(IllegalArgumentException.class, () -> grabaciones.iniciar("inexistente", null));
+        long id = (Long) grabaciones.iniciar("default", null).get("id");
+        try {
+            assertThrows(IllegalStateException.class, () -> grabaciones.iniciar("default", null));
+        } finally {
+            grabaciones.detener(id).ifPresent(archivo -> archivo.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.dev.sistemaautenticacion.monitoreo;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MonitorSentenciasTests {
+
+    private final MonitorSentencias monitor = new MonitorSentencias(true, 20, 10);
+    private final DataSource dataSource = monitor.envolver(dataSourceSimulado());
+
+    @Test
+    void cuentaLasSentenciasDelHiloActual() {
+        ContadorSentencias.Medicion<Void> medicion = ContadorSentencias.medir(() -> {
+            consultar("SELECT 1", 0);
+            consultar("SELECT 2", 0);
+            return null;
+        });
+        assertEquals(List.of("SELECT 1", "SELECT 2"), medicion.getSentencias());
+        assertEquals(0, ContadorSentencias.medir(() -> null).getTotal());
+    }
+
+    @Test
+    void registraLasConsultasLentasConLaFormaDeSusParametros() {
+        consultar("SELECT rapida", 0);
+        consultar("SELECT lenta WHERE correo = ? AND id = ?", 30);
+
+        Map<String, Object> estado = monitor.estado();
+        assertEquals(2L, estado.get("sentencias"));
+        assertEquals(1L, estado.get("lentas"));
+        @SuppressWarnings("unchecked")
+        List<MonitorSentencias.ConsultaLenta> ultimasLentas = (List<MonitorSentencias.ConsultaLenta>) estado.get("ultimasLentas");
+        MonitorSentencias.ConsultaLenta lenta = ultimasLentas.get(0);
+        assertEquals("SELECT lenta WHERE correo = ? AND id = ?", lenta.getSql());
+        assertEquals("{1=String, 2=Integer}", lenta.getParametros());
+        assertTrue(lenta.getDuracionMs() >= 20);
+    }
+
+    @Test
+    void fallaCuandoSeSuperaElMaximoDeSentencias() {
+        AssertionError error = assertThrows(AssertionError.class, () ->
+                AfirmacionesDeSentencias.conMaximoDeSentencias(1, () -> {
+                    consultar("SELECT * FROM usuario WHERE id = ?", 0);
+                    consultar("SELECT * FROM usuario WHERE id = ?", 0);
+                    return null;
+                }));
+        assertTrue(error.getMessage().contains("se ejecutaron 2"));
+    }
+
+    private void consultar(String sql, long demoraMs) {
+        try (Connection conexion = dataSource.getConnection();
+             PreparedStatement sentencia = conexion.prepareStatement(sql)) {
+            sentencia.setString(1, "juan@miapp.com");
+            sentencia.setInt(2, 1);
+            sentencia.setQueryTimeout((int) demoraMs);
+            sentencia.execute();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * DataSource cuyas sentencias tardan tantos milisegundos como indique su query timeout.
+     */
+    private static DataSource dataSourceSimulado() {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (ds, metodoDs, argsDs) -> Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                        (conexion, metodoConexion, argsConexion) -> {
+                            if (!metodoConexion.getName().equals("prepareStatement")) {
+                                return null;
+                            }
+                            long[] demora = new long[1];
+                            return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                                    new Class<?>[]{PreparedStatement.class}, (sentencia, metodo, args) -> {
+                                        if (metodo.getName().equals("setQueryTimeout")) {
+                                            demora[0] = (Integer) args[0];
+                                        } else if (metodo.getName().equals("execute")) {
+                                            Thread.sleep(demora[0]);
+                                            return true;
+                                        }
+                                        return null;
+                                    });
+                        }));
+    }
+}
@@ -0,0 +1,109 @@
+package com.dev.sistemaautenticacion.replica;
+
+import com.dev.sistemaautenticacion.dto.FiltroUsuarios;
+import com.dev.sistemaautenticacion.dto.UserResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mide la memoria y el rendimiento de los recorridos de la réplica con un millón de usuarios sintéticos.
+ * Ejecutar con: mvn test -Dtest=ReplicaColumnarRendimientoTests -Dpruebas.rendimiento=true
+ */
+@EnabledIfSystemProperty(named = "pruebas.rendimiento", matches = "true")
+class ReplicaColumnarRendimientoTests {
+
+    private static final int USUARIOS = 1_000_000;
+    private static final int REPETICIONES = 50;
+    private static final String[] CIUDADES = {"Bogotá", "Medellín", "Cali", "Lima", "Quito", "Santiago",
+            "Buenos Aires", "Montevideo", "Caracas", "La Paz", "Asunción", "Ciudad de México"};
+    private static final String[] PAISES = {"Colombia", "Perú", "Ecuador", "Chile", "Argentina", "Uruguay"};
+
+    @Test
+    void midePorMillonDeUsuarios() {
+        long heapAntes = heapUsado();
+        long directaAntes = memoriaDirecta();
+        ReplicaColumnar replica = new ReplicaColumnar();
+        long inicioCarga = System.nanoTime();
+        for (int id = 1; id <= USUARIOS; id++) {
+            replica.guardar(usuario(id));
+        }
+        long cargaMs = (System.nanoTime() - inicioCarga) / 1_000_000;
+        long heap = heapUsado() - heapAntes;
+        long directa = memoriaDirecta() - directaAntes;
+
+        LocalDate hoy = LocalDate.of(2026, 6, 15);
+        FiltroUsuarios porCiudad = new FiltroUsuarios();
+        porCiudad.setCiudad("Lima");
+        FiltroUsuarios compuesto = new FiltroUsuarios();
+        compuesto.setEstado("activo");
+        compuesto.setPais("Colombia");
+        compuesto.setEdadMinima(25);
+        compuesto.setEdadMaxima(40);
+
+        assertEquals(USUARIOS / CIUDADES.length, replica.contar(porCiudad, hoy), USUARIOS / CIUDADES.length / 100.0);
+        double porCiudadPorSegundo = recorridosPorSegundo(replica, porCiudad, hoy);
+        double compuestoPorSegundo = recorridosPorSegundo(replica, compuesto, hoy);
+
+        Map<String, Object> estadisticas = replica.estadisticas();
+        System.out.printf("Réplica columnar con %,d usuarios: carga %d ms, heap %,d bytes, memoria directa %,d bytes "
+                        + "(estimada %,d), filtro por ciudad %.0f recorridos/s (%.0f M filas/s), "
+                        + "filtro compuesto %.0f recorridos/s (%.0f M filas/s)%n",
+                USUARIOS, cargaMs, heap, directa, (long) estadisticas.get("bytesFueraDelHeap"),
+                porCiudadPorSegundo, porCiudadPorSegundo * USUARIOS / 1e6,
+                compuestoPorSegundo, compuestoPorSegundo * USUARIOS / 1e6);
+    }
+
+    private static double recorridosPorSegundo(ReplicaColumnar replica, FiltroUsuarios filtro, LocalDate hoy) {
+        long total = 0;
+        for (int i = 0; i < REPETICIONES; i++) {
+            total += replica.contar(filtro, hoy); // calentamiento del JIT
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < REPETICIONES; i++) {
+            total += replica.contar(filtro, hoy);
+        }
+        long nanos = System.nanoTime() - inicio;
+        if (total < 0) {
+            throw new AssertionError();
+        }
+        return REPETICIONES * 1e9 / nanos;
+    }
+
+    private static UserResponse usuario(int id) {
+        UserResponse usuario = new UserResponse();
+        usuario.setId(id);
+        usuario.setNombre("Nombre" + id);
+        usuario.setApellido("Apellido" + id);
+        usuario.setCorreo("usuario" + id + "@miapp.com");
+        usuario.setFechaNacimiento(LocalDate.of(1950 + id % 55, 1 + id % 12, 1 + id % 28));
+        usuario.setTelefono("+57 300 " + id);
+        usuario.setDireccion("Calle " + id % 200 + " # " + id % 97);
+        usuario.setCiudad(CIUDADES[id % CIUDADES.length]);
+        usuario.setPais(PAISES[id % PAISES.length]);
+        usuario.setRol(id % 100 == 0 ? "administrador" : "usuario");
+        usuario.setEstado(id % 7 == 0 ? "inactivo" : "activo");
+        usuario.setFechaCreacion(Instant.ofEpochSecond(1_600_000_000L + id));
+        return usuario;
+    }
+
+    private static long heapUsado() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long memoriaDirecta() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
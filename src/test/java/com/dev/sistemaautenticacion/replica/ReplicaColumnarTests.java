@@ -0,0 +1,117 @@
+package com.dev.sistemaautenticacion.replica;
+
+import com.dev.sistemaautenticacion.dto.FiltroUsuarios;
+import com.dev.sistemaautenticacion.dto.UserResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicaColumnarTests {
+
+    private static final LocalDate HOY = LocalDate.of(2026, 6, 15);
+
+    @Test
+    void conservaTodosLosCamposDelUsuario() {
+        ReplicaColumnar replica = new ReplicaColumnar();
+        UserResponse original = usuario(7, "usuario", "activo", "Bogotá", "Colombia", LocalDate.of(1990, 5, 1));
+        original.setTelefono(null);
+        original.setFechaModificacion(Instant.parse("2025-12-01T08:30:00.123456Z"));
+        replica.guardar(original);
+
+        UserResponse copia = replica.obtener(7);
+
+        assertEquals("Nombre7", copia.getNombre());
+        assertEquals("usuario7@miapp.com", copia.getCorreo());
+        assertEquals("Bogotá", copia.getCiudad());
+        assertEquals(LocalDate.of(1990, 5, 1), copia.getFechaNacimiento());
+        assertEquals(Instant.parse("2025-12-01T08:30:00.123456Z"), copia.getFechaModificacion());
+        assertNull(copia.getTelefono());
+        assertNull(replica.obtener(8));
+    }
+
+    @Test
+    void filtraPorCodigosSinDistinguirMayusculas() {
+        ReplicaColumnar replica = new ReplicaColumnar();
+        for (int id = 1; id <= 300; id++) {
+            replica.guardar(usuario(id, id % 10 == 0 ? "administrador" : "usuario", id % 3 == 0 ? "inactivo" : "activo",
+                    id % 2 == 0 ? "Bogotá" : "Lima", id % 2 == 0 ? "Colombia" : "Perú", LocalDate.of(1990, 1, 1)));
+        }
+
+        FiltroUsuarios filtro = new FiltroUsuarios();
+        filtro.setRol("ADMINISTRADOR");
+        filtro.setCiudad("bogotá");
+        assertEquals(30, replica.contar(filtro, HOY));
+
+        filtro.setEstado("inactivo");
+        List<UserResponse> usuarios = replica.filtrar(filtro, HOY, 100);
+        assertEquals(10, usuarios.size());
+        assertTrue(usuarios.stream().allMatch(u -> u.getId() % 30 == 0));
+
+        filtro.setPais("Chile");
+        assertEquals(0, replica.contar(filtro, HOY));
+    }
+
+    @Test
+    void filtraPorRangoDeEdadEnAnosCumplidos() {
+        ReplicaColumnar replica = new ReplicaColumnar();
+        replica.guardar(usuario(1, "usuario", "activo", null, null, LocalDate.of(2008, 6, 15))); // 18 hoy
+        replica.guardar(usuario(2, "usuario", "activo", null, null, LocalDate.of(2008, 6, 16))); // 17
+        replica.guardar(usuario(3, "usuario", "activo", null, null, LocalDate.of(1996, 6, 16))); // 29
+        replica.guardar(usuario(4, "usuario", "activo", null, null, LocalDate.of(1996, 6, 15))); // 30
+        replica.guardar(usuario(5, "usuario", "activo", null, null, null));
+
+        FiltroUsuarios filtro = new FiltroUsuarios();
+        filtro.setEdadMinima(18);
+        filtro.setEdadMaxima(29);
+
+        List<UserResponse> usuarios = replica.filtrar(filtro, HOY, 10);
+
+        assertEquals(List.of(1, 3), usuarios.stream().map(UserResponse::getId).toList());
+    }
+
+    @Test
+    void lasActualizacionesYEliminacionesSeReflejanEnLosFiltros() {
+        ReplicaColumnar replica = new ReplicaColumnar();
+        for (int id = 1; id <= 2000; id++) {
+            replica.guardar(usuario(id, "usuario", "activo", "Quito", "Ecuador", LocalDate.of(1985, 3, 3)));
+        }
+        UserResponse cambiado = usuario(1500, "usuario", "inactivo", "Quito", "Ecuador", LocalDate.of(1985, 3, 3));
+        cambiado.setNombre("Otro nombre");
+        replica.guardar(cambiado);
+        assertTrue(replica.eliminar(42));
+        assertFalse(replica.eliminar(42));
+
+        FiltroUsuarios activos = new FiltroUsuarios();
+        activos.setEstado("activo");
+
+        assertEquals(1998, replica.contar(activos, HOY));
+        assertEquals(1999, replica.tamano());
+        assertEquals("Otro nombre", replica.obtener(1500).getNombre());
+        assertNull(replica.obtener(42));
+    }
+
+    private static UserResponse usuario(int id, String rol, String estado, String ciudad, String pais,
+                                        LocalDate nacimiento) {
+        UserResponse usuario = new UserResponse();
+        usuario.setId(id);
+        usuario.setNombre("Nombre" + id);
+        usuario.setApellido("Apellido" + id);
+        usuario.setCorreo("usuario" + id + "@miapp.com");
+        usuario.setFechaNacimiento(nacimiento);
+        usuario.setTelefono("+57 300 000 " + id);
+        usuario.setDireccion("Calle " + id);
+        usuario.setCiudad(ciudad);
+        usuario.setPais(pais);
+        usuario.setRol(rol);
+        usuario.setEstado(estado);
+        usuario.setFechaCreacion(Instant.parse("2025-01-01T00:00:00Z"));
+        return usuario;
+    }
+}
@@ -0,0 +1,119 @@
+package com.dev.sistemaautenticacion.service;
+
+import com.dev.sistemaautenticacion.busqueda.BusquedaUsuarios;
+import com.dev.sistemaautenticacion.entity.UsuarioArchivado;
+import com.dev.sistemaautenticacion.exception.CorreoYaRegistradoException;
+import com.dev.sistemaautenticacion.invalidacion.BusInvalidacion;
+import com.dev.sistemaautenticacion.replica.ReplicaUsuarios;
+import com.dev.sistemaautenticacion.repository.UsuarioArchivadoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas del archivo de usuarios con el repositorio y el gestor de transacciones simulados.
+ */
+class ArchivoUsuariosTests {
+
+    private final UsuarioArchivadoRepository archivadoRepository = mock(UsuarioArchivadoRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ReplicaUsuarios replicaUsuarios = mock(ReplicaUsuarios.class);
+    private final BusInvalidacion busInvalidacion = mock(BusInvalidacion.class);
+    private final BusquedaUsuarios busquedaUsuarios = mock(BusquedaUsuarios.class);
+
+    private final ArchivoUsuarios archivoUsuarios = new ArchivoUsuarios(archivadoRepository,
+            new TransactionTemplate(transactionManager), replicaUsuarios, busInvalidacion, busquedaUsuarios,
+            true, 365, 2, 5, 0);
+
+    @Test
+    void losUsuariosArchivadosSalenDelIndiceDeAutocompletado() {
+        when(archivadoRepository.buscarCandidatosAArchivar(any(), anyInt())).thenReturn(List.of(3, 4)).thenReturn(List.of());
+        when(archivadoRepository.eliminarArchivadosDeLaTablaPrincipal(List.of(3, 4))).thenReturn(2);
+
+        archivoUsuarios.archivarUsuariosInactivos();
+
+        verify(busquedaUsuarios).eliminar(3);
+        verify(busquedaUsuarios).eliminar(4);
+        verify(replicaUsuarios).releer(List.of(3, 4));
+        verify(busInvalidacion).publicar(List.of(3, 4));
+    }
+
+    @Test
+    void laReactivacionRestauraAlUsuarioYLoVuelveAIndexar() {
+        when(archivadoRepository.findById(3)).thenReturn(Optional.of(archivado()));
+
+        assertTrue(archivoUsuarios.cambiarEstado(3, "activo"));
+
+        verify(archivadoRepository).restaurar(3, "activo");
+        verify(archivadoRepository).deleteById(3);
+        verify(busquedaUsuarios).indexar(3, "Ana", "García", "ana@miapp.com");
+    }
+
+    @Test
+    void restaurarAntesDeUnaEscrituraConservaElEstadoDelUsuario() {
+        UsuarioArchivado archivado = archivado();
+        archivado.setEstado("inactivo");
+        when(archivadoRepository.findById(3)).thenReturn(Optional.of(archivado));
+
+        assertTrue(archivoUsuarios.restaurar(3));
+
+        verify(archivadoRepository).restaurar(3, "inactivo");
+        verify(archivadoRepository).deleteById(3);
+        verify(busquedaUsuarios).indexar(3, "Ana", "García", "ana@miapp.com");
+    }
+
+    @Test
+    void unCambioDeEstadoSinReactivarMantieneAlUsuarioFueraDelIndice() {
+        when(archivadoRepository.findById(3)).thenReturn(Optional.of(archivado()));
+
+        assertTrue(archivoUsuarios.cambiarEstado(3, "bloqueado"));
+
+        verify(archivadoRepository).actualizarEstado(3, "bloqueado");
+        verify(archivadoRepository, never()).restaurar(any(), any());
+        verify(busquedaUsuarios, never()).indexar(any(), any(), any(), any());
+    }
+
+    @Test
+    void siElCorreoYaPerteneceAOtroUsuarioLaReactivacionDevuelveUnConflicto() {
+        when(archivadoRepository.findById(3)).thenReturn(Optional.of(archivado()));
+        when(archivadoRepository.restaurar(3, "activo"))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry 'ana@miapp.com' for key 'correo'"));
+
+        assertThrows(CorreoYaRegistradoException.class, () -> archivoUsuarios.cambiarEstado(3, "activo"));
+
+        verify(archivadoRepository, never()).deleteById(any());
+        verify(busquedaUsuarios, never()).indexar(any(), any(), any(), any());
+    }
+
+    @Test
+    void unUsuarioQueNoEstaArchivadoNoSeModifica() {
+        when(archivadoRepository.findById(3)).thenReturn(Optional.empty());
+
+        assertFalse(archivoUsuarios.cambiarEstado(3, "activo"));
+
+        verify(archivadoRepository, never()).restaurar(any(), any());
+    }
+
+    private static UsuarioArchivado archivado() {
+        UsuarioArchivado usuario = new UsuarioArchivado();
+        usuario.setId(3);
+        usuario.setNombre("Ana");
+        usuario.setApellido("García");
+        usuario.setCorreo("ana@miapp.com");
+        return usuario;
+    }
+}
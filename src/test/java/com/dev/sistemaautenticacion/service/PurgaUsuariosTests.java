@@ -0,0 +1,104 @@
+package com.dev.sistemaautenticacion.service;
+
+import com.dev.sistemaautenticacion.config.ArranqueConfig;
+import com.dev.sistemaautenticacion.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.LazyInitializationBeanFactoryPostProcessor;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas de la purga de usuarios eliminados con el repositorio y el registro de accesos simulados.
+ */
+class PurgaUsuariosTests {
+
+    private final UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+    private final RegistroDeAccesos registroDeAccesos = mock(RegistroDeAccesos.class);
+
+    @Test
+    void purgaPorLotesHastaEncontrarUnLoteIncompleto() {
+        when(usuarioRepository.buscarEliminadosAPurgar(any(), anyInt()))
+                .thenReturn(List.of(1, 2)).thenReturn(List.of(3));
+        when(usuarioRepository.purgar(any())).thenReturn(2).thenReturn(1);
+
+        purga(true, 3).purgarUsuariosEliminados();
+
+        verify(usuarioRepository).purgar(List.of(1, 2));
+        verify(usuarioRepository).purgar(List.of(3));
+        verify(registroDeAccesos).eliminar(List.of(1, 2));
+        verify(registroDeAccesos).eliminar(List.of(3));
+        verify(usuarioRepository, times(2)).buscarEliminadosAPurgar(any(), anyInt());
+    }
+
+    @Test
+    void noSuperaElNumeroMaximoDeLotesPorEjecucion() {
+        when(usuarioRepository.buscarEliminadosAPurgar(any(), anyInt())).thenReturn(List.of(1, 2));
+        when(usuarioRepository.purgar(any())).thenReturn(2);
+
+        purga(true, 3).purgarUsuariosEliminados();
+
+        verify(usuarioRepository, times(3)).purgar(List.of(1, 2));
+    }
+
+    @Test
+    void soloBuscaUsuariosEliminadosAntesDelTiempoDeRetencion() {
+        when(usuarioRepository.buscarEliminadosAPurgar(any(), anyInt())).thenReturn(List.of());
+        Instant antes = Instant.now();
+
+        purga(true, 3).purgarUsuariosEliminados();
+
+        ArgumentCaptor<Instant> fechaLimite = ArgumentCaptor.forClass(Instant.class);
+        verify(usuarioRepository).buscarEliminadosAPurgar(fechaLimite.capture(), anyInt());
+        Duration margen = Duration.between(fechaLimite.getValue(), antes);
+        assertTrue(margen.compareTo(Duration.ofMinutes(59)) > 0 && margen.compareTo(Duration.ofMinutes(61)) < 0,
+                "Fecha límite: " + fechaLimite.getValue());
+        verify(usuarioRepository, never()).purgar(any());
+    }
+
+    @Test
+    void desactivadaNoConsultaLaBaseDeDatos() {
+        purga(false, 3).purgarUsuariosEliminados();
+
+        verifyNoInteractions(usuarioRepository, registroDeAccesos);
+    }
+
+    @Test
+    void seProgramaAunqueLaInicializacionDiferidaEsteActiva() {
+        new ApplicationContextRunner()
+                .withInitializer(contexto -> contexto.addBeanFactoryPostProcessor(
+                        new LazyInitializationBeanFactoryPostProcessor()))
+                .withUserConfiguration(Programacion.class, ArranqueConfig.class)
+                .withBean(UsuarioRepository.class, () -> usuarioRepository)
+                .withBean(RegistroDeAccesos.class, () -> registroDeAccesos)
+                .withBean(PurgaUsuarios.class)
+                .run(contexto -> assertTrue(contexto.getBean(ScheduledTaskHolder.class).getScheduledTasks().stream()
+                        .anyMatch(tarea -> tarea.toString().endsWith("PurgaUsuarios.purgarUsuariosEliminados")),
+                        "La purga no se programó"));
+    }
+
+    private PurgaUsuarios purga(boolean habilitado, int lotesMaximos) {
+        return new PurgaUsuarios(usuarioRepository, registroDeAccesos, habilitado, 60, 2, lotesMaximos, 0);
+    }
+
+    @Configuration
+    @EnableScheduling
+    static class Programacion {
+    }
+}
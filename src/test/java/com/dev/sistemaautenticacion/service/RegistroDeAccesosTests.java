@@ -0,0 +1,125 @@
+package com.dev.sistemaautenticacion.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas del registro diferido de accesos con la plantilla JDBC simulada.
+ */
+class RegistroDeAccesosTests {
+
+    private final ExecutorService hilos = Executors.newCachedThreadPool();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void siElGuardadoFallaLosAccesosVuelvenAQuedarPendientesYSeSumanAlReintentar() {
+        RegistroDeAccesos registro = registro(100);
+        when(jdbcTemplate.update(startsWith("INSERT"), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("sin conexión"))
+                .thenReturn(1);
+        registro.registrar(7);
+        registro.registrar(7);
+
+        assertEquals(0, registro.vaciar());
+        registro.registrar(7);
+        assertEquals(1, registro.vaciar());
+
+        ArgumentCaptor<Object[]> parametros = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT"), parametros.capture());
+        Object[] reintento = parametros.getAllValues().get(1);
+        assertEquals(7, reintento[0]);
+        assertEquals(3L, reintento[2]);
+        assertEquals(0, registro.vaciar());
+    }
+
+    @Test
+    void alcanzadaLaCapacidadSeDescartanLosUsuariosNuevosPeroNoLosPendientes() {
+        RegistroDeAccesos registro = registro(2);
+        when(jdbcTemplate.update(startsWith("INSERT"), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("sin conexión"));
+        registro.registrar(1);
+        registro.registrar(2);
+        registro.vaciar(); // falla y los devuelve a pendientes
+
+        registro.registrar(3);
+        registro.registrar(1);
+
+        assertEquals(1, registro.descartados());
+        ArgumentCaptor<Object[]> parametros = ArgumentCaptor.forClass(Object[].class);
+        registro.vaciar();
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT"), parametros.capture());
+        Object[] guardados = parametros.getValue(); // (id, fecha, total) por usuario: el 3 no está
+        assertEquals(List.of(1, 2L, 2, 1L), List.of(guardados[0], guardados[2], guardados[3], guardados[5]));
+        assertEquals(6, guardados.length);
+    }
+
+    @Test
+    void alDetenerseGuardaLosAccesosPendientes() throws InterruptedException {
+        RegistroDeAccesos registro = registro(100);
+        registro.iniciar();
+        registro.registrar(7);
+        registro.registrar(8);
+
+        registro.detener();
+
+        ArgumentCaptor<Object[]> parametros = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(startsWith("INSERT"), parametros.capture());
+        assertEquals(6, parametros.getValue().length);
+        assertEquals(7, parametros.getValue()[0]);
+        assertEquals(8, parametros.getValue()[3]);
+    }
+
+    @Test
+    void eliminarEsperaAlLoteEnCursoParaQueNoVuelvaACrearLasFilas() throws Exception {
+        RegistroDeAccesos registro = registro(100);
+        CountDownLatch insertEnCurso = new CountDownLatch(1);
+        CountDownLatch continuar = new CountDownLatch(1);
+        when(jdbcTemplate.update(startsWith("INSERT"), any(Object[].class))).thenAnswer(invocacion -> {
+            insertEnCurso.countDown();
+            assertTrue(continuar.await(5, TimeUnit.SECONDS));
+            return 1;
+        });
+        registro.registrar(7);
+        CompletableFuture<Integer> guardado = CompletableFuture.supplyAsync(registro::vaciar, hilos);
+        assertTrue(insertEnCurso.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> eliminacion = CompletableFuture.runAsync(() -> registro.eliminar(List.of(7)), hilos);
+        Thread.sleep(200);
+        assertFalse(eliminacion.isDone());
+        verify(jdbcTemplate, never()).update(startsWith("DELETE"), any(Object[].class));
+        continuar.countDown();
+
+        assertEquals(1, guardado.get(5, TimeUnit.SECONDS));
+        eliminacion.get(5, TimeUnit.SECONDS);
+        InOrder orden = inOrder(jdbcTemplate);
+        orden.verify(jdbcTemplate).update(startsWith("INSERT"), any(Object[].class));
+        orden.verify(jdbcTemplate).update(eq("DELETE FROM acceso_usuario WHERE usuario_id IN (?)"), any(Object[].class));
+    }
+
+    private RegistroDeAccesos registro(int capacidadMaxima) {
+        return new RegistroDeAccesos(jdbcTemplate, 60_000, 1000, capacidadMaxima, 500, 5000);
+    }
+}
@@ -0,0 +1,195 @@
+package com.dev.sistemaautenticacion.service;
+
+import com.dev.sistemaautenticacion.entity.Usuario;
+import com.dev.sistemaautenticacion.exception.CorreoYaRegistradoException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegistroPorLotesTests {
+
+    private final ExecutorService hilos = Executors.newCachedThreadPool();
+    private BaseDeDatosSimulada registro;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        registro.continuar.countDown();
+        registro.detener();
+    }
+
+    @Test
+    void agrupaLosRegistrosConcurrentesEnUnSoloInsert() throws Exception {
+        registro = iniciar(50, 200, 5000);
+        List<CompletableFuture<Usuario>> resultados = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Usuario usuario = usuario("usuario" + i + "@miapp.com");
+            resultados.add(CompletableFuture.supplyAsync(() -> registro.registrar(usuario), hilos));
+        }
+
+        Set<Integer> ids = new HashSet<>();
+        for (CompletableFuture<Usuario> resultado : resultados) {
+            ids.add(resultado.get(5, TimeUnit.SECONDS).getId());
+        }
+        assertEquals(10, ids.size());
+        assertTrue(registro.lotes.size() < 10, "Lotes ejecutados: " + registro.lotes);
+        assertEquals(10, registro.lotes.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void notificaElCorreoDuplicadoSoloASuSolicitud() throws Exception {
+        registro = iniciar(50, 200, 5000);
+        registro.correos.add("existente@miapp.com");
+
+        CompletableFuture<Usuario> nuevo = CompletableFuture.supplyAsync(
+                () -> registro.registrar(usuario("nuevo@miapp.com")), hilos);
+        CompletableFuture<Usuario> duplicado = CompletableFuture.supplyAsync(
+                () -> registro.registrar(usuario("existente@miapp.com")), hilos);
+
+        assertTrue(nuevo.get(5, TimeUnit.SECONDS).getId() > 0);
+        ExecutionException error = assertThrows(ExecutionException.class, () -> duplicado.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(CorreoYaRegistradoException.class, error.getCause());
+    }
+
+    @Test
+    void rechazaElCorreoDeUnUsuarioArchivadoSinAfectarAlRestoDelLote() throws Exception {
+        registro = iniciar(50, 200, 5000);
+        registro.archivados.add("archivado@miapp.com");
+
+        CompletableFuture<Usuario> nuevo = CompletableFuture.supplyAsync(
+                () -> registro.registrar(usuario("nuevo@miapp.com")), hilos);
+        CompletableFuture<Usuario> archivado = CompletableFuture.supplyAsync(
+                () -> registro.registrar(usuario("archivado@miapp.com")), hilos);
+
+        assertTrue(nuevo.get(5, TimeUnit.SECONDS).getId() > 0);
+        ExecutionException error = assertThrows(ExecutionException.class, () -> archivado.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(CorreoYaRegistradoException.class, error.getCause());
+        assertFalse(registro.correos.contains("archivado@miapp.com"));
+    }
+
+    @Test
+    void unErrorDeLaBaseDeDatosSeNotificaATodoElLote() {
+        registro = iniciar(50, 0, 5000);
+        registro.fallo = new DataAccessResourceFailureException("sin conexión");
+
+        assertThrows(DataAccessResourceFailureException.class, () -> registro.registrar(usuario("a@miapp.com")));
+    }
+
+    @Test
+    void siLaEsperaSeAgotaEnLaColaLaSolicitudSeCancela() throws Exception {
+        registro = iniciar(1, 0, 200);
+        registro.bloquear = true;
+        CompletableFuture<Usuario> primero = CompletableFuture.supplyAsync(
+                () -> registro.registrar(usuario("a@miapp.com")), hilos);
+        assertTrue(registro.insertEnCurso.await(5, TimeUnit.SECONDS));
+
+        assertThrows(IllegalStateException.class, () -> registro.registrar(usuario("b@miapp.com")));
+        registro.continuar.countDown();
+
+        assertTrue(primero.get(5, TimeUnit.SECONDS).getId() > 0);
+        Thread.sleep(300);
+        assertFalse(registro.correos.contains("b@miapp.com"));
+    }
+
+    @Test
+    void siLaEsperaSeAgotaDuranteElInsertSeDevuelveElIdDefinitivo() throws Exception {
+        registro = iniciar(50, 0, 200);
+        registro.bloquear = true;
+        CompletableFuture<Usuario> resultado = CompletableFuture.supplyAsync(
+                () -> registro.registrar(usuario("a@miapp.com")), hilos);
+        assertTrue(registro.insertEnCurso.await(5, TimeUnit.SECONDS));
+
+        Thread.sleep(400); // más que la espera máxima
+        assertFalse(resultado.isDone());
+        registro.continuar.countDown();
+
+        assertTrue(resultado.get(5, TimeUnit.SECONDS).getId() > 0);
+    }
+
+    private static BaseDeDatosSimulada iniciar(int tamanoMaximoLote, long ventanaMs, long esperaMaximaMs) {
+        BaseDeDatosSimulada registro = new BaseDeDatosSimulada(tamanoMaximoLote, ventanaMs, esperaMaximaMs);
+        registro.iniciar();
+        return registro;
+    }
+
+    private static Usuario usuario(String correo) {
+        Usuario usuario = new Usuario();
+        usuario.setNombre("Juan");
+        usuario.setApellido("Pérez");
+        usuario.setCorreo(correo);
+        usuario.setClave("claveSegura123");
+        usuario.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+        usuario.setRol("usuario");
+        usuario.setEstado("activo");
+        return usuario;
+    }
+
+    /**
+     * Sustituye el INSERT por una tabla en memoria con la restricción única de correo,
+     * y la consulta del archivo por un conjunto de correos archivados.
+     */
+    private static final class BaseDeDatosSimulada extends RegistroPorLotes {
+
+        private final Set<String> correos = new HashSet<>();
+        private final Set<String> archivados = ConcurrentHashMap.newKeySet();
+        private final List<Integer> lotes = new ArrayList<>();
+        private final AtomicInteger siguienteId = new AtomicInteger();
+        private final CountDownLatch insertEnCurso = new CountDownLatch(1);
+        private final CountDownLatch continuar = new CountDownLatch(1);
+        private volatile boolean bloquear;
+        private volatile RuntimeException fallo;
+
+        private BaseDeDatosSimulada(int tamanoMaximoLote, long ventanaMs, long esperaMaximaMs) {
+            super(null, tamanoMaximoLote, ventanaMs, 1000, esperaMaximaMs);
+        }
+
+        @Override
+        Set<String> correosArchivados(List<String> correos) {
+            return correos.stream().filter(archivados::contains).collect(Collectors.toSet());
+        }
+
+        @Override
+        synchronized void insertarFilas(List<Usuario> usuarios) {
+            insertEnCurso.countDown();
+            if (bloquear) {
+                try {
+                    continuar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (fallo != null) {
+                throw fallo;
+            }
+            if (usuarios.stream().anyMatch(usuario -> correos.contains(usuario.getCorreo()))) {
+                throw new DuplicateKeyException("Duplicate entry for key 'correo'");
+            }
+            lotes.add(usuarios.size());
+            for (Usuario usuario : usuarios) {
+                correos.add(usuario.getCorreo());
+                usuario.setId(siguienteId.incrementAndGet());
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.dev.sistemaautenticacion.service;
+
+import com.dev.sistemaautenticacion.busqueda.BusquedaUsuarios;
+import com.dev.sistemaautenticacion.cache.CredencialCache;
+import com.dev.sistemaautenticacion.cache.InstantaneaCaches;
+import com.dev.sistemaautenticacion.cache.PerfilCache;
+import com.dev.sistemaautenticacion.dto.CredencialUsuario;
+import com.dev.sistemaautenticacion.dto.RegisterRequest;
+import com.dev.sistemaautenticacion.dto.UserResponse;
+import com.dev.sistemaautenticacion.entity.Usuario;
+import com.dev.sistemaautenticacion.exception.CorreoYaRegistradoException;
+import com.dev.sistemaautenticacion.exception.CredencialesInvalidasException;
+import com.dev.sistemaautenticacion.exception.UsuarioNoEncontradoException;
+import com.dev.sistemaautenticacion.invalidacion.BusInvalidacion;
+import com.dev.sistemaautenticacion.replica.ReplicaUsuarios;
+import com.dev.sistemaautenticacion.repository.UsuarioRepository;
+import com.dev.sistemaautenticacion.sesiones.SesionesRefresh;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas del servicio con los repositorios y los componentes de infraestructura simulados.
+ * Las cachés y la unificación de lecturas son las reales.
+ */
+class UsuarioServiceImplTests {
+
+    private static final String CORREO = "juan@miapp.com";
+
+    private final UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+    private final CredencialCache credencialCache = new CredencialCache(100);
+    private final RegistroPorLotes registroPorLotes = mock(RegistroPorLotes.class);
+    private final LecturasCoalescidas lecturasCoalescidas = new LecturasCoalescidas(2000);
+    private final ArchivoUsuarios archivoUsuarios = mock(ArchivoUsuarios.class);
+    private final BusquedaUsuarios busquedaUsuarios = mock(BusquedaUsuarios.class);
+    private final PerfilCache perfilCache = new PerfilCache(100);
+    private final InstantaneaCaches instantaneaCaches = mock(InstantaneaCaches.class);
+    private final RegistroDeAccesos registroDeAccesos = mock(RegistroDeAccesos.class);
+    private final ReplicaUsuarios replicaUsuarios = mock(ReplicaUsuarios.class);
+    private final BusInvalidacion busInvalidacion = mock(BusInvalidacion.class);
+    private final SesionesRefresh sesionesRefresh = mock(SesionesRefresh.class);
+
+    private final UsuarioServiceImpl usuarioService = new UsuarioServiceImpl(usuarioRepository, credencialCache,
+            registroPorLotes, lecturasCoalescidas, archivoUsuarios, busquedaUsuarios, perfilCache, instantaneaCaches,
+            registroDeAccesos, replicaUsuarios, busInvalidacion, sesionesRefresh, 500, 2);
+
+    @BeforeEach
+    void setUp() {
+        when(instantaneaCaches.vigente(any())).thenReturn(true);
+        when(archivoUsuarios.buscarCredencialPorCorreo(any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void unInicioDeSesionConcurrenteNoDejaEnCacheLaClaveAnteriorAUnCambio() throws Exception {
+        CountDownLatch lecturaEnCurso = new CountDownLatch(1);
+        CountDownLatch continuarLectura = new CountDownLatch(1);
+        when(usuarioRepository.buscarCredencialPorCorreo(CORREO))
+                .thenAnswer(invocacion -> {
+                    lecturaEnCurso.countDown();
+                    assertTrue(continuarLectura.await(5, TimeUnit.SECONDS));
+                    return Optional.of(credencial("claveAntigua"));
+                })
+                .thenReturn(Optional.of(credencial("claveNueva")));
+        when(usuarioRepository.existsById(7)).thenReturn(true);
+
+        CompletableFuture<Void> inicioDeSesion = CompletableFuture.runAsync(
+                () -> usuarioService.autenticarUsuario(CORREO, "claveAntigua"));
+        assertTrue(lecturaEnCurso.await(5, TimeUnit.SECONDS));
+        usuarioService.actualizarClave(7, "claveNueva");
+        continuarLectura.countDown();
+        inicioDeSesion.get(5, TimeUnit.SECONDS);
+
+        assertThrows(CredencialesInvalidasException.class,
+                () -> usuarioService.autenticarUsuario(CORREO, "claveAntigua"));
+        assertEquals(7, usuarioService.autenticarUsuario(CORREO, "claveNueva").getId());
+        verify(usuarioRepository, times(2)).buscarCredencialPorCorreo(CORREO);
+    }
+
+    @Test
+    void unaConsultaConcurrenteNoDejaEnCacheElPerfilDeUnUsuarioEliminado() throws Exception {
+        CountDownLatch lecturaEnCurso = new CountDownLatch(1);
+        CountDownLatch continuarLectura = new CountDownLatch(1);
+        Usuario usuario = new Usuario();
+        usuario.setId(7);
+        usuario.setCorreo(CORREO);
+        when(usuarioRepository.findById(7))
+                .thenAnswer(invocacion -> {
+                    lecturaEnCurso.countDown();
+                    assertTrue(continuarLectura.await(5, TimeUnit.SECONDS));
+                    return Optional.of(usuario);
+                })
+                .thenReturn(Optional.empty());
+        when(usuarioRepository.marcarComoEliminado(7)).thenReturn(1);
+
+        CompletableFuture<UserResponse> consulta = CompletableFuture.supplyAsync(
+                () -> usuarioService.obtenerUsuarioPorId(7));
+        assertTrue(lecturaEnCurso.await(5, TimeUnit.SECONDS));
+        usuarioService.eliminarUsuario(7);
+        continuarLectura.countDown();
+        assertEquals(7, consulta.get(5, TimeUnit.SECONDS).getId());
+
+        assertNull(perfilCache.obtener(7));
+        assertThrows(UsuarioNoEncontradoException.class, () -> usuarioService.obtenerUsuarioPorId(7));
+    }
+
+    @Test
+    void noSePuedeCambiarElCorreoAlDeUnUsuarioArchivado() {
+        Usuario usuario = new Usuario();
+        usuario.setId(7);
+        usuario.setCorreo(CORREO);
+        when(usuarioRepository.findById(7)).thenReturn(Optional.of(usuario));
+        when(archivoUsuarios.existeCorreo("archivado@miapp.com")).thenReturn(true);
+
+        assertThrows(CorreoYaRegistradoException.class,
+                () -> usuarioService.actualizarCorreo(7, " Archivado@MiApp.com "));
+
+        verify(usuarioRepository, never()).actualizarCorreo(any(), any());
+    }
+
+    @Test
+    void actualizarUnUsuarioArchivadoLoRestauraAntesDeModificarlo() {
+        Usuario usuario = new Usuario();
+        usuario.setId(7);
+        usuario.setCorreo(CORREO);
+        when(usuarioRepository.findById(7)).thenReturn(Optional.empty()).thenReturn(Optional.of(usuario));
+        when(archivoUsuarios.restaurar(7)).thenReturn(true);
+        when(usuarioRepository.save(usuario)).thenReturn(usuario);
+        RegisterRequest request = new RegisterRequest();
+        request.setNombre("Juana");
+
+        assertEquals("Juana", usuarioService.actualizarUsuario(7, request).getNombre());
+
+        verify(archivoUsuarios).restaurar(7);
+        verify(usuarioRepository).save(usuario);
+        verify(busInvalidacion).publicar(7);
+    }
+
+    @Test
+    void cambiarLaClaveDeUnUsuarioArchivadoLoRestauraYRevocaSusSesiones() {
+        when(usuarioRepository.existsById(7)).thenReturn(false);
+        when(archivoUsuarios.restaurar(7)).thenReturn(true);
+
+        usuarioService.actualizarClave(7, "claveNueva");
+
+        verify(usuarioRepository).actualizarClave(eq(7), any());
+        verify(replicaUsuarios).releer(List.of(7));
+        verify(sesionesRefresh).revocarUsuario(7);
+    }
+
+    @Test
+    void lasEscriturasSobreUnUsuarioQueNoEstaNiArchivadoDevuelven404() {
+        when(usuarioRepository.findById(7)).thenReturn(Optional.empty());
+        when(archivoUsuarios.restaurar(7)).thenReturn(false);
+
+        assertThrows(UsuarioNoEncontradoException.class, () -> usuarioService.cambiarRolDeUsuario(7, "administrador"));
+        assertThrows(UsuarioNoEncontradoException.class, () -> usuarioService.actualizarCorreo(7, "otro@miapp.com"));
+        assertThrows(UsuarioNoEncontradoException.class, () -> usuarioService.actualizarClave(7, "claveNueva"));
+
+        verify(usuarioRepository, never()).save(any());
+        verify(usuarioRepository, never()).actualizarClave(any(), any());
+    }
+
+    @Test
+    void eliminarUsuarioLoMarcaComoEliminadoYLoRetiraDeCachesIndiceYSesiones() {
+        credencialCache.guardar(credencial("clave"), credencialCache.generacion());
+        when(usuarioRepository.marcarComoEliminado(7)).thenReturn(1);
+
+        usuarioService.eliminarUsuario(7);
+
+        assertNull(credencialCache.obtener(CORREO));
+        verify(archivoUsuarios, never()).eliminar(anyInt());
+        verify(busquedaUsuarios).eliminar(7);
+        verify(replicaUsuarios).eliminar(7);
+        verify(busInvalidacion).publicar(7);
+        verify(sesionesRefresh).revocarUsuario(7);
+    }
+
+    @Test
+    void eliminarUsuarioBorraAlUsuarioArchivadoSiNoEstaEnLaTablaPrincipal() {
+        when(usuarioRepository.marcarComoEliminado(7)).thenReturn(0);
+        when(archivoUsuarios.eliminar(7)).thenReturn(true);
+
+        usuarioService.eliminarUsuario(7);
+
+        verify(busInvalidacion).publicar(7);
+        verify(sesionesRefresh).revocarUsuario(7);
+    }
+
+    @Test
+    void eliminarUnUsuarioInexistenteNoPublicaNiRevocaNada() {
+        when(usuarioRepository.marcarComoEliminado(7)).thenReturn(0);
+        when(archivoUsuarios.eliminar(7)).thenReturn(false);
+
+        assertThrows(UsuarioNoEncontradoException.class, () -> usuarioService.eliminarUsuario(7));
+
+        verify(busInvalidacion, never()).publicar(7);
+        verify(sesionesRefresh, never()).revocarUsuario(any());
+    }
+
+    @Test
+    void eliminarUsuariosProcesaBloquesSinRepetidosEnAmbasTablas() {
+        when(usuarioRepository.marcarComoEliminados(List.of(1, 2))).thenReturn(1);
+        when(usuarioRepository.marcarComoEliminados(List.of(3))).thenReturn(0);
+        when(archivoUsuarios.eliminar(List.of(1, 2))).thenReturn(1);
+        when(archivoUsuarios.eliminar(List.of(3))).thenReturn(1);
+
+        assertEquals(3, usuarioService.eliminarUsuarios(List.of(1, 2, 2, 3)));
+
+        verify(usuarioRepository, times(2)).marcarComoEliminados(anyList());
+        verify(archivoUsuarios, times(2)).eliminar(anyList());
+        for (int id = 1; id <= 3; id++) {
+            verify(busquedaUsuarios).eliminar(id);
+            verify(sesionesRefresh).revocarUsuario(id);
+        }
+        verify(busInvalidacion).publicar(List.of(1, 2, 3));
+    }
+
+    @Test
+    void eliminarUsuariosRechazaMasIdsDelMaximoSinTocarLaBaseDeDatos() {
+        List<Integer> ids = IntStream.rangeClosed(1, 501).boxed().toList();
+
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.eliminarUsuarios(ids));
+
+        verify(usuarioRepository, never()).marcarComoEliminados(anyList());
+    }
+
+    private static CredencialUsuario credencial(String clave) {
+        return new CredencialUsuario(7, CORREO, clave, "activo", "usuario");
+    }
+}
@@ -0,0 +1,72 @@
+package com.dev.sistemaautenticacion.service;
+
+import com.dev.sistemaautenticacion.cache.CredencialCache;
+import com.dev.sistemaautenticacion.dto.RegisterRequest;
+import com.dev.sistemaautenticacion.entity.Usuario;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static com.dev.sistemaautenticacion.monitoreo.AfirmacionesDeSentencias.conSentencias;
+
+/**
+ * Fija el número de sentencias SQL de los caminos críticos del servicio.
+ * Se ejecuta en cada compilación sobre una base de datos H2 en memoria en modo MySQL, creada por
+ * Hibernate a partir de las entidades; el número de sentencias no depende del motor.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sentencias;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "usuarios.consultas.monitoreo.habilitado=true",
+        "usuarios.instantanea.habilitada=false",
+        "usuarios.replica.habilitada=false",
+        "usuarios.sesiones.directorio=target/sentencias/sesiones"})
+class UsuarioServiceSentenciasTests {
+
+    private static final String CLAVE = "claveSegura123";
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private CredencialCache credencialCache;
+
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        RegisterRequest request = new RegisterRequest();
+        request.setNombre("Prueba");
+        request.setApellido("Sentencias");
+        request.setCorreo("sentencias-" + UUID.randomUUID() + "@miapp.com");
+        request.setClave(CLAVE);
+        request.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+        usuario = usuarioService.registrarUsuario(request);
+        credencialCache.limpiar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        usuarioService.eliminarUsuario(usuario.getId());
+    }
+
+    @Test
+    void autenticarUsuarioEjecutaUnaSolaConsulta() {
+        conSentencias(1, () -> usuarioService.autenticarUsuario(usuario.getCorreo(), CLAVE));
+    }
+
+    @Test
+    void autenticarUsuarioConCredencialEnCacheNoConsultaLaBaseDeDatos() {
+        usuarioService.autenticarUsuario(usuario.getCorreo(), CLAVE);
+        conSentencias(0, () -> usuarioService.autenticarUsuario(usuario.getCorreo(), CLAVE));
+    }
+}
@@ -0,0 +1,183 @@
+package com.dev.sistemaautenticacion.sesiones;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlmacenSesionesEnRegistroTests {
+
+    private static final int TAMANO_SEGMENTO = 4096;
+    private static final Instant AHORA = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Instant CADUCIDAD = AHORA.plus(Duration.ofDays(30));
+
+    @TempDir
+    Path directorio;
+
+    private long siguienteHuella;
+
+    @Test
+    void rotaElTokenVigenteYRevocaLaSesionSiSeReutiliza() {
+        AlmacenSesionesEnRegistro almacen = abrir(directorio);
+        Huella primera = huella();
+        Huella segunda = huella();
+        almacen.emitir(primera, 1L, 7, CADUCIDAD);
+
+        assertEquals(ResultadoRotacion.Tipo.ROTADO, almacen.rotar(primera, segunda, AHORA, CADUCIDAD).getTipo());
+        assertEquals(ResultadoRotacion.Tipo.REUTILIZADO, almacen.rotar(primera, huella(), AHORA, CADUCIDAD).getTipo());
+        assertEquals(ResultadoRotacion.Tipo.INVALIDO, almacen.rotar(segunda, huella(), AHORA, CADUCIDAD).getTipo());
+    }
+
+    @Test
+    void rechazaTokensCaducadosYDeUsuariosRevocados() {
+        AlmacenSesionesEnRegistro almacen = abrir(directorio);
+        Huella caducado = huella();
+        Huella deOtraSesion = huella();
+        almacen.emitir(caducado, 1L, 7, AHORA);
+        almacen.emitir(deOtraSesion, 2L, 8, CADUCIDAD);
+
+        assertEquals(1, almacen.revocarUsuario(8));
+        assertEquals(ResultadoRotacion.Tipo.INVALIDO, almacen.rotar(caducado, huella(), AHORA, CADUCIDAD).getTipo());
+        assertEquals(ResultadoRotacion.Tipo.INVALIDO, almacen.rotar(deOtraSesion, huella(), AHORA, CADUCIDAD).getTipo());
+    }
+
+    @Test
+    void recuperaElEstadoAlReabrirYPasaDeSegmento() {
+        AlmacenSesionesEnRegistro almacen = abrir(directorio);
+        List<Huella> vigentes = new ArrayList<>();
+        List<Huella> rotadas = new ArrayList<>();
+        for (long familia = 1; familia <= 200; familia++) {
+            Huella inicial = huella();
+            Huella nueva = huella();
+            almacen.emitir(inicial, familia, (int) familia, CADUCIDAD);
+            almacen.rotar(inicial, nueva, AHORA, CADUCIDAD);
+            rotadas.add(inicial);
+            vigentes.add(nueva);
+        }
+        almacen.revocarUsuario(1);
+
+        AlmacenSesionesEnRegistro reabierto = abrir(directorio);
+
+        assertEquals(199, reabierto.estadisticas().get("familias"));
+        assertEquals(ResultadoRotacion.Tipo.INVALIDO, reabierto.rotar(vigentes.get(0), huella(), AHORA, CADUCIDAD).getTipo());
+        assertEquals(ResultadoRotacion.Tipo.ROTADO, reabierto.rotar(vigentes.get(1), huella(), AHORA, CADUCIDAD).getTipo());
+        assertEquals(ResultadoRotacion.Tipo.REUTILIZADO, reabierto.rotar(rotadas.get(2), huella(), AHORA, CADUCIDAD).getTipo());
+    }
+
+    @Test
+    void ignoraUnRegistroEscritoAMedias() throws IOException {
+        AlmacenSesionesEnRegistro almacen = abrir(directorio);
+        Huella completa = huella();
+        Huella aMedias = huella();
+        almacen.emitir(completa, 1L, 7, CADUCIDAD);
+        almacen.emitir(aMedias, 2L, 8, CADUCIDAD);
+        // Simula una caída a mitad del último registro corrompiendo su CRC
+        Path segmento = segmentos(directorio).get(0);
+        int marco = 3 + 37 + 4;
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), 2L * marco - 1);
+        }
+
+        AlmacenSesionesEnRegistro reabierto = abrir(directorio);
+        Huella nueva = huella();
+        reabierto.emitir(nueva, 3L, 9, CADUCIDAD);
+        AlmacenSesionesEnRegistro otraVez = abrir(directorio);
+
+        assertEquals(ResultadoRotacion.Tipo.INVALIDO, otraVez.rotar(aMedias, huella(), AHORA, CADUCIDAD).getTipo());
+        assertEquals(ResultadoRotacion.Tipo.ROTADO, otraVez.rotar(completa, huella(), AHORA, CADUCIDAD).getTipo());
+        assertEquals(ResultadoRotacion.Tipo.ROTADO, otraVez.rotar(nueva, huella(), AHORA, CADUCIDAD).getTipo());
+    }
+
+    @Test
+    void laCompactacionConservaLasSesionesVigentesYLaDeteccionDeReutilizacion() {
+        AlmacenSesionesEnRegistro almacen = new AlmacenSesionesEnRegistro(directorio, TAMANO_SEGMENTO, 0);
+        almacen.recuperar();
+        Huella rotada = huella();
+        Huella vigente = huella();
+        almacen.emitir(rotada, 1L, 7, CADUCIDAD);
+        almacen.rotar(rotada, vigente, AHORA, CADUCIDAD);
+        for (long familia = 2; familia <= 300; familia++) {
+            almacen.emitir(huella(), familia, 8, AHORA.plusSeconds(1));
+        }
+        int segmentosAntes = (int) almacen.estadisticas().get("segmentos");
+
+        almacen.compactar(AHORA.plusSeconds(1));
+
+        assertTrue(segmentosAntes > 1);
+        assertEquals(1, almacen.estadisticas().get("segmentos"));
+        AlmacenSesionesEnRegistro reabierto = abrir(directorio);
+        assertEquals(2, reabierto.estadisticas().get("tokens"));
+        assertEquals(ResultadoRotacion.Tipo.REUTILIZADO, reabierto.rotar(rotada, huella(), AHORA, CADUCIDAD).getTipo());
+    }
+
+    @Test
+    void unaCompactacionInterrumpidaNoAfectaAlRegistro(@TempDir Path copia) {
+        RegistroSegmentado registro = new RegistroSegmentado(directorio, TAMANO_SEGMENTO);
+        registro.recuperar(datos -> { });
+        registro.agregar(new byte[]{1});
+        registro.agregar(new byte[]{2});
+
+        // Caída en mitad de la compactación: se copia el directorio con la base sin terminar
+        registro.compactar(escritor -> {
+            escritor.accept(new byte[]{3});
+            copiar(directorio, copia);
+        });
+        // Fallo del volcado: se deshace la compactación y se sigue anexando tras los registros anteriores
+        assertThrows(IllegalStateException.class, () -> registro.compactar(escritor -> {
+            escritor.accept(new byte[]{4});
+            throw new IllegalStateException("fallo simulado");
+        }));
+        registro.agregar(new byte[]{5});
+
+        assertEquals(List.of(1, 2), leer(copia));
+        assertEquals(List.of(3, 5), leer(directorio));
+    }
+
+    private AlmacenSesionesEnRegistro abrir(Path ruta) {
+        AlmacenSesionesEnRegistro almacen = new AlmacenSesionesEnRegistro(ruta, TAMANO_SEGMENTO, 100_000);
+        almacen.recuperar();
+        return almacen;
+    }
+
+    private Huella huella() {
+        siguienteHuella++;
+        return new Huella(siguienteHuella, -siguienteHuella);
+    }
+
+    private static List<Integer> leer(Path ruta) {
+        List<Integer> leidos = new ArrayList<>();
+        new RegistroSegmentado(ruta, TAMANO_SEGMENTO).recuperar(datos -> leidos.add((int) datos.get()));
+        return leidos;
+    }
+
+    private static List<Path> segmentos(Path ruta) throws IOException {
+        try (Stream<Path> archivos = Files.list(ruta)) {
+            return archivos.sorted().toList();
+        }
+    }
+
+    private static void copiar(Path origen, Path destino) {
+        try {
+            for (Path segmento : segmentos(origen)) {
+                Files.copy(segmento, destino.resolve(segmento.getFileName()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
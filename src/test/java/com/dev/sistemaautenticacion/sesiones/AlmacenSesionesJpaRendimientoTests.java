@@ -0,0 +1,40 @@
+package com.dev.sistemaautenticacion.sesiones;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Mide los refrescos por segundo del almacén de sesiones en tabla con la misma carga que
+ * {@link AlmacenSesionesRendimientoTests}, reducida porque cada refresco son varias sentencias.
+ * Requiere la base de datos MySQL configurada; ejecutar con:
+ * mvn test -Dtest='AlmacenSesiones*RendimientoTests' -Dpruebas.rendimiento=true -Dpruebas.mysql=true
+ */
+@SpringBootTest(properties = "usuarios.sesiones.almacen=jpa")
+@EnabledIfSystemProperty(named = "pruebas.mysql", matches = "true")
+@EnabledIfSystemProperty(named = "pruebas.rendimiento", matches = "true")
+class AlmacenSesionesJpaRendimientoTests {
+
+    private static final int HILOS = 8;
+    private static final int SESIONES = 10_000;
+    private static final int ROTACIONES_POR_HILO = 2_500;
+
+    @Autowired
+    private AlmacenSesiones almacenSesiones;
+
+    @AfterEach
+    void tearDown() {
+        almacenSesiones.revocarUsuario(AlmacenSesionesRendimientoTests.USUARIO);
+    }
+
+    @Test
+    void mideElAlmacenEnTabla() throws Exception {
+        double refrescosPorSegundo = AlmacenSesionesRendimientoTests.refrescosPorSegundo(
+                almacenSesiones, HILOS, SESIONES, ROTACIONES_POR_HILO);
+
+        System.out.printf("Almacén en tabla: %d hilos, %,d sesiones, %.0f refrescos/s%n",
+                HILOS, SESIONES, refrescosPorSegundo);
+    }
+}
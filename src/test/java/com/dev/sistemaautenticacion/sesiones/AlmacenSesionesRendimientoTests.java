@@ -0,0 +1,108 @@
+package com.dev.sistemaautenticacion.sesiones;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mide los refrescos por segundo del almacén de sesiones en registro con varios hilos concurrentes.
+ * Ejecutar con: mvn test -Dtest='AlmacenSesiones*RendimientoTests' -Dpruebas.rendimiento=true
+ * (añadir -Dpruebas.mysql=true para comparar con el almacén en tabla).
+ */
+@EnabledIfSystemProperty(named = "pruebas.rendimiento", matches = "true")
+class AlmacenSesionesRendimientoTests {
+
+    static final int USUARIO = -1;
+
+    private static final int TAMANO_SEGMENTO = 16 * 1024 * 1024;
+    private static final int HILOS = 8;
+    private static final int SESIONES = 100_000;
+    private static final int ROTACIONES_POR_HILO = 250_000;
+
+    @Test
+    void mideElAlmacenEnRegistro(@TempDir Path directorio) throws Exception {
+        AlmacenSesionesEnRegistro almacen = new AlmacenSesionesEnRegistro(directorio, TAMANO_SEGMENTO, 100_000);
+        almacen.recuperar();
+        double refrescosPorSegundo = refrescosPorSegundo(almacen, HILOS, SESIONES, ROTACIONES_POR_HILO);
+        Map<String, Object> antes = almacen.estadisticas();
+
+        long inicioCompactacion = System.nanoTime();
+        almacen.compactar(Instant.now());
+        long compactacionMs = (System.nanoTime() - inicioCompactacion) / 1_000_000;
+        long inicioRecuperacion = System.nanoTime();
+        AlmacenSesionesEnRegistro reabierto = new AlmacenSesionesEnRegistro(directorio, TAMANO_SEGMENTO, 100_000);
+        reabierto.recuperar();
+        long recuperacionMs = (System.nanoTime() - inicioRecuperacion) / 1_000_000;
+
+        assertEquals(SESIONES, reabierto.estadisticas().get("familias"));
+        System.out.printf("Almacén en registro: %d hilos, %,d sesiones, %.0f refrescos/s; registro %,d bytes en %d "
+                        + "segmentos, compactado a %,d bytes en %d ms, recuperado en %d ms%n",
+                HILOS, SESIONES, refrescosPorSegundo, (long) antes.get("bytesRegistro"), (int) antes.get("segmentos"),
+                (long) reabierto.estadisticas().get("bytesRegistro"), compactacionMs, recuperacionMs);
+    }
+
+    /**
+     * Abre las sesiones y las refresca desde varios hilos; cada hilo rota en turno las sesiones que le
+     * corresponden, siempre con su token vigente. Las huellas son aleatorias, de modo que se mide solo
+     * el almacén y no el cálculo de SHA-256.
+     *
+     * @return Los refrescos por segundo de la fase concurrente.
+     */
+    static double refrescosPorSegundo(AlmacenSesiones almacen, int hilos, int sesiones, int rotacionesPorHilo)
+            throws Exception {
+        Instant expiracion = Instant.now().plus(Duration.ofDays(30));
+        long primeraFamilia = ThreadLocalRandom.current().nextLong(Long.MAX_VALUE / 2);
+        Huella[] vigentes = new Huella[sesiones];
+        for (int i = 0; i < sesiones; i++) {
+            vigentes[i] = aleatoria();
+            almacen.emitir(vigentes[i], primeraFamilia + i, USUARIO, expiracion);
+        }
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            long inicio = System.nanoTime();
+            for (int hilo = 0; hilo < hilos; hilo++) {
+                int primera = hilo;
+                tareas.add(ejecutor.submit(() -> {
+                    for (int rotacion = 0, sesion = primera; rotacion < rotacionesPorHilo; rotacion++) {
+                        Huella nueva = aleatoria();
+                        ResultadoRotacion resultado = almacen.rotar(vigentes[sesion], nueva, Instant.now(), expiracion);
+                        if (resultado.getTipo() != ResultadoRotacion.Tipo.ROTADO) {
+                            throw new AssertionError("Rotación fallida: " + resultado.getTipo());
+                        }
+                        vigentes[sesion] = nueva;
+                        sesion += hilos;
+                        if (sesion >= sesiones) {
+                            sesion = primera;
+                        }
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+            return (double) hilos * rotacionesPorHilo * 1e9 / (System.nanoTime() - inicio);
+        } finally {
+            ejecutor.shutdown();
+        }
+    }
+
+    private static Huella aleatoria() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        return new Huella(aleatorio.nextLong(), aleatorio.nextLong());
+    }
+}
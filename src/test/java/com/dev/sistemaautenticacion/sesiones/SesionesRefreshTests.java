@@ -0,0 +1,88 @@
+package com.dev.sistemaautenticacion.sesiones;
+
+import com.dev.sistemaautenticacion.cache.CredencialCache;
+import com.dev.sistemaautenticacion.cache.PerfilCache;
+import com.dev.sistemaautenticacion.dto.SesionResponse;
+import com.dev.sistemaautenticacion.exception.RefreshTokenInvalidoException;
+import com.dev.sistemaautenticacion.invalidacion.BusInvalidacion;
+import com.dev.sistemaautenticacion.invalidacion.CanalInvalidacion;
+import com.dev.sistemaautenticacion.invalidacion.CanalInvalidacionLocal;
+import com.dev.sistemaautenticacion.replica.ReplicaUsuarios;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SesionesRefreshTests {
+
+    @TempDir
+    Path directorio;
+
+    private final List<CanalInvalidacion> canales = new ArrayList<>();
+    private final List<BusInvalidacion> buses = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (BusInvalidacion bus : buses) {
+            bus.detener();
+        }
+        canales.forEach(CanalInvalidacion::close);
+    }
+
+    @Test
+    void revocarEnUnaInstanciaRevocaLasSesionesEmitidasEnOtra() throws InterruptedException {
+        BusInvalidacion busA = bus("sesiones");
+        BusInvalidacion busB = bus("sesiones");
+        SesionesRefresh instanciaA = new SesionesRefresh(almacen("a"), busA, 30);
+        SesionesRefresh instanciaB = new SesionesRefresh(almacen("b"), busB, 30);
+        SesionResponse enB = instanciaB.iniciar(7);
+        SesionResponse deOtroUsuario = instanciaB.iniciar(8);
+
+        instanciaA.revocarUsuario(7);
+        busA.detener(); // envía las revocaciones pendientes
+
+        assertThrows(RefreshTokenInvalidoException.class, () -> instanciaB.refrescar(enB.getRefreshToken()));
+        assertEquals(8, instanciaB.refrescar(deOtroUsuario.getRefreshToken()).getUsuarioId());
+    }
+
+    @Test
+    void conUnAlmacenCompartidoLasRevocacionesNoSePublican() {
+        AlmacenSesiones compartido = mock(AlmacenSesiones.class);
+        when(compartido.compartido()).thenReturn(true);
+        BusInvalidacion bus = mock(BusInvalidacion.class);
+        SesionesRefresh sesiones = new SesionesRefresh(compartido, bus, 30);
+
+        sesiones.revocarUsuario(7);
+
+        verify(compartido).revocarUsuario(7);
+        verify(bus, never()).alRevocar(any());
+        verify(bus, never()).publicarRevocacion(any());
+    }
+
+    private BusInvalidacion bus(String grupo) {
+        CanalInvalidacion canal = new CanalInvalidacionLocal(grupo);
+        canales.add(canal);
+        BusInvalidacion bus = new BusInvalidacion(canal, new CredencialCache(100), new PerfilCache(100),
+                new ReplicaUsuarios(null, false, 60, 1000), 60_000, 60_000, 16, 5000);
+        bus.iniciar();
+        buses.add(bus);
+        return bus;
+    }
+
+    private AlmacenSesionesEnRegistro almacen(String nombre) {
+        AlmacenSesionesEnRegistro almacen = new AlmacenSesionesEnRegistro(directorio.resolve(nombre), 4096, 1000);
+        almacen.recuperar();
+        return almacen;
+    }
+}